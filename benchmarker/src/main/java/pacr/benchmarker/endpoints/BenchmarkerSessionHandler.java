@@ -2,13 +2,17 @@ package pacr.benchmarker.endpoints;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.messaging.simp.stomp.ConnectionLostException;
 import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompHeaders;
 import org.springframework.messaging.simp.stomp.StompSession;
 import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
 
+import java.util.Objects;
+
 /**
  * Handles benchmarker sessions.
+ * Tells the listener when the connection to the Web-App is lost.
  *
  * @author Pavel Zwerschke
  */
@@ -16,6 +20,18 @@ public class BenchmarkerSessionHandler extends StompSessionHandlerAdapter {
 
     private static final Logger LOGGER = LogManager.getLogger(BenchmarkerSessionHandler.class);
 
+    private Runnable connectionLostListener;
+
+    /**
+     * Creates an instance of BenchmarkerSessionHandler.
+     * @param connectionLostListener gets called when the connection is lost.
+     */
+    public BenchmarkerSessionHandler(Runnable connectionLostListener) {
+        Objects.requireNonNull(connectionLostListener);
+
+        this.connectionLostListener = connectionLostListener;
+    }
+
     @Override
     public void afterConnected(StompSession session, StompHeaders connectedHeaders) {
         LOGGER.info("New session established: " + session.getSessionId());
@@ -27,4 +43,14 @@ public class BenchmarkerSessionHandler extends StompSessionHandlerAdapter {
         LOGGER.error("Got an exception", exception);
     }
 
+    @Override
+    public void handleTransportError(StompSession session, Throwable exception) {
+        if (exception instanceof ConnectionLostException || !session.isConnected()) {
+            LOGGER.error("Lost the connection to the Web-App.");
+            connectionLostListener.run();
+        } else {
+            LOGGER.error("Got a transport error", exception);
+        }
+    }
+
 }
@@ -3,6 +3,7 @@ package pacr.benchmarker.endpoints;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.converter.CompositeMessageConverter;
 import org.springframework.messaging.converter.MappingJackson2MessageConverter;
 import org.springframework.messaging.simp.stomp.StompSession;
 import org.springframework.stereotype.Controller;
@@ -12,18 +13,20 @@ import org.springframework.web.socket.sockjs.client.RestTemplateXhrTransport;
 import org.springframework.web.socket.sockjs.client.SockJsClient;
 import org.springframework.web.socket.sockjs.client.Transport;
 import org.springframework.web.socket.sockjs.client.WebSocketTransport;
-import pacr.benchmarker.services.SystemEnvironment;
+import pacr.benchmarker.services.JobExecutor;
 
 import javax.validation.constraints.NotNull;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
-import static java.lang.System.exit;
-
 /**
  * Creates a connection between Benchmarker and Web-App.
+ * If the connection can't be established or is lost, the benchmarker connects again after a delay which doubles with
+ * every failed attempt. After connecting it registers again and sends the results which weren't acknowledged yet.
  *
  * @author Pavel Zwerschke
  */
@@ -32,69 +35,142 @@ public class BenchmarkingController {
 
     private static final Logger LOGGER = LogManager.getLogger(BenchmarkingController.class);
 
+    private static final long CONNECT_TIMEOUT = 10;
+    private static final long INITIAL_RECONNECT_DELAY = 1;
+    private static final long MAX_RECONNECT_DELAY = 300;
+
     private NewJobHandler newJobHandler;
+    private JobExecutor jobExecutor;
     private SSHKeyHandler sshKeyHandler;
     private RegisteredHandler registeredHandler;
     private UnregisteredHandler unregisteredHandler;
+    private ResultEncodingsHandler resultEncodingsHandler;
+    private ResultAckHandler resultAckHandler;
+    private PrefetchJobHandler prefetchJobHandler;
+    private RevokeJobHandler revokeJobHandler;
     private String ipWebApp;
 
+    private ScheduledExecutorService reconnectExecutor;
+    private long reconnectDelay = INITIAL_RECONNECT_DELAY;
+    private boolean reconnectScheduled;
+
+    // counts the connection attempts, so a lost connection is only handled for the current attempt
+    private int connectionAttempt;
+
     /**
      * Initializes an instance of BenchmarkingController.
      * @param newJobHandler is the handler for new jobs.
+     * @param jobExecutor executes the jobs in the slots of the benchmarker.
      * @param sshKeyHandler is the handler for updating the ssh key.
      * @param registeredHandler gets called when /register is called.
      * @param unregisteredHandler gets called when /unregister is called.
+     * @param resultEncodingsHandler gets the encodings of results the Web-App accepts.
+     * @param resultAckHandler gets the acknowledgements of results.
+     * @param prefetchJobHandler gets the jobs which are prepared before they start.
+     * @param revokeJobHandler gets the prepared jobs which won't start.
      * @param ipWebApp is the ip address with port of the Web-App.
      */
-    public BenchmarkingController(@NotNull NewJobHandler newJobHandler, @NotNull SSHKeyHandler sshKeyHandler,
+    public BenchmarkingController(@NotNull NewJobHandler newJobHandler, @NotNull JobExecutor jobExecutor,
+                                  @NotNull SSHKeyHandler sshKeyHandler,
                                   @NotNull RegisteredHandler registeredHandler,
                                   @NotNull UnregisteredHandler unregisteredHandler,
+                                  @NotNull ResultEncodingsHandler resultEncodingsHandler,
+                                  @NotNull ResultAckHandler resultAckHandler,
+                                  @NotNull PrefetchJobHandler prefetchJobHandler,
+                                  @NotNull RevokeJobHandler revokeJobHandler,
                                   @NotNull @Value("${ipWebApp}") String ipWebApp) {
         Objects.requireNonNull(newJobHandler);
+        Objects.requireNonNull(jobExecutor);
         Objects.requireNonNull(sshKeyHandler);
         Objects.requireNonNull(registeredHandler);
         Objects.requireNonNull(unregisteredHandler);
+        Objects.requireNonNull(resultEncodingsHandler);
+        Objects.requireNonNull(resultAckHandler);
+        Objects.requireNonNull(prefetchJobHandler);
+        Objects.requireNonNull(revokeJobHandler);
         Objects.requireNonNull(ipWebApp);
 
         this.newJobHandler = newJobHandler;
+        this.jobExecutor = jobExecutor;
         this.sshKeyHandler = sshKeyHandler;
         this.registeredHandler = registeredHandler;
         this.unregisteredHandler = unregisteredHandler;
+        this.resultEncodingsHandler = resultEncodingsHandler;
+        this.resultAckHandler = resultAckHandler;
+        this.prefetchJobHandler = prefetchJobHandler;
+        this.revokeJobHandler = revokeJobHandler;
         this.ipWebApp = ipWebApp;
+        this.reconnectExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reconnect");
+            thread.setDaemon(true);
+            return thread;
+        });
 
         openConnection();
     }
 
     /**
-     * Opens a connection between Benchmarker and Web-App.
+     * Opens a connection between Benchmarker and Web-App. If it fails another attempt is scheduled.
      */
-    public void openConnection() {
+    public synchronized void openConnection() {
+        reconnectScheduled = false;
+        int attempt = ++connectionAttempt;
+
         List<Transport> transports = new ArrayList<>(2);
         transports.add(new WebSocketTransport(new StandardWebSocketClient()));
         transports.add(new RestTemplateXhrTransport());
 
         SockJsClient sockJsClient = new SockJsClient(transports);
         WebSocketStompClient stompClient = new WebSocketStompClient(sockJsClient);
-        stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+        // results are sent in the compact encoding if the Web-App accepts it and as JSON otherwise
+        stompClient.setMessageConverter(new CompositeMessageConverter(List.of(new JobResultMessageConverter(),
+                new MappingJackson2MessageConverter())));
 
         StompSession session;
 
         String url = "ws://" + ipWebApp + "/connect";
         try {
-            session = stompClient.connect(url, new BenchmarkerSessionHandler()).get(1, TimeUnit.SECONDS);
+            session = stompClient.connect(url, new BenchmarkerSessionHandler(() -> connectionLost(attempt)))
+                    .get(CONNECT_TIMEOUT, TimeUnit.SECONDS);
 
             newJobHandler.setSession(session);
 
             session.subscribe("/user/queue/registered", registeredHandler);
             session.subscribe("/user/queue/unregistered", unregisteredHandler);
+            session.subscribe("/user/queue/resultEncodings", resultEncodingsHandler);
+            session.subscribe("/user/queue/resultAck", resultAckHandler);
             session.subscribe("/user/queue/newJob", newJobHandler);
+            session.subscribe("/user/queue/prefetchJob", prefetchJobHandler);
+            session.subscribe("/user/queue/revokeJob", revokeJobHandler);
             session.subscribe("/topic/sshKey", sshKeyHandler);
 
-            session.send("/app/register", SystemEnvironment.getInstance());
+            session.send("/app/register", jobExecutor.getSystemEnvironment());
+
+            newJobHandler.resendResults();
+
+            reconnectDelay = INITIAL_RECONNECT_DELAY;
         } catch (Exception ex) {
-            LOGGER.error("Could not connect with PACR-Web-App, exiting.");
-            exit(1);
+            LOGGER.error("Could not connect with PACR-Web-App, trying again in {} second(s).", reconnectDelay);
+            scheduleReconnect();
         }
     }
 
+    private synchronized void connectionLost(int attempt) {
+        // a failed attempt calls this as well, but it already scheduled the next attempt
+        if (attempt == connectionAttempt) {
+            LOGGER.error("Lost the connection with PACR-Web-App, reconnecting in {} second(s).", reconnectDelay);
+            scheduleReconnect();
+        }
+    }
+
+    private void scheduleReconnect() {
+        if (reconnectScheduled) {
+            return;
+        }
+
+        reconnectScheduled = true;
+        reconnectExecutor.schedule(this::openConnection, reconnectDelay, TimeUnit.SECONDS);
+        reconnectDelay = Math.min(2 * reconnectDelay, MAX_RECONNECT_DELAY);
+    }
+
 }
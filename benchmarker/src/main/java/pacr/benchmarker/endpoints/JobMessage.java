@@ -6,7 +6,8 @@ import lombok.NoArgsConstructor;
 
 /**
  * Represents a job message from the Web-App.
- * Contains a repository pull URL and a commit hash.
+ * Contains a repository pull URL, a commit hash and the time in seconds after which the job is stopped.
+ * A timeout of 0 means that the job is not stopped. The slot is the slot of the benchmarker which runs the job.
  *
  * @author Pavel Zwerschke
  */
@@ -17,5 +18,7 @@ public class JobMessage {
 
     private String repository;
     private String commitHash;
+    private long timeout;
+    private int slot;
 
 }
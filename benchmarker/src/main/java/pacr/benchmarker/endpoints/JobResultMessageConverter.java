@@ -0,0 +1,194 @@
+package pacr.benchmarker.endpoints;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.AbstractMessageConverter;
+import org.springframework.util.MimeType;
+import pacr.benchmarker.services.JobResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts {@link JobResult}s into the compact encoding which the Web-App accepts besides JSON.
+ *
+ * The measurements of every benchmark property are stored as a column compressed by {@link ResultColumnCodec}. The
+ * rest of the result is stored as a JSON header, which also lists the benchmark and property of every column.
+ * Properties with measurements which are not numbers stay in the header. The frame is sent as Base64 text because
+ * the SockJS transport only carries text.
+ *
+ * Frame: magic number, length of the header, header, then the length and bytes of every column.
+ */
+class JobResultMessageConverter extends AbstractMessageConverter {
+
+    /**
+     * The content type of results in the compact encoding.
+     */
+    static final MimeType MIME_TYPE = new MimeType("application", "vnd.pacr.result");
+
+    private static final Logger LOGGER = LogManager.getLogger(JobResultMessageConverter.class);
+
+    private static final int MAGIC = 0x50524231;
+
+    private static final String RESULT = "result";
+    private static final String COLUMNS = "columns";
+    private static final String BENCHMARKING_RESULT = "benchmarkingResult";
+    private static final String BENCHMARKS = "benchmarks";
+    private static final String PROPERTIES = "properties";
+    private static final String RESULTS = "results";
+
+    private final ObjectMapper mapper;
+
+    /**
+     * Creates a new JobResultMessageConverter.
+     */
+    JobResultMessageConverter() {
+        super(MIME_TYPE);
+
+        // only messages which are marked as compact results are converted
+        setStrictContentTypeMatch(true);
+
+        this.mapper = new ObjectMapper();
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return JobResult.class == clazz;
+    }
+
+    @Override
+    protected Object convertToInternal(Object payload, MessageHeaders headers, Object conversionHint) {
+        try {
+            return Base64.getEncoder().encode(encode(mapper.valueToTree(payload)));
+        } catch (IOException | IllegalArgumentException e) {
+            LOGGER.error("Could not encode a compact result.", e);
+            return null;
+        }
+    }
+
+    /**
+     * @param result the JSON of a result. The measurements are removed from it.
+     * @return the frame of the result.
+     */
+    byte[] encode(ObjectNode result) throws IOException {
+        ArrayNode columnPaths = mapper.createArrayNode();
+        List<byte[]> columns = new ArrayList<>();
+
+        JsonNode benchmarks = result.path(BENCHMARKING_RESULT).path(BENCHMARKS);
+        Iterator<Map.Entry<String, JsonNode>> benchmarkIterator = benchmarks.fields();
+
+        while (benchmarkIterator.hasNext()) {
+            Map.Entry<String, JsonNode> benchmark = benchmarkIterator.next();
+            Iterator<Map.Entry<String, JsonNode>> propertyIterator = benchmark.getValue().path(PROPERTIES)
+                    .fields();
+
+            while (propertyIterator.hasNext()) {
+                Map.Entry<String, JsonNode> property = propertyIterator.next();
+                double[] values = toValues(property.getValue().get(RESULTS));
+
+                if (values != null) {
+                    columnPaths.addArray().add(benchmark.getKey()).add(property.getKey());
+                    columns.add(ResultColumnCodec.encode(values));
+                    ((ObjectNode) property.getValue()).remove(RESULTS);
+                }
+            }
+        }
+
+        ObjectNode header = mapper.createObjectNode();
+        header.set(RESULT, result);
+        header.set(COLUMNS, columnPaths);
+        byte[] headerBytes = mapper.writeValueAsBytes(header);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+
+        output.writeInt(MAGIC);
+        output.writeInt(headerBytes.length);
+        output.write(headerBytes);
+        for (byte[] column : columns) {
+            output.writeInt(column.length);
+            output.write(column);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @return the measurements or null if they are not all numbers.
+     */
+    private double[] toValues(JsonNode results) {
+        if (results == null || !results.isArray()) {
+            return null;
+        }
+
+        double[] values = new double[results.size()];
+        for (int i = 0; i < values.length; i++) {
+            if (!results.get(i).isNumber()) {
+                return null;
+            }
+            values[i] = results.get(i).doubleValue();
+        }
+
+        return values;
+    }
+
+    /**
+     * @param frame the frame of a result.
+     * @return the JSON of the result.
+     */
+    JsonNode decode(byte[] frame) throws IOException {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(frame));
+
+        if (input.readInt() != MAGIC) {
+            throw new IllegalArgumentException("The frame is not a compact result.");
+        }
+
+        JsonNode header = mapper.readTree(readBlock(input));
+        JsonNode result = header.path(RESULT);
+
+        if (!result.isObject()) {
+            throw new IllegalArgumentException("The frame contains no result.");
+        }
+
+        JsonNode benchmarks = result.path(BENCHMARKING_RESULT).path(BENCHMARKS);
+
+        for (JsonNode columnPath : header.path(COLUMNS)) {
+            JsonNode property = benchmarks.path(columnPath.path(0).asText()).path(PROPERTIES)
+                    .path(columnPath.path(1).asText());
+
+            if (!property.isObject()) {
+                throw new IllegalArgumentException("The column " + columnPath + " belongs to no property.");
+            }
+
+            ArrayNode results = ((ObjectNode) property).putArray(RESULTS);
+            for (double value : ResultColumnCodec.decode(readBlock(input))) {
+                results.add(value);
+            }
+        }
+
+        return result;
+    }
+
+    private static byte[] readBlock(DataInputStream input) throws IOException {
+        int length = input.readInt();
+
+        if (length < 0 || length > input.available()) {
+            throw new IllegalArgumentException("The length of a block is not valid.");
+        }
+
+        return input.readNBytes(length);
+    }
+}
@@ -1,33 +1,77 @@
 package pacr.benchmarker.endpoints;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.converter.MessageConversionException;
 import org.springframework.messaging.simp.stomp.StompFrameHandler;
 import org.springframework.messaging.simp.stomp.StompHeaders;
 import org.springframework.messaging.simp.stomp.StompSession;
 import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
 import pacr.benchmarker.services.IJobResultSender;
 import pacr.benchmarker.services.JobExecutor;
 import pacr.benchmarker.services.JobResult;
+import pacr.benchmarker.services.ResultSpool;
 
 import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Handles new jobs and dispatches them.
+ * Handles new jobs and dispatches them to the slot they belong to.
+ * While a job is executed a heartbeat is sent to the Web-App periodically, so it knows the job is still running.
+ * Results are written to the spool before they are sent, so they can be sent again after the connection was lost.
  *
  * @author Pavel Zwerschke
  */
 @Component
 public class NewJobHandler implements StompFrameHandler, IJobResultSender {
 
+    private static final Logger LOGGER = LogManager.getLogger(NewJobHandler.class);
+
+    private static final String HEARTBEAT_DESTINATION = "/app/heartbeat";
+    private static final String SLOT_HEADER = "slot";
+    private static final String RESULT_DESTINATION = "/app/receiveResults";
+    private static final String PARTIAL_RESULT_DESTINATION = "/app/receivePartialResults";
+
     private StompSession session;
     private JobExecutor jobExecutor;
+    private ResultSpool resultSpool;
+    private long heartbeatInterval;
+    private ScheduledExecutorService heartbeatExecutor;
+
+    // JSON until the Web-App tells which encodings it accepts
+    private volatile MimeType resultContentType = MimeTypeUtils.APPLICATION_JSON;
 
     /**
      * Creates an instance of NewJobHandler.
      * @param jobExecutor will execute jobs.
+     * @param resultSpool keeps the results until the Web-App acknowledged them.
+     * @param heartbeatInterval is the time in seconds between two heartbeats.
      */
-    public NewJobHandler(JobExecutor jobExecutor) {
+    public NewJobHandler(JobExecutor jobExecutor, ResultSpool resultSpool,
+                         @Value("${heartbeatInterval}") long heartbeatInterval) {
+        Objects.requireNonNull(resultSpool);
+        if (heartbeatInterval <= 0) {
+            throw new IllegalArgumentException("The heartbeat interval must be positive.");
+        }
+
         this.jobExecutor = jobExecutor;
+        this.resultSpool = resultSpool;
         this.jobExecutor.setResultSender(this);
+        this.heartbeatInterval = heartbeatInterval;
+        this.heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     /**
@@ -38,6 +82,16 @@ public class NewJobHandler implements StompFrameHandler, IJobResultSender {
         this.session = session;
     }
 
+    /**
+     * Sets the content type in which results are sent to the Web-App.
+     * @param resultContentType is the content type.
+     */
+    public void setResultContentType(MimeType resultContentType) {
+        Objects.requireNonNull(resultContentType);
+
+        this.resultContentType = resultContentType;
+    }
+
     @Override
     public Type getPayloadType(StompHeaders stompHeaders) {
         return JobMessage.class;
@@ -47,12 +101,86 @@ public class NewJobHandler implements StompFrameHandler, IJobResultSender {
     public void handleFrame(StompHeaders stompHeaders, Object o) {
         JobMessage job = (JobMessage) o;
 
-        jobExecutor.executeJob(job.getRepository(), job.getCommitHash());
+        StompHeaders heartbeatHeaders = new StompHeaders();
+        heartbeatHeaders.setDestination(HEARTBEAT_DESTINATION);
+        heartbeatHeaders.set(SLOT_HEADER, String.valueOf(job.getSlot()));
+
+        ScheduledFuture<?> heartbeat = heartbeatExecutor.scheduleAtFixedRate(
+                () -> send(heartbeatHeaders, job.getCommitHash()),
+                heartbeatInterval, heartbeatInterval, TimeUnit.SECONDS);
+
+        // the job runs in the thread of its slot, so the jobs of the other slots can be received meanwhile
+        jobExecutor.submitJob(job.getRepository(), job.getCommitHash(), job.getTimeout(), job.getSlot())
+                .whenComplete((result, exception) -> heartbeat.cancel(false));
     }
 
     @Override
     public void sendJobResults(JobResult result) {
-        session.send("/app/receiveResults", result);
+        if (result.getAttemptId() != null) {
+            resultSpool.add(result);
+        }
+
+        if (!sendResults(RESULT_DESTINATION, result)) {
+            LOGGER.warn("Could not send the result of {}, it is sent again after reconnecting.",
+                    result.getCommitHash());
+        }
+    }
+
+    /**
+     * Sends the results which the Web-App didn't acknowledge yet again. Called after a reconnect.
+     */
+    public void resendResults() {
+        List<JobResult> pendingResults = resultSpool.getPendingResults();
+
+        if (!pendingResults.isEmpty()) {
+            LOGGER.info("Sending {} result(s) again.", pendingResults.size());
+        }
+
+        for (JobResult result : pendingResults) {
+            sendResults(RESULT_DESTINATION, result);
+        }
+    }
+
+    @Override
+    public void sendPartialJobResults(JobResult result) {
+        sendResults(PARTIAL_RESULT_DESTINATION, result);
+    }
+
+    private boolean sendResults(String destination, JobResult result) {
+        StompHeaders headers = new StompHeaders();
+        headers.setDestination(destination);
+        headers.setContentType(resultContentType);
+
+        try {
+            return send(headers, result);
+        } catch (MessageConversionException e) {
+            LOGGER.error("Could not encode the result of {} as {}, sending it as JSON.", result.getCommitHash(),
+                    resultContentType);
+
+            StompHeaders jsonHeaders = new StompHeaders();
+            jsonHeaders.setDestination(destination);
+            jsonHeaders.setContentType(MimeTypeUtils.APPLICATION_JSON);
+
+            return send(jsonHeaders, result);
+        }
+    }
+
+    /**
+     * @return whether the message was sent. It is not sent if the connection is lost.
+     */
+    private synchronized boolean send(StompHeaders headers, Object payload) {
+        if (session == null || !session.isConnected()) {
+            return false;
+        }
+
+        // the slots send messages at the same time
+        try {
+            session.send(headers, payload);
+            return true;
+        } catch (MessageDeliveryException | IllegalStateException e) {
+            LOGGER.error("Could not send a message to {}.", headers.getDestination());
+            return false;
+        }
     }
 
 }
@@ -0,0 +1,49 @@
+package pacr.benchmarker.endpoints;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.stereotype.Component;
+import pacr.benchmarker.services.JobExecutor;
+
+import java.lang.reflect.Type;
+import java.util.Objects;
+
+/**
+ * Handles the jobs which the Web-App announces before they start.
+ * Their commits are fetched and checked out in the background while the slots run their current jobs, so the jobs
+ * can start right away once the Web-App sends them.
+ */
+@Component
+public class PrefetchJobHandler implements StompFrameHandler {
+
+    private static final Logger LOGGER = LogManager.getLogger(PrefetchJobHandler.class);
+
+    private JobExecutor jobExecutor;
+
+    /**
+     * Creates an instance of PrefetchJobHandler.
+     * @param jobExecutor prepares the jobs.
+     */
+    public PrefetchJobHandler(JobExecutor jobExecutor) {
+        Objects.requireNonNull(jobExecutor);
+
+        this.jobExecutor = jobExecutor;
+    }
+
+    @Override
+    public Type getPayloadType(StompHeaders headers) {
+        return JobMessage.class;
+    }
+
+    @Override
+    public void handleFrame(StompHeaders headers, Object payload) {
+        JobMessage job = (JobMessage) payload;
+
+        LOGGER.info("The Web-App announced {} as next job of slot {}.", job.getCommitHash(), job.getSlot());
+
+        jobExecutor.prefetchJob(job.getRepository(), job.getCommitHash());
+    }
+
+}
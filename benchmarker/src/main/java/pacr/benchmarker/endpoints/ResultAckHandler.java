@@ -0,0 +1,48 @@
+package pacr.benchmarker.endpoints;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.stereotype.Component;
+import pacr.benchmarker.services.ResultSpool;
+
+import java.lang.reflect.Type;
+import java.util.Objects;
+
+/**
+ * Handles the acknowledgements of job results.
+ * An acknowledged result is removed from the spool, so it isn't sent again after a reconnect.
+ */
+@Component
+public class ResultAckHandler implements StompFrameHandler {
+
+    private static final Logger LOGGER = LogManager.getLogger(ResultAckHandler.class);
+
+    private ResultSpool resultSpool;
+
+    /**
+     * Creates an instance of ResultAckHandler.
+     * @param resultSpool keeps the results until they are acknowledged.
+     */
+    public ResultAckHandler(ResultSpool resultSpool) {
+        Objects.requireNonNull(resultSpool);
+
+        this.resultSpool = resultSpool;
+    }
+
+    @Override
+    public Type getPayloadType(StompHeaders headers) {
+        return ResultAckMessage.class;
+    }
+
+    @Override
+    public void handleFrame(StompHeaders headers, Object payload) {
+        ResultAckMessage message = (ResultAckMessage) payload;
+
+        if (resultSpool.acknowledge(message.getAttemptId())) {
+            LOGGER.info("The Web-App acknowledged the result {}.", message.getAttemptId());
+        }
+    }
+
+}
@@ -0,0 +1,18 @@
+package pacr.benchmarker.endpoints;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Represents the acknowledgement of a job result from the Web-App.
+ * Contains the attempt id of the result which was saved or discarded for good.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+public class ResultAckMessage {
+
+    private String attemptId;
+
+}
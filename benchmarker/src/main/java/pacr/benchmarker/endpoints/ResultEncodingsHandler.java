@@ -0,0 +1,60 @@
+package pacr.benchmarker.endpoints;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.InvalidMimeTypeException;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.lang.reflect.Type;
+import java.util.Objects;
+
+/**
+ * Handles the encodings of results which the Web-App accepts.
+ * Results are sent in the compact encoding if the Web-App accepts it and as JSON otherwise.
+ */
+@Component
+public class ResultEncodingsHandler implements StompFrameHandler {
+
+    private static final Logger LOGGER = LogManager.getLogger(ResultEncodingsHandler.class);
+
+    private NewJobHandler newJobHandler;
+
+    /**
+     * Creates an instance of ResultEncodingsHandler.
+     * @param newJobHandler sends the results.
+     */
+    public ResultEncodingsHandler(NewJobHandler newJobHandler) {
+        Objects.requireNonNull(newJobHandler);
+
+        this.newJobHandler = newJobHandler;
+    }
+
+    @Override
+    public Type getPayloadType(StompHeaders headers) {
+        return String[].class;
+    }
+
+    @Override
+    public void handleFrame(StompHeaders headers, Object payload) {
+        String[] encodings = (String[]) payload;
+
+        for (String encoding : encodings) {
+            try {
+                if (JobResultMessageConverter.MIME_TYPE.equalsTypeAndSubtype(MimeTypeUtils.parseMimeType(encoding))) {
+                    newJobHandler.setResultContentType(JobResultMessageConverter.MIME_TYPE);
+                    LOGGER.info("Results are sent in the compact encoding.");
+                    return;
+                }
+            } catch (InvalidMimeTypeException e) {
+                LOGGER.error("The Web-App sent the invalid encoding '{}'.", encoding);
+            }
+        }
+
+        newJobHandler.setResultContentType(MimeTypeUtils.APPLICATION_JSON);
+    }
+
+}
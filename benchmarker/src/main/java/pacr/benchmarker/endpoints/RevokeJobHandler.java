@@ -0,0 +1,48 @@
+package pacr.benchmarker.endpoints;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.stereotype.Component;
+import pacr.benchmarker.services.JobExecutor;
+
+import java.lang.reflect.Type;
+import java.util.Objects;
+
+/**
+ * Handles the announced jobs which the Web-App revoked, e.g. because other jobs were prioritized or the jobs were
+ * deleted. They are no longer prepared.
+ */
+@Component
+public class RevokeJobHandler implements StompFrameHandler {
+
+    private static final Logger LOGGER = LogManager.getLogger(RevokeJobHandler.class);
+
+    private JobExecutor jobExecutor;
+
+    /**
+     * Creates an instance of RevokeJobHandler.
+     * @param jobExecutor prepares the jobs.
+     */
+    public RevokeJobHandler(JobExecutor jobExecutor) {
+        Objects.requireNonNull(jobExecutor);
+
+        this.jobExecutor = jobExecutor;
+    }
+
+    @Override
+    public Type getPayloadType(StompHeaders headers) {
+        return JobMessage.class;
+    }
+
+    @Override
+    public void handleFrame(StompHeaders headers, Object payload) {
+        JobMessage job = (JobMessage) payload;
+
+        LOGGER.info("The Web-App revoked the next job {} of slot {}.", job.getCommitHash(), job.getSlot());
+
+        jobExecutor.revokeJob(job.getRepository(), job.getCommitHash());
+    }
+
+}
@@ -0,0 +1,136 @@
+package pacr.benchmarker.services;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents a slot of the benchmarker. Every slot runs one job at a time in its own worktree.
+ * On Linux a slot is pinned to its own set of CPUs, so jobs of different slots don't compete for the same cores.
+ */
+@Getter
+public class BenchmarkingSlot {
+
+    private static final String SLOT_DIR_PREFIX = "slot";
+    private static final String CPU_SET_SEPARATOR = ";";
+
+    private int index;
+
+    // the CPUs of the slot in the format of taskset, e.g. "0-7,16". null if the slot is not pinned
+    private String cpuSet;
+
+    private int cores;
+
+    // the name under which the slot holds its worktree. Empty for the first slot
+    private String workingDir;
+
+    /**
+     * Creates a new slot.
+     * @param index is the index of the slot.
+     * @param cpuSet is the CPU set of the slot. null if the slot is not pinned.
+     * @param cores is the amount of cores the slot uses.
+     */
+    public BenchmarkingSlot(int index, String cpuSet, int cores) {
+        if (index < 0) {
+            throw new IllegalArgumentException("The index cannot be negative.");
+        }
+        if (cores <= 0) {
+            throw new IllegalArgumentException("The amount of cores must be positive.");
+        }
+
+        this.index = index;
+        this.cpuSet = cpuSet;
+        this.cores = cores;
+        this.workingDir = index == 0 ? "" : SLOT_DIR_PREFIX + index;
+    }
+
+    /**
+     * Partitions the CPUs of the benchmarker into slots.
+     * @param amount is the amount of slots.
+     * @param cpuSets are the CPU sets of the slots separated by ';'. The sets must have the same size. If empty the
+     *                cores are split evenly.
+     * @param cores is the amount of logical cores of the benchmarker.
+     * @param pinned is whether the slots are pinned to their CPUs. If not the slots share all cores.
+     * @return the slots.
+     */
+    public static List<BenchmarkingSlot> partition(int amount, String cpuSets, int cores, boolean pinned) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("The amount of slots must be positive.");
+        }
+
+        List<BenchmarkingSlot> slots = new ArrayList<>();
+
+        if (!pinned) {
+            for (int i = 0; i < amount; i++) {
+                slots.add(new BenchmarkingSlot(i, null, Math.max(1, cores)));
+            }
+            return slots;
+        }
+
+        if (cpuSets == null || cpuSets.isBlank()) {
+            int coresPerSlot = cores / amount;
+            if (coresPerSlot <= 0) {
+                throw new IllegalArgumentException("There are fewer cores than slots.");
+            }
+
+            for (int i = 0; i < amount; i++) {
+                int first = i * coresPerSlot;
+                slots.add(new BenchmarkingSlot(i, first + "-" + (first + coresPerSlot - 1), coresPerSlot));
+            }
+            return slots;
+        }
+
+        String[] sets = cpuSets.split(CPU_SET_SEPARATOR);
+        if (sets.length != amount) {
+            throw new IllegalArgumentException("There must be one CPU set per slot.");
+        }
+
+        for (int i = 0; i < amount; i++) {
+            String cpuSet = sets[i].strip();
+            int size = countCpus(cpuSet);
+
+            if (i > 0 && size != slots.get(0).getCores()) {
+                throw new IllegalArgumentException("The CPU sets must have the same size.");
+            }
+
+            slots.add(new BenchmarkingSlot(i, cpuSet, size));
+        }
+
+        return slots;
+    }
+
+    /**
+     * Counts the CPUs of a CPU set like "0-7,16".
+     * @param cpuSet is the CPU set.
+     * @return the amount of CPUs.
+     */
+    static int countCpus(String cpuSet) {
+        int count = 0;
+
+        try {
+            for (String part : cpuSet.split(",")) {
+                String[] range = part.strip().split("-");
+
+                if (range.length == 1) {
+                    Integer.parseInt(range[0]);
+                    count++;
+                } else if (range.length == 2) {
+                    int first = Integer.parseInt(range[0]);
+                    int last = Integer.parseInt(range[1]);
+
+                    if (first < 0 || last < first) {
+                        throw new IllegalArgumentException("The CPU set '" + cpuSet + "' is not valid.");
+                    }
+                    count += last - first + 1;
+                } else {
+                    throw new IllegalArgumentException("The CPU set '" + cpuSet + "' is not valid.");
+                }
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("The CPU set '" + cpuSet + "' is not valid.");
+        }
+
+        return count;
+    }
+}
@@ -10,4 +10,9 @@ public interface IJobResultSender {
      */
     void sendJobResults(JobResult result);
 
+    /**
+     * @param result contains the benchmarks of a running job which were measured so far.
+     */
+    void sendPartialJobResults(JobResult result);
+
 }
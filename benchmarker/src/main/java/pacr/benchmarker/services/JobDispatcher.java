@@ -1,6 +1,7 @@
 package pacr.benchmarker.services;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
 import com.google.gson.JsonSyntaxException;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -11,15 +12,34 @@ import java.io.IOException;
 import java.io.File;
 import java.io.InputStreamReader;
 import java.io.BufferedReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * Dispatches a job.
+ * The runner either prints the result of all benchmarks at the end or streams it by printing one JSON object per line
+ * as soon as the benchmarks in it are measured. Streamed benchmarks are passed on while the job runs, and they are
+ * kept if the job fails later on.
  */
 @Component
 public class JobDispatcher {
 
     private static final Logger LOGGER = LogManager.getLogger(JobDispatcher.class);
 
+    private static final String TASKSET = "taskset";
+
+    // the time in seconds the rest of the output is read after the runner stopped
+    private static final long OUTPUT_DRAIN_TIMEOUT = 10;
+
     private String runnerDir;
     private String runnerFile;
 
@@ -32,11 +52,49 @@ public class JobDispatcher {
     }
 
     /**
-     * Dispatches a job.
+     * Dispatches a job and waits until it is finished.
      * @param repositoryDir is the directory of the repository.
      * @return the benchmarking result. NULL if the benchmarking result could not be fetched.
      */
     public BenchmarkingResult dispatchJob(String repositoryDir) {
+        return dispatchJob(repositoryDir, 0);
+    }
+
+    /**
+     * Dispatches a job. The job is stopped if it doesn't finish in time.
+     * @param repositoryDir is the directory of the repository.
+     * @param timeout is the time in seconds after which the job is stopped. 0 if the job is not stopped.
+     * @return the benchmarking result. NULL if the benchmarking result could not be fetched.
+     */
+    public BenchmarkingResult dispatchJob(String repositoryDir, long timeout) {
+        return dispatchJob(repositoryDir, timeout, null);
+    }
+
+    /**
+     * Dispatches a job on the given CPUs. The job is stopped if it doesn't finish in time.
+     * @param repositoryDir is the directory of the repository.
+     * @param timeout is the time in seconds after which the job is stopped. 0 if the job is not stopped.
+     * @param cpuSet is the set of CPUs the job runs on in the format of taskset. null if the job can run on any CPU.
+     *               Only supported on Linux.
+     * @return the benchmarking result. NULL if the benchmarking result could not be fetched.
+     */
+    public BenchmarkingResult dispatchJob(String repositoryDir, long timeout, String cpuSet) {
+        return dispatchJob(repositoryDir, timeout, cpuSet, partialResult -> { });
+    }
+
+    /**
+     * Dispatches a job on the given CPUs. The job is stopped if it doesn't finish in time.
+     * @param repositoryDir is the directory of the repository.
+     * @param timeout is the time in seconds after which the job is stopped. 0 if the job is not stopped.
+     * @param cpuSet is the set of CPUs the job runs on in the format of taskset. null if the job can run on any CPU.
+     *               Only supported on Linux.
+     * @param partialResultListener gets the benchmarks which the runner streams while the job is running.
+     * @return the benchmarking result. NULL if the benchmarking result could not be fetched.
+     */
+    public BenchmarkingResult dispatchJob(String repositoryDir, long timeout, String cpuSet,
+                                          Consumer<BenchmarkingResult> partialResultListener) {
+        Objects.requireNonNull(partialResultListener);
+
         LOGGER.info("Starting process {} with {} as argument.", runnerFile, repositoryDir);
 
         // check if windows
@@ -48,9 +106,17 @@ public class JobDispatcher {
             runner = "./" + runnerFile;
         }
 
+        List<String> command = new ArrayList<>();
+        if (cpuSet != null) {
+            // the CPU affinity is inherited by all processes the runner starts
+            command.addAll(List.of(TASKSET, "-c", cpuSet));
+        }
+        command.add(runner);
+        command.add(repositoryDir);
+
         Process process;
         try {
-            process = new ProcessBuilder(runner, repositoryDir)
+            process = new ProcessBuilder(command)
                     .directory(new File(runnerDir))
                     .start();
         } catch (IOException e) {
@@ -59,27 +125,71 @@ public class JobDispatcher {
             return createBenchmarkingResult(e.getMessage());
         }
 
-        String output = readInputBuffer(process);
+        Map<String, Benchmark> streamedBenchmarks = new ConcurrentHashMap<>();
+        AtomicInteger amtStreamedLines = new AtomicInteger();
+        Consumer<String> lineListener = line -> {
+            BenchmarkingResult partialResult = parseLine(line);
+
+            if (partialResult != null) {
+                streamedBenchmarks.putAll(partialResult.getBenchmarks());
+                amtStreamedLines.incrementAndGet();
+
+                try {
+                    partialResultListener.accept(partialResult);
+                } catch (RuntimeException e) {
+                    LOGGER.error("Could not pass on streamed benchmarks.", e);
+                }
+            }
+        };
+
+        // the output is read while waiting, so a process which doesn't close its output can still be stopped
+        CompletableFuture<String> output = CompletableFuture.supplyAsync(() -> readInputBuffer(process,
+                lineListener));
 
         LOGGER.info("Waiting for process to finish.");
         int exitCode;
         try {
-            exitCode = process.waitFor();
+            boolean finished;
+            if (timeout > 0) {
+                finished = process.waitFor(timeout, TimeUnit.SECONDS);
+            } else {
+                process.waitFor();
+                finished = true;
+            }
+
+            if (!finished) {
+                LOGGER.error("Job did not finish within {} seconds.", timeout);
+                destroy(process);
+                awaitOutput(output);
+                return createBenchmarkingResult("Timeout after " + timeout + " seconds", streamedBenchmarks);
+            }
+
+            exitCode = process.exitValue();
         } catch (InterruptedException e) {
             LOGGER.error("InterruptedException while waiting for process.");
-            return createBenchmarkingResult(e.getMessage());
+            destroy(process);
+            awaitOutput(output);
+            return createBenchmarkingResult(e.getMessage(), streamedBenchmarks);
         }
 
         LOGGER.info("Job finished with exit code {}.", exitCode);
         if (exitCode != 0) {
             LOGGER.error("Exit code not 0.");
-            return createBenchmarkingResult("Exit code " + exitCode);
+            awaitOutput(output);
+            return createBenchmarkingResult("Exit code " + exitCode, streamedBenchmarks);
         }
 
-        LOGGER.info("Got {} as result.", output);
+        String outputText = output.join();
+
+        LOGGER.info("Got {} as result.", outputText);
+
+        if (amtStreamedLines.get() > 1) {
+            // the runner streamed its result, so the output is not a single JSON object
+            return createBenchmarkingResult("", streamedBenchmarks);
+        }
 
         JSONToGSONAdapter adapter = new JSONToGSONAdapter();
-        String gsonFormat = adapter.convertJSONToGSON(output);
+        String gsonFormat = adapter.convertJSONToGSON(outputText);
 
         Gson g = new Gson();
 
@@ -88,7 +198,7 @@ public class JobDispatcher {
             BenchmarkingResultAdapter adapterResult = g.fromJson(gsonFormat, BenchmarkingResultAdapter.class);
             result = new BenchmarkingResult(adapterResult);
         } catch (JsonSyntaxException e) {
-            LOGGER.error("JSON syntax exception for this output: '{}'.", output);
+            LOGGER.error("JSON syntax exception for this output: '{}'.", outputText);
             result = new BenchmarkingResult();
             result.setGlobalError(e.getMessage());
         }
@@ -96,7 +206,51 @@ public class JobDispatcher {
         return result;
     }
 
-    private String readInputBuffer(Process process) {
+    /**
+     * Waits until the lines the runner printed before it stopped are handled, so their benchmarks are kept.
+     */
+    private void awaitOutput(CompletableFuture<String> output) {
+        try {
+            output.get(OUTPUT_DRAIN_TIMEOUT, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            LOGGER.error("Could not read the rest of the output of the runner script.");
+        }
+    }
+
+    private void destroy(Process process) {
+        // the runner script may have started processes which still hold its output open
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+    }
+
+    /**
+     * @return the benchmarks in a line of the output. null if the line doesn't contain benchmarks.
+     */
+    private BenchmarkingResult parseLine(String line) {
+        String trimmed = line.strip();
+        if (!trimmed.startsWith("{") || !trimmed.endsWith("}")) {
+            return null;
+        }
+
+        try {
+            String gsonFormat = new JSONToGSONAdapter().convertJSONToGSON(trimmed);
+            BenchmarkingResultAdapter adapterResult = new Gson().fromJson(gsonFormat, BenchmarkingResultAdapter.class);
+
+            if (adapterResult == null || adapterResult.getBenchmarks() == null
+                    || adapterResult.getBenchmarks().isEmpty()) {
+                return null;
+            }
+
+            return new BenchmarkingResult(adapterResult);
+        } catch (JsonParseException e) {
+            // a line of a result which is printed at the end
+            return null;
+        }
+    }
+
+    private String readInputBuffer(Process process, Consumer<String> lineListener) {
         // get stdin
         StringBuilder sb = new StringBuilder();
         try {
@@ -106,6 +260,7 @@ public class JobDispatcher {
             while ((line = br.readLine()) != null || error.readLine() != null) {
                 if (line != null) {
                     sb.append(line).append(System.getProperty("line.separator"));
+                    lineListener.accept(line);
                 }
             }
         } catch (IOException e) {
@@ -120,4 +275,10 @@ public class JobDispatcher {
         return result;
     }
 
+    private BenchmarkingResult createBenchmarkingResult(String globalError, Map<String, Benchmark> benchmarks) {
+        BenchmarkingResult result = createBenchmarkingResult(globalError);
+        result.getBenchmarks().putAll(benchmarks);
+        return result;
+    }
+
 }
@@ -1,6 +1,9 @@
 package pacr.benchmarker.services;
 
 import lombok.Setter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import pacr.benchmarker.services.git.GitHandler;
@@ -8,34 +11,171 @@ import pacr.benchmarker.services.git.GitHandler;
 import javax.validation.constraints.NotNull;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Executes jobs. Sets the repository up and then dispatches the job.
+ * The benchmarker has one or more slots which run jobs at the same time, each in its own thread and working
+ * directory. On Linux every slot is pinned to its own set of CPUs.
  */
 @Component
 public class JobExecutor {
 
+    private static final Logger LOGGER = LogManager.getLogger(JobExecutor.class);
+
     @Setter
     private IJobResultSender resultSender;
     private GitHandler gitHandler;
     private JobDispatcher jobDispatcher;
     private String relativePathToWorkingDir;
 
+    private List<BenchmarkingSlot> slots;
+    private List<ExecutorService> slotExecutors;
+
+    // the amount of jobs the Web-App may announce to each slot before they start
+    private int prefetchWindow;
+
+    /**
+     * Creates an instance of JobExecutor with one slot which isn't pinned.
+     * @param gitHandler is the git handler used for cloning the repository and for checkouts.
+     * @param jobDispatcher dispatches the jobs.
+     * @param relativePathToWorkingDir is the relative path from the runner script to the repository working dir.
+     */
+    public JobExecutor(@NotNull GitHandler gitHandler, @NotNull JobDispatcher jobDispatcher,
+                       @NotNull String relativePathToWorkingDir) {
+        this(gitHandler, jobDispatcher, relativePathToWorkingDir, BenchmarkingSlot.partition(1, null,
+                SystemEnvironment.getInstance().getCores(), false));
+    }
+
     /**
      * Creates an instance of JobExecutor.
      * @param gitHandler is the git handler used for cloning the repository and for checkouts.
      * @param jobDispatcher dispatches the jobs.
      * @param relativePathToWorkingDir is the relative path from the runner script to the repository working dir.
+     * @param amtSlots is the amount of jobs which run at the same time.
+     * @param cpuSets are the CPU sets of the slots separated by ';'. If empty the cores are split evenly.
+     * @param prefetchWindow is the amount of jobs the Web-App may announce to each slot before they start, so
+     *                       their commits are checked out in the background. 0 if no jobs are announced.
      */
+    @Autowired
     public JobExecutor(@NotNull GitHandler gitHandler, @NotNull JobDispatcher jobDispatcher,
-                       @NotNull @Value("${relPathToWorkingDir}") String relativePathToWorkingDir) {
+                       @NotNull @Value("${relPathToWorkingDir}") String relativePathToWorkingDir,
+                       @Value("${slots}") int amtSlots, @Value("${cpuSets}") String cpuSets,
+                       @Value("${prefetchWindow}") int prefetchWindow) {
+        this(gitHandler, jobDispatcher, relativePathToWorkingDir, BenchmarkingSlot.partition(amtSlots, cpuSets,
+                SystemEnvironment.getInstance().getCores(), canPin(amtSlots)));
+
+        if (prefetchWindow < 0) {
+            throw new IllegalArgumentException("The prefetch window cannot be negative.");
+        }
+
+        this.prefetchWindow = prefetchWindow;
+    }
+
+    /**
+     * Creates an instance of JobExecutor.
+     * @param gitHandler is the git handler used for cloning the repository and for checkouts.
+     * @param jobDispatcher dispatches the jobs.
+     * @param relativePathToWorkingDir is the relative path from the runner script to the repository working dir.
+     * @param slots are the slots of the benchmarker.
+     */
+    public JobExecutor(@NotNull GitHandler gitHandler, @NotNull JobDispatcher jobDispatcher,
+                       @NotNull String relativePathToWorkingDir, @NotNull List<BenchmarkingSlot> slots) {
         Objects.requireNonNull(gitHandler);
         Objects.requireNonNull(jobDispatcher);
         Objects.requireNonNull(relativePathToWorkingDir);
+        Objects.requireNonNull(slots);
+        if (slots.isEmpty()) {
+            throw new IllegalArgumentException("There must be at least one slot.");
+        }
+
         this.gitHandler = gitHandler;
         this.jobDispatcher = jobDispatcher;
         this.relativePathToWorkingDir = relativePathToWorkingDir;
+        this.slots = List.copyOf(slots);
+
+        this.slotExecutors = new ArrayList<>();
+        for (BenchmarkingSlot slot : this.slots) {
+            slotExecutors.add(Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "slot-" + slot.getIndex());
+                thread.setDaemon(true);
+                return thread;
+            }));
+        }
+
+        LOGGER.info("Running jobs in {} slot(s).", this.slots.size());
+    }
+
+    private static boolean canPin(int amtSlots) {
+        // one slot can use all cores, so it is not pinned
+        if (amtSlots <= 1) {
+            return false;
+        }
+
+        String os = System.getProperty("os.name").toLowerCase();
+        if (!os.contains("nux")) {
+            LOGGER.warn("The slots can only be pinned to CPUs on Linux. The slots share all cores.");
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * @return the system environment of the benchmarker. The cores are the cores of a slot.
+     */
+    public SystemEnvironment getSystemEnvironment() {
+        SystemEnvironment environment = SystemEnvironment.getInstance(slots);
+        environment.setPrefetchWindow(prefetchWindow);
+
+        return environment;
+    }
+
+    /**
+     * Executes a job in the thread of its slot.
+     * @param repositoryURL is the repository URL.
+     * @param commitHash is the commit hash.
+     * @param timeout is the time in seconds after which the benchmark is stopped. 0 if it is not stopped.
+     * @param slot is the index of the slot which runs the job.
+     * @return a future which is completed after the result was sent.
+     */
+    public CompletableFuture<Void> submitJob(String repositoryURL, String commitHash, long timeout, int slot) {
+        if (slot < 0 || slot >= slots.size()) {
+            // the Web-App gives the job to another benchmarker once its lease expires
+            LOGGER.error("Got a job for slot {}, but there are only {} slot(s).", slot, slots.size());
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return CompletableFuture.runAsync(() -> executeJob(repositoryURL, commitHash, timeout, slot),
+                slotExecutors.get(slot));
+    }
+
+    /**
+     * Fetches and checks out the commit of a job which runs later in the background.
+     * @param repositoryURL is the repository URL.
+     * @param commitHash is the commit hash.
+     * @return a future which is completed when the repository is set up or could not be set up.
+     */
+    public CompletableFuture<Void> prefetchJob(String repositoryURL, String commitHash) {
+        return gitHandler.prefetch(repositoryURL, commitHash);
+    }
+
+    /**
+     * Stops preparing a job which the Web-App won't send anymore. A commit which is already checked out stays in its
+     * worktree until the worktree is recycled.
+     * @param repositoryURL is the repository URL.
+     * @param commitHash is the commit hash.
+     */
+    public void revokeJob(String repositoryURL, String commitHash) {
+        if (gitHandler.cancelPrefetch(repositoryURL, commitHash)) {
+            LOGGER.info("Cancelled the prefetch of commit {}.", commitHash);
+        }
     }
 
     /**
@@ -44,11 +184,36 @@ public class JobExecutor {
      * @param commitHash is the commit hash.
      */
     public void executeJob(String repositoryURL, String commitHash) {
+        executeJob(repositoryURL, commitHash, 0);
+    }
+
+    /**
+     * Executes a job which is stopped if it doesn't finish in time.
+     * @param repositoryURL is the repository URL.
+     * @param commitHash is the commit hash.
+     * @param timeout is the time in seconds after which the benchmark is stopped. 0 if it is not stopped.
+     */
+    public void executeJob(String repositoryURL, String commitHash, long timeout) {
+        executeJob(repositoryURL, commitHash, timeout, 0);
+    }
+
+    /**
+     * Executes a job in a slot which is stopped if it doesn't finish in time.
+     * @param repositoryURL is the repository URL.
+     * @param commitHash is the commit hash.
+     * @param timeout is the time in seconds after which the benchmark is stopped. 0 if it is not stopped.
+     * @param slotIndex is the index of the slot which runs the job.
+     */
+    public void executeJob(String repositoryURL, String commitHash, long timeout, int slotIndex) {
+        BenchmarkingSlot slot = slots.get(slotIndex);
+
         Instant start = Instant.now();
 
-        String path = gitHandler.setupRepositoryForBenchmark(repositoryURL, commitHash);
+        String path = gitHandler.setupRepositoryForBenchmark(repositoryURL, commitHash, slot.getWorkingDir());
 
         JobResult result = new JobResult(repositoryURL, commitHash);
+        result.setSystemEnvironment(SystemEnvironment.getInstance(slots, slot));
+        result.setAttemptId(UUID.randomUUID().toString());
 
         BenchmarkingResult benchmarkingResult;
         if (path == null) { // cloning didn't work
@@ -57,8 +222,9 @@ public class JobExecutor {
         } else {
             path = relativePathToWorkingDir + path;
 
-            // fetch benchmarking result
-            benchmarkingResult = jobDispatcher.dispatchJob(path);
+            // fetch benchmarking result, the benchmarks the runner streams are sent right away
+            benchmarkingResult = jobDispatcher.dispatchJob(path, timeout, slot.getCpuSet(),
+                    partialResult -> sendPartialResult(repositoryURL, commitHash, slot, partialResult));
         }
 
         result.setBenchmarkingResult(benchmarkingResult);
@@ -71,4 +237,13 @@ public class JobExecutor {
 
         resultSender.sendJobResults(result);
     }
+
+    private void sendPartialResult(String repositoryURL, String commitHash, BenchmarkingSlot slot,
+                                   BenchmarkingResult partialResult) {
+        JobResult result = new JobResult(repositoryURL, commitHash);
+        result.setSystemEnvironment(SystemEnvironment.getInstance(slots, slot));
+        result.setBenchmarkingResult(partialResult);
+
+        resultSender.sendPartialJobResults(result);
+    }
 }
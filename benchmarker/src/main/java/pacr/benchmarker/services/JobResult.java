@@ -16,6 +16,10 @@ public class JobResult {
     private SystemEnvironment systemEnvironment;
     private BenchmarkingResult benchmarkingResult;
 
+    // identifies the execution of the job, so the Web-App recognizes the result if it is sent again. null for the
+    // partial results of a running job
+    private String attemptId;
+
     /**
      * Initializes an instance of JobResult.
      * @param repository is the repository pull URL.
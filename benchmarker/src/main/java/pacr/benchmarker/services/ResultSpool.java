@@ -0,0 +1,235 @@
+package pacr.benchmarker.services;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.validation.constraints.NotNull;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Keeps the job results on disk until the Web-App acknowledged them, so a result isn't lost if the connection breaks
+ * or the benchmarker stops before the result arrived.
+ * The spool is an append-only file with one JSON record per line, either a result or the acknowledgement of a result.
+ * Every record is forced to the disk before the result is sent. When the benchmarker starts the records are read
+ * again and the file is rewritten with the unacknowledged results only.
+ */
+@Component
+public class ResultSpool {
+
+    private static final Logger LOGGER = LogManager.getLogger(ResultSpool.class);
+
+    private static final String TYPE = "type";
+    private static final String RESULT = "result";
+    private static final String ACK = "ack";
+    private static final String ATTEMPT_ID = "attemptId";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private Path file;
+    private Gson gson;
+
+    // null if the spool file could not be opened. The results are only kept in memory then
+    private FileChannel channel;
+
+    // the unacknowledged results by their attempt id in the order they were added
+    private Map<String, JobResult> pendingResults;
+
+    /**
+     * Creates an instance of ResultSpool.
+     * @param pathToSpool is the path to the spool file relative to the working directory.
+     */
+    @Autowired
+    public ResultSpool(@NotNull @Value("${resultSpoolPath}") String pathToSpool) {
+        this(Paths.get(System.getProperty("user.dir") + pathToSpool));
+    }
+
+    /**
+     * Creates an instance of ResultSpool. The unacknowledged results of the file are read.
+     * @param file is the spool file. It is created if it doesn't exist.
+     */
+    public ResultSpool(@NotNull Path file) {
+        Objects.requireNonNull(file);
+
+        this.file = file;
+        this.gson = new GsonBuilder().serializeSpecialFloatingPointValues().create();
+        this.pendingResults = new LinkedHashMap<>();
+
+        try {
+            load();
+            rewrite();
+        } catch (IOException e) {
+            LOGGER.error("Could not open the result spool {}. Results are only kept in memory.", file);
+        }
+
+        if (!pendingResults.isEmpty()) {
+            LOGGER.info("Found {} result(s) which were not acknowledged by the Web-App.", pendingResults.size());
+        }
+    }
+
+    /**
+     * Adds a result to the spool. The result is on the disk when this method returns.
+     * @param result is the result. It must have an attempt id.
+     */
+    public synchronized void add(@NotNull JobResult result) {
+        Objects.requireNonNull(result);
+        Objects.requireNonNull(result.getAttemptId());
+
+        pendingResults.put(result.getAttemptId(), result);
+
+        JsonObject record = new JsonObject();
+        record.addProperty(TYPE, RESULT);
+        record.add(RESULT, gson.toJsonTree(result));
+        append(record);
+    }
+
+    /**
+     * Removes a result which the Web-App acknowledged from the spool.
+     * @param attemptId is the attempt id of the result.
+     * @return whether the result was in the spool.
+     */
+    public synchronized boolean acknowledge(String attemptId) {
+        if (attemptId == null || pendingResults.remove(attemptId) == null) {
+            return false;
+        }
+
+        if (pendingResults.isEmpty()) {
+            // nothing has to be read again, so the file starts over
+            truncate();
+        } else {
+            JsonObject record = new JsonObject();
+            record.addProperty(TYPE, ACK);
+            record.addProperty(ATTEMPT_ID, attemptId);
+            append(record);
+        }
+
+        return true;
+    }
+
+    /**
+     * @return the results which were not acknowledged yet in the order they were added.
+     */
+    public synchronized List<JobResult> getPendingResults() {
+        return new ArrayList<>(pendingResults.values());
+    }
+
+    private void load() throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (line.isBlank()) {
+                continue;
+            }
+
+            try {
+                readRecord(gson.fromJson(line, JsonObject.class));
+            } catch (JsonParseException | IllegalStateException e) {
+                // the last record is incomplete if the benchmarker stopped while writing it
+                LOGGER.warn("Skipped a damaged record of the result spool.");
+            }
+        }
+    }
+
+    private void readRecord(JsonObject record) {
+        JsonElement type = record == null ? null : record.get(TYPE);
+
+        if (type == null) {
+            throw new JsonParseException("The record has no type.");
+        }
+
+        if (RESULT.equals(type.getAsString()) && record.has(RESULT)) {
+            JobResult result = gson.fromJson(record.get(RESULT), JobResult.class);
+
+            if (result != null && result.getAttemptId() != null) {
+                pendingResults.put(result.getAttemptId(), result);
+            }
+        } else if (ACK.equals(type.getAsString()) && record.has(ATTEMPT_ID)) {
+            pendingResults.remove(record.get(ATTEMPT_ID).getAsString());
+        } else {
+            throw new JsonParseException("The record is not valid.");
+        }
+    }
+
+    /**
+     * Replaces the file with one which only contains the unacknowledged results and opens it for appending.
+     */
+    private void rewrite() throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+
+        Path tempFile = file.resolveSibling(file.getFileName() + TEMP_SUFFIX);
+
+        try (FileChannel tempChannel = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (JobResult result : pendingResults.values()) {
+                JsonObject record = new JsonObject();
+                record.addProperty(TYPE, RESULT);
+                record.add(RESULT, gson.toJsonTree(result));
+                write(tempChannel, record);
+            }
+            tempChannel.force(true);
+        }
+
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    private void append(JsonObject record) {
+        if (channel == null) {
+            return;
+        }
+
+        try {
+            write(channel, record);
+            channel.force(true);
+        } catch (IOException e) {
+            LOGGER.error("Could not write to the result spool {}.", file);
+        }
+    }
+
+    private void truncate() {
+        if (channel == null) {
+            return;
+        }
+
+        try {
+            channel.truncate(0);
+            channel.force(true);
+        } catch (IOException e) {
+            LOGGER.error("Could not truncate the result spool {}.", file);
+        }
+    }
+
+    private void write(FileChannel target, JsonObject record) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap((gson.toJson(record) + "\n").getBytes(StandardCharsets.UTF_8));
+
+        while (buffer.hasRemaining()) {
+            target.write(buffer);
+        }
+    }
+
+}
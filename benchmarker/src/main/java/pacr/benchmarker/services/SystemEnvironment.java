@@ -8,6 +8,7 @@ import oshi.hardware.HardwareAbstractionLayer;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.List;
 
 /**
  * Represents the system environment of the benchmarker.
@@ -22,7 +23,7 @@ public class SystemEnvironment {
     /**
      * @return the instance of the system.
      */
-    public static SystemEnvironment getInstance() {
+    public static synchronized SystemEnvironment getInstance() {
         if (instance == null) {
             instance = new SystemEnvironment();
         }
@@ -39,9 +40,66 @@ public class SystemEnvironment {
     private int cores;
     private long ram;
 
+    // the amount of slots which run jobs at the same time
+    private int slots = 1;
+
+    // the slot which ran the job. The cores are the cores of the slot
+    private int slot;
+
+    // the CPUs of the slot. null if the slot is not pinned
+    private String cpuSet;
+
+    // the amount of jobs each slot prepares while it runs its current job
+    private int prefetchWindow;
+
     private SystemEnvironment() {
     }
 
+    private SystemEnvironment(SystemEnvironment environment) {
+        this.computerName = environment.computerName;
+        this.os = environment.os;
+        this.kernel = environment.kernel;
+        this.processor = environment.processor;
+        this.cores = environment.cores;
+        this.ram = environment.ram;
+    }
+
+    /**
+     * Gets the system environment of the benchmarker with slots. The cores are the cores of a slot.
+     * @param slots are the slots of the benchmarker.
+     * @return the system environment.
+     */
+    public static SystemEnvironment getInstance(List<BenchmarkingSlot> slots) {
+        SystemEnvironment environment = new SystemEnvironment(getInstance());
+        environment.slots = slots.size();
+        environment.cores = slots.get(0).getCores();
+
+        return environment;
+    }
+
+    /**
+     * Gets the system environment of a slot of the benchmarker.
+     * @param slots are the slots of the benchmarker.
+     * @param slot is the slot.
+     * @return the system environment.
+     */
+    public static SystemEnvironment getInstance(List<BenchmarkingSlot> slots, BenchmarkingSlot slot) {
+        SystemEnvironment environment = getInstance(slots);
+        environment.slot = slot.getIndex();
+        environment.cpuSet = slot.getCpuSet();
+        environment.cores = slot.getCores();
+
+        return environment;
+    }
+
+    /**
+     * Sets the amount of jobs each slot prepares while it runs its current job.
+     * @param prefetchWindow is the amount of jobs. 0 if no jobs are prepared.
+     */
+    void setPrefetchWindow(int prefetchWindow) {
+        this.prefetchWindow = prefetchWindow;
+    }
+
     /**
      * Updates the parameters of the system environment.
      */
@@ -2,6 +2,13 @@ package pacr.benchmarker.services.git;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import javax.validation.constraints.NotNull;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -10,34 +17,95 @@ import org.eclipse.jgit.api.TransportConfigCallback;
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.api.errors.JGitInternalException;
 import org.eclipse.jgit.dircache.InvalidPathException;
+import org.eclipse.jgit.errors.RevisionSyntaxException;
 import org.eclipse.jgit.lib.Repository;
-import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.transport.RefSpec;
+import org.eclipse.jgit.transport.SshTransport;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.util.FileSystemUtils;
 
 /**
  * Handles cloning the repositories and checking out the commits.
+ * Every repository is cloned once into a bare mirror, which is only fetched if it doesn't contain the commit of a job
+ * yet. The commits are checked out in worktrees, which are working copies cloned from the mirror. Worktrees are kept
+ * in a pool after their job is done and recycled by least recent use (see {@link WorktreePool}), so a commit can be
+ * fetched and checked out in the background while another benchmark runs.
  */
 @Component
 public class GitHandler {
 
     private static final Logger LOGGER = LogManager.getLogger(GitHandler.class);
 
+    private static final String MIRRORS_DIR = "mirrors";
+    private static final String WORKTREES_DIR = "worktrees";
+    private static final String MIRROR_SUFFIX = ".git";
+
+    private static final RefSpec MIRROR_HEADS = new RefSpec("+refs/heads/*:refs/heads/*");
+    private static final RefSpec MIRROR_TAGS = new RefSpec("+refs/tags/*:refs/tags/*");
+
+    // the slots hold worktrees under the names of their directories, which never start with a '#'
+    private static final String PREFETCH_HOLDER = "#prefetch";
+
+    private static final int DEFAULT_POOL_SIZE = 4;
+
     private String absWorkingDir;
     private String relWorkingDir;
 
     private TransportConfigCallback transportConfigCallback;
 
+    private WorktreePool worktreePool;
+
+    // the commits which wait for the prefetcher
+    private Map<String, CompletableFuture<Void>> queuedPrefetches;
+    // the commits which are checked out by the prefetcher right now
+    private Map<String, CompletableFuture<Void>> prefetchesInProgress;
+    private Map<String, Object> mirrorLocks;
+    private ExecutorService prefetchExecutor;
+
+    /**
+     * Creates a new instance of GitHandler with the default size of the worktree pool.
+     * @param relWorkingDir is the relative working directory.
+     * @param transportConfigCallback is the TransportConfigCallback for cloning repositories.
+     */
+    public GitHandler(@NotNull String relWorkingDir, @NotNull TransportConfigCallback transportConfigCallback) {
+        this(relWorkingDir, transportConfigCallback, DEFAULT_POOL_SIZE);
+    }
+
     /**
-     * Creates a new instance of GitHandler.
+     * Creates a new instance of GitHandler. The worktrees of an earlier run are deleted.
      * @param relWorkingDir is the relative working directory.
      * @param transportConfigCallback is the TransportConfigCallback for cloning repositories.
+     * @param worktreePoolSize is the amount of worktrees which are kept while no job uses them.
      */
+    @Autowired
     public GitHandler(@NotNull @Value("${repositoryWorkingDir}") String relWorkingDir,
-                      @NotNull TransportConfigCallback transportConfigCallback) {
-        this.transportConfigCallback = transportConfigCallback;
+                      @NotNull TransportConfigCallback transportConfigCallback,
+                      @Value("${worktreePoolSize}") int worktreePoolSize) {
+        Objects.requireNonNull(transportConfigCallback);
+
+        // the callback configures SSH only, repositories may also be cloned over HTTP or from a local directory
+        this.transportConfigCallback = transport -> {
+            if (transport instanceof SshTransport) {
+                transportConfigCallback.configure(transport);
+            }
+        };
         this.relWorkingDir = relWorkingDir;
         absWorkingDir = System.getProperty("user.dir") + "/" + relWorkingDir;
+
+        this.worktreePool = new WorktreePool(worktreePoolSize);
+        this.queuedPrefetches = new ConcurrentHashMap<>();
+        this.prefetchesInProgress = new ConcurrentHashMap<>();
+        this.mirrorLocks = new ConcurrentHashMap<>();
+        this.prefetchExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "git-prefetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // the pool doesn't know what is checked out in them
+        FileSystemUtils.deleteRecursively(new File(absWorkingDir, WORKTREES_DIR));
     }
 
     /**
@@ -47,84 +115,212 @@ public class GitHandler {
      * @return the directory of the repository. NULL if the repository could not be set up.
      */
     public String setupRepositoryForBenchmark(String repositoryURL, String commitHash) {
+        return setupRepositoryForBenchmark(repositoryURL, commitHash, "");
+    }
 
-        // can't use repository as directory name because of special characters
-        int directoryName = repositoryURL.hashCode();
+    /**
+     * Sets up a worktree with the commit for the benchmark. Jobs which run at the same time use different worktrees,
+     * so they don't check out commits in the same directory. The worktree belongs to the holder until the holder sets
+     * up its next job.
+     * @param repositoryURL is the URL for the repository.
+     * @param commitHash is the hash of the commit.
+     * @param holder is the holder of the worktree, e.g. the name of the directory of a slot.
+     * @return the directory of the worktree. NULL if the repository could not be set up.
+     */
+    public String setupRepositoryForBenchmark(String repositoryURL, String commitHash, String holder) {
+        LOGGER.info("Setting up repository {} for benchmarking with commit {}.", repositoryURL, commitHash);
 
-        String absRepositoryDir = absWorkingDir + "/" + directoryName;
-        String relRepositoryDir = relWorkingDir + "/" + directoryName;
+        deleteWorktrees(worktreePool.release(holder));
 
-        LOGGER.info("Setting up repository {} for benchmarking with commit {}.", repositoryURL, commitHash);
+        CompletableFuture<Void> prefetch = prefetchesInProgress.get(getKey(repositoryURL, commitHash));
+        if (prefetch != null) {
+            LOGGER.info("Waiting for the prefetch of commit {}.", commitHash);
+            prefetch.join();
+        }
 
-        Git git = initializeGit(absRepositoryDir, repositoryURL);
-        if (git == null) {
+        Worktree worktree = worktreePool.acquire(holder, repositoryURL, commitHash);
+        if (!checkout(worktree, commitHash)) {
+            deleteWorktree(worktreePool.discard(holder));
             return null;
         }
 
+        return relWorkingDir + "/" + WORKTREES_DIR + "/" + worktree.getName();
+    }
+
+    /**
+     * Fetches and checks out a commit in an idle worktree in the background, so a later job for the commit can start
+     * right away. Does nothing if the commit is checked out in a worktree already.
+     * @param repositoryURL is the URL for the repository.
+     * @param commitHash is the hash of the commit.
+     * @return a future which is completed when the worktree is set up or could not be set up.
+     */
+    public CompletableFuture<Void> prefetch(String repositoryURL, String commitHash) {
+        String key = getKey(repositoryURL, commitHash);
+
+        CompletableFuture<Void> prefetch = CompletableFuture.runAsync(() -> prepareWorktree(repositoryURL,
+                commitHash), prefetchExecutor);
+        queuedPrefetches.put(key, prefetch);
+        prefetch.whenComplete((result, exception) -> queuedPrefetches.remove(key, prefetch));
+
+        return prefetch;
+    }
+
+    /**
+     * Cancels a prefetch which didn't start yet. A prefetch which already started is finished.
+     * @param repositoryURL is the URL for the repository.
+     * @param commitHash is the hash of the commit.
+     * @return whether a waiting prefetch was cancelled.
+     */
+    public boolean cancelPrefetch(String repositoryURL, String commitHash) {
+        String key = getKey(repositoryURL, commitHash);
+        CompletableFuture<Void> prefetch = queuedPrefetches.remove(key);
+
+        // the prefetcher skips cancelled prefetches
+        return prefetch != null && !prefetchesInProgress.containsKey(key) && prefetch.cancel(false);
+    }
+
+    private void prepareWorktree(String repositoryURL, String commitHash) {
+        if (worktreePool.contains(repositoryURL, commitHash)) {
+            return;
+        }
+
+        String key = getKey(repositoryURL, commitHash);
+        CompletableFuture<Void> prefetch = new CompletableFuture<>();
+        prefetchesInProgress.put(key, prefetch);
+
+        LOGGER.info("Prefetching commit {} of repository {}.", commitHash, repositoryURL);
+
         try {
+            Worktree worktree = worktreePool.acquire(PREFETCH_HOLDER, repositoryURL, commitHash);
+
+            if (checkout(worktree, commitHash)) {
+                deleteWorktrees(worktreePool.release(PREFETCH_HOLDER));
+            } else {
+                deleteWorktree(worktreePool.discard(PREFETCH_HOLDER));
+            }
+        } catch (RuntimeException e) {
+            LOGGER.error("Could not prefetch commit {}. Error: {}", commitHash, e.getMessage());
+            deleteWorktree(worktreePool.discard(PREFETCH_HOLDER));
+        } finally {
+            prefetchesInProgress.remove(key);
+            prefetch.complete(null);
+        }
+    }
+
+    private boolean checkout(Worktree worktree, String commitHash) {
+        if (worktree.isAt(worktree.getRepositoryURL(), commitHash)) {
+            LOGGER.info("Commit {} is checked out already.", commitHash);
+            return true;
+        }
+
+        String repositoryURL = worktree.getRepositoryURL();
+        File directory = getWorktreeDirectory(worktree);
+
+        // the files of the old commit are changed from here on
+        worktree.setCommitHash(null);
+
+        try (Git git = openWorktree(directory, repositoryURL, commitHash)) {
+            if (!containsCommit(git.getRepository(), commitHash)) {
+                updateMirror(repositoryURL, commitHash);
+                git.fetch().call();
+            }
+
             git.checkout()
                     .setName(commitHash)
+                    .setForced(true)
                     .call();
-        } catch (GitAPIException | JGitInternalException | InvalidPathException e) {
+        } catch (GitAPIException | JGitInternalException | InvalidPathException | IOException e) {
             LOGGER.error("Could not checkout to commit hash {}. Error: {}", commitHash, e.getMessage());
-            return null;
+            return false;
         }
 
-        git.getRepository().close();
-        git.close();
-
-        return relRepositoryDir;
+        worktree.setCommitHash(commitHash);
+        return true;
     }
 
-    private Git initializeGit(String directoryPath, String repositoryURL) {
-        File directory = new File(directoryPath);
+    private Git openWorktree(File directory, String repositoryURL, String commitHash)
+            throws GitAPIException, IOException {
+        if (directory.exists()) {
+            return Git.open(directory);
+        }
+
+        File mirror = updateMirror(repositoryURL, commitHash);
 
-        if (!directory.exists()) {
-            try {
-                Git git = Git.cloneRepository()
-                        .setDirectory(directory)
-                        .setTransportConfigCallback(transportConfigCallback)
-                        .setURI(repositoryURL)
-                        .call();
+        // a local clone copies the objects without going over the network
+        return Git.cloneRepository()
+                .setURI(mirror.toURI().toString())
+                .setDirectory(directory)
+                .setNoCheckout(true)
+                .call();
+    }
 
-                git.getRepository().close();
-                git.close();
-                return git;
-            } catch (GitAPIException e) {
-                LOGGER.error("Could not clone repository with URL {}. Error: {}", repositoryURL, e.getMessage());
-                return null;
-            }
-        } else {
-            Repository repository;
-            try {
-                repository = getRepository(directory.getAbsolutePath());
-            } catch (IOException e) {
-                LOGGER.error("Could not get repository.");
-                return null;
-            }
+    /**
+     * Clones the mirror of a repository or fetches it if it doesn't contain the commit.
+     * @return the directory of the mirror.
+     */
+    private File updateMirror(String repositoryURL, String commitHash) throws GitAPIException, IOException {
+        // can't use repository as directory name because of special characters
+        File mirror = new File(absWorkingDir + "/" + MIRRORS_DIR + "/" + repositoryURL.hashCode() + MIRROR_SUFFIX);
 
-            Git git = new Git(repository);
+        synchronized (mirrorLocks.computeIfAbsent(repositoryURL, url -> new Object())) {
+            if (!mirror.exists()) {
+                try {
+                    Git.cloneRepository()
+                            .setBare(true)
+                            .setDirectory(mirror)
+                            .setTransportConfigCallback(transportConfigCallback)
+                            .setURI(repositoryURL)
+                            .call()
+                            .close();
+                } catch (GitAPIException e) {
+                    LOGGER.error("Could not clone repository with URL {}. Error: {}", repositoryURL, e.getMessage());
+                    FileSystemUtils.deleteRecursively(mirror);
+                    throw e;
+                }
+            }
 
-            try {
-                git.fetch().setTransportConfigCallback(transportConfigCallback).call();
+            try (Git git = Git.open(mirror)) {
+                if (!containsCommit(git.getRepository(), commitHash)) {
+                    git.fetch()
+                            .setRefSpecs(MIRROR_HEADS, MIRROR_TAGS)
+                            .setTransportConfigCallback(transportConfigCallback)
+                            .call();
+                }
             } catch (GitAPIException e) {
+                // the commit may have been fetched before
                 LOGGER.error("Could not fetch repository with URL {}. Error: {}", repositoryURL, e.getMessage());
             }
+        }
 
-            return git;
+        return mirror;
+    }
+
+    private boolean containsCommit(Repository repository, String commitHash) {
+        try {
+            return repository.resolve(commitHash + "^{commit}") != null;
+        } catch (IOException | RevisionSyntaxException e) {
+            return false;
+        }
+    }
+
+    private File getWorktreeDirectory(Worktree worktree) {
+        return new File(absWorkingDir + "/" + WORKTREES_DIR + "/" + worktree.getName());
+    }
+
+    private void deleteWorktrees(List<Worktree> worktrees) {
+        for (Worktree worktree : worktrees) {
+            deleteWorktree(worktree);
         }
     }
 
-    private Repository getRepository(String path) throws IOException {
-        assert path != null;
+    private void deleteWorktree(Worktree worktree) {
+        if (worktree != null) {
+            FileSystemUtils.deleteRecursively(getWorktreeDirectory(worktree));
+        }
+    }
 
-        FileRepositoryBuilder repositoryBuilder = new FileRepositoryBuilder();
-        return repositoryBuilder.setGitDir(
-                new File(path + "/.git"))
-                .readEnvironment()
-                .findGitDir()
-                .setMustExist(true)
-                .build();
+    private String getKey(String repositoryURL, String commitHash) {
+        return repositoryURL + " " + commitHash;
     }
 
 }
@@ -0,0 +1,53 @@
+package pacr.benchmarker.services.git;
+
+import lombok.Getter;
+
+/**
+ * Represents a worktree of the git handler. A worktree is a working copy of a repository in which one commit is
+ * checked out.
+ */
+@Getter
+public class Worktree {
+
+    // the name of the directory of the worktree
+    private String name;
+
+    private String repositoryURL;
+
+    // the commit which is checked out. null if no commit is checked out yet. Set by the holder of the worktree
+    private volatile String commitHash;
+
+    // the time the worktree was used last in the order of the pool
+    private long lastUse;
+
+    /**
+     * Creates a new worktree in which no commit is checked out.
+     * @param name is the name of the directory of the worktree.
+     * @param repositoryURL is the URL of the repository.
+     */
+    Worktree(String name, String repositoryURL) {
+        this.name = name;
+        this.repositoryURL = repositoryURL;
+    }
+
+    /**
+     * @param repositoryURL is the URL of the repository.
+     * @param commitHash is the hash of the commit.
+     * @return whether the commit of the repository is checked out in this worktree.
+     */
+    public boolean isAt(String repositoryURL, String commitHash) {
+        return this.repositoryURL.equals(repositoryURL) && commitHash != null && commitHash.equals(this.commitHash);
+    }
+
+    /**
+     * Sets the commit which is checked out in this worktree.
+     * @param commitHash is the hash of the commit. null while the files of a commit are changed.
+     */
+    public void setCommitHash(String commitHash) {
+        this.commitHash = commitHash;
+    }
+
+    void setLastUse(long lastUse) {
+        this.lastUse = lastUse;
+    }
+}
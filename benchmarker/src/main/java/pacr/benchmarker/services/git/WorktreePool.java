@@ -0,0 +1,148 @@
+package pacr.benchmarker.services.git;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Keeps track of the worktrees of the git handler. A worktree is either held by someone who uses it, e.g. a slot
+ * which runs a benchmark in it, or idle. Idle worktrees keep their checkout, so a job for the same commit can start
+ * right away and a job for another commit of the same repository only has to check out the changed files.
+ * If there are more idle worktrees than the size of the pool, the least recently used ones are removed.
+ */
+public class WorktreePool {
+
+    private int size;
+
+    private Map<String, Worktree> heldWorktrees;
+    private List<Worktree> idleWorktrees;
+
+    private int nextName;
+    private long useCounter;
+
+    /**
+     * Creates a new empty pool.
+     * @param size is the maximum amount of idle worktrees.
+     */
+    public WorktreePool(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("The size of the worktree pool must be positive.");
+        }
+
+        this.size = size;
+        this.heldWorktrees = new HashMap<>();
+        this.idleWorktrees = new ArrayList<>();
+    }
+
+    /**
+     * Gives a worktree of the repository to a holder. An idle worktree in which the commit is checked out is
+     * preferred, then the least recently used idle worktree of the repository. If there is none a new worktree is
+     * created. The commit must be checked out in the worktree before it is used.
+     * @param holder is the holder of the worktree. It must not hold a worktree yet.
+     * @param repositoryURL is the URL of the repository.
+     * @param commitHash is the hash of the commit.
+     * @return the worktree.
+     */
+    public synchronized Worktree acquire(String holder, String repositoryURL, String commitHash) {
+        Objects.requireNonNull(holder);
+        Objects.requireNonNull(repositoryURL);
+        if (heldWorktrees.containsKey(holder)) {
+            throw new IllegalStateException("The holder " + holder + " already holds a worktree.");
+        }
+
+        Worktree chosen = null;
+        for (Worktree worktree : idleWorktrees) {
+            if (worktree.isAt(repositoryURL, commitHash)) {
+                chosen = worktree;
+                break;
+            }
+
+            if (worktree.getRepositoryURL().equals(repositoryURL)
+                    && (chosen == null || worktree.getLastUse() < chosen.getLastUse())) {
+                chosen = worktree;
+            }
+        }
+
+        if (chosen == null) {
+            chosen = new Worktree(String.valueOf(nextName++), repositoryURL);
+        } else {
+            idleWorktrees.remove(chosen);
+        }
+
+        chosen.setLastUse(++useCounter);
+        heldWorktrees.put(holder, chosen);
+        return chosen;
+    }
+
+    /**
+     * Makes the worktree of a holder idle. Worktrees in which no commit is checked out are removed instead.
+     * @param holder is the holder of the worktree.
+     * @return the worktrees which were removed from the pool. Their directories can be deleted.
+     */
+    public synchronized List<Worktree> release(String holder) {
+        List<Worktree> removed = new ArrayList<>();
+
+        Worktree worktree = heldWorktrees.remove(holder);
+        if (worktree != null) {
+            if (worktree.getCommitHash() == null) {
+                removed.add(worktree);
+            } else {
+                worktree.setLastUse(++useCounter);
+                idleWorktrees.add(worktree);
+            }
+        }
+
+        while (idleWorktrees.size() > size) {
+            Worktree leastRecentlyUsed = idleWorktrees.get(0);
+            for (Worktree idle : idleWorktrees) {
+                if (idle.getLastUse() < leastRecentlyUsed.getLastUse()) {
+                    leastRecentlyUsed = idle;
+                }
+            }
+
+            idleWorktrees.remove(leastRecentlyUsed);
+            removed.add(leastRecentlyUsed);
+        }
+
+        return removed;
+    }
+
+    /**
+     * Removes the worktree of a holder from the pool, e.g. because the commit could not be checked out in it.
+     * @param holder is the holder of the worktree.
+     * @return the removed worktree. null if the holder held no worktree.
+     */
+    public synchronized Worktree discard(String holder) {
+        return heldWorktrees.remove(holder);
+    }
+
+    /**
+     * @param repositoryURL is the URL of the repository.
+     * @param commitHash is the hash of the commit.
+     * @return whether the commit is checked out in a worktree of the pool, no matter if it is held or idle.
+     */
+    public synchronized boolean contains(String repositoryURL, String commitHash) {
+        for (Worktree worktree : idleWorktrees) {
+            if (worktree.isAt(repositoryURL, commitHash)) {
+                return true;
+            }
+        }
+
+        for (Worktree worktree : heldWorktrees.values()) {
+            if (worktree.isAt(repositoryURL, commitHash)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @return the amount of idle worktrees.
+     */
+    public synchronized int getAmtIdle() {
+        return idleWorktrees.size();
+    }
+}
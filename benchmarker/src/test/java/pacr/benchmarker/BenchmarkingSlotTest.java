@@ -0,0 +1,52 @@
+package pacr.benchmarker;
+
+import org.junit.jupiter.api.Test;
+import pacr.benchmarker.services.BenchmarkingSlot;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BenchmarkingSlotTest {
+
+    @Test
+    public void partition_coresSplitEvenly() {
+        List<BenchmarkingSlot> slots = BenchmarkingSlot.partition(4, "", 64, true);
+
+        assertEquals(4, slots.size());
+        assertEquals("0-15", slots.get(0).getCpuSet());
+        assertEquals("48-63", slots.get(3).getCpuSet());
+        assertEquals(16, slots.get(3).getCores());
+        assertEquals("", slots.get(0).getWorkingDir());
+        assertEquals("slot3", slots.get(3).getWorkingDir());
+    }
+
+    @Test
+    public void partition_givenCpuSets() {
+        List<BenchmarkingSlot> slots = BenchmarkingSlot.partition(2, "0-3,8-11; 4-7,12-15", 16, true);
+
+        assertEquals("0-3,8-11", slots.get(0).getCpuSet());
+        assertEquals("4-7,12-15", slots.get(1).getCpuSet());
+        assertEquals(8, slots.get(1).getCores());
+    }
+
+    @Test
+    public void partition_notPinned_allCoresShared() {
+        List<BenchmarkingSlot> slots = BenchmarkingSlot.partition(2, "0-1;2-3", 8, false);
+
+        assertNull(slots.get(1).getCpuSet());
+        assertEquals(8, slots.get(1).getCores());
+    }
+
+    @Test
+    public void partition_invalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> BenchmarkingSlot.partition(0, "", 8, true));
+        assertThrows(IllegalArgumentException.class, () -> BenchmarkingSlot.partition(4, "", 2, true));
+        assertThrows(IllegalArgumentException.class, () -> BenchmarkingSlot.partition(2, "0-3", 8, true));
+        assertThrows(IllegalArgumentException.class, () -> BenchmarkingSlot.partition(2, "0-3;4-5", 8, true));
+        assertThrows(IllegalArgumentException.class, () -> BenchmarkingSlot.partition(2, "0-3;a-b", 8, true));
+    }
+
+}
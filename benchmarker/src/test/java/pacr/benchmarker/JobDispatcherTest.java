@@ -8,6 +8,9 @@ import pacr.benchmarker.services.BenchmarkingResult;
 import pacr.benchmarker.services.JobDispatcher;
 import pacr.benchmarker.services.ResultInterpretation;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.hibernate.validator.internal.util.Contracts.assertNotNull;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -113,6 +116,58 @@ public class JobDispatcherTest {
         assertEquals(0, result.getBenchmarks().size());
     }
 
+    @Test
+    public void timeout() {
+        String script = "timeout" + runnerScriptExtension;
+
+        jobDispatcher = new JobDispatcher(script, RUNNER_DIR);
+
+        long start = System.currentTimeMillis();
+        BenchmarkingResult result = jobDispatcher.dispatchJob(RELATIVE_TEST_REPO_PATH, 1);
+
+        assertTrue(System.currentTimeMillis() - start < 10000);
+        assertTrue(result.getGlobalError().startsWith("Timeout"));
+        assertEquals(0, result.getBenchmarks().size());
+    }
+
+    @Test
+    public void streamedResult() {
+        jobDispatcher = new JobDispatcher("stream" + runnerScriptExtension, RUNNER_DIR);
+
+        List<BenchmarkingResult> partialResults = new ArrayList<>();
+        BenchmarkingResult result = jobDispatcher.dispatchJob(RELATIVE_TEST_REPO_PATH, 0, null,
+                partialResults::add);
+
+        assertEquals(2, partialResults.size());
+        assertTrue(partialResults.get(0).getBenchmarks().containsKey("TheBenchmark"));
+        assertTrue(partialResults.get(1).getBenchmarks().containsKey("TheOtherBenchmark"));
+
+        assertEquals("", result.getGlobalError());
+        assertEquals(2, result.getBenchmarks().size());
+        assertEquals(3, result.getBenchmarks().get("TheOtherBenchmark").getProperties().get("Performance")
+                .getResults().size());
+    }
+
+    @Test
+    public void streamedResult_runnerFails_keepsStreamedBenchmarks() {
+        jobDispatcher = new JobDispatcher("stream-error" + runnerScriptExtension, RUNNER_DIR);
+
+        BenchmarkingResult result = jobDispatcher.dispatchJob(RELATIVE_TEST_REPO_PATH, 0, null,
+                partialResult -> { });
+
+        assertEquals("Exit code 1", result.getGlobalError());
+        assertEquals(1, result.getBenchmarks().size());
+        assertTrue(result.getBenchmarks().containsKey("TheBenchmark"));
+    }
+
+    @Test
+    public void resultAtEnd_noPartialResults() {
+        List<BenchmarkingResult> partialResults = new ArrayList<>();
+        jobDispatcher.dispatchJob(RELATIVE_TEST_REPO_PATH, 0, null, partialResults::add);
+
+        assertTrue(partialResults.isEmpty());
+    }
+
     @Test
     public void runnerError() {
         jobDispatcher.dispatchJob("nopath");
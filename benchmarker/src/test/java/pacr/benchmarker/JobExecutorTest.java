@@ -11,10 +11,16 @@ import pacr.benchmarker.services.*;
 import pacr.benchmarker.services.git.GitHandler;
 
 import java.util.HashSet;
+import java.util.List;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -44,11 +50,11 @@ public class JobExecutorTest {
 
     @Test
     public void executeJob() {
-        when(gitHandler.setupRepositoryForBenchmark(REPOSITORY_URL, COMMIT_HASH)).thenReturn(PATH);
-        when(jobDispatcher.dispatchJob(anyString())).thenReturn(result);
+        when(gitHandler.setupRepositoryForBenchmark(REPOSITORY_URL, COMMIT_HASH, "")).thenReturn(PATH);
+        when(jobDispatcher.dispatchJob(anyString(), anyLong(), any(), any())).thenReturn(result);
 
         jobExecutor.executeJob(REPOSITORY_URL, COMMIT_HASH);
-        verify(gitHandler).setupRepositoryForBenchmark(REPOSITORY_URL, COMMIT_HASH);
+        verify(gitHandler).setupRepositoryForBenchmark(REPOSITORY_URL, COMMIT_HASH, "");
 
         ArgumentCaptor<JobResult> resultArgumentCaptor = ArgumentCaptor.forClass(JobResult.class);
 
@@ -60,13 +66,49 @@ public class JobExecutorTest {
         assertEquals(REPOSITORY_URL, jobResult.getRepository());
     }
 
+    @Test
+    public void executeJob_timeoutPassedToDispatcher() {
+        when(gitHandler.setupRepositoryForBenchmark(REPOSITORY_URL, COMMIT_HASH, "")).thenReturn(PATH);
+        when(jobDispatcher.dispatchJob(anyString(), anyLong(), any())).thenReturn(result);
+
+        jobExecutor.executeJob(REPOSITORY_URL, COMMIT_HASH, 60);
+
+        verify(jobDispatcher).dispatchJob(eq(PATH), eq(60L), isNull(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void executeJob_streamedBenchmarks_sentAsPartialResults() {
+        BenchmarkingResult partialResult = new BenchmarkingResult();
+
+        when(gitHandler.setupRepositoryForBenchmark(REPOSITORY_URL, COMMIT_HASH, "")).thenReturn(PATH);
+        when(jobDispatcher.dispatchJob(anyString(), anyLong(), any(), any())).thenAnswer(invocation -> {
+            invocation.getArgument(3, Consumer.class).accept(partialResult);
+            return result;
+        });
+
+        jobExecutor.executeJob(REPOSITORY_URL, COMMIT_HASH);
+
+        ArgumentCaptor<JobResult> partialArgumentCaptor = ArgumentCaptor.forClass(JobResult.class);
+        verify(resultSender).sendPartialJobResults(partialArgumentCaptor.capture());
+
+        JobResult partialJobResult = partialArgumentCaptor.getValue();
+        assertEquals(partialResult, partialJobResult.getBenchmarkingResult());
+        assertEquals(COMMIT_HASH, partialJobResult.getCommitHash());
+        assertEquals(0, partialJobResult.getSystemEnvironment().getSlot());
+
+        ArgumentCaptor<JobResult> resultArgumentCaptor = ArgumentCaptor.forClass(JobResult.class);
+        verify(resultSender).sendJobResults(resultArgumentCaptor.capture());
+        assertEquals(result, resultArgumentCaptor.getValue().getBenchmarkingResult());
+    }
+
     @Test
     public void cloningError() {
-        when(gitHandler.setupRepositoryForBenchmark(REPOSITORY_URL, COMMIT_HASH)).thenReturn(null);
-        when(jobDispatcher.dispatchJob(PATH)).thenReturn(result);
+        when(gitHandler.setupRepositoryForBenchmark(REPOSITORY_URL, COMMIT_HASH, "")).thenReturn(null);
+        when(jobDispatcher.dispatchJob(anyString(), anyLong(), any(), any())).thenReturn(result);
 
         jobExecutor.executeJob(REPOSITORY_URL, COMMIT_HASH);
-        verify(gitHandler).setupRepositoryForBenchmark(REPOSITORY_URL, COMMIT_HASH);
+        verify(gitHandler).setupRepositoryForBenchmark(REPOSITORY_URL, COMMIT_HASH, "");
 
         ArgumentCaptor<JobResult> resultArgumentCaptor = ArgumentCaptor.forClass(JobResult.class);
 
@@ -77,4 +119,50 @@ public class JobExecutorTest {
         assertNotEquals("", jobResult.getBenchmarkingResult().getGlobalError());
     }
 
+    @Test
+    public void submitJob_runsInSlot() {
+        List<BenchmarkingSlot> slots = BenchmarkingSlot.partition(2, "0-1;2-3", 4, true);
+        jobExecutor = new JobExecutor(gitHandler, jobDispatcher, relativePathToWorkingDir, slots);
+        jobExecutor.setResultSender(resultSender);
+
+        when(gitHandler.setupRepositoryForBenchmark(REPOSITORY_URL, COMMIT_HASH, "slot1")).thenReturn(PATH);
+        when(jobDispatcher.dispatchJob(anyString(), anyLong(), any())).thenReturn(result);
+
+        jobExecutor.submitJob(REPOSITORY_URL, COMMIT_HASH, 60, 1).join();
+
+        verify(jobDispatcher).dispatchJob(eq(PATH), eq(60L), eq("2-3"), any());
+
+        ArgumentCaptor<JobResult> resultArgumentCaptor = ArgumentCaptor.forClass(JobResult.class);
+        verify(resultSender).sendJobResults(resultArgumentCaptor.capture());
+
+        SystemEnvironment environment = resultArgumentCaptor.getValue().getSystemEnvironment();
+        assertEquals(1, environment.getSlot());
+        assertEquals(2, environment.getSlots());
+        assertEquals(2, environment.getCores());
+        assertEquals("2-3", environment.getCpuSet());
+    }
+
+    @Test
+    public void prefetchJob_repositoryPrefetched() {
+        jobExecutor.prefetchJob(REPOSITORY_URL, COMMIT_HASH);
+
+        verify(gitHandler).prefetch(REPOSITORY_URL, COMMIT_HASH);
+        verify(gitHandler, never()).setupRepositoryForBenchmark(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    public void revokeJob_prefetchCancelled() {
+        jobExecutor.revokeJob(REPOSITORY_URL, COMMIT_HASH);
+
+        verify(gitHandler).cancelPrefetch(REPOSITORY_URL, COMMIT_HASH);
+    }
+
+    @Test
+    public void submitJob_unknownSlot_notExecuted() {
+        jobExecutor.submitJob(REPOSITORY_URL, COMMIT_HASH, 60, 1).join();
+
+        verify(gitHandler, never()).setupRepositoryForBenchmark(anyString(), anyString(), anyString());
+        verify(resultSender, never()).sendJobResults(any());
+    }
+
 }
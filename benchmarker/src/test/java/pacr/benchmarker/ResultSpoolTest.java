@@ -0,0 +1,100 @@
+package pacr.benchmarker;
+
+import org.apache.tomcat.util.http.fileupload.FileUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pacr.benchmarker.services.BenchmarkingResult;
+import pacr.benchmarker.services.JobResult;
+import pacr.benchmarker.services.ResultSpool;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ResultSpoolTest {
+
+    private static final String PATH_TO_TEST_DIR = "/target/test/spool/";
+    private static final String ABS_PATH_TO_TEST_DIR = System.getProperty("user.dir") + PATH_TO_TEST_DIR;
+    private static final String PATH_TO_SPOOL = PATH_TO_TEST_DIR + "results.spool";
+    private static final String ABS_PATH_TO_SPOOL = System.getProperty("user.dir") + PATH_TO_SPOOL;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        File testDir = new File(ABS_PATH_TO_TEST_DIR);
+        if (testDir.exists()) {
+            FileUtils.deleteDirectory(testDir);
+        }
+    }
+
+    @Test
+    public void add_reopened_resultPending() {
+        ResultSpool spool = new ResultSpool(PATH_TO_SPOOL);
+        spool.add(createResult("first"));
+
+        List<JobResult> pendingResults = new ResultSpool(PATH_TO_SPOOL).getPendingResults();
+
+        assertEquals(1, pendingResults.size());
+        assertEquals("first", pendingResults.get(0).getAttemptId());
+        assertEquals("hash", pendingResults.get(0).getCommitHash());
+        assertEquals(42, pendingResults.get(0).getExecutionTime());
+        assertEquals("error", pendingResults.get(0).getBenchmarkingResult().getGlobalError());
+    }
+
+    @Test
+    public void acknowledge_reopened_resultRemoved() {
+        ResultSpool spool = new ResultSpool(PATH_TO_SPOOL);
+        spool.add(createResult("first"));
+        spool.add(createResult("second"));
+
+        assertTrue(spool.acknowledge("first"));
+        assertFalse(spool.acknowledge("first"));
+
+        List<JobResult> pendingResults = new ResultSpool(PATH_TO_SPOOL).getPendingResults();
+        assertEquals(1, pendingResults.size());
+        assertEquals("second", pendingResults.get(0).getAttemptId());
+    }
+
+    @Test
+    public void acknowledge_allResults_spoolEmpty() throws IOException {
+        ResultSpool spool = new ResultSpool(PATH_TO_SPOOL);
+        spool.add(createResult("first"));
+
+        assertTrue(spool.acknowledge("first"));
+
+        assertEquals(0, Files.size(Paths.get(ABS_PATH_TO_SPOOL)));
+        assertTrue(new ResultSpool(PATH_TO_SPOOL).getPendingResults().isEmpty());
+    }
+
+    @Test
+    public void reopen_incompleteLastRecord_skipped() throws IOException {
+        ResultSpool spool = new ResultSpool(PATH_TO_SPOOL);
+        spool.add(createResult("first"));
+
+        // the benchmarker stopped while writing the second result
+        Files.write(Paths.get(ABS_PATH_TO_SPOOL), "{\"type\":\"result\",\"res".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        List<JobResult> pendingResults = new ResultSpool(PATH_TO_SPOOL).getPendingResults();
+        assertEquals(1, pendingResults.size());
+        assertEquals("first", pendingResults.get(0).getAttemptId());
+    }
+
+    private JobResult createResult(String attemptId) {
+        BenchmarkingResult benchmarkingResult = new BenchmarkingResult();
+        benchmarkingResult.setGlobalError("error");
+
+        JobResult result = new JobResult("repository", "hash");
+        result.setAttemptId(attemptId);
+        result.setExecutionTime(42);
+        result.setBenchmarkingResult(benchmarkingResult);
+        return result;
+    }
+}
@@ -0,0 +1,78 @@
+package pacr.benchmarker.endpoints;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.gson.Gson;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.util.MimeTypeUtils;
+import pacr.benchmarker.services.BenchmarkingResult;
+import pacr.benchmarker.services.BenchmarkingResultAdapter;
+import pacr.benchmarker.services.JSONToGSONAdapter;
+import pacr.benchmarker.services.JobResult;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Test cases for JobResultMessageConverter and ResultColumnCodec.
+ */
+public class JobResultMessageConverterTest {
+
+    private static final String OUTPUT = "{ \"TestBenchmark\": { \"Performance\": { \"results\": [ 1.5, 1.5, 1.75, 2, "
+            + "1e300 ], \"unit\": \"s\", \"resultInterpretation\": \"LESS_IS_BETTER\" }, \"Broken\": { \"error\": "
+            + "\"timeout\" } } }";
+
+    private JobResultMessageConverter converter;
+
+    @BeforeEach
+    public void setUp() {
+        converter = new JobResultMessageConverter();
+    }
+
+    @Test
+    public void toMessage_compactContentType_shouldEncodeResult() throws IOException {
+        JobResult result = createResult();
+
+        Message<?> message = converter.toMessage(result,
+                new MessageHeaders(Map.of(MessageHeaders.CONTENT_TYPE, JobResultMessageConverter.MIME_TYPE)));
+
+        assertNotNull(message);
+        JsonNode decoded = converter.decode(Base64.getDecoder().decode((byte[]) message.getPayload()));
+        ObjectMapper mapper = new ObjectMapper();
+        assertEquals(mapper.readTree(mapper.writeValueAsString(result)), decoded);
+    }
+
+    @Test
+    public void toMessage_jsonContentType_shouldNotConvert() {
+        Message<?> message = converter.toMessage(createResult(),
+                new MessageHeaders(Map.of(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.APPLICATION_JSON)));
+
+        assertNull(message);
+    }
+
+    @Test
+    public void decode_encodedColumn_shouldReturnValues() {
+        double[] values = {12.5, 12.5, 12.75, 0.0, -0.0, Double.NaN, Double.MAX_VALUE, Double.MIN_VALUE, 1e-300};
+
+        assertArrayEquals(values, ResultColumnCodec.decode(ResultColumnCodec.encode(values)));
+    }
+
+    private JobResult createResult() {
+        String gsonFormat = new JSONToGSONAdapter().convertJSONToGSON(OUTPUT);
+
+        JobResult result = new JobResult("repository", "commitHash");
+        result.setBenchmarkingResult(new BenchmarkingResult(
+                new Gson().fromJson(gsonFormat, BenchmarkingResultAdapter.class)));
+        return result;
+    }
+
+}
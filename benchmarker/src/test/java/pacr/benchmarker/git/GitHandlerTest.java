@@ -3,6 +3,7 @@ package pacr.benchmarker.git;
 import org.apache.tomcat.util.http.fileupload.FileUtils;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
 import org.junit.jupiter.api.AfterEach;
@@ -13,6 +14,9 @@ import pacr.benchmarker.services.git.SSHTransportConfigCallback;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -30,6 +34,10 @@ public class GitHandlerTest {
     private static final String COMMIT_HASH3 = "58711941d4bd3034b74868c202c89d9b3e2e138e";
     private static final String SSH_KEY = "/src/test/resources/pacr/benchmarker/services/git/ssh.key";
     private static final String WORKING_DIR = "/target/test";
+    private static final String ABS_WORKING_DIR = System.getProperty("user.dir") + WORKING_DIR;
+    private static final String ORIGIN_DIR = ABS_WORKING_DIR + "/origin";
+    private static final String OTHER_ORIGIN_DIR = ABS_WORKING_DIR + "/otherOrigin";
+    private static final String SLOT = "slot1";
 
     private GitHandler gitHandler;
 
@@ -44,20 +52,19 @@ public class GitHandlerTest {
     public void setupRepositoryForBenchmark() {
         String repoDir = gitHandler.setupRepositoryForBenchmark(REPOSITORY_URL, COMMIT_HASH);
 
-        assertEquals(WORKING_DIR + "/" + REPOSITORY_URL.hashCode(), repoDir);
-        File repo = new File(System.getProperty("user.dir") + WORKING_DIR + "/" + REPOSITORY_URL.hashCode());
+        assertEquals(WORKING_DIR + "/worktrees/0", repoDir);
+        File repo = new File(System.getProperty("user.dir") + repoDir);
         assertTrue(repo.exists());
     }
 
     @Test
     public void alreadyExists() throws IOException, GitAPIException {
         gitHandler.setupRepositoryForBenchmark(REPOSITORY_URL2, COMMIT_HASH3);
-        gitHandler.setupRepositoryForBenchmark(REPOSITORY_URL2, COMMIT_HASH2);
+        String repoDir = gitHandler.setupRepositoryForBenchmark(REPOSITORY_URL2, COMMIT_HASH2);
 
         FileRepositoryBuilder repositoryBuilder = new FileRepositoryBuilder();
         Repository repo = repositoryBuilder.setGitDir(
-                new File(System.getProperty("user.dir")
-                        + WORKING_DIR + "/" + REPOSITORY_URL2.hashCode() + "/.git"))
+                new File(System.getProperty("user.dir") + repoDir + "/.git"))
                 .readEnvironment()
                 .findGitDir()
                 .setMustExist(true)
@@ -72,6 +79,110 @@ public class GitHandlerTest {
         assertNull(gitHandler.setupRepositoryForBenchmark("inv", "hash"));
     }
 
+    @Test
+    public void setupRepositoryForBenchmark_localRepository_commitCheckedOut() throws Exception {
+        String firstCommit = commitToOrigin("first");
+        commitToOrigin("second");
+
+        String repoDir = gitHandler.setupRepositoryForBenchmark(ORIGIN_DIR, firstCommit);
+
+        assertEquals(firstCommit, getHead(repoDir));
+        assertEquals("first", readFile(repoDir));
+    }
+
+    @Test
+    public void setupRepositoryForBenchmark_nextCommitOfSameHolder_worktreeReused() throws Exception {
+        String firstCommit = commitToOrigin("first");
+        String firstDir = gitHandler.setupRepositoryForBenchmark(ORIGIN_DIR, firstCommit, SLOT);
+
+        // the mirror doesn't contain the commit yet
+        String secondCommit = commitToOrigin("second");
+        String secondDir = gitHandler.setupRepositoryForBenchmark(ORIGIN_DIR, secondCommit, SLOT);
+
+        assertEquals(firstDir, secondDir);
+        assertEquals(secondCommit, getHead(secondDir));
+        assertEquals("second", readFile(secondDir));
+    }
+
+    @Test
+    public void setupRepositoryForBenchmark_twoHolders_differentWorktrees() throws Exception {
+        String commit = commitToOrigin("first");
+
+        String firstDir = gitHandler.setupRepositoryForBenchmark(ORIGIN_DIR, commit);
+        String secondDir = gitHandler.setupRepositoryForBenchmark(ORIGIN_DIR, commit, SLOT);
+
+        assertNotEquals(firstDir, secondDir);
+        assertEquals(commit, getHead(firstDir));
+        assertEquals(commit, getHead(secondDir));
+    }
+
+    @Test
+    public void prefetch_commitOfLaterJob_prefetchedWorktreeUsed() throws Exception {
+        String firstCommit = commitToOrigin("first");
+        String secondCommit = commitToOrigin("second");
+        String firstDir = gitHandler.setupRepositoryForBenchmark(ORIGIN_DIR, firstCommit);
+
+        gitHandler.prefetch(ORIGIN_DIR, secondCommit).join();
+        File prefetchedDir = new File(ABS_WORKING_DIR + "/worktrees/1");
+        assertTrue(prefetchedDir.exists());
+
+        String secondDir = gitHandler.setupRepositoryForBenchmark(ORIGIN_DIR, secondCommit, SLOT);
+
+        assertEquals(WORKING_DIR + "/worktrees/1", secondDir);
+        assertEquals(secondCommit, getHead(secondDir));
+        assertEquals(firstCommit, getHead(firstDir));
+    }
+
+    @Test
+    public void cancelPrefetch_waitingPrefetch_skipped() throws Exception {
+        String firstCommit = commitToOrigin("first");
+        String secondCommit = commitToOrigin("second");
+
+        // the second prefetch waits until the repository is cloned for the first one
+        CompletableFuture<Void> firstPrefetch = gitHandler.prefetch(ORIGIN_DIR, firstCommit);
+        CompletableFuture<Void> secondPrefetch = gitHandler.prefetch(ORIGIN_DIR, secondCommit);
+
+        assertTrue(gitHandler.cancelPrefetch(ORIGIN_DIR, secondCommit));
+        firstPrefetch.join();
+
+        assertTrue(secondPrefetch.isCancelled());
+        assertTrue(new File(ABS_WORKING_DIR + "/worktrees/0").exists());
+        assertFalse(new File(ABS_WORKING_DIR + "/worktrees/1").exists());
+    }
+
+    @Test
+    public void cancelPrefetch_finishedPrefetch_false() throws Exception {
+        String commit = commitToOrigin("first");
+        gitHandler.prefetch(ORIGIN_DIR, commit).join();
+
+        assertFalse(gitHandler.cancelPrefetch(ORIGIN_DIR, commit));
+        assertEquals(commit, getHead(gitHandler.setupRepositoryForBenchmark(ORIGIN_DIR, commit)));
+    }
+
+    @Test
+    public void setupRepositoryForBenchmark_moreIdleWorktreesThanPoolSize_leastRecentlyUsedDeleted() throws Exception {
+        gitHandler = new GitHandler(WORKING_DIR, new SSHTransportConfigCallback(SSH_KEY), 1);
+        String commit = commitToOrigin(ORIGIN_DIR, "first");
+        String otherCommit = commitToOrigin(OTHER_ORIGIN_DIR, "other");
+
+        String firstDir = gitHandler.setupRepositoryForBenchmark(ORIGIN_DIR, commit);
+        String otherDir = gitHandler.setupRepositoryForBenchmark(OTHER_ORIGIN_DIR, otherCommit);
+
+        // both worktrees are idle now, the first one was used less recently
+        String secondDir = gitHandler.setupRepositoryForBenchmark(ORIGIN_DIR, commit);
+
+        assertFalse(new File(System.getProperty("user.dir") + firstDir).exists());
+        assertTrue(new File(System.getProperty("user.dir") + otherDir).exists());
+        assertEquals(commit, getHead(secondDir));
+    }
+
+    @Test
+    public void setupRepositoryForBenchmark_unknownCommit_null() throws Exception {
+        commitToOrigin("first");
+
+        assertNull(gitHandler.setupRepositoryForBenchmark(ORIGIN_DIR, "0123456789012345678901234567890123456789"));
+    }
+
     @AfterEach
     public void cleanUp() {
         deleteDirectories();
@@ -79,10 +190,38 @@ public class GitHandlerTest {
 
     private void deleteDirectories() {
         try {
-            FileUtils.deleteDirectory(new File(WORKING_DIR));
+            FileUtils.deleteDirectory(new File(ABS_WORKING_DIR));
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * Commits a file with the given content to the local origin repository.
+     * @return the hash of the commit.
+     */
+    private String commitToOrigin(String content) throws IOException, GitAPIException {
+        return commitToOrigin(ORIGIN_DIR, content);
+    }
+
+    private String commitToOrigin(String originDir, String content) throws IOException, GitAPIException {
+        File origin = new File(originDir);
+        try (Git git = origin.exists() ? Git.open(origin) : Git.init().setDirectory(origin).call()) {
+            Files.write(new File(origin, "file").toPath(), content.getBytes(StandardCharsets.UTF_8));
+            git.add().addFilepattern("file").call();
+            return git.commit().setMessage(content).call().getName();
+        }
+    }
+
+    private String getHead(String repoDir) throws IOException {
+        try (Git git = Git.open(new File(System.getProperty("user.dir") + repoDir))) {
+            return git.getRepository().resolve(Constants.HEAD).getName();
+        }
+    }
+
+    private String readFile(String repoDir) throws IOException {
+        return new String(Files.readAllBytes(new File(System.getProperty("user.dir") + repoDir + "/file").toPath()),
+                StandardCharsets.UTF_8);
+    }
+
 }
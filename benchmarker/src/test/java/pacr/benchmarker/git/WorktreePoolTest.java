@@ -0,0 +1,128 @@
+package pacr.benchmarker.git;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pacr.benchmarker.services.git.Worktree;
+import pacr.benchmarker.services.git.WorktreePool;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WorktreePoolTest {
+
+    private static final String REPOSITORY_URL = "url";
+    private static final String OTHER_REPOSITORY_URL = "otherUrl";
+    private static final String COMMIT_HASH = "hash";
+    private static final String OTHER_COMMIT_HASH = "otherHash";
+    private static final String HOLDER = "holder";
+    private static final String OTHER_HOLDER = "otherHolder";
+
+    private WorktreePool pool;
+
+    @BeforeEach
+    public void setUp() {
+        pool = new WorktreePool(2);
+    }
+
+    @Test
+    public void acquire_emptyPool_newWorktree() {
+        Worktree worktree = pool.acquire(HOLDER, REPOSITORY_URL, COMMIT_HASH);
+
+        assertEquals(REPOSITORY_URL, worktree.getRepositoryURL());
+        assertNull(worktree.getCommitHash());
+        assertNotEquals(worktree.getName(), pool.acquire(OTHER_HOLDER, REPOSITORY_URL, COMMIT_HASH).getName());
+    }
+
+    @Test
+    public void acquire_holderHoldsWorktree_exception() {
+        pool.acquire(HOLDER, REPOSITORY_URL, COMMIT_HASH);
+
+        assertThrows(IllegalStateException.class, () -> pool.acquire(HOLDER, REPOSITORY_URL, COMMIT_HASH));
+    }
+
+    @Test
+    public void acquire_idleWorktreeAtCommit_preferred() {
+        Worktree atCommit = pool.acquire(HOLDER, REPOSITORY_URL, COMMIT_HASH);
+        Worktree atOtherCommit = pool.acquire(OTHER_HOLDER, REPOSITORY_URL, OTHER_COMMIT_HASH);
+        atCommit.setCommitHash(COMMIT_HASH);
+        atOtherCommit.setCommitHash(OTHER_COMMIT_HASH);
+        pool.release(HOLDER);
+        pool.release(OTHER_HOLDER);
+
+        Worktree worktree = pool.acquire(HOLDER, REPOSITORY_URL, COMMIT_HASH);
+
+        assertEquals(atCommit.getName(), worktree.getName());
+        assertTrue(worktree.isAt(REPOSITORY_URL, COMMIT_HASH));
+    }
+
+    @Test
+    public void acquire_idleWorktreesOfRepository_leastRecentlyUsedRecycled() {
+        Worktree first = pool.acquire(HOLDER, REPOSITORY_URL, COMMIT_HASH);
+        Worktree second = pool.acquire(OTHER_HOLDER, REPOSITORY_URL, OTHER_COMMIT_HASH);
+        first.setCommitHash(COMMIT_HASH);
+        second.setCommitHash(OTHER_COMMIT_HASH);
+        pool.release(HOLDER);
+        pool.release(OTHER_HOLDER);
+
+        assertEquals(first.getName(), pool.acquire(HOLDER, REPOSITORY_URL, "thirdHash").getName());
+    }
+
+    @Test
+    public void acquire_onlyWorktreesOfOtherRepository_newWorktree() {
+        String other = acquireAndRelease(HOLDER, OTHER_REPOSITORY_URL, COMMIT_HASH);
+
+        assertNotEquals(other, pool.acquire(HOLDER, REPOSITORY_URL, COMMIT_HASH).getName());
+        assertEquals(1, pool.getAmtIdle());
+    }
+
+    @Test
+    public void release_moreThanSizeIdle_leastRecentlyUsedRemoved() {
+        String first = acquireAndRelease(HOLDER, REPOSITORY_URL, COMMIT_HASH);
+        acquireAndRelease(HOLDER, OTHER_REPOSITORY_URL, COMMIT_HASH);
+
+        Worktree third = pool.acquire(HOLDER, "thirdUrl", COMMIT_HASH);
+        third.setCommitHash(COMMIT_HASH);
+        List<Worktree> removed = pool.release(HOLDER);
+
+        assertEquals(1, removed.size());
+        assertEquals(first, removed.get(0).getName());
+        assertEquals(2, pool.getAmtIdle());
+        assertFalse(pool.contains(REPOSITORY_URL, COMMIT_HASH));
+    }
+
+    @Test
+    public void release_nothingCheckedOut_removed() {
+        Worktree worktree = pool.acquire(HOLDER, REPOSITORY_URL, COMMIT_HASH);
+
+        assertEquals(List.of(worktree), pool.release(HOLDER));
+        assertEquals(0, pool.getAmtIdle());
+    }
+
+    @Test
+    public void contains_heldOrIdle_true() {
+        acquireAndRelease(HOLDER, REPOSITORY_URL, COMMIT_HASH);
+        Worktree held = pool.acquire(OTHER_HOLDER, OTHER_REPOSITORY_URL, COMMIT_HASH);
+        held.setCommitHash(COMMIT_HASH);
+
+        assertTrue(pool.contains(REPOSITORY_URL, COMMIT_HASH));
+        assertTrue(pool.contains(OTHER_REPOSITORY_URL, COMMIT_HASH));
+        assertFalse(pool.contains(REPOSITORY_URL, OTHER_COMMIT_HASH));
+    }
+
+    @Test
+    public void discard_heldWorktree_notInPool() {
+        Worktree worktree = pool.acquire(HOLDER, REPOSITORY_URL, COMMIT_HASH);
+
+        assertEquals(worktree, pool.discard(HOLDER));
+        assertNull(pool.discard(HOLDER));
+        assertEquals(0, pool.getAmtIdle());
+    }
+
+    private String acquireAndRelease(String holder, String repositoryURL, String commitHash) {
+        Worktree worktree = pool.acquire(holder, repositoryURL, commitHash);
+        worktree.setCommitHash(commitHash);
+        pool.release(holder);
+        return worktree.getName();
+    }
+}
@@ -0,0 +1,5 @@
+@echo off
+
+set /p line=< stream.txt
+echo %line%
+exit 1
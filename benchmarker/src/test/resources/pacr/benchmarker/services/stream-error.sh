@@ -0,0 +1,2 @@
+head -n 1 stream.txt
+exit 1
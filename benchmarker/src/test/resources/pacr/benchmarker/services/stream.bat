@@ -0,0 +1,3 @@
+@echo off
+
+type stream.txt
@@ -0,0 +1 @@
+cat stream.txt
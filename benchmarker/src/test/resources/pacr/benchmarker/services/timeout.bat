@@ -0,0 +1,5 @@
+@echo off
+
+timeout /t 30 /nobreak > NUL
+
+type result.txt
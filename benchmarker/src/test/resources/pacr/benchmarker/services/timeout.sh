@@ -0,0 +1,2 @@
+sleep 30
+cat result.txt
@@ -2,13 +2,17 @@ package pacr.webapp_backend.benchmarker_communication.endpoints;
 
 import java.security.Principal;
 import java.util.Map;
+import java.util.Objects;
 import org.springframework.http.server.ServerHttpRequest;
 import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
 
+import javax.validation.constraints.NotNull;
+
 /**
  * This class assigns a name to each new client that is registered.
  * If the client is already registered it gets its old name reassigned.
+ * In a cluster the names start with the id of the node, so they are unique on all nodes.
  */
 class AssignPrincipalHandshakeHandler extends DefaultHandshakeHandler {
 
@@ -17,6 +21,26 @@ class AssignPrincipalHandshakeHandler extends DefaultHandshakeHandler {
     private static final String CLIENT_PREFIX = "client";
     private static int clientID;
 
+    private final String namePrefix;
+
+    /**
+     * Creates a new AssignPrincipalHandshakeHandler for a web app which doesn't run in a cluster.
+     */
+    AssignPrincipalHandshakeHandler() {
+        this("");
+    }
+
+    /**
+     * Creates a new AssignPrincipalHandshakeHandler.
+     *
+     * @param namePrefix the prefix of all names, e.g. the id of the node.
+     */
+    AssignPrincipalHandshakeHandler(@NotNull final String namePrefix) {
+        Objects.requireNonNull(namePrefix, "The name prefix cannot be null.");
+
+        this.namePrefix = namePrefix;
+    }
+
     /**
      * Checks whether the client already has a name associated and assigns it to the client.
      * If the client is new, a new unique name is created and assigned.
@@ -35,7 +59,7 @@ class AssignPrincipalHandshakeHandler extends DefaultHandshakeHandler {
         if (attributes.containsKey(ATTR_PRINCIPAL)) {
             name = (String) attributes.get(ATTR_PRINCIPAL);
         } else {
-            name = generateUsername();
+            name = namePrefix + generateUsername();
             attributes.put(ATTR_PRINCIPAL, name);
         }
 
@@ -4,6 +4,7 @@ import java.security.Principal;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 
 import org.springframework.context.ApplicationListener;
 import org.springframework.context.annotation.Lazy;
@@ -11,9 +12,11 @@ import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.messaging.simp.annotation.SendToUser;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import pacr.webapp_backend.benchmarker_communication.services.BenchmarkerOwnership;
 import pacr.webapp_backend.benchmarker_communication.services.IBenchmarkerConfigurationSender;
 import pacr.webapp_backend.benchmarker_communication.services.IBenchmarkerHandler;
 import pacr.webapp_backend.benchmarker_communication.services.IJobRegistry;
@@ -33,6 +36,10 @@ public class BenchmarkerController
 
     private final SimpMessagingTemplate template;
 
+    // the encodings of results the benchmarkers can use in the order of preference
+    private static final List<String> RESULT_ENCODINGS = List.of(JobResultMessageConverter.MIME_TYPE.toString(),
+            MimeTypeUtils.APPLICATION_JSON_VALUE);
+
     /**
      * Creates a new BenchmarkerController.
      *
@@ -49,6 +56,7 @@ public class BenchmarkerController
 
     /**
      * Registers a new benchmarker and saves its current system environment.
+     * A registered benchmarker is told which encodings of results are accepted, so it can send compact results.
      *
      * @param systemEnvironment the current system environment of the benchmarker.
      * @param principal the principal assigned by the handshake handler.
@@ -64,8 +72,9 @@ public class BenchmarkerController
 
         final String address = principal.getName();
 
-        if (stringIsValid(address)) {
-            return benchmarkerHandler.registerBenchmarker(address, systemEnvironment);
+        if (stringIsValid(address) && benchmarkerHandler.registerBenchmarker(address, systemEnvironment)) {
+            template.convertAndSendToUser(address, "/queue/resultEncodings", RESULT_ENCODINGS);
+            return true;
         }
 
         return false;
@@ -115,6 +124,14 @@ public class BenchmarkerController
         return allBenchmarkers;
     }
 
+    /**
+     * @return the benchmarkers of all nodes of the cluster and the nodes they are connected to.
+     */
+    @RequestMapping("/benchmarkers/nodes")
+    public Collection<BenchmarkerOwnership> getBenchmarkerNodes() {
+        return benchmarkerHandler.getBenchmarkerOwnerships();
+    }
+
     /**
      * Sends the current private ssh key to all registered benchmarkers.
      *
@@ -4,15 +4,21 @@ import java.security.Principal;
 import java.util.Objects;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationListener;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 import pacr.webapp_backend.benchmarker_communication.services.BenchmarkerJob;
+import pacr.webapp_backend.benchmarker_communication.services.DispatchMetricsReport;
+import pacr.webapp_backend.benchmarker_communication.services.IngestionMetricsReport;
 import pacr.webapp_backend.benchmarker_communication.services.IJobSender;
 import pacr.webapp_backend.benchmarker_communication.services.JobHandler;
 import pacr.webapp_backend.benchmarker_communication.services.JobResult;
+import pacr.webapp_backend.benchmarker_communication.services.ResultIngester;
+import pacr.webapp_backend.benchmarker_communication.services.SlotAddresses;
 
 import javax.validation.constraints.NotNull;
 
@@ -22,17 +28,23 @@ import javax.validation.constraints.NotNull;
 @RestController
 public class BenchmarkingJobsController implements IJobSender, ApplicationListener<SessionDisconnectEvent> {
 
+    private static final String SLOT_HEADER = "slot";
+
     private JobHandler jobHandler;
 
     private final SimpMessagingTemplate template;
 
+    private final ResultIngester resultIngester;
+
     /**
      * Creates a new BenchmarkingJobsController.
      *
      * @param template a messaging template to send messages to clients.
+     * @param resultIngester the result ingester which saves the received results.
      */
-    public BenchmarkingJobsController(final SimpMessagingTemplate template) {
+    public BenchmarkingJobsController(final SimpMessagingTemplate template, final ResultIngester resultIngester) {
         this.template = template;
+        this.resultIngester = resultIngester;
     }
 
     /**
@@ -49,6 +61,7 @@ public class BenchmarkingJobsController implements IJobSender, ApplicationListen
 
     /**
      * Receives results from a benchmarker and delegates them to the jobHandler.
+     * The results belong to the slot given by their system environment.
      *
      * @param result the result from the benchmarker.
      * @param principal the principal assigned by the handshake handler.
@@ -64,26 +77,135 @@ public class BenchmarkingJobsController implements IJobSender, ApplicationListen
         final String address = principal.getName();
 
         if (stringIsValid(address)) {
-            jobHandler.receiveBenchmarkingResults(address, result);
+            final int slot = result.getSystemEnvironment() == null ? 0 : result.getSystemEnvironment().getSlot();
+
+            if (slot < 0) {
+                return false;
+            }
+
+            jobHandler.receiveBenchmarkingResults(SlotAddresses.getSlotAddress(address, slot), result);
             return true;
         }
 
         return false;
     }
 
+    /**
+     * Receives the benchmarks a benchmarker measured so far for its job and delegates them to the jobHandler.
+     * The complete results are sent to /receiveResults once the job is finished.
+     *
+     * @param result the benchmarks measured so far.
+     * @param principal the principal assigned by the handshake handler.
+     *
+     * @return if the results were received correctly.
+     */
+    @MessageMapping("/receivePartialResults")
+    public boolean receivePartialBenchmarkingResults(final JobResult result, final Principal principal) {
+        if (principal == null || result == null || !stringIsValid(principal.getName())
+                || !stringIsValid(result.getCommitHash())) {
+            return false;
+        }
+
+        final int slot = result.getSystemEnvironment() == null ? 0 : result.getSystemEnvironment().getSlot();
+
+        if (slot < 0) {
+            return false;
+        }
+
+        jobHandler.receivePartialBenchmarkingResults(SlotAddresses.getSlotAddress(principal.getName(), slot),
+                result);
+        return true;
+    }
+
+    /**
+     * Receives a heartbeat from a benchmarker which is still working on its job and delegates it to the jobHandler.
+     *
+     * @param principal the principal assigned by the handshake handler.
+     * @param slot the slot which is working on the job. Null for benchmarkers without slots.
+     *
+     * @return if the heartbeat was received correctly.
+     */
+    @MessageMapping("/heartbeat")
+    public boolean receiveHeartbeat(final Principal principal,
+                                    @Header(name = SLOT_HEADER, required = false) final Integer slot) {
+        if (principal == null || !stringIsValid(principal.getName()) || (slot != null && slot < 0)) {
+            return false;
+        }
+
+        jobHandler.receiveHeartbeat(SlotAddresses.getSlotAddress(principal.getName(), slot == null ? 0 : slot));
+        return true;
+    }
+
+    /**
+     * Gets the metrics of the dispatch loop of the jobHandler: the amount of waiting events, the amount of handled
+     * events and histograms of the time events wait and the time they take.
+     *
+     * @return the current metrics.
+     */
+    @RequestMapping("/metrics/dispatch")
+    public DispatchMetricsReport getDispatchMetrics() {
+        return jobHandler.getDispatchMetrics();
+    }
+
+    /**
+     * Gets the metrics of the result ingestion: the amount of results which wait to be saved, counters of the saved,
+     * retried and failed results and a histogram of the time from receiving a result until it is saved.
+     *
+     * @return the current metrics.
+     */
+    @RequestMapping("/metrics/ingestion")
+    public IngestionMetricsReport getIngestionMetrics() {
+        return resultIngester.getMetrics();
+    }
+
     @Override
     public boolean sendJob(final BenchmarkerJob benchmarkerJob) {
         if (!benchmarkerJobIsValid(benchmarkerJob)) {
             return false;
         }
 
-        final JobMessage jobMessage = new JobMessage(benchmarkerJob.getRepository(), benchmarkerJob.getCommitHash());
+        sendJobMessage(benchmarkerJob, "/queue/newJob");
 
-        template.convertAndSendToUser(benchmarkerJob.getAddress(), "/queue/newJob", jobMessage);
+        return true;
+    }
+
+    @Override
+    public boolean prefetchJob(final BenchmarkerJob benchmarkerJob) {
+        if (!benchmarkerJobIsValid(benchmarkerJob)) {
+            return false;
+        }
+
+        sendJobMessage(benchmarkerJob, "/queue/prefetchJob");
 
         return true;
     }
 
+    @Override
+    public void revokeJob(final BenchmarkerJob benchmarkerJob) {
+        if (benchmarkerJobIsValid(benchmarkerJob)) {
+            sendJobMessage(benchmarkerJob, "/queue/revokeJob");
+        }
+    }
+
+    private void sendJobMessage(final BenchmarkerJob benchmarkerJob, final String destination) {
+        final String address = benchmarkerJob.getAddress();
+
+        final JobMessage jobMessage = new JobMessage(benchmarkerJob.getRepository(), benchmarkerJob.getCommitHash(),
+                benchmarkerJob.getTimeout(), SlotAddresses.getSlot(address));
+
+        template.convertAndSendToUser(SlotAddresses.getBenchmarkerAddress(address), destination, jobMessage);
+    }
+
+    @Override
+    public void acknowledgeResult(final String address, final String attemptId) {
+        if (!stringIsValid(address) || !stringIsValid(attemptId)) {
+            return;
+        }
+
+        template.convertAndSendToUser(SlotAddresses.getBenchmarkerAddress(address), "/queue/resultAck",
+                new ResultAckMessage(attemptId));
+    }
+
     private boolean benchmarkerJobIsValid(final BenchmarkerJob benchmarkerJob) {
         return benchmarkerJob != null
                 && stringIsValid(benchmarkerJob.getAddress())
@@ -5,7 +5,7 @@ import lombok.NoArgsConstructor;
 
 /**
  * Represents a message to a PACR-Benchmarker that is sent over a websocket connection.
- * The message tells the benchmarker which commit needs to be benchmarked.
+ * The message tells the benchmarker which commit needs to be benchmarked and which of its slots runs the job.
  */
 @NoArgsConstructor
 @Getter
@@ -15,14 +15,23 @@ public class JobMessage {
 
     private String commitHash;
 
+    private long timeout;
+
+    // the slot of the benchmarker which runs the job
+    private int slot;
+
     /**
      * Creates a new JobMessage with a commit and the repository it belongs to.
      * @param repository the repository pull-url.
      * @param commitHash the commit hash.
+     * @param timeout the time in seconds after which the benchmarker stops the job. 0 if the job is not stopped.
+     * @param slot the slot of the benchmarker which runs the job.
      */
-    JobMessage(final String repository, final String commitHash) {
+    JobMessage(final String repository, final String commitHash, final long timeout, final int slot) {
         this.repository = repository;
         this.commitHash = commitHash;
+        this.timeout = timeout;
+        this.slot = slot;
     }
 
 }
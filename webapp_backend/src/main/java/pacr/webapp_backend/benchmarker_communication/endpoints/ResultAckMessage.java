@@ -0,0 +1,25 @@
+package pacr.webapp_backend.benchmarker_communication.endpoints;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Represents a message to a PACR-Benchmarker that is sent over a websocket connection.
+ * The message tells the benchmarker that a result was saved or discarded for good, so the benchmarker removes it from
+ * its spool and doesn't send it again.
+ */
+@NoArgsConstructor
+@Getter
+public class ResultAckMessage {
+
+    private String attemptId;
+
+    /**
+     * Creates a new ResultAckMessage.
+     * @param attemptId the attempt id of the result.
+     */
+    ResultAckMessage(final String attemptId) {
+        this.attemptId = attemptId;
+    }
+
+}
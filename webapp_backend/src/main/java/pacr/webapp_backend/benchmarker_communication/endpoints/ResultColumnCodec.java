@@ -0,0 +1,190 @@
+package pacr.webapp_backend.benchmarker_communication.endpoints;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Compresses a column of measurements by XOR-ing every value with the previous one. Consecutive measurements of a
+ * benchmark are usually close to each other, so the XOR has many leading and trailing zero bits which are not stored.
+ *
+ * The column starts with the amount of values (32 bits) and the first value (64 bits). For every further value a 0 bit
+ * means that it equals the previous value. Otherwise a 1 bit is followed either by a 0 bit and the meaningful bits of
+ * the XOR in the same block as before, or by a 1 bit, the amount of leading zeros (5 bits), the length of the
+ * meaningful bits minus one (6 bits) and the meaningful bits.
+ */
+final class ResultColumnCodec {
+
+    private static final int LEADING_ZEROS_BITS = 5;
+    private static final int MAX_LEADING_ZEROS = (1 << LEADING_ZEROS_BITS) - 1;
+    private static final int LENGTH_BITS = 6;
+
+    private ResultColumnCodec() {
+    }
+
+    /**
+     * @param values the measurements.
+     * @return the compressed column.
+     */
+    static byte[] encode(final double[] values) {
+        final BitWriter writer = new BitWriter();
+        writer.writeBits(values.length, Integer.SIZE);
+
+        if (values.length == 0) {
+            return writer.toByteArray();
+        }
+
+        long previous = Double.doubleToRawLongBits(values[0]);
+        writer.writeBits(previous, Long.SIZE);
+
+        // -1 if no block of meaningful bits was written yet
+        int blockLeading = -1;
+        int blockTrailing = 0;
+
+        for (int i = 1; i < values.length; i++) {
+            final long bits = Double.doubleToRawLongBits(values[i]);
+            final long xor = bits ^ previous;
+            previous = bits;
+
+            if (xor == 0) {
+                writer.writeBit(false);
+                continue;
+            }
+            writer.writeBit(true);
+
+            final int leading = Math.min(Long.numberOfLeadingZeros(xor), MAX_LEADING_ZEROS);
+            final int trailing = Long.numberOfTrailingZeros(xor);
+
+            if (blockLeading >= 0 && leading >= blockLeading && trailing >= blockTrailing) {
+                writer.writeBit(false);
+                writer.writeBits(xor >>> blockTrailing, Long.SIZE - blockLeading - blockTrailing);
+            } else {
+                final int length = Long.SIZE - leading - trailing;
+
+                writer.writeBit(true);
+                writer.writeBits(leading, LEADING_ZEROS_BITS);
+                writer.writeBits(length - 1, LENGTH_BITS);
+                writer.writeBits(xor >>> trailing, length);
+
+                blockLeading = leading;
+                blockTrailing = trailing;
+            }
+        }
+
+        return writer.toByteArray();
+    }
+
+    /**
+     * @param column the compressed column.
+     * @return the measurements.
+     * @throws IllegalArgumentException if the column is not valid.
+     */
+    static double[] decode(final byte[] column) {
+        final BitReader reader = new BitReader(column);
+        final int amount = (int) reader.readBits(Integer.SIZE);
+
+        // every value takes at least one bit
+        if (amount < 0 || amount > (long) column.length * Byte.SIZE) {
+            throw new IllegalArgumentException("The amount of values is not valid.");
+        }
+
+        final double[] values = new double[amount];
+
+        if (amount == 0) {
+            return values;
+        }
+
+        long previous = reader.readBits(Long.SIZE);
+        values[0] = Double.longBitsToDouble(previous);
+
+        int blockLeading = 0;
+        int blockTrailing = 0;
+
+        for (int i = 1; i < amount; i++) {
+            if (reader.readBit()) {
+                if (reader.readBit()) {
+                    blockLeading = (int) reader.readBits(LEADING_ZEROS_BITS);
+                    final int length = (int) reader.readBits(LENGTH_BITS) + 1;
+                    blockTrailing = Long.SIZE - blockLeading - length;
+
+                    if (blockTrailing < 0) {
+                        throw new IllegalArgumentException("The block of meaningful bits is not valid.");
+                    }
+                }
+
+                previous ^= reader.readBits(Long.SIZE - blockLeading - blockTrailing) << blockTrailing;
+            }
+
+            values[i] = Double.longBitsToDouble(previous);
+        }
+
+        return values;
+    }
+
+    private static final class BitWriter {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        private int current;
+        private int amtBits;
+
+        private void writeBit(final boolean bit) {
+            current = (current << 1) | (bit ? 1 : 0);
+            amtBits++;
+
+            if (amtBits == Byte.SIZE) {
+                bytes.write(current);
+                current = 0;
+                amtBits = 0;
+            }
+        }
+
+        private void writeBits(final long value, final int amount) {
+            for (int i = amount - 1; i >= 0; i--) {
+                writeBit(((value >>> i) & 1) == 1);
+            }
+        }
+
+        private byte[] toByteArray() {
+            if (amtBits > 0) {
+                bytes.write(current << (Byte.SIZE - amtBits));
+                current = 0;
+                amtBits = 0;
+            }
+
+            return bytes.toByteArray();
+        }
+    }
+
+    private static final class BitReader {
+
+        private final byte[] bytes;
+
+        private long position;
+
+        private BitReader(final byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        private boolean readBit() {
+            final int index = (int) (position / Byte.SIZE);
+
+            if (index >= bytes.length) {
+                throw new IllegalArgumentException("The column ended unexpectedly.");
+            }
+
+            final int shift = Byte.SIZE - 1 - (int) (position % Byte.SIZE);
+            position++;
+
+            return ((bytes[index] >>> shift) & 1) == 1;
+        }
+
+        private long readBits(final int amount) {
+            long value = 0;
+
+            for (int i = 0; i < amount; i++) {
+                value = (value << 1) | (readBit() ? 1 : 0);
+            }
+
+            return value;
+        }
+    }
+}
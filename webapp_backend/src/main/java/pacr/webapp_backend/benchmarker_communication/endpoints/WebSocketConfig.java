@@ -1,20 +1,38 @@
 package pacr.webapp_backend.benchmarker_communication.endpoints;
 
+import java.util.List;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.converter.MessageConverter;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import pacr.webapp_backend.shared.IClusterChannel;
 
 /**
  * Configures Websockets for this Spring application.
+ * The broker is kept in the memory of each node, so in a cluster a benchmarker gets its jobs from the node it is
+ * connected to.
  */
 @Configuration
 @EnableScheduling
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private static final String NODE_SEPARATOR = "-";
+
+    private final IClusterChannel cluster;
+
+    /**
+     * Creates a new WebSocketConfig.
+     *
+     * @param cluster the channel to the other nodes of the cluster.
+     */
+    public WebSocketConfig(final IClusterChannel cluster) {
+        this.cluster = cluster;
+    }
+
     /**
      * Setup the message broker to be memory based.
      * /topic is used for a broadcast to all registered clients
@@ -30,13 +48,31 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     }
 
     /**
-     * Set /connect as the entry point for clients where they are assigned a unique name.
+     * Adds the converter of the compact result encoding of the benchmarkers.
+     *
+     * @param messageConverters the message converters.
+     * @return true, so the default converters are added as well.
+     */
+    @Override
+    public boolean configureMessageConverters(final List<MessageConverter> messageConverters) {
+        messageConverters.add(new JobResultMessageConverter());
+
+        // the default converters are added as well, so results are still accepted as JSON
+        return true;
+    }
+
+    /**
+     * Set /connect as the entry point for clients where they are assigned a unique name. In a cluster the names are
+     * unique on all nodes.
      *
      * @param registry the endpoint registry.
      */
     @Override
     public void registerStompEndpoints(final StompEndpointRegistry registry) {
-        registry.addEndpoint("/connect").setHandshakeHandler(new AssignPrincipalHandshakeHandler()).withSockJS();
+        final String namePrefix = cluster.isClustered() ? cluster.getNodeId() + NODE_SEPARATOR : "";
+
+        registry.addEndpoint("/connect").setHandshakeHandler(new AssignPrincipalHandshakeHandler(namePrefix))
+                .withSockJS();
     }
 
 }
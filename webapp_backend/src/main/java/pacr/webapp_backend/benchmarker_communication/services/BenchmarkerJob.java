@@ -14,20 +14,39 @@ public class BenchmarkerJob {
     private String repository;
     private String commitHash;
 
+    // the time in seconds after which the benchmarker stops the job. 0 if the job is not stopped
+    private long timeout;
+
     /**
-     * Creates a new BenchmarkerJob.
+     * Creates a new BenchmarkerJob without a timeout.
      * @param address the address of the benchmarker that gets the job.
      * @param repository the pull-url of the repository the commit belongs to.
      * @param commitHash the commit hash of the commit which gets benchmarked.
      */
     public BenchmarkerJob(final String address, final String repository, final String commitHash) {
+        this(address, repository, commitHash, 0);
+    }
+
+    /**
+     * Creates a new BenchmarkerJob.
+     * @param address the address of the benchmarker that gets the job.
+     * @param repository the pull-url of the repository the commit belongs to.
+     * @param commitHash the commit hash of the commit which gets benchmarked.
+     * @param timeout the time in seconds after which the benchmarker stops the job. 0 if the job is not stopped.
+     */
+    public BenchmarkerJob(final String address, final String repository, final String commitHash,
+                          final long timeout) {
         verifyAddress(address);
         verifyRepository(repository);
         verifyCommitHash(commitHash);
+        if (timeout < 0) {
+            throw new IllegalArgumentException("The timeout cannot be negative.");
+        }
 
         this.address = address;
         this.repository = repository;
         this.commitHash = commitHash;
+        this.timeout = timeout;
     }
 
     private static void verifyAddress(final String address) {
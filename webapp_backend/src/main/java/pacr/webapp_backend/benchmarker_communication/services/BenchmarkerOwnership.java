@@ -0,0 +1,54 @@
+package pacr.webapp_backend.benchmarker_communication.services;
+
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/**
+ * A registered benchmarker and the node of the cluster it is connected to. A benchmarker only gets jobs from the node
+ * it is connected to.
+ */
+@Entity
+@Getter
+@NoArgsConstructor
+public class BenchmarkerOwnership {
+
+    private static final int HARDWARE_CLASS_LENGTH = 1000;
+
+    @Id
+    private String address;
+
+    // null if the web app doesn't run in a cluster
+    private String nodeId;
+
+    private String computerName;
+
+    @Column(length = HARDWARE_CLASS_LENGTH)
+    private String hardwareClass;
+
+    private int slots;
+
+    private LocalDateTime registered;
+
+    /**
+     * Creates a new benchmarker ownership.
+     * @param address the address of the benchmarker.
+     * @param nodeId the id of the node the benchmarker is connected to.
+     * @param systemEnvironment the system environment of the benchmarker.
+     * @param registered the date the benchmarker was registered.
+     */
+    BenchmarkerOwnership(final String address, final String nodeId, final SystemEnvironment systemEnvironment,
+                         final LocalDateTime registered) {
+        this.address = address;
+        this.nodeId = nodeId;
+        this.computerName = systemEnvironment.getComputerName();
+        this.hardwareClass = systemEnvironment.getHardwareClass();
+        this.slots = systemEnvironment.getAmtSlots();
+        this.registered = registered;
+    }
+
+}
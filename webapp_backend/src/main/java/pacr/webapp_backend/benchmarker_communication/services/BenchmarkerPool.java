@@ -1,45 +1,102 @@
 package pacr.webapp_backend.benchmarker_communication.services;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Queue;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
+import pacr.webapp_backend.shared.IClusterChannel;
 
 /**
  * Manages a collection of PACR-Benchmarkers and ensures that a Benchmarker is only given out
  * if it is marked as free.
+ *
+ * The pool can be used by several threads without locking. Every benchmarker has an atomic state which is only
+ * changed by compare-and-set, so a benchmarker can't be occupied twice. The free benchmarkers are kept in a
+ * lock-free queue. Benchmarkers which are no longer free are removed from the queue lazily when they reach its head.
+ *
+ * A benchmarker with several slots runs one job per slot at the same time. Each slot is kept like a benchmarker of
+ * its own with the address given by {@link SlotAddresses}. Unregistering or draining a benchmarker affects all of its
+ * slots.
+ *
+ * In a cluster every node has its own pool of the benchmarkers which are connected to it. The pools store which node
+ * each benchmarker belongs to, so all benchmarkers of the cluster can be listed on every node.
  */
 @Component
 public class BenchmarkerPool implements IBenchmarkerHandler, IBenchmarkerPool {
 
     private static final Logger LOGGER = LogManager.getLogger(BenchmarkerPool.class);
 
-    private final Map<String, SystemEnvironment> allBenchmarkers;
+    private final Map<String, Slot> allBenchmarkers;
 
-    private final Set<String> occupiedBenchmarkers;
-    private final Queue<String> freeBenchmarkers;
+    // the registered slots of each benchmarker by the address of the benchmarker. The lists are replaced, not changed
+    private final Map<String, List<Slot>> slotsByBenchmarker;
+
+    // contains every free benchmarker once. May contain benchmarkers which are no longer free
+    private final Queue<Slot> freeBenchmarkers;
+
+    private final AtomicInteger amtFree;
 
     private final Collection<INewRegistrationListener> newRegistrationListeners;
 
+    // null if the web app doesn't run in a cluster
+    private volatile IClusterChannel cluster;
+    private volatile IBenchmarkerOwnershipAccess ownershipAccess;
+
     /**
      * Creates a new BenchmarkerPool.
      */
     public BenchmarkerPool() {
-        this.allBenchmarkers = new HashMap<>();
-        this.occupiedBenchmarkers = new HashSet<>();
-        this.freeBenchmarkers = new LinkedList<>();
+        this.allBenchmarkers = new ConcurrentHashMap<>();
+        this.slotsByBenchmarker = new ConcurrentHashMap<>();
+        this.freeBenchmarkers = new ConcurrentLinkedQueue<>();
+        this.amtFree = new AtomicInteger();
 
-        this.newRegistrationListeners = new ArrayList<>();
+        this.newRegistrationListeners = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Stores which node the benchmarkers belong to if the channel is clustered. The benchmarkers of nodes which left
+     * the cluster are removed.
+     *
+     * @param cluster the channel to the other nodes.
+     * @param ownershipAccess the access interface to the stored benchmarkers of all nodes.
+     */
+    @Autowired(required = false)
+    public void setCluster(final IClusterChannel cluster, final IBenchmarkerOwnershipAccess ownershipAccess) {
+        Objects.requireNonNull(cluster, "The cluster cannot be null.");
+        Objects.requireNonNull(ownershipAccess, "The ownershipAccess cannot be null.");
+
+        if (!cluster.isClustered()) {
+            return;
+        }
+
+        // the benchmarkers which were connected before this node was restarted have to register again
+        ownershipAccess.deleteOwnerships(cluster.getNodeId());
+
+        cluster.subscribe(IClusterChannel.NODE_LEFT_TOPIC, nodeId -> {
+            if (!nodeId.equals(cluster.getNodeId())) {
+                final int amtRemoved = ownershipAccess.deleteOwnerships(nodeId);
+                LOGGER.info("Removed {} benchmarkers of node '{}'.", amtRemoved, nodeId);
+            }
+        });
+
+        this.ownershipAccess = ownershipAccess;
+        this.cluster = cluster;
     }
 
     @Override
@@ -48,14 +105,31 @@ public class BenchmarkerPool implements IBenchmarkerHandler, IBenchmarkerPool {
 
         Objects.requireNonNull(sysEnvironment, "The system environment cannot be null.");
 
-        if (containsBenchmarker(address)) {
+        final List<Slot> slots = new ArrayList<>();
+        for (int i = 0; i < sysEnvironment.getAmtSlots(); i++) {
+            slots.add(new Slot(SlotAddresses.getSlotAddress(address, i), address, sysEnvironment));
+        }
+
+        // the first slot has the address of the benchmarker
+        if (allBenchmarkers.putIfAbsent(address, slots.get(0)) != null) {
             return false;
         }
 
-        freeBenchmarkers.add(address);
-        allBenchmarkers.put(address, sysEnvironment);
+        slotsByBenchmarker.put(address, List.copyOf(slots));
+
+        for (final Slot slot : slots.subList(1, slots.size())) {
+            allBenchmarkers.put(slot.address, slot);
+        }
+
+        for (final Slot slot : slots) {
+            amtFree.incrementAndGet();
+            enqueue(slot);
+        }
+
+        LOGGER.info("Registered the benchmarker with address '{}' and {} slot(s) to the system.", address,
+                slots.size());
 
-        LOGGER.info("Registered the benchmarker with address '{}' to the system.", address);
+        storeOwnership(address, sysEnvironment);
 
         notifyRegistrationListeners();
 
@@ -66,16 +140,14 @@ public class BenchmarkerPool implements IBenchmarkerHandler, IBenchmarkerPool {
     public boolean unregisterBenchmarker(final String address) {
         verifyAddress(address);
 
-        if (!containsBenchmarker(address)) {
+        final List<Slot> slots = getSlots(address);
+
+        if (slots.isEmpty()) {
             return false;
         }
 
-        allBenchmarkers.remove(address);
-
-        if (freeBenchmarkers.contains(address)) {
-            freeBenchmarkers.remove(address);
-        } else {
-            occupiedBenchmarkers.remove(address);
+        for (final Slot slot : slots) {
+            remove(slot);
         }
 
         LOGGER.info("Unregistered the benchmarker with address '{}' from the system.", address);
@@ -83,13 +155,81 @@ public class BenchmarkerPool implements IBenchmarkerHandler, IBenchmarkerPool {
         return true;
     }
 
+    @Override
+    public boolean drainBenchmarker(final String address) {
+        verifyAddress(address);
+
+        final List<Slot> slots = getSlots(address);
+        boolean drained = false;
+
+        for (final Slot slot : slots) {
+            drained |= drain(slot);
+        }
+
+        return drained;
+    }
+
+    private boolean drain(final Slot slot) {
+        if (transition(slot, BenchmarkerState.OCCUPIED, BenchmarkerState.DRAINING)) {
+            LOGGER.info("The benchmarker with address '{}' is drained.", slot.address);
+            return true;
+        }
+
+        // a free benchmarker has no job to finish
+        if (transition(slot, BenchmarkerState.FREE, BenchmarkerState.GONE)) {
+            remove(slot);
+            return true;
+        }
+
+        return slot.state.get() == BenchmarkerState.DRAINING;
+    }
+
     @Override
     public SystemEnvironment getBenchmarkerSystemEnvironment(final String address) {
         if (!StringUtils.hasText(address)) {
             throw new IllegalArgumentException("The address cannot be null or empty.");
         }
 
-        return allBenchmarkers.get(address);
+        final Slot slot = allBenchmarkers.get(address);
+
+        return slot == null ? null : slot.systemEnvironment;
+    }
+
+    @Nullable
+    @Override
+    public String getHardwareClass(final String address) {
+        verifyAddress(address);
+
+        final Slot slot = allBenchmarkers.get(address);
+
+        return slot == null ? null : slot.systemEnvironment.getHardwareClass();
+    }
+
+    @Override
+    public int getPrefetchWindow(final String address) {
+        verifyAddress(address);
+
+        final Slot slot = allBenchmarkers.get(address);
+
+        // a drained benchmarker only finishes its current job
+        if (slot == null || slot.state.get() == BenchmarkerState.DRAINING) {
+            return 0;
+        }
+
+        return Math.max(0, slot.systemEnvironment.getPrefetchWindow());
+    }
+
+    /**
+     * Gets the amount of slots of a benchmarker which are still registered.
+     * @param address the address of the benchmarker.
+     * @return the amount of slots. 0 if the benchmarker is not registered.
+     */
+    public int getCapacity(final String address) {
+        verifyAddress(address);
+
+        final List<Slot> slots = slotsByBenchmarker.get(address);
+
+        return slots == null ? 0 : slots.size();
     }
 
     @Override
@@ -97,37 +237,103 @@ public class BenchmarkerPool implements IBenchmarkerHandler, IBenchmarkerPool {
         return new ArrayList<>(allBenchmarkers.keySet());
     }
 
-    private boolean containsBenchmarker(final String address) {
-        return allBenchmarkers.containsKey(address);
+    @Override
+    public Collection<BenchmarkerOwnership> getBenchmarkerOwnerships() {
+        if (cluster != null) {
+            return ownershipAccess.findOwnerships();
+        }
+
+        final List<BenchmarkerOwnership> ownerships = new ArrayList<>();
+        for (final Slot slot : allBenchmarkers.values()) {
+            if (slot.address.equals(slot.benchmarker)) {
+                ownerships.add(new BenchmarkerOwnership(slot.address, null, slot.systemEnvironment,
+                        slot.registered));
+            }
+        }
+
+        return ownerships;
+    }
+
+    /**
+     * Gets the state of a benchmarker.
+     * @param address the address of the benchmarker.
+     * @return the state. GONE if the benchmarker is not registered.
+     */
+    public BenchmarkerState getBenchmarkerState(final String address) {
+        verifyAddress(address);
+
+        final Slot slot = allBenchmarkers.get(address);
+
+        return slot == null ? BenchmarkerState.GONE : slot.state.get();
     }
 
     @Override
     public boolean hasFreeBenchmarkers() {
-        return !freeBenchmarkers.isEmpty();
+        return amtFree.get() > 0;
     }
 
     @Nullable
     @Override
     public String getFreeBenchmarker() {
-        if (hasFreeBenchmarkers()) {
-            // get free benchmarker and add it to the end of the queue again.
-            final String address = freeBenchmarkers.poll();
-            freeBenchmarkers.add(address);
+        final Slot slot = pollFree();
 
-            return address;
+        if (slot == null) {
+            return null;
         }
 
-        return null;
+        // the benchmarker stays free, so it is added to the end of the queue again
+        enqueue(slot);
+
+        return slot.address;
+    }
+
+    @Nullable
+    @Override
+    public String tryAcquire() {
+        while (true) {
+            final Slot slot = pollFree();
+
+            if (slot == null) {
+                return null;
+            }
+
+            if (transition(slot, BenchmarkerState.FREE, BenchmarkerState.OCCUPIED)) {
+                return slot.address;
+            }
+
+            // another thread occupied the benchmarker since it was polled
+            enqueueIfFree(slot);
+        }
+    }
+
+    @Override
+    public Collection<String> getFreeBenchmarkers() {
+        final List<String> addresses = new ArrayList<>();
+
+        for (final Slot slot : freeBenchmarkers) {
+            if (slot.state.get() == BenchmarkerState.FREE) {
+                addresses.add(slot.address);
+            }
+        }
+
+        return addresses;
     }
 
     @Override
     public void freeBenchmarker(final String address) {
         verifyAddress(address);
 
-        if (occupiedBenchmarkers.contains(address)) {
-            occupiedBenchmarkers.remove(address);
+        final Slot slot = allBenchmarkers.get(address);
+
+        if (slot == null) {
+            return;
+        }
 
-            freeBenchmarkers.add(address);
+        if (transition(slot, BenchmarkerState.OCCUPIED, BenchmarkerState.FREE)) {
+            enqueue(slot);
+        } else if (slot.state.get() == BenchmarkerState.DRAINING) {
+            remove(slot);
+            LOGGER.info("Unregistered the drained benchmarker with address '{}' from the system.", address);
         }
     }
 
@@ -135,10 +341,11 @@ public class BenchmarkerPool implements IBenchmarkerHandler, IBenchmarkerPool {
     public void occupyBenchmarker(final String address) {
         verifyAddress(address);
 
-        if (freeBenchmarkers.contains(address)) {
-            freeBenchmarkers.remove(address);
+        final Slot slot = allBenchmarkers.get(address);
 
-            occupiedBenchmarkers.add(address);
+        // the benchmarker stays in the queue until it is polled
+        if (slot != null) {
+            transition(slot, BenchmarkerState.FREE, BenchmarkerState.OCCUPIED);
         }
     }
 
@@ -155,9 +362,142 @@ public class BenchmarkerPool implements IBenchmarkerHandler, IBenchmarkerPool {
         }
     }
 
+    /**
+     * Removes benchmarkers from the head of the queue until a free one is found.
+     * @return the free benchmarker, which is no longer queued, or null if no benchmarker is free.
+     */
+    private Slot pollFree() {
+        Slot slot;
+
+        while ((slot = freeBenchmarkers.poll()) != null) {
+            slot.queued.set(false);
+
+            if (slot.state.get() == BenchmarkerState.FREE) {
+                return slot;
+            }
+
+            // the benchmarker may have been freed while it was dequeued
+            enqueueIfFree(slot);
+        }
+
+        return null;
+    }
+
+    /**
+     * @return the slots of the benchmarker with the given address or the slot with the given address.
+     */
+    private List<Slot> getSlots(final String address) {
+        final List<Slot> slots = slotsByBenchmarker.get(address);
+
+        if (slots != null) {
+            return slots;
+        }
+
+        final Slot slot = allBenchmarkers.get(address);
+
+        return slot == null ? List.of() : List.of(slot);
+    }
+
+    private void remove(final Slot slot) {
+        allBenchmarkers.remove(slot.address, slot);
+
+        final BenchmarkerState previous = slot.state.getAndSet(BenchmarkerState.GONE);
+        if (previous == BenchmarkerState.FREE) {
+            amtFree.decrementAndGet();
+        }
+
+        final List<Slot> remaining = slotsByBenchmarker.computeIfPresent(slot.benchmarker, (address, slots) -> {
+            final List<Slot> others = new ArrayList<>(slots);
+            others.removeIf(other -> other == slot);
+
+            return others.isEmpty() ? null : List.copyOf(others);
+        });
+
+        if (cluster != null && remaining == null) {
+            deleteOwnership(slot.benchmarker);
+        }
+    }
+
+    private void storeOwnership(final String address, final SystemEnvironment sysEnvironment) {
+        final IClusterChannel currentCluster = cluster;
+
+        if (currentCluster != null) {
+            try {
+                ownershipAccess.saveOwnership(new BenchmarkerOwnership(address, currentCluster.getNodeId(),
+                        sysEnvironment, LocalDateTime.now()));
+            } catch (final RuntimeException e) {
+                // the benchmarker still gets jobs from this node
+                LOGGER.error("Could not store the node of the benchmarker with address '{}'.", address, e);
+            }
+        }
+    }
+
+    private void deleteOwnership(final String address) {
+        try {
+            ownershipAccess.deleteOwnership(address);
+        } catch (final RuntimeException e) {
+            LOGGER.error("Could not delete the node of the benchmarker with address '{}'.", address, e);
+        }
+    }
+
+    private void enqueue(final Slot slot) {
+        if (slot.queued.compareAndSet(false, true)) {
+            freeBenchmarkers.add(slot);
+        }
+    }
+
+    private void enqueueIfFree(final Slot slot) {
+        if (slot.state.get() == BenchmarkerState.FREE) {
+            enqueue(slot);
+        }
+    }
+
+    private boolean transition(final Slot slot, final BenchmarkerState from, final BenchmarkerState to) {
+        if (!slot.state.compareAndSet(from, to)) {
+            return false;
+        }
+
+        if (from == BenchmarkerState.FREE) {
+            amtFree.decrementAndGet();
+        } else if (to == BenchmarkerState.FREE) {
+            amtFree.incrementAndGet();
+        }
+
+        return true;
+    }
+
     private static void verifyAddress(final String address) {
         if (!StringUtils.hasText(address)) {
             throw new IllegalArgumentException("The address is not valid.");
         }
     }
+
+    /**
+     * A registered slot of a benchmarker with its state.
+     */
+    private static final class Slot {
+
+        private final String address;
+
+        // the address of the benchmarker the slot belongs to
+        private final String benchmarker;
+
+        private final SystemEnvironment systemEnvironment;
+
+        private final LocalDateTime registered;
+
+        private final AtomicReference<BenchmarkerState> state;
+
+        // whether the slot is in the queue of free benchmarkers
+        private final AtomicBoolean queued;
+
+        private Slot(final String address, final String benchmarker, final SystemEnvironment systemEnvironment) {
+            this.address = address;
+            this.benchmarker = benchmarker;
+            this.systemEnvironment = systemEnvironment;
+            this.registered = LocalDateTime.now();
+            this.state = new AtomicReference<>(BenchmarkerState.FREE);
+            this.queued = new AtomicBoolean();
+        }
+    }
 }
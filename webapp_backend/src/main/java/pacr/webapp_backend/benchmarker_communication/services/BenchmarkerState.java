@@ -0,0 +1,28 @@
+package pacr.webapp_backend.benchmarker_communication.services;
+
+/**
+ * The state of a PACR-Benchmarker in the {@link BenchmarkerPool}.
+ */
+public enum BenchmarkerState {
+
+    /**
+     * The benchmarker waits for a job.
+     */
+    FREE,
+
+    /**
+     * The benchmarker works on a job.
+     */
+    OCCUPIED,
+
+    /**
+     * The benchmarker finishes its current job and is removed from the pool afterwards.
+     */
+    DRAINING,
+
+    /**
+     * The benchmarker was removed from the pool.
+     */
+    GONE
+
+}
@@ -0,0 +1,167 @@
+package pacr.webapp_backend.benchmarker_communication.services;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pacr.webapp_backend.scheduler.services.Histogram;
+
+/**
+ * Runs events one after another on a single thread. Any thread may submit events, so state which is only changed
+ * by events needs no locks. The events wait in a bounded queue. If the queue is full the submitting thread is
+ * blocked until there is space again.
+ * An event which is submitted by another event runs immediately, so events can't block the loop.
+ */
+class DispatchLoop {
+
+    private static final Logger LOGGER = LogManager.getLogger(DispatchLoop.class);
+
+    private final BlockingQueue<Event> events;
+    private final int capacity;
+
+    private final Thread thread;
+
+    private final LongAdder eventsHandled;
+
+    // in nanoseconds
+    private final Histogram lag;
+    private final Histogram duration;
+
+    /**
+     * Creates a new loop and starts its thread.
+     * @param name the name of the thread.
+     * @param capacity the maximum amount of waiting events. (> 0)
+     */
+    DispatchLoop(final String name, final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity must be positive.");
+        }
+
+        this.events = new ArrayBlockingQueue<>(capacity);
+        this.capacity = capacity;
+
+        this.eventsHandled = new LongAdder();
+        this.lag = new Histogram();
+        this.duration = new Histogram();
+
+        this.thread = new Thread(this::run, name);
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Submits an event. The event runs after all events which were submitted before.
+     * @param event the event.
+     */
+    void submit(final Runnable event) {
+        if (Thread.currentThread() == thread) {
+            event.run();
+            return;
+        }
+
+        try {
+            events.put(new Event(event));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.warn("Interrupted while submitting an event. The event is dropped.");
+        }
+    }
+
+    /**
+     * Submits an event and waits for its result. Exceptions of the event are thrown to the caller.
+     * @param event the event.
+     * @param <T> the type of the result.
+     * @return the result of the event.
+     */
+    <T> T call(final Supplier<T> event) {
+        if (Thread.currentThread() == thread) {
+            return event.get();
+        }
+
+        final CompletableFuture<T> result = new CompletableFuture<>();
+
+        submit(() -> {
+            try {
+                result.complete(event.get());
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an event.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Waits until all events which were submitted before are handled.
+     */
+    void flush() {
+        call(() -> null);
+    }
+
+    /**
+     * Stops the thread of the loop. Waiting events are not handled.
+     */
+    void stop() {
+        thread.interrupt();
+    }
+
+    /**
+     * @return the current metrics of the loop.
+     */
+    DispatchMetricsReport report() {
+        return new DispatchMetricsReport(events.size(), capacity, eventsHandled.sum(), lag.summarize(),
+                duration.summarize());
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            final Event event;
+
+            try {
+                event = events.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            final long started = System.nanoTime();
+            lag.record(started - event.submitted);
+
+            try {
+                event.action.run();
+            } catch (RuntimeException e) {
+                // the loop must keep running for the other events
+                LOGGER.error("An event of the dispatch loop failed.", e);
+            }
+
+            duration.record(System.nanoTime() - started);
+            eventsHandled.increment();
+        }
+    }
+
+    private static final class Event {
+
+        private final Runnable action;
+
+        // the value of System.nanoTime() when the event was submitted
+        private final long submitted;
+
+        private Event(final Runnable action) {
+            this.action = action;
+            this.submitted = System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package pacr.webapp_backend.benchmarker_communication.services;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import pacr.webapp_backend.scheduler.services.HistogramSummary;
+
+/**
+ * The metrics of the dispatch loop of the job handler at one point in time. The histograms cover the time since the
+ * application started.
+ */
+@Getter
+@AllArgsConstructor
+public class DispatchMetricsReport {
+
+    // the amount of events which wait to be handled
+    private final int queueDepth;
+
+    private final int queueCapacity;
+
+    private final long eventsHandled;
+
+    // the time from submitting an event until it is handled
+    private final HistogramSummary loopLagNanos;
+
+    private final HistogramSummary eventDurationNanos;
+
+}
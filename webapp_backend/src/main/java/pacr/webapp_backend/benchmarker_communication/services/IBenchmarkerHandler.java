@@ -23,6 +23,14 @@ public interface IBenchmarkerHandler {
      */
     boolean unregisterBenchmarker(String address);
 
+    /**
+     * Removes a Benchmarker from the collection once it has finished its current job. The Benchmarker is given no
+     * new jobs in the meantime. A free Benchmarker is removed immediately.
+     * @param address the address used to communicate with the benchmarker.
+     * @return if the benchmarker is registered and will be removed.
+     */
+    boolean drainBenchmarker(String address);
+
     /**
      * Gets the system environment of the benchmarker with the given address.
      *
@@ -36,4 +44,10 @@ public interface IBenchmarkerHandler {
      */
     Collection<String> getAllBenchmarkerAddresses();
 
+    /**
+     * @return the benchmarkers of all nodes of the cluster and the nodes they are connected to. If the web app
+     *      doesn't run in a cluster, these are the registered benchmarkers without a node.
+     */
+    Collection<BenchmarkerOwnership> getBenchmarkerOwnerships();
+
 }
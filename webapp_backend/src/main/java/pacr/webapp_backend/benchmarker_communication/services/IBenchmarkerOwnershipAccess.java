@@ -0,0 +1,37 @@
+package pacr.webapp_backend.benchmarker_communication.services;
+
+import java.util.List;
+
+/**
+ * Provides access to the stored benchmarkers of all nodes of the cluster.
+ */
+public interface IBenchmarkerOwnershipAccess {
+
+    /**
+     * @return all stored benchmarker ownerships.
+     */
+    List<BenchmarkerOwnership> findOwnerships();
+
+    /**
+     * Saves the given ownership. A stored ownership of the same benchmarker is replaced.
+     *
+     * @param ownership the ownership which is saved.
+     */
+    void saveOwnership(BenchmarkerOwnership ownership);
+
+    /**
+     * Deletes the ownership of a benchmarker.
+     *
+     * @param address the address of the benchmarker.
+     */
+    void deleteOwnership(String address);
+
+    /**
+     * Deletes the ownerships of all benchmarkers which are connected to a node.
+     *
+     * @param nodeId the id of the node.
+     * @return the amount of deleted ownerships.
+     */
+    int deleteOwnerships(String nodeId);
+
+}
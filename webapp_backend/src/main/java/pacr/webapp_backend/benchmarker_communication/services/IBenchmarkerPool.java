@@ -1,5 +1,7 @@
 package pacr.webapp_backend.benchmarker_communication.services;
 
+import java.util.Collection;
+
 /**
  * Manages a collection of PACR-Benchmarkers.
  * Benchmarker can be marked free or occupied. The IBenchmarkerPool provides an interface
@@ -18,6 +20,32 @@ public interface IBenchmarkerPool {
      */
     String getFreeBenchmarker();
 
+    /**
+     * @return the addresses of all free Benchmarkers in the order they would be returned by
+     *      {@link #getFreeBenchmarker()}.
+     */
+    Collection<String> getFreeBenchmarkers();
+
+    /**
+     * Takes a free Benchmarker and marks it as occupied in one step. A Benchmarker is never returned to two callers,
+     * even if they call this method at the same time.
+     * @return the address of the occupied Benchmarker or null if there is no free Benchmarker.
+     */
+    String tryAcquire();
+
+    /**
+     * @param address the address of the Benchmarker.
+     * @return the hardware class of the Benchmarker or null if the Benchmarker is not registered.
+     */
+    String getHardwareClass(String address);
+
+    /**
+     * @param address the address of the Benchmarker.
+     * @return the amount of jobs the Benchmarker can prepare while it runs its current job. 0 if the Benchmarker
+     *      doesn't prepare jobs, is drained or is not registered.
+     */
+    int getPrefetchWindow(String address);
+
     /**
      * Marks a Benchmarker as free.
      * @param address the address of the Benchmarker.
@@ -12,4 +12,26 @@ public interface IJobSender {
      */
     boolean sendJob(BenchmarkerJob benchmarkerJob);
 
+    /**
+     * Tells the benchmarker which job it gets after its current job, so it can prepare the job meanwhile. The job is
+     * still sent with {@link #sendJob(BenchmarkerJob)} when it starts.
+     * @param benchmarkerJob the job for a selected benchmarker.
+     * @return if the job was sent successfully.
+     */
+    boolean prefetchJob(BenchmarkerJob benchmarkerJob);
+
+    /**
+     * Tells the benchmarker that a job which was sent with {@link #prefetchJob(BenchmarkerJob)} won't be started on
+     * it, so it can stop preparing the job.
+     * @param benchmarkerJob the revoked job.
+     */
+    void revokeJob(BenchmarkerJob benchmarkerJob);
+
+    /**
+     * Tells the benchmarker that its result was saved or discarded for good, so it doesn't send the result again.
+     * @param address the address of the benchmarker.
+     * @param attemptId the attempt id of the result.
+     */
+    void acknowledgeResult(String address, String attemptId);
+
 }
@@ -0,0 +1,46 @@
+package pacr.webapp_backend.benchmarker_communication.services;
+
+import java.util.List;
+
+/**
+ * Provides access to stored results which were received but not saved yet.
+ */
+public interface IPendingResultAccess {
+
+    /**
+     * @return all stored pending results in the order they were received.
+     */
+    List<PendingResult> findPendingResults();
+
+    /**
+     * @param ownedBy the id of a node of the cluster or null.
+     * @return the stored pending results owned by the node or, if the id is null, the ones which no node owns. They
+     *      are in the order they were received.
+     */
+    List<PendingResult> findPendingResults(String ownedBy);
+
+    /**
+     * Makes a node the owner of a stored pending result unless another node took it over first.
+     *
+     * @param pendingResult the pending result.
+     * @param previousOwner the id of the node which owned the result or null if no node owned it.
+     * @param nodeId the id of the new owner.
+     * @return whether the node owns the result now.
+     */
+    boolean claimPendingResult(PendingResult pendingResult, String previousOwner, String nodeId);
+
+    /**
+     * Saves the given pending result.
+     *
+     * @param pendingResult the pending result which is saved.
+     */
+    void savePendingResult(PendingResult pendingResult);
+
+    /**
+     * Deletes the given pending result from the storage.
+     *
+     * @param pendingResult the pending result which is deleted.
+     */
+    void deletePendingResult(PendingResult pendingResult);
+
+}
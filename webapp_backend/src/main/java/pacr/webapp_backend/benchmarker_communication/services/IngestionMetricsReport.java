@@ -0,0 +1,30 @@
+package pacr.webapp_backend.benchmarker_communication.services;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import pacr.webapp_backend.scheduler.services.HistogramSummary;
+
+/**
+ * The metrics of the result ingestion at one point in time. The counters and the histogram cover the time since the
+ * application started.
+ */
+@Getter
+@AllArgsConstructor
+public class IngestionMetricsReport {
+
+    // the results which wait to be stored or for a worker, including the backlog of stored results
+    private final int queueDepth;
+
+    // the results which were received and not saved or given up yet, including the waiting ones
+    private final int pendingResults;
+
+    private final long resultsSaved;
+
+    private final long retries;
+
+    private final long resultsFailed;
+
+    // the time from receiving a result until it is saved
+    private final HistogramSummary ingestionLagMillis;
+
+}
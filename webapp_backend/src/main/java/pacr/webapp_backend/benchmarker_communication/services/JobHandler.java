@@ -1,35 +1,133 @@
 package pacr.webapp_backend.benchmarker_communication.services;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import pacr.webapp_backend.shared.IJob;
 import pacr.webapp_backend.shared.IJobProvider;
+import pacr.webapp_backend.shared.IJobRevocationListener;
 import pacr.webapp_backend.shared.IObserver;
 import pacr.webapp_backend.shared.IResultSaver;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
+/**
+ * Sends jobs to the free benchmarkers and receives their results.
+ *
+ * Every sent job is leased to its benchmarker. The lease expires after a multiple of the usual execution time of the
+ * job's group unless the benchmarker sends heartbeats. The job of an expired lease is returned to the job provider and
+ * given to another benchmarker. Optionally idle benchmarkers get a duplicate of a job which takes much longer than
+ * usual. The first result of a job is saved and later results are discarded. The job is only finished once its result
+ * is saved or stored durably by the result saver; if that fails, the job is returned to the job provider.
+ *
+ * With hardware affinity the jobs of a repository only run on benchmarkers of one hardware class, so the results of
+ * the repository are comparable. The free benchmarkers of each hardware class get the first jobs which may run on
+ * their hardware class.
+ *
+ * Benchmarkers keep their results until they are acknowledged and send them again after a reconnect. Such results carry
+ * an attempt id. They are acknowledged once the result saver stored them durably or once they are discarded for good,
+ * and a result which was already acknowledged is only acknowledged again. A result which is sent again while it is
+ * still being stored is acknowledged once it is stored. If it cannot be stored it is not acknowledged, so the
+ * benchmarker keeps it. A benchmarker gets a new address when it reconnects, so its results are matched to the lease of
+ * the old connection by their job.
+ *
+ * With a prefetch window the next jobs of a busy benchmarker are reserved for it and announced to it, so it can fetch
+ * and check them out while it runs its current job. A reserved job is started on the benchmarker once it is free again.
+ * The window is the smaller one of the web app and the benchmarker. When jobs are prioritized, the reserved jobs which
+ * would start last are revoked and given back to the job provider at their old position, and the prioritized jobs are
+ * reserved in their place. Reserved jobs are revoked and dropped when they are removed. Free benchmarkers take the
+ * reserved jobs of busy benchmarkers of their hardware class if no other job is left.
+ *
+ * All changes of the leases are made by events on a single dispatch thread. The public methods only submit events,
+ * so the websocket threads, the scheduler and the benchmarker pool never wait for a lock of the job handler.
+ */
 @Component
-public class JobHandler implements INewRegistrationListener, IObserver, IJobRegistry {
+public class JobHandler implements INewRegistrationListener, IObserver, IJobRegistry, IJobRevocationListener {
 
     private static final Logger LOGGER = LogManager.getLogger(JobHandler.class);
 
+    private static final long DEFAULT_LEASE_MINIMUM = 3600;
+    private static final long DEFAULT_LEASE_RENEWAL = 300;
+
+    // the lease lasts LEASE_FACTOR times the LEASE_PERCENTILE of the recent execution times of the group
+    private static final int LEASE_PERCENTILE = 95;
+    private static final int LEASE_FACTOR = 2;
+
+    // a job is a straggler if it runs STRAGGLER_FACTOR times longer than the median of the group
+    private static final int MEDIAN = 50;
+    private static final int STRAGGLER_FACTOR = 2;
+
+    private static final long LEASE_CHECK_INTERVAL = 30000;
+
+    private static final int DISPATCH_QUEUE_CAPACITY = 4096;
+
+    private static final int LOST_LEASES_CAPACITY = 1024;
+    private static final int ACKNOWLEDGED_RESULTS_CAPACITY = 4096;
+
+    private static final String KEY_SEPARATOR = "\n";
+
     private final IJobSender jobSender;
     private final IBenchmarkerPool benchmarkerPool;
     private final IJobProvider jobProvider;
     private final IResultSaver resultSaver;
 
-    private final Map<String, IJob> currentJobs;
+    private final long leaseMinimum;
+    private final long leaseRenewal;
+    private final boolean speculativeDispatch;
+    private final boolean hardwareAffinity;
+    private final int prefetchWindow;
+
+    private final DispatchLoop dispatchLoop;
+
+    // the leases by the address of their benchmarker. Only accessed by the dispatch loop
+    private final Map<String, JobLease> leases;
+
+    // the leases of disconnected benchmarkers by their job, so results which are sent again after a reconnect are
+    // still saved. Only accessed by the dispatch loop
+    private final Map<String, JobLease> lostLeases;
+
+    // the jobs reserved for the benchmarkers by their address in the order they are started. Only accessed by the
+    // dispatch loop
+    private final Map<String, Deque<IJob>> reservations;
+
+    // the keys of the recently acknowledged results. Only accessed by the dispatch loop
+    private final Set<String> acknowledgedResults;
+
+    // the address to acknowledge a result to by the key of the result, while the result is being stored. Only
+    // accessed by the dispatch loop
+    private final Map<String, String> storingResults;
 
     // If there is a communication error with a benchmarker the attempts are counted.
     private final Map<String, Integer> executionAttempts;
 
+    // whether jobs are currently being sent to the benchmarkers
+    private boolean dispatching;
+
     /**
-     * Initiates a new instance of this class.
+     * Initiates a new instance of this class which uses the default lease durations, doesn't dispatch
+     * speculatively, doesn't consider the hardware of the benchmarkers and doesn't reserve jobs.
      * @param jobSender the {@link IJobSender} of the instance.
      * @param benchmarkerPool the {@link BenchmarkerPool} pool, the instance uses.
      * @param jobProvider the {@link IJobProvider} of the instance.
@@ -37,87 +135,859 @@ public class JobHandler implements INewRegistrationListener, IObserver, IJobRegi
      */
     public JobHandler(final IJobSender jobSender, final IBenchmarkerPool benchmarkerPool,
                       final IJobProvider jobProvider, final IResultSaver resultSaver) {
+        this(jobSender, benchmarkerPool, jobProvider, resultSaver, DEFAULT_LEASE_MINIMUM, DEFAULT_LEASE_RENEWAL,
+                false, false);
+    }
+
+    /**
+     * Initiates a new instance of this class which doesn't reserve jobs.
+     * @param jobSender the {@link IJobSender} of the instance.
+     * @param benchmarkerPool the {@link BenchmarkerPool} pool, the instance uses.
+     * @param jobProvider the {@link IJobProvider} of the instance.
+     * @param resultSaver the {@link IResultSaver} of this instance.
+     * @param leaseMinimum the minimum time in seconds a lease lasts without heartbeats. (> 0)
+     * @param leaseRenewal the time in seconds a lease lasts after a heartbeat. (> 0)
+     * @param speculativeDispatch whether idle benchmarkers get duplicates of jobs which take much longer than usual.
+     * @param hardwareAffinity whether the jobs of a repository only run on benchmarkers of one hardware class.
+     */
+    public JobHandler(final IJobSender jobSender, final IBenchmarkerPool benchmarkerPool,
+                      final IJobProvider jobProvider, final IResultSaver resultSaver,
+                      final long leaseMinimum, final long leaseRenewal,
+                      final boolean speculativeDispatch, final boolean hardwareAffinity) {
+        this(jobSender, benchmarkerPool, jobProvider, resultSaver, leaseMinimum, leaseRenewal, speculativeDispatch,
+                hardwareAffinity, 0);
+    }
+
+    /**
+     * Initiates a new instance of this class.
+     * @param jobSender the {@link IJobSender} of the instance.
+     * @param benchmarkerPool the {@link BenchmarkerPool} pool, the instance uses.
+     * @param jobProvider the {@link IJobProvider} of the instance.
+     * @param resultSaver the {@link IResultSaver} of this instance.
+     * @param leaseMinimum the minimum time in seconds a lease lasts without heartbeats. (> 0)
+     * @param leaseRenewal the time in seconds a lease lasts after a heartbeat. (> 0)
+     * @param speculativeDispatch whether idle benchmarkers get duplicates of jobs which take much longer than usual.
+     * @param hardwareAffinity whether the jobs of a repository only run on benchmarkers of one hardware class.
+     * @param prefetchWindow the maximum amount of jobs reserved for a busy benchmarker. 0 if no jobs are reserved.
+     *                       (>= 0)
+     */
+    @Autowired
+    public JobHandler(final IJobSender jobSender, final IBenchmarkerPool benchmarkerPool,
+                      final IJobProvider jobProvider, final IResultSaver resultSaver,
+                      @Value("${leaseMinimum}") final long leaseMinimum,
+                      @Value("${leaseRenewal}") final long leaseRenewal,
+                      @Value("${speculativeDispatch}") final boolean speculativeDispatch,
+                      @Value("${hardwareAffinity}") final boolean hardwareAffinity,
+                      @Value("${prefetchWindow}") final int prefetchWindow) {
+        if (leaseMinimum <= 0 || leaseRenewal <= 0) {
+            throw new IllegalArgumentException("The lease durations must be positive.");
+        }
+        if (prefetchWindow < 0) {
+            throw new IllegalArgumentException("The prefetch window cannot be negative.");
+        }
+
         this.jobSender = jobSender;
         this.benchmarkerPool = benchmarkerPool;
         this.jobProvider = jobProvider;
         this.resultSaver = resultSaver;
 
-        this.currentJobs = new HashMap<>();
+        this.leaseMinimum = leaseMinimum;
+        this.leaseRenewal = leaseRenewal;
+        this.speculativeDispatch = speculativeDispatch;
+        this.hardwareAffinity = hardwareAffinity;
+        this.prefetchWindow = prefetchWindow;
+
+        this.leases = new HashMap<>();
+        this.reservations = new HashMap<>();
+        this.lostLeases = createBoundedMap(LOST_LEASES_CAPACITY);
+        this.acknowledgedResults = Collections.newSetFromMap(createBoundedMap(ACKNOWLEDGED_RESULTS_CAPACITY));
+        this.storingResults = new HashMap<>();
         this.executionAttempts = new HashMap<>();
+
+        this.dispatchLoop = new DispatchLoop("job-dispatch", DISPATCH_QUEUE_CAPACITY);
+    }
+
+    /**
+     * @return a map which removes its oldest entry once it holds more than the given amount of entries.
+     */
+    private static <K, V> Map<K, V> createBoundedMap(final int capacity) {
+        return new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<K, V> eldest) {
+                return size() > capacity;
+            }
+        };
     }
 
     @PostConstruct
     private void initialize() {
         this.jobProvider.subscribe(this);
         this.benchmarkerPool.addListener(this);
+        this.jobProvider.addRevocationListener(this);
+    }
+
+    @PreDestroy
+    private void shutdown() {
+        dispatchLoop.stop();
+    }
+
+    /**
+     * Waits until all events which were submitted before are handled.
+     */
+    public void flushEvents() {
+        dispatchLoop.flush();
+    }
+
+    /**
+     * @return the current metrics of the dispatch loop.
+     */
+    public DispatchMetricsReport getDispatchMetrics() {
+        return dispatchLoop.report();
     }
 
     /**
      * Incorporates the results into the system and marks the benchmarker as free again.
+     * The results are only saved if they are the first results of the job. The results of an expired lease are
+     * saved as well if no other benchmarker finished the job yet.
      * If a new job is available it is given to the benchmarker.
+     * Results of a benchmarker which was not tasked with a job are discarded.
+     * Results with an attempt id are acknowledged to the benchmarker once they are stored durably or discarded. If
+     * they were already acknowledged they are only acknowledged again. Results which could not be stored are not
+     * acknowledged.
      * @param address the address of the benchmarker.
      * @param result the job result.
      */
     public void receiveBenchmarkingResults(final String address, final JobResult result) {
-        if (currentJobs.containsKey(address)) {
-            final IJob job = currentJobs.remove(address);
+        dispatchLoop.submit(() -> handleResults(address, result));
+    }
 
-            benchmarkerPool.freeBenchmarker(address);
+    /**
+     * Saves the benchmarks which a benchmarker measured so far for its job, so they are available before the job is
+     * finished. They are discarded if the benchmarker is not tasked with the job anymore or if another benchmarker
+     * already finished it.
+     * @param address the address of the benchmarker.
+     * @param result the benchmarks measured so far.
+     */
+    public void receivePartialBenchmarkingResults(final String address, final JobResult result) {
+        dispatchLoop.submit(() -> handlePartialResults(address, result));
+    }
+
+    private void handlePartialResults(final String address, final JobResult result) {
+        final JobLease lease = leases.get(address);
 
-            if (result != null) {
-                jobProvider.addToGroupTimeSheet(result.getRepository(), result.getExecutionTime());
+        if (lease == null || lease.isSuperseded() || !lease.getJob().getJobID().equals(result.getCommitHash())) {
+            LOGGER.warn("Discarded partial results for '{}' from benchmarker '{}' because it is not tasked with the "
+                    + "job anymore.", result.getCommitHash(), address);
+            return;
+        }
 
-                resultSaver.saveBenchmarkingResults(result);
+        resultSaver.savePartialBenchmarkingResults(result);
+    }
 
-                LOGGER.info("Received job results for '{}' | '{}' from benchmarker '{}'.",
-                        job.getJobGroupTitle(), job.getJobID(), address);
+    private void handleResults(final String address, final JobResult result) {
+        final String resultKey = getResultKey(result);
 
-                // start a new job for this benchmarker if one is available
-                executeJob();
-            } else {
-                // the job seems to have failed. Try again.
+        if (resultKey != null && acknowledgedResults.contains(resultKey)) {
+            LOGGER.info("Received job results for '{}' from benchmarker '{}' again.", result.getCommitHash(), address);
+
+            jobSender.acknowledgeResult(address, result.getAttemptId());
+            return;
+        }
+
+        if (resultKey != null && storingResults.containsKey(resultKey)) {
+            LOGGER.info("Received job results for '{}' from benchmarker '{}' again while they are stored.",
+                    result.getCommitHash(), address);
+
+            // the benchmarker may have reconnected with a new address
+            storingResults.put(resultKey, address);
+            return;
+        }
+
+        final JobLease lease = leases.get(address);
+        final boolean saved;
+
+        // a result which is sent again may arrive after the benchmarker got its next job
+        if (lease != null && (resultKey == null || isFor(lease.getJob(), result))) {
+            leases.remove(address);
+            saved = handleLeasedResults(address, lease, result);
+        } else if (resultKey != null) {
+            saved = handleResumedResults(address, result);
+        } else {
+            LOGGER.warn("Discarded job results from benchmarker '{}' because it was not tasked with a job.", address);
+            saved = false;
+        }
+
+        // saved results are acknowledged once they are stored
+        if (resultKey != null && !saved) {
+            acknowledgedResults.add(resultKey);
+            jobSender.acknowledgeResult(address, result.getAttemptId());
+        }
+    }
+
+    /**
+     * @return whether the results are saved.
+     */
+    private boolean handleLeasedResults(final String address, final JobLease lease, final JobResult result) {
+        final IJob job = lease.getJob();
+
+        benchmarkerPool.freeBenchmarker(address);
+
+        if (lease.isSuperseded()) {
+            LOGGER.info("Discarded job results for '{}' | '{}' from benchmarker '{}' because they were already "
+                    + "received from another benchmarker.", job.getJobGroupTitle(), job.getJobID(), address);
+
+            dispatchJobs();
+        } else if (result != null) {
+            saveResults(address, job, result);
+
+            LOGGER.info("Received job results for '{}' | '{}' from benchmarker '{}'.",
+                    job.getJobGroupTitle(), job.getJobID(), address);
+
+            // start a new job for this benchmarker if one is available
+            dispatchJobs();
+            return true;
+        } else if (lease.isActive() && !hasActiveLease(job)) {
+            // the job seems to have failed. Try again.
+            jobProvider.returnJob(job);
+        } else {
+            // the job was already returned or another benchmarker still works on it
+            dispatchJobs();
+        }
+
+        return false;
+    }
+
+    /**
+     * Saves the results a benchmarker sent again after it reconnected with a new address. They are saved if the
+     * connection of the job's lease was lost or if the job is still leased to the old connection of the benchmarker,
+     * which is not known to be lost yet.
+     * @return whether the results are saved.
+     */
+    private boolean handleResumedResults(final String address, final JobResult result) {
+        final JobLease lostLease = lostLeases.remove(getJobKey(result.getRepository(), result.getCommitHash()));
+        IJob job = lostLease == null ? null : lostLease.getJob();
+
+        if (job == null) {
+            for (final JobLease lease : leases.values()) {
+                if (!lease.isSuperseded() && isFor(lease.getJob(), result)) {
+                    job = lease.getJob();
+                    break;
+                }
+            }
+        }
+
+        if (job == null) {
+            LOGGER.warn("Discarded job results for '{}' from benchmarker '{}' because the job is not leased anymore.",
+                    result.getCommitHash(), address);
+            return false;
+        }
+
+        saveResults(address, job, result);
+
+        LOGGER.info("Received job results for '{}' | '{}' from benchmarker '{}' after it reconnected.",
+                job.getJobGroupTitle(), job.getJobID(), address);
+        return true;
+    }
+
+    private void saveResults(final String address, final IJob job, final JobResult result) {
+        // the first result wins, the other benchmarkers with this job are ignored
+        for (final JobLease otherLease : leases.values()) {
+            if (otherLease.isFor(job)) {
+                otherLease.supersede();
+            }
+        }
+        lostLeases.remove(getJobKey(job.getJobGroupTitle(), job.getJobID()));
+
+        jobProvider.addToGroupTimeSheet(result.getRepository(), result.getExecutionTime());
+
+        final String resultKey = getResultKey(result);
+        if (resultKey != null) {
+            storingResults.put(resultKey, address);
+        }
+
+        // the result saver stores the result in the background and tells the dispatch loop once it is done
+        resultSaver.storeBenchmarkingResults(result).whenComplete((ignored, error) ->
+                dispatchLoop.submit(() -> resultsStored(job, result, error)));
+    }
+
+    private void resultsStored(final IJob job, final JobResult result, final Throwable error) {
+        final String resultKey = getResultKey(result);
+        final String address = resultKey == null ? null : storingResults.remove(resultKey);
+
+        if (error != null) {
+            // the benchmarker keeps the results, because they are not acknowledged
+            LOGGER.error("Could not save the job results for '{}' | '{}'. The job is queued again.",
+                    job.getJobGroupTitle(), job.getJobID(), error);
+
+            jobProvider.returnJob(job);
+            return;
+        }
+
+        jobProvider.finishJob(job);
+
+        if (address != null) {
+            acknowledgedResults.add(resultKey);
+            jobSender.acknowledgeResult(address, result.getAttemptId());
+        }
+    }
+
+    private static boolean isFor(final IJob job, final JobResult result) {
+        return job.getJobGroupTitle().equals(result.getRepository()) && job.getJobID().equals(result.getCommitHash());
+    }
+
+    private static String getJobKey(final String groupTitle, final String jobID) {
+        return groupTitle + KEY_SEPARATOR + jobID;
+    }
+
+    /**
+     * @return the key by which a result is recognized when it is sent again or null if the result has no attempt id.
+     *      The benchmarker is identified by its computer name because its address changes when it reconnects.
+     */
+    private static String getResultKey(final JobResult result) {
+        if (result == null || !StringUtils.hasText(result.getAttemptId())) {
+            return null;
+        }
+
+        final String benchmarker = result.getSystemEnvironment() == null
+                ? null : result.getSystemEnvironment().getComputerName();
+
+        return String.join(KEY_SEPARATOR, String.valueOf(benchmarker), result.getRepository(),
+                result.getCommitHash(), result.getAttemptId());
+    }
+
+    /**
+     * Renews the lease of a benchmarker which is still working on its job. After the first heartbeat the lease
+     * expires if no further heartbeat is received in time.
+     * @param address the address of the benchmarker.
+     */
+    public void receiveHeartbeat(final String address) {
+        final LocalDateTime received = LocalDateTime.now();
+
+        dispatchLoop.submit(() -> {
+            final JobLease lease = leases.get(address);
+
+            if (lease != null && lease.isActive()) {
+                lease.renew(received.plusSeconds(leaseRenewal));
+            }
+        });
+    }
+
+    /**
+     * Returns the jobs of expired leases to the job provider, so they are given to other benchmarkers.
+     */
+    @Scheduled(fixedDelay = LEASE_CHECK_INTERVAL)
+    public void checkLeases() {
+        checkLeases(LocalDateTime.now());
+    }
+
+    /**
+     * Returns the jobs of the leases which expired before the given date to the job provider. If speculative
+     * dispatch is enabled the benchmarkers which are still free afterwards get duplicates of jobs which take much
+     * longer than usual.
+     * @param now the current date.
+     */
+    void checkLeases(final LocalDateTime now) {
+        dispatchLoop.submit(() -> expireLeases(now));
+    }
+
+    private void expireLeases(final LocalDateTime now) {
+        final List<IJob> expiredJobs = new ArrayList<>();
+
+        for (final JobLease lease : leases.values()) {
+            if (lease.isActive() && lease.getExpiry().isBefore(now)) {
+                lease.expire();
+                expiredJobs.add(lease.getJob());
+
+                LOGGER.warn("The lease of '{}' | '{}' on benchmarker '{}' expired.",
+                        lease.getJob().getJobGroupTitle(), lease.getJob().getJobID(), lease.getAddress());
+            }
+        }
+
+        for (final IJob job : expiredJobs) {
+            // a speculative duplicate of the job may still be running
+            if (!hasActiveLease(job)) {
                 jobProvider.returnJob(job);
             }
-        } else {
-            throw new IllegalArgumentException("'" + address + "' was not tasked with a job.");
+        }
+
+        if (speculativeDispatch) {
+            // queued jobs are given to the free benchmarkers before any duplicates
+            dispatchJobs();
+            dispatchSpeculatively(now);
+        }
+    }
+
+    private void dispatchSpeculatively(final LocalDateTime now) {
+        final List<String> addresses = new ArrayList<>();
+
+        for (final String address : benchmarkerPool.getFreeBenchmarkers()) {
+            if (canExecute(address)) {
+                addresses.add(address);
+            }
+        }
+
+        if (addresses.isEmpty()) {
+            return;
+        }
+
+        final List<JobLease> stragglers = new ArrayList<>();
+
+        for (final JobLease lease : leases.values()) {
+            if (lease.isActive() && !lease.isSpeculative() && !lease.isDuplicated() && isStraggler(lease, now)) {
+                stragglers.add(lease);
+            }
+        }
+
+        // the jobs which run the longest are duplicated first
+        stragglers.sort(Comparator.comparing(JobLease::getStarted));
+
+        for (final JobLease straggler : stragglers) {
+            final String address = takeAddress(addresses, getHardwareClass(straggler.getAddress()));
+
+            if (address == null) {
+                continue;
+            }
+
+            if (lease(address, straggler.getJob(), true)) {
+                straggler.duplicate();
+
+                LOGGER.info("Sent a duplicate of '{}' | '{}' to benchmarker {}.",
+                        straggler.getJob().getJobGroupTitle(), straggler.getJob().getJobID(), address);
+            }
         }
     }
 
     /**
-     * Sends a job to an available benchmarker.
+     * Removes the first address of a benchmarker of the given hardware class from the addresses.
+     * @return the address or null if there is no benchmarker of the hardware class.
+     */
+    private String takeAddress(final List<String> addresses, final String hardwareClass) {
+        final Iterator<String> iterator = addresses.iterator();
+
+        while (iterator.hasNext()) {
+            final String address = iterator.next();
+
+            if (Objects.equals(getHardwareClass(address), hardwareClass)) {
+                iterator.remove();
+                return address;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @return the hardware class of the benchmarker or null if the hardware is not considered.
+     */
+    private String getHardwareClass(final String address) {
+        return hardwareAffinity ? benchmarkerPool.getHardwareClass(address) : null;
+    }
+
+    private boolean isStraggler(final JobLease lease, final LocalDateTime now) {
+        final long expectedTime = jobProvider.getExecutionTimePercentile(lease.getJob().getJobGroupTitle(), MEDIAN);
+
+        return expectedTime > 0
+                && Duration.between(lease.getStarted(), now).getSeconds() > STRAGGLER_FACTOR * expectedTime;
+    }
+
+    /**
+     * Sends jobs to all available benchmarkers.
+     * The jobs for all free benchmarkers are taken from the job provider at once. A job which could not be sent to a
+     * benchmarker is given to the next free benchmarker. Jobs which could not be sent to any benchmarker are returned
+     * to the job provider and sending them is tried again as long as the benchmarkers can be retried.
      * This method does nothing if no job is available or all benchmarkers are occupied.
      */
     public void executeJob() {
-        final IJob job = jobProvider.popJob();
+        dispatchLoop.submit(this::dispatchJobs);
+    }
 
-        if (job == null) {
+    private void dispatchJobs() {
+        if (dispatching) {
+            // called by the job provider because a job was returned during the current dispatch.
             return;
         }
 
-        if (benchmarkerPool.hasFreeBenchmarkers()) {
-            final String address = benchmarkerPool.getFreeBenchmarker();
+        dispatching = true;
 
-            if (!canExecute(address)) {
-                resetAttempts(address);
-                return;
+        try {
+            boolean retry = true;
+
+            while (retry) {
+                retry = fillFreeBenchmarkers();
             }
 
-            final BenchmarkerJob benchmarkerJob = new BenchmarkerJob(address, job.getJobGroupTitle(), job.getJobID());
+            reserveJobs();
+        } finally {
+            dispatching = false;
+        }
+    }
 
-            if (jobSender.sendJob(benchmarkerJob)) {
-                LOGGER.info("Sent job to benchmarker {}.", address);
-                benchmarkerPool.occupyBenchmarker(address);
-                currentJobs.put(address, job);
+    /**
+     * Assigns a job to each free benchmarker in one pass.
+     * @return whether sending a job failed and the pass should be repeated.
+     */
+    private boolean fillFreeBenchmarkers() {
+        // the free benchmarkers by their hardware class. The key is null if the hardware is not considered
+        final Map<String, List<String>> addressesByClass = new LinkedHashMap<>();
 
+        for (final String address : benchmarkerPool.getFreeBenchmarkers()) {
+            if (canExecute(address)) {
+                addressesByClass.computeIfAbsent(getHardwareClass(address), hardwareClass -> new ArrayList<>())
+                        .add(address);
+            } else {
                 resetAttempts(address);
+            }
+        }
+
+        boolean sendFailed = false;
+
+        for (final Map.Entry<String, List<String>> entry : addressesByClass.entrySet()) {
+            sendFailed |= fillFreeBenchmarkers(entry.getKey(), entry.getValue());
+        }
+
+        return sendFailed;
+    }
+
+    /**
+     * Assigns a job to each of the given free benchmarkers of one hardware class. Benchmarkers with reserved jobs
+     * start the first of them. If the job provider has too few jobs for the others, they take reserved jobs of busy
+     * benchmarkers.
+     * @param hardwareClass the hardware class of the benchmarkers or null if the hardware is not considered.
+     * @return whether sending a job failed.
+     */
+    private boolean fillFreeBenchmarkers(final String hardwareClass, final List<String> addresses) {
+        boolean sendFailed = false;
+
+        final List<String> unreservedAddresses = new ArrayList<>();
+
+        for (final String address : addresses) {
+            final Deque<IJob> reserved = reservations.get(address);
+
+            if (reserved == null || reserved.isEmpty()) {
+                unreservedAddresses.add(address);
+            } else if (!lease(address, reserved.peek(), false)) {
+                jobProvider.returnJob(reserved.poll());
+                sendFailed = true;
             } else {
-                LOGGER.warn("Failed to send job to {}.", address);
-                addAttempt(address);
-                jobProvider.returnJob(job);
+                reserved.poll();
             }
-        } else {
+        }
+
+        if (unreservedAddresses.isEmpty()) {
+            return sendFailed;
+        }
+
+        final Predicate<IJob> notLeased = job -> !hasActiveLease(job);
+
+        final Deque<IJob> jobs = new ArrayDeque<>(hardwareClass == null
+                ? jobProvider.popJobs(unreservedAddresses.size(), notLeased)
+                : jobProvider.popJobs(unreservedAddresses.size(), hardwareClass, notLeased));
+
+        while (jobs.size() < unreservedAddresses.size()) {
+            final IJob reservedJob = takeReservedJob(hardwareClass);
+
+            if (reservedJob == null) {
+                break;
+            }
+
+            jobs.add(reservedJob);
+        }
+
+        if (jobs.isEmpty()) {
+            return sendFailed;
+        }
+
+        for (final String address : unreservedAddresses) {
+            final IJob job = jobs.peek();
+
+            if (job == null) {
+                break;
+            }
+
+            if (lease(address, job, false)) {
+                jobs.poll();
+            } else {
+                sendFailed = true;
+            }
+        }
+
+        // the jobs are returned after the pass, so the benchmarkers of this pass are not given other jobs meanwhile
+        for (final IJob job : jobs) {
             jobProvider.returnJob(job);
         }
+
+        return sendFailed;
+    }
+
+    /**
+     * Revokes the last reserved job of the busy benchmarker of the hardware class with the most reserved jobs.
+     * @param hardwareClass the hardware class or null if the hardware is not considered.
+     * @return the revoked job or null if no job is reserved for a benchmarker of the hardware class.
+     */
+    private IJob takeReservedJob(final String hardwareClass) {
+        final String takenFrom = getMostReserved(hardwareClass);
+
+        if (takenFrom == null) {
+            return null;
+        }
+
+        final IJob job = reservations.get(takenFrom).pollLast();
+        revoke(takenFrom, job);
+
+        return job;
+    }
+
+    /**
+     * The last reserved job of the returned benchmarker is the reserved job of the hardware class which would start
+     * last, since every benchmarker gets its next job reserved before any benchmarker gets a second one.
+     * @param hardwareClass the hardware class or null if the hardware is not considered.
+     * @return the address of the benchmarker of the hardware class with the most reserved jobs or null if no job is
+     *      reserved for a benchmarker of the hardware class.
+     */
+    private String getMostReserved(final String hardwareClass) {
+        String mostReserved = null;
+        int amtReserved = 0;
+
+        for (final Map.Entry<String, Deque<IJob>> entry : reservations.entrySet()) {
+            if (entry.getValue().size() > amtReserved
+                    && Objects.equals(getHardwareClass(entry.getKey()), hardwareClass)) {
+                mostReserved = entry.getKey();
+                amtReserved = entry.getValue().size();
+            }
+        }
+
+        return mostReserved;
+    }
+
+    /**
+     * Reserves jobs for the busy benchmarkers until their prefetch windows are full and announces the jobs to them.
+     * Reserved jobs beyond the window of a benchmarker, e.g. because it is drained, are given back to the job
+     * provider.
+     */
+    private void reserveJobs() {
+        final List<IJob> revokedJobs = new ArrayList<>();
+
+        for (final Map.Entry<String, Deque<IJob>> entry : reservations.entrySet()) {
+            final int window = getPrefetchWindow(entry.getKey());
+
+            while (entry.getValue().size() > window) {
+                final IJob job = entry.getValue().pollLast();
+                revoke(entry.getKey(), job);
+                revokedJobs.add(job);
+            }
+        }
+        reservations.values().removeIf(Deque::isEmpty);
+
+        if (!revokedJobs.isEmpty()) {
+            jobProvider.unreserveJobs(revokedJobs);
+        }
+
+        if (prefetchWindow == 0) {
+            return;
+        }
+
+        // every benchmarker gets its next job before any benchmarker gets a second one
+        final Map<String, List<String>> creditsByClass = new LinkedHashMap<>();
+
+        for (int round = 0; round < prefetchWindow; round++) {
+            for (final String address : leases.keySet()) {
+                final Deque<IJob> reserved = reservations.get(address);
+                final int amtReserved = reserved == null ? 0 : reserved.size();
+
+                if (round >= amtReserved && round < getPrefetchWindow(address)) {
+                    creditsByClass.computeIfAbsent(getHardwareClass(address), hardwareClass -> new ArrayList<>())
+                            .add(address);
+                }
+            }
+        }
+
+        for (final Map.Entry<String, List<String>> entry : creditsByClass.entrySet()) {
+            reserveJobs(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void reserveJobs(final String hardwareClass, final List<String> credits) {
+        final Predicate<IJob> notLeased = job -> !hasActiveLease(job);
+
+        final List<IJob> jobs = hardwareClass == null
+                ? jobProvider.popJobs(credits.size(), notLeased)
+                : jobProvider.popJobs(credits.size(), hardwareClass, notLeased);
+
+        final List<IJob> unannouncedJobs = new ArrayList<>();
+
+        for (int i = 0; i < jobs.size(); i++) {
+            final String address = credits.get(i);
+            final IJob job = jobs.get(i);
+
+            if (announce(address, job)) {
+                reservations.computeIfAbsent(address, key -> new ArrayDeque<>()).add(job);
+            } else {
+                unannouncedJobs.add(job);
+            }
+        }
+
+        if (!unannouncedJobs.isEmpty()) {
+            jobProvider.unreserveJobs(unannouncedJobs);
+        }
+    }
+
+    /**
+     * Announces a job which is reserved for a benchmarker to it.
+     * @return whether the job was announced.
+     */
+    private boolean announce(final String address, final IJob job) {
+        if (!jobSender.prefetchJob(new BenchmarkerJob(address, job.getJobGroupTitle(), job.getJobID()))) {
+            return false;
+        }
+
+        LOGGER.info("Reserved '{}' | '{}' for benchmarker {}.", job.getJobGroupTitle(), job.getJobID(), address);
+        return true;
+    }
+
+    /**
+     * @return the amount of jobs which may be reserved for the benchmarker.
+     */
+    private int getPrefetchWindow(final String address) {
+        return Math.min(prefetchWindow, benchmarkerPool.getPrefetchWindow(address));
+    }
+
+    private void revoke(final String address, final IJob job) {
+        jobSender.revokeJob(new BenchmarkerJob(address, job.getJobGroupTitle(), job.getJobID()));
+
+        LOGGER.info("Revoked '{}' | '{}' from benchmarker {}.", job.getJobGroupTitle(), job.getJobID(), address);
+    }
+
+    /**
+     * Reserves the prioritized jobs in place of the reserved jobs which would start last. Per hardware class at most
+     * as many jobs as are reserved for it are taken from the job provider, and only the reserved jobs which are
+     * displaced by prioritized jobs are revoked. The revoked jobs and the taken jobs which were not prioritized are
+     * given back at their old position.
+     */
+    @Override
+    public void jobsPrioritized(final String groupTitle, final Collection<String> jobIDs) {
+        final Set<String> prioritizedIDs = new HashSet<>(jobIDs);
+
+        dispatchLoop.submit(() -> {
+            final Map<String, Integer> amtReservedByClass = new LinkedHashMap<>();
+            for (final Map.Entry<String, Deque<IJob>> entry : reservations.entrySet()) {
+                amtReservedByClass.merge(getHardwareClass(entry.getKey()), entry.getValue().size(), Integer::sum);
+            }
+
+            final Predicate<IJob> notLeased = job -> !hasActiveLease(job);
+            final List<IJob> givenBack = new ArrayList<>();
+
+            for (final Map.Entry<String, Integer> entry : amtReservedByClass.entrySet()) {
+                final String hardwareClass = entry.getKey();
+                final int amount = Math.min(entry.getValue(), prioritizedIDs.size());
+
+                // the prioritized jobs are taken first, so jobs after them are not worth more than the reserved ones
+                final List<IJob> jobs = hardwareClass == null
+                        ? jobProvider.popJobs(amount, notLeased)
+                        : jobProvider.popJobs(amount, hardwareClass, notLeased);
+
+                // the displacing jobs by the address they are reserved for, in the order they start
+                final Map<String, Deque<IJob>> displacing = new LinkedHashMap<>();
+
+                for (final IJob job : jobs) {
+                    final String address = getMostReserved(hardwareClass);
+
+                    if (!job.getJobGroupTitle().equals(groupTitle) || !prioritizedIDs.contains(job.getJobID())
+                            || address == null) {
+                        givenBack.add(job);
+                        continue;
+                    }
+
+                    final IJob displaced = reservations.get(address).pollLast();
+                    revoke(address, displaced);
+                    givenBack.add(displaced);
+
+                    if (announce(address, job)) {
+                        displacing.computeIfAbsent(address, key -> new ArrayDeque<>()).add(job);
+                    } else {
+                        givenBack.add(job);
+                    }
+                }
+
+                // the prioritized jobs start before the other reserved jobs of their benchmarker
+                for (final Map.Entry<String, Deque<IJob>> displacingEntry : displacing.entrySet()) {
+                    final Deque<IJob> reserved = reservations.get(displacingEntry.getKey());
+                    displacingEntry.getValue().descendingIterator().forEachRemaining(reserved::addFirst);
+                }
+            }
+
+            if (!givenBack.isEmpty()) {
+                jobProvider.unreserveJobs(givenBack);
+            }
+        });
+    }
+
+    /**
+     * Revokes the reserved jobs which were removed. They are not returned to the job provider.
+     */
+    @Override
+    public void jobsRemoved(final String groupTitle, final Collection<String> jobIDs) {
+        dispatchLoop.submit(() -> {
+            for (final Map.Entry<String, Deque<IJob>> entry : reservations.entrySet()) {
+                final Iterator<IJob> iterator = entry.getValue().iterator();
+
+                while (iterator.hasNext()) {
+                    final IJob job = iterator.next();
+
+                    if (job.getJobGroupTitle().equals(groupTitle)
+                            && (jobIDs == null || jobIDs.contains(job.getJobID()))) {
+                        iterator.remove();
+                        revoke(entry.getKey(), job);
+                    }
+                }
+            }
+
+            dispatchJobs();
+        });
+    }
+
+    /**
+     * Sends the job to the benchmarker and leases it to the benchmarker.
+     * @return whether the job was sent.
+     */
+    private boolean lease(final String address, final IJob job, final boolean speculative) {
+        final long timeout = getLeaseTimeout(job);
+        final BenchmarkerJob benchmarkerJob = new BenchmarkerJob(address, job.getJobGroupTitle(), job.getJobID(),
+                timeout);
+
+        if (!jobSender.sendJob(benchmarkerJob)) {
+            LOGGER.warn("Failed to send job to {}.", address);
+            addAttempt(address);
+            return false;
+        }
+
+        LOGGER.info("Sent job to benchmarker {}.", address);
+        benchmarkerPool.occupyBenchmarker(address);
+
+        final LocalDateTime now = LocalDateTime.now();
+        leases.put(address, new JobLease(address, job, now, now.plusSeconds(timeout), speculative));
+
+        resetAttempts(address);
+        return true;
+    }
+
+    /**
+     * @return the time in seconds a lease of the job lasts without heartbeats. The benchmarker stops the job after
+     *      this time.
+     */
+    private long getLeaseTimeout(final IJob job) {
+        final long usualTime = jobProvider.getExecutionTimePercentile(job.getJobGroupTitle(), LEASE_PERCENTILE);
+
+        return Math.max(leaseMinimum, LEASE_FACTOR * usualTime);
+    }
+
+    private boolean hasActiveLease(final IJob job) {
+        for (final JobLease lease : leases.values()) {
+            if (lease.isActive() && lease.isFor(job)) {
+                return true;
+            }
+        }
+
+        return false;
     }
 
     private boolean canExecute(final String address) {
@@ -157,15 +1027,58 @@ public class JobHandler implements INewRegistrationListener, IObserver, IJobRegi
 
     /**
      * Gets called when the benchmarker is no longer available.
-     * If the benchmarker currently had a job the job is returned to the jobProvider.
+     * The jobs the slots of the benchmarker currently had are returned to the jobProvider unless they were already
+     * returned or another benchmarker works on them. The leases are remembered, so the results the benchmarker sends
+     * again after it reconnected are still saved. The jobs reserved for the benchmarker are given back at their old
+     * position.
      * @param address the address of the benchmarker.
      */
     public void connectionLostFor(final String address) {
-        if (currentJobs.containsKey(address)) {
-            final IJob job = currentJobs.remove(address);
+        dispatchLoop.submit(() -> {
+            final List<JobLease> disconnectedLeases = new ArrayList<>();
 
-            jobProvider.returnJob(job);
-        }
+            final Iterator<Map.Entry<String, JobLease>> iterator = leases.entrySet().iterator();
+            while (iterator.hasNext()) {
+                final Map.Entry<String, JobLease> entry = iterator.next();
+
+                if (SlotAddresses.getBenchmarkerAddress(entry.getKey()).equals(address)) {
+                    disconnectedLeases.add(entry.getValue());
+                    iterator.remove();
+                }
+            }
+
+            final List<IJob> reservedJobs = new ArrayList<>();
+
+            final Iterator<Map.Entry<String, Deque<IJob>>> reservationIterator = reservations.entrySet().iterator();
+            while (reservationIterator.hasNext()) {
+                final Map.Entry<String, Deque<IJob>> entry = reservationIterator.next();
+
+                if (SlotAddresses.getBenchmarkerAddress(entry.getKey()).equals(address)) {
+                    reservedJobs.addAll(entry.getValue());
+                    reservationIterator.remove();
+                }
+            }
+
+            final List<JobLease> returnedLeases = new ArrayList<>();
+
+            for (final JobLease lease : disconnectedLeases) {
+                if (!lease.isSuperseded()) {
+                    lostLeases.put(getJobKey(lease.getJob().getJobGroupTitle(), lease.getJob().getJobID()), lease);
+                }
+
+                // two slots of the benchmarker may have had the same job
+                final boolean returned = returnedLeases.stream().anyMatch(other -> other.isFor(lease.getJob()));
+
+                if (lease.isActive() && !returned && !hasActiveLease(lease.getJob())) {
+                    jobProvider.returnJob(lease.getJob());
+                    returnedLeases.add(lease);
+                }
+            }
+
+            if (!reservedJobs.isEmpty()) {
+                jobProvider.unreserveJobs(reservedJobs);
+            }
+        });
     }
 
     @Override
@@ -174,6 +1087,10 @@ public class JobHandler implements INewRegistrationListener, IObserver, IJobRegi
             throw new IllegalArgumentException("The address cannot be null or empty.");
         }
 
-        return currentJobs.get(address);
+        return dispatchLoop.call(() -> {
+            final JobLease lease = leases.get(address);
+
+            return lease == null ? null : lease.getJob();
+        });
     }
 }
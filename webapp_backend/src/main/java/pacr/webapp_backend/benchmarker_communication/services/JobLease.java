@@ -0,0 +1,105 @@
+package pacr.webapp_backend.benchmarker_communication.services;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import lombok.Getter;
+import pacr.webapp_backend.shared.IJob;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * A job which was sent to a benchmarker. The benchmarker keeps the job until the lease expires, which happens if the
+ * benchmarker neither sends a result nor a heartbeat in time. The job of an expired lease can be given to another
+ * benchmarker. The same job can be leased to several benchmarkers at once, the first result is saved and the other
+ * leases are superseded.
+ */
+@Getter
+class JobLease {
+
+    private final String address;
+
+    private final IJob job;
+
+    private final LocalDateTime started;
+
+    private LocalDateTime expiry;
+
+    // whether the job was leased to another benchmarker because this lease was expected to finish late
+    private final boolean speculative;
+
+    private boolean duplicated;
+
+    private boolean expired;
+
+    private boolean superseded;
+
+    /**
+     * Creates a new lease.
+     * @param address the address of the benchmarker.
+     * @param job the job.
+     * @param started the date the job was sent.
+     * @param expiry the date the lease expires if it isn't renewed.
+     * @param speculative whether the job is a duplicate of a job which is already leased to another benchmarker.
+     */
+    JobLease(@NotNull final String address, @NotNull final IJob job, @NotNull final LocalDateTime started,
+             @NotNull final LocalDateTime expiry, final boolean speculative) {
+        Objects.requireNonNull(address);
+        Objects.requireNonNull(job);
+        Objects.requireNonNull(started);
+        Objects.requireNonNull(expiry);
+
+        this.address = address;
+        this.job = job;
+        this.started = started;
+        this.expiry = expiry;
+        this.speculative = speculative;
+    }
+
+    /**
+     * @return whether the result of the lease is still expected, so the job doesn't have to be leased again.
+     */
+    boolean isActive() {
+        return !expired && !superseded;
+    }
+
+    /**
+     * @param job a job.
+     * @return whether this lease is for the given job.
+     */
+    boolean isFor(@NotNull final IJob job) {
+        return this.job.getJobGroupTitle().equals(job.getJobGroupTitle())
+                && this.job.getJobID().equals(job.getJobID());
+    }
+
+    /**
+     * Extends the lease after a heartbeat of the benchmarker.
+     * @param newExpiry the new date the lease expires.
+     */
+    void renew(@NotNull final LocalDateTime newExpiry) {
+        Objects.requireNonNull(newExpiry);
+
+        this.expiry = newExpiry;
+    }
+
+    /**
+     * Marks that a speculative duplicate of this lease was sent to another benchmarker.
+     */
+    void duplicate() {
+        this.duplicated = true;
+    }
+
+    /**
+     * Marks the lease as expired. The benchmarker may still send a result for it.
+     */
+    void expire() {
+        this.expired = true;
+    }
+
+    /**
+     * Marks that the result of the job was already received from another benchmarker.
+     */
+    void supersede() {
+        this.superseded = true;
+    }
+
+}
@@ -23,6 +23,10 @@ public class JobResult implements IBenchmarkingResult {
     private String commitHash;
     private SystemEnvironment systemEnvironment;
 
+    // identifies the execution of the job, so a result which the benchmarker sends again after a reconnect is
+    // recognized. null if the benchmarker doesn't send results again
+    private String attemptId;
+
     @Setter
     @Getter(AccessLevel.NONE)
     private BenchmarkingResult benchmarkingResult;
@@ -0,0 +1,58 @@
+package pacr.webapp_backend.benchmarker_communication.services;
+
+import java.time.LocalDateTime;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.Lob;
+
+/**
+ * A benchmarking result which was received but not saved yet. It is stored until it is saved, so it is saved after
+ * a restart as well. In a cluster the result is owned by the node which saves it.
+ */
+@Entity
+@Getter
+@NoArgsConstructor
+public class PendingResult {
+
+    @Id
+    @GeneratedValue
+    @Getter(AccessLevel.NONE)
+    private int id;
+
+    private String repository;
+
+    private String commitHash;
+
+    // the serialized result
+    @Lob
+    private String result;
+
+    private LocalDateTime received;
+
+    // the id of the node which saves the result or null if the web app doesn't run in a cluster
+    private String ownedBy;
+
+    /**
+     * Creates a new pending result.
+     * @param repository the repository of the result.
+     * @param commitHash the commit hash of the result.
+     * @param result the serialized result.
+     * @param received the date the result was received.
+     * @param ownedBy the id of the node of the cluster which saves the result or null if the web app doesn't run in
+     *                a cluster.
+     */
+    PendingResult(final String repository, final String commitHash, final String result,
+                  final LocalDateTime received, final String ownedBy) {
+        this.repository = repository;
+        this.commitHash = commitHash;
+        this.result = result;
+        this.received = received;
+        this.ownedBy = ownedBy;
+    }
+
+}
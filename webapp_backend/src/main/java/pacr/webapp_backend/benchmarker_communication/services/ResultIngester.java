@@ -0,0 +1,536 @@
+package pacr.webapp_backend.benchmarker_communication.services;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import pacr.webapp_backend.scheduler.services.Histogram;
+import pacr.webapp_backend.shared.IBenchmarkingResult;
+import pacr.webapp_backend.shared.IClusterChannel;
+import pacr.webapp_backend.shared.IResultSaver;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Saves received benchmarking results asynchronously, so the benchmarker which sent a result can be given its next
+ * job without waiting for the result to be saved.
+ *
+ * A received result is stored by a background thread first and then saved by a pool of workers. Neither blocks the
+ * thread which received the result. If all workers are busy and the queue of waiting results is full, a stored result
+ * is kept in the backlog of stored results, which the workers save once they are free. A result which could not be
+ * stored is then given up, so the caller is told that it is lost.
+ * Saving a result which failed is retried with an increasing delay. A stored result is retried until it is saved, since
+ * its job is already finished and its benchmarker already dropped it; the delay stops growing at five minutes. A result
+ * which is not stored is given up after a few attempts. Stored results which were not saved yet are saved when the
+ * application starts.
+ *
+ * In a cluster the stored results are shared by all nodes, so each stored result is owned by the node which saves
+ * it. A starting node only saves its own stored results and the ones without owner, and the stored results of a node
+ * which left the cluster are taken over by the first node which claims them.
+ */
+@Component
+@Primary
+public class ResultIngester implements IResultSaver {
+
+    private static final Logger LOGGER = LogManager.getLogger(ResultIngester.class);
+
+    private static final int MAX_ATTEMPTS = 5;
+    private static final long FIRST_RETRY_DELAY_MILLIS = 1000;
+    private static final long MAX_RETRY_DELAY_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    // the retry delay doesn't grow any further after this many doublings, so it can't overflow
+    private static final int MAX_RETRY_DELAY_DOUBLINGS = 30;
+    private static final long IDLE_THREAD_TIMEOUT_SECONDS = 60;
+
+    // the results are stored field by field, so they can be restored exactly
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE)
+            .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final IResultSaver resultSaver;
+    private final IPendingResultAccess pendingResultAccess;
+
+    private final long firstRetryDelay;
+
+    private final ThreadPoolExecutor storage;
+    private final ThreadPoolExecutor workers;
+    private final ScheduledExecutorService retryScheduler;
+
+    // the stored results which did not fit into the queue of the workers
+    private final Deque<Ingestion> backlog;
+
+    // guarded by this
+    private int pendingResults;
+
+    private final LongAdder resultsSaved;
+    private final LongAdder retries;
+    private final LongAdder resultsFailed;
+
+    // in milliseconds
+    private final Histogram ingestionLag;
+
+    // null if the web app doesn't run in a cluster
+    private volatile IClusterChannel cluster;
+
+    /**
+     * Creates a new ResultIngester.
+     * @param resultSaver the result saver which saves the results in the system.
+     * @param pendingResultAccess the storage of the results which are not saved yet.
+     * @param amtWorkers the amount of threads which save results. (> 0)
+     * @param capacity the maximum amount of results which wait to be stored and which wait for a worker. (> 0)
+     */
+    @Autowired
+    public ResultIngester(@NotNull @Qualifier("resultManager") final IResultSaver resultSaver,
+                          @NotNull final IPendingResultAccess pendingResultAccess,
+                          @Value("${resultIngestionWorkers}") final int amtWorkers,
+                          @Value("${resultIngestionCapacity}") final int capacity) {
+        this(resultSaver, pendingResultAccess, amtWorkers, capacity, FIRST_RETRY_DELAY_MILLIS);
+    }
+
+    /**
+     * Creates a new ResultIngester.
+     * @param resultSaver the result saver which saves the results in the system.
+     * @param pendingResultAccess the storage of the results which are not saved yet.
+     * @param amtWorkers the amount of threads which save results. (> 0)
+     * @param capacity the maximum amount of results which wait to be stored and which wait for a worker. (> 0)
+     * @param firstRetryDelay the time in milliseconds until saving a result is retried the first time. The delay
+     *                        doubles with every attempt up to five minutes. (> 0)
+     */
+    ResultIngester(@NotNull final IResultSaver resultSaver, @NotNull final IPendingResultAccess pendingResultAccess,
+                   final int amtWorkers, final int capacity, final long firstRetryDelay) {
+        Objects.requireNonNull(resultSaver, "The resultSaver cannot be null.");
+        Objects.requireNonNull(pendingResultAccess, "The pendingResultAccess cannot be null.");
+
+        if (amtWorkers <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("The amount of workers and the capacity must be positive.");
+        }
+        if (firstRetryDelay <= 0) {
+            throw new IllegalArgumentException("The retry delay must be positive.");
+        }
+
+        this.resultSaver = resultSaver;
+        this.pendingResultAccess = pendingResultAccess;
+        this.firstRetryDelay = firstRetryDelay;
+
+        this.storage = new ThreadPoolExecutor(1, 1, IDLE_THREAD_TIMEOUT_SECONDS, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(capacity), runnable -> {
+                    final Thread thread = new Thread(runnable, "ResultIngesterStorage");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.storage.allowCoreThreadTimeOut(true);
+
+        final AtomicInteger threadCount = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(amtWorkers, amtWorkers, IDLE_THREAD_TIMEOUT_SECONDS, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(capacity), runnable -> {
+                    final Thread thread = new Thread(runnable, "ResultIngester-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.workers.allowCoreThreadTimeOut(true);
+        this.backlog = new ConcurrentLinkedDeque<>();
+
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "ResultIngesterRetry");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.resultsSaved = new LongAdder();
+        this.retries = new LongAdder();
+        this.resultsFailed = new LongAdder();
+        this.ingestionLag = new Histogram();
+    }
+
+    /**
+     * Makes the stored results owned by this node if the channel is clustered. The stored results of nodes which
+     * left the cluster are taken over.
+     *
+     * @param cluster the channel to the other nodes.
+     */
+    @Autowired(required = false)
+    public void setCluster(@NotNull final IClusterChannel cluster) {
+        Objects.requireNonNull(cluster, "The cluster cannot be null.");
+
+        if (!cluster.isClustered()) {
+            return;
+        }
+
+        cluster.subscribe(IClusterChannel.NODE_LEFT_TOPIC, nodeId -> {
+            // this node keeps saving its results even if the other nodes thought it left
+            if (!nodeId.equals(cluster.getNodeId())) {
+                takeOverStoredResults(nodeId, cluster.getNodeId());
+            }
+        });
+
+        this.cluster = cluster;
+    }
+
+    /**
+     * Saves the results which were stored but not saved before the application stopped. In a cluster only the
+     * results of this node and the ones without owner are saved, since the other nodes save their own results.
+     */
+    @PostConstruct
+    void saveStoredResults() {
+        final IClusterChannel currentCluster = cluster;
+
+        if (currentCluster == null) {
+            for (final PendingResult pendingResult : pendingResultAccess.findPendingResults()) {
+                restore(pendingResult);
+            }
+            return;
+        }
+
+        for (final PendingResult pendingResult : pendingResultAccess.findPendingResults(currentCluster.getNodeId())) {
+            restore(pendingResult);
+        }
+
+        // results which were stored before the web app ran in a cluster
+        takeOverStoredResults(null, currentCluster.getNodeId());
+    }
+
+    /**
+     * Saves the stored results of another node which this node claimed first.
+     * @param previousOwner the id of the node which owned the results or null for the results without owner.
+     */
+    private void takeOverStoredResults(final String previousOwner, final String nodeId) {
+        int amtTakenOver = 0;
+
+        for (final PendingResult pendingResult : pendingResultAccess.findPendingResults(previousOwner)) {
+            try {
+                if (pendingResultAccess.claimPendingResult(pendingResult, previousOwner, nodeId)) {
+                    restore(pendingResult);
+                    amtTakenOver++;
+                }
+            } catch (final RuntimeException e) {
+                LOGGER.error("Could not claim the stored result of '{}' | '{}'.", pendingResult.getRepository(),
+                        pendingResult.getCommitHash(), e);
+            }
+        }
+
+        if (amtTakenOver > 0) {
+            LOGGER.info("Took over {} stored results of node '{}'.", amtTakenOver, previousOwner);
+        }
+    }
+
+    private void restore(final PendingResult pendingResult) {
+        final JobResult result;
+
+        try {
+            result = MAPPER.readValue(pendingResult.getResult(), JobResult.class);
+        } catch (JsonProcessingException e) {
+            LOGGER.error("Could not restore the stored result of '{}' | '{}'.", pendingResult.getRepository(),
+                    pendingResult.getCommitHash(), e);
+            return;
+        }
+
+        LOGGER.info("Saving the stored result of '{}' | '{}'.", pendingResult.getRepository(),
+                pendingResult.getCommitHash());
+
+        submit(new Ingestion(result, pendingResult, pendingResult.getReceived(),
+                CompletableFuture.completedFuture(null)));
+    }
+
+    @PreDestroy
+    private void shutdown() {
+        // results which are not saved yet are still stored
+        retryScheduler.shutdownNow();
+        storage.shutdown();
+        workers.shutdown();
+    }
+
+    /**
+     * Stores the result and saves it asynchronously.
+     * Only instances of {@link JobResult} are stored. Other results are only kept in memory until they are saved.
+     * @param benchmarkingResult the results to be saved. Cannot be null.
+     */
+    @Override
+    public void saveBenchmarkingResults(@NotNull final IBenchmarkingResult benchmarkingResult) {
+        storeBenchmarkingResults(benchmarkingResult);
+    }
+
+    /**
+     * Stores the result and saves it asynchronously. Neither is done by the calling thread.
+     * Only instances of {@link JobResult} are stored. Other results are only kept in memory until they are saved.
+     * @param benchmarkingResult the results to be saved. Cannot be null.
+     * @return a future which is completed once the result is stored or, if it could not be stored, once it is saved.
+     *      It is completed exceptionally if too many results wait to be stored or if the result could neither be
+     *      stored nor saved.
+     */
+    @Override
+    public CompletableFuture<Void> storeBenchmarkingResults(@NotNull final IBenchmarkingResult benchmarkingResult) {
+        Objects.requireNonNull(benchmarkingResult, "The benchmarkingResult cannot be null.");
+
+        final LocalDateTime received = LocalDateTime.now();
+        final CompletableFuture<Void> durable = new CompletableFuture<>();
+
+        synchronized (this) {
+            pendingResults++;
+        }
+
+        try {
+            storage.execute(() -> {
+                final PendingResult pendingResult = store(benchmarkingResult, received);
+                if (pendingResult != null) {
+                    durable.complete(null);
+                }
+
+                execute(new Ingestion(benchmarkingResult, pendingResult, received, durable));
+            });
+        } catch (RejectedExecutionException e) {
+            LOGGER.warn("Could not store the result of commit '{}' because too many results wait to be stored.",
+                    benchmarkingResult.getCommitHash());
+
+            durable.completeExceptionally(e);
+            finished();
+        }
+
+        return durable;
+    }
+
+    /**
+     * Saves the benchmarks measured so far asynchronously. They are neither stored nor retried, because the complete
+     * result follows.
+     * @param benchmarkingResult the benchmarks measured so far. Cannot be null.
+     */
+    @Override
+    public void savePartialBenchmarkingResults(@NotNull final IBenchmarkingResult benchmarkingResult) {
+        Objects.requireNonNull(benchmarkingResult, "The benchmarkingResult cannot be null.");
+
+        try {
+            workers.execute(() -> {
+                try {
+                    resultSaver.savePartialBenchmarkingResults(benchmarkingResult);
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Could not save the partial result of commit '{}'.",
+                            benchmarkingResult.getCommitHash(), e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            LOGGER.warn("Discarded the partial result of commit '{}' because too many results wait to be saved.",
+                    benchmarkingResult.getCommitHash());
+        }
+    }
+
+    /**
+     * Blocks until all results which were received before are saved or given up. Stored results are only given up if
+     * they can't be restored.
+     */
+    public synchronized void flush() {
+        while (pendingResults > 0) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return the current metrics of the result ingestion.
+     */
+    public IngestionMetricsReport getMetrics() {
+        final int pending;
+        synchronized (this) {
+            pending = pendingResults;
+        }
+
+        return new IngestionMetricsReport(storage.getQueue().size() + workers.getQueue().size() + backlog.size(),
+                pending, resultsSaved.sum(), retries.sum(),
+                resultsFailed.sum(), ingestionLag.summarize());
+    }
+
+    private PendingResult store(final IBenchmarkingResult benchmarkingResult, final LocalDateTime received) {
+        if (!(benchmarkingResult instanceof JobResult)) {
+            return null;
+        }
+
+        try {
+            final JobResult jobResult = (JobResult) benchmarkingResult;
+            final IClusterChannel currentCluster = cluster;
+            final PendingResult pendingResult = new PendingResult(jobResult.getRepository(),
+                    jobResult.getCommitHash(), MAPPER.writeValueAsString(jobResult), received,
+                    currentCluster == null ? null : currentCluster.getNodeId());
+
+            pendingResultAccess.savePendingResult(pendingResult);
+
+            return pendingResult;
+        } catch (JsonProcessingException | RuntimeException e) {
+            LOGGER.warn("Could not store the result of commit '{}'. It is only kept in memory until it is saved.",
+                    benchmarkingResult.getCommitHash(), e);
+            return null;
+        }
+    }
+
+    private void submit(final Ingestion ingestion) {
+        synchronized (this) {
+            pendingResults++;
+        }
+
+        execute(ingestion);
+    }
+
+    private void execute(final Ingestion ingestion) {
+        try {
+            workers.execute(() -> ingest(ingestion));
+        } catch (RejectedExecutionException e) {
+            reject(ingestion);
+        }
+    }
+
+    private void reject(final Ingestion ingestion) {
+        final IBenchmarkingResult result = ingestion.result;
+
+        if (ingestion.pendingResult != null) {
+            // saved by the next worker which is free. The workers may have become free meanwhile
+            backlog.addLast(ingestion);
+            saveBacklog();
+            return;
+        }
+
+        LOGGER.error("Gave up saving the result of commit '{}' because too many results wait to be saved and it "
+                + "could not be stored.", result.getCommitHash());
+
+        ingestion.durable.completeExceptionally(new RejectedExecutionException("Too many results wait to be saved."));
+        resultsFailed.increment();
+        finished();
+    }
+
+    /**
+     * Moves stored results from the backlog to the queue of the workers while it has space.
+     */
+    private void saveBacklog() {
+        while (workers.getQueue().remainingCapacity() > 0) {
+            final Ingestion ingestion = backlog.pollFirst();
+            if (ingestion == null) {
+                return;
+            }
+
+            try {
+                workers.execute(() -> ingest(ingestion));
+            } catch (RejectedExecutionException e) {
+                backlog.addFirst(ingestion);
+                return;
+            }
+        }
+    }
+
+    private void ingest(final Ingestion ingestion) {
+        try {
+            save(ingestion);
+        } finally {
+            saveBacklog();
+        }
+    }
+
+    private void save(final Ingestion ingestion) {
+        final IBenchmarkingResult result = ingestion.result;
+
+        try {
+            resultSaver.saveBenchmarkingResults(result);
+        } catch (RuntimeException e) {
+            ingestion.attempts++;
+
+            // the job of a stored result is finished and its benchmarker dropped it, so it is retried until it is saved
+            if (ingestion.pendingResult != null || ingestion.attempts < MAX_ATTEMPTS) {
+                final long delay = Math.min(firstRetryDelay
+                        << Math.min(ingestion.attempts - 1, MAX_RETRY_DELAY_DOUBLINGS), MAX_RETRY_DELAY_MILLIS);
+
+                if (ingestion.attempts < MAX_ATTEMPTS) {
+                    LOGGER.warn("Could not save the result of commit '{}'. Retrying in {} ms.",
+                            result.getCommitHash(), delay, e);
+                } else {
+                    LOGGER.error("Could not save the stored result of commit '{}' after {} attempts. Retrying in {} "
+                            + "ms.", result.getCommitHash(), ingestion.attempts, delay, e);
+                }
+
+                retries.increment();
+                retryScheduler.schedule(() -> execute(ingestion), delay, TimeUnit.MILLISECONDS);
+                return;
+            }
+
+            LOGGER.error("Gave up saving the result of commit '{}' after {} attempts.", result.getCommitHash(),
+                    MAX_ATTEMPTS, e);
+
+            ingestion.durable.completeExceptionally(e);
+            resultsFailed.increment();
+            finished();
+            return;
+        }
+
+        ingestion.durable.complete(null);
+
+        if (ingestion.pendingResult != null) {
+            try {
+                pendingResultAccess.deletePendingResult(ingestion.pendingResult);
+            } catch (RuntimeException e) {
+                // the result is saved again after a restart, which replaces the saved result
+                LOGGER.warn("Could not delete the stored result of commit '{}'.", result.getCommitHash(), e);
+            }
+        }
+
+        ingestionLag.record(Duration.between(ingestion.received, LocalDateTime.now()).toMillis());
+        resultsSaved.increment();
+        finished();
+    }
+
+    private synchronized void finished() {
+        pendingResults--;
+
+        if (pendingResults == 0) {
+            notifyAll();
+        }
+    }
+
+    /**
+     * A result which is being saved.
+     */
+    private static final class Ingestion {
+
+        private final IBenchmarkingResult result;
+
+        // null if the result is not stored
+        private final PendingResult pendingResult;
+
+        private final LocalDateTime received;
+
+        // completed once the result is stored or saved
+        private final CompletableFuture<Void> durable;
+
+        // only changed by the thread which currently saves the result
+        private int attempts;
+
+        private Ingestion(final IBenchmarkingResult result, final PendingResult pendingResult,
+                          final LocalDateTime received, final CompletableFuture<Void> durable) {
+            this.result = result;
+            this.pendingResult = pendingResult;
+            this.received = received;
+            this.durable = durable;
+        }
+    }
+}
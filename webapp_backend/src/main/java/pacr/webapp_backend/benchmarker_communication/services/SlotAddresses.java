@@ -0,0 +1,62 @@
+package pacr.webapp_backend.benchmarker_communication.services;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * Maps the slots of a PACR-Benchmarker to addresses. A benchmarker with several slots runs one job per slot at the
+ * same time, so every slot is handled like a benchmarker of its own.
+ * The first slot has the address of the benchmarker, so a benchmarker with one slot is addressed as before. The
+ * other slots have the address of the benchmarker followed by the separator and the index of the slot.
+ */
+public final class SlotAddresses {
+
+    private static final String SEPARATOR = "#";
+
+    private SlotAddresses() {
+    }
+
+    /**
+     * Gets the address of a slot.
+     * @param address the address of the benchmarker. Cannot be null or empty.
+     * @param slot the index of the slot. (>= 0)
+     * @return the address of the slot.
+     */
+    public static String getSlotAddress(final String address, final int slot) {
+        if (!StringUtils.hasText(address)) {
+            throw new IllegalArgumentException("The address cannot be null or empty.");
+        }
+        if (slot < 0) {
+            throw new IllegalArgumentException("The slot cannot be negative.");
+        }
+
+        return slot == 0 ? address : address + SEPARATOR + slot;
+    }
+
+    /**
+     * @param slotAddress the address of a slot.
+     * @return the address of the benchmarker the slot belongs to.
+     */
+    public static String getBenchmarkerAddress(final String slotAddress) {
+        final int separator = slotAddress.lastIndexOf(SEPARATOR);
+
+        return separator < 0 ? slotAddress : slotAddress.substring(0, separator);
+    }
+
+    /**
+     * @param slotAddress the address of a slot.
+     * @return the index of the slot.
+     */
+    public static int getSlot(final String slotAddress) {
+        final int separator = slotAddress.lastIndexOf(SEPARATOR);
+
+        if (separator < 0) {
+            return 0;
+        }
+
+        try {
+            return Integer.parseInt(slotAddress.substring(separator + SEPARATOR.length()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("The slot address '" + slotAddress + "' is not valid.");
+        }
+    }
+}
@@ -11,6 +11,8 @@ import pacr.webapp_backend.shared.ISystemEnvironment;
 @NoArgsConstructor
 public class SystemEnvironment implements ISystemEnvironment {
 
+    private static final String HARDWARE_CLASS_SEPARATOR = " | ";
+
     private String computerName;
     private String os;
     private String kernel;
@@ -18,4 +20,33 @@ public class SystemEnvironment implements ISystemEnvironment {
     private int cores;
     private long ram; // in GiB
 
+    // the amount of slots the benchmarker runs jobs in at the same time. 0 if the benchmarker has no slots
+    private int slots;
+
+    // the slot which ran the job. The cores are the cores of the slot
+    private int slot;
+
+    // the CPUs the slot is pinned to or null if it isn't pinned
+    private String cpuSet;
+
+    // the amount of jobs each slot prepares while it runs its current job. 0 if the benchmarker doesn't prepare jobs
+    private int prefetchWindow;
+
+    /**
+     * @return the amount of jobs the benchmarker can run at the same time.
+     */
+    public int getAmtSlots() {
+        return Math.max(1, slots);
+    }
+
+    /**
+     * Gets the hardware class of the benchmarker. Benchmarkers of the same hardware class have the same processor,
+     * amount of cores and RAM, operating system and kernel, so their results are comparable.
+     * @return the hardware class.
+     */
+    public String getHardwareClass() {
+        return processor + HARDWARE_CLASS_SEPARATOR + cores + " cores" + HARDWARE_CLASS_SEPARATOR + ram + " GiB"
+                + HARDWARE_CLASS_SEPARATOR + os + HARDWARE_CLASS_SEPARATOR + kernel;
+    }
+
 }
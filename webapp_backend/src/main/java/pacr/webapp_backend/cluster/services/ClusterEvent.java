@@ -0,0 +1,52 @@
+package pacr.webapp_backend.cluster.services;
+
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Lob;
+import javax.persistence.Table;
+
+/**
+ * A payload which a node published to a topic. It is stored until all nodes had the chance to read it.
+ */
+@Entity
+@Table(indexes = @Index(columnList = "published"))
+@Getter
+@NoArgsConstructor
+public class ClusterEvent {
+
+    @Id
+    @GeneratedValue
+    private long id;
+
+    private String topic;
+
+    // payloads may list many jobs
+    @Lob
+    private String payload;
+
+    // the node which published the event
+    private String nodeId;
+
+    private LocalDateTime published;
+
+    /**
+     * Creates a new cluster event.
+     * @param topic the topic.
+     * @param payload the payload.
+     * @param nodeId the id of the node which published the event.
+     * @param published the time the event was published.
+     */
+    ClusterEvent(final String topic, final String payload, final String nodeId, final LocalDateTime published) {
+        this.topic = topic;
+        this.payload = payload;
+        this.nodeId = nodeId;
+        this.published = published;
+    }
+
+}
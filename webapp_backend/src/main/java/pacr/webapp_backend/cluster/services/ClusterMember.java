@@ -0,0 +1,33 @@
+package pacr.webapp_backend.cluster.services;
+
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/**
+ * A node of the cluster and the time of its last heartbeat.
+ */
+@Entity
+@Getter
+@NoArgsConstructor
+public class ClusterMember {
+
+    @Id
+    private String nodeId;
+
+    private LocalDateTime lastSeen;
+
+    /**
+     * Creates a new cluster member.
+     * @param nodeId the id of the node.
+     * @param lastSeen the time of the last heartbeat of the node.
+     */
+    ClusterMember(final String nodeId, final LocalDateTime lastSeen) {
+        this.nodeId = nodeId;
+        this.lastSeen = lastSeen;
+    }
+
+}
@@ -0,0 +1,258 @@
+package pacr.webapp_backend.cluster.services;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import pacr.webapp_backend.shared.IClusterChannel;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Connects the nodes of the cluster through the shared database. Published payloads are stored as events which the
+ * other nodes read when they poll the database, so no other infrastructure is needed.
+ *
+ * Every poll stores a heartbeat of the node. A node which didn't send a heartbeat within the node timeout is removed
+ * by the first node which notices it. That node tells all nodes, including itself, that the node left.
+ *
+ * An event may be stored after events with a higher id if its transaction took longer, so events are read again
+ * for the node timeout after the last poll and events which were delivered already are skipped. The payloads of a
+ * topic are delivered once per poll even if they were published several times.
+ */
+@Component
+public class DatabaseClusterChannel implements IClusterChannel {
+
+    private static final Logger LOGGER = LogManager.getLogger(DatabaseClusterChannel.class);
+
+    // events are kept for this many node timeouts, so nodes which poll late don't miss them
+    private static final int EVENT_RETENTION_FACTOR = 10;
+
+    // the node id is part of the addresses of the benchmarkers, so it is restricted to safe characters
+    private static final String NODE_ID_PATTERN = "[A-Za-z0-9_.-]+";
+
+    private final IClusterMemberAccess memberAccess;
+    private final IClusterEventAccess eventAccess;
+
+    private final boolean clustered;
+    private final String nodeId;
+    private final Duration nodeTimeout;
+
+    private final Clock clock;
+
+    private final Map<String, Collection<Consumer<String>>> listeners;
+
+    // the ids of the delivered events and the time they were published. Guarded by this
+    private final Map<Long, LocalDateTime> deliveredEvents;
+
+    // guarded by this
+    private LocalDateTime lastPoll;
+
+    /**
+     * Creates a new DatabaseClusterChannel.
+     *
+     * @param memberAccess the access interface to the nodes of the cluster.
+     * @param eventAccess the access interface to the published events.
+     * @param clustered whether the web app runs as a node of a cluster.
+     * @param nodeId the id of this node. A random id is used if it is empty. It may only contain letters, digits,
+     *               '.', '_' and '-'.
+     * @param nodeTimeout the time in seconds after which a node without heartbeat is removed from the cluster. (> 0)
+     */
+    @Autowired
+    public DatabaseClusterChannel(@NotNull final IClusterMemberAccess memberAccess,
+                                  @NotNull final IClusterEventAccess eventAccess,
+                                  @Value("${clusterMode}") final boolean clustered,
+                                  @Value("${clusterNodeId}") final String nodeId,
+                                  @Value("${clusterNodeTimeout}") final long nodeTimeout) {
+        this(memberAccess, eventAccess, clustered, nodeId, nodeTimeout, Clock.systemDefaultZone());
+    }
+
+    /**
+     * Creates a new DatabaseClusterChannel which takes the time of heartbeats and events from the given clock.
+     *
+     * @param memberAccess the access interface to the nodes of the cluster.
+     * @param eventAccess the access interface to the published events.
+     * @param clustered whether the web app runs as a node of a cluster.
+     * @param nodeId the id of this node. A random id is used if it is empty. It may only contain letters, digits,
+     *               '.', '_' and '-'.
+     * @param nodeTimeout the time in seconds after which a node without heartbeat is removed from the cluster. (> 0)
+     * @param clock the clock.
+     */
+    public DatabaseClusterChannel(@NotNull final IClusterMemberAccess memberAccess,
+                                  @NotNull final IClusterEventAccess eventAccess, final boolean clustered,
+                                  final String nodeId, final long nodeTimeout, @NotNull final Clock clock) {
+        Objects.requireNonNull(memberAccess, "The memberAccess cannot be null.");
+        Objects.requireNonNull(eventAccess, "The eventAccess cannot be null.");
+        Objects.requireNonNull(clock, "The clock cannot be null.");
+        if (nodeTimeout <= 0) {
+            throw new IllegalArgumentException("The node timeout must be positive.");
+        }
+        if (StringUtils.hasText(nodeId) && !nodeId.matches(NODE_ID_PATTERN)) {
+            throw new IllegalArgumentException("The node id may only contain letters, digits, '.', '_' and '-'.");
+        }
+
+        this.memberAccess = memberAccess;
+        this.eventAccess = eventAccess;
+        this.clustered = clustered;
+        this.nodeId = StringUtils.hasText(nodeId) ? nodeId : UUID.randomUUID().toString();
+        this.nodeTimeout = Duration.ofSeconds(nodeTimeout);
+        this.clock = clock;
+
+        this.listeners = new ConcurrentHashMap<>();
+        this.deliveredEvents = new HashMap<>();
+    }
+
+    /**
+     * Adds this node to the cluster. Events which were published before are not delivered.
+     */
+    @PostConstruct
+    public synchronized void join() {
+        if (!clustered) {
+            return;
+        }
+
+        final LocalDateTime now = LocalDateTime.now(clock);
+        memberAccess.saveMember(new ClusterMember(nodeId, now));
+        lastPoll = now;
+
+        LOGGER.info("Joined the cluster as node '{}'.", nodeId);
+    }
+
+    /**
+     * Removes this node from the cluster and tells the other nodes that it left.
+     */
+    @PreDestroy
+    public synchronized void leave() {
+        if (!clustered) {
+            return;
+        }
+
+        memberAccess.deleteMember(nodeId);
+        publish(NODE_LEFT_TOPIC, nodeId);
+
+        LOGGER.info("Node '{}' left the cluster.", nodeId);
+    }
+
+    @Override
+    public boolean isClustered() {
+        return clustered;
+    }
+
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void publish(@NotNull final String topic, @NotNull final String payload) {
+        Objects.requireNonNull(topic, "The topic cannot be null.");
+        Objects.requireNonNull(payload, "The payload cannot be null.");
+
+        if (clustered) {
+            eventAccess.saveEvent(new ClusterEvent(topic, payload, nodeId, LocalDateTime.now(clock)));
+        }
+    }
+
+    @Override
+    public void subscribe(@NotNull final String topic, @NotNull final Consumer<String> listener) {
+        Objects.requireNonNull(topic, "The topic cannot be null.");
+        Objects.requireNonNull(listener, "The listener cannot be null.");
+
+        listeners.computeIfAbsent(topic, key -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    /**
+     * Stores a heartbeat of this node, removes the nodes without heartbeat and delivers the events which were
+     * published by the other nodes since the last poll.
+     */
+    @Scheduled(fixedDelayString = "${clusterPollInterval}")
+    public synchronized void poll() {
+        if (!clustered || lastPoll == null) {
+            return;
+        }
+
+        try {
+            final LocalDateTime now = LocalDateTime.now(clock);
+
+            memberAccess.saveMember(new ClusterMember(nodeId, now));
+            removeSilentMembers(now);
+            deliverEvents(now);
+
+            eventAccess.deleteEventsPublishedBefore(now.minus(nodeTimeout.multipliedBy(EVENT_RETENTION_FACTOR)));
+        } catch (final RuntimeException e) {
+            // the next poll reads the missed events again
+            LOGGER.error("Could not poll the events of the cluster.", e);
+        }
+    }
+
+    private void removeSilentMembers(final LocalDateTime now) {
+        for (final ClusterMember member : memberAccess.findMembersSeenBefore(now.minus(nodeTimeout))) {
+            // only the node which deletes the member tells the others
+            if (!nodeId.equals(member.getNodeId())
+                    && memberAccess.deleteMember(member.getNodeId(), member.getLastSeen())) {
+                LOGGER.warn("Node '{}' sent no heartbeat since {} and was removed from the cluster.",
+                        member.getNodeId(), member.getLastSeen());
+
+                publish(NODE_LEFT_TOPIC, member.getNodeId());
+                deliver(NODE_LEFT_TOPIC, member.getNodeId());
+            }
+        }
+    }
+
+    private void deliverEvents(final LocalDateTime now) {
+        final LocalDateTime since = lastPoll.minus(nodeTimeout);
+        final Map<String, Set<String>> payloads = new LinkedHashMap<>();
+
+        for (final ClusterEvent event : eventAccess.findEventsPublishedAfter(since)) {
+            if (!nodeId.equals(event.getNodeId())
+                    && deliveredEvents.putIfAbsent(event.getId(), event.getPublished()) == null) {
+                payloads.computeIfAbsent(event.getTopic(), topic -> new LinkedHashSet<>())
+                        .add(event.getPayload() == null ? "" : event.getPayload());
+            }
+        }
+
+        // these events are not read again
+        deliveredEvents.values().removeIf(published -> !published.isAfter(since));
+        lastPoll = now;
+
+        for (final Map.Entry<String, Set<String>> topicPayloads : payloads.entrySet()) {
+            if (NODE_LEFT_TOPIC.equals(topicPayloads.getKey()) && topicPayloads.getValue().contains(nodeId)) {
+                LOGGER.warn("This node was removed from the cluster because it sent no heartbeat in time.");
+            }
+
+            for (final String payload : topicPayloads.getValue()) {
+                deliver(topicPayloads.getKey(), payload);
+            }
+        }
+    }
+
+    private void deliver(final String topic, final String payload) {
+        for (final Consumer<String> listener : listeners.getOrDefault(topic, List.of())) {
+            try {
+                listener.accept(payload);
+            } catch (final RuntimeException e) {
+                LOGGER.error("A listener of the topic '{}' failed.", topic, e);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,30 @@
+package pacr.webapp_backend.cluster.services;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Provides access to the stored events of the cluster.
+ */
+public interface IClusterEventAccess {
+
+    /**
+     * Saves the given event.
+     * @param event the event which is saved.
+     */
+    void saveEvent(ClusterEvent event);
+
+    /**
+     * @param published the time.
+     * @return all events which were published after the given time in the order they were stored.
+     */
+    List<ClusterEvent> findEventsPublishedAfter(LocalDateTime published);
+
+    /**
+     * Deletes all events which were published before the given time.
+     * @param published the time.
+     * @return the amount of deleted events.
+     */
+    int deleteEventsPublishedBefore(LocalDateTime published);
+
+}
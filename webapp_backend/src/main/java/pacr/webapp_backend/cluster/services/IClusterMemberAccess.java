@@ -0,0 +1,37 @@
+package pacr.webapp_backend.cluster.services;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Provides access to the stored nodes of the cluster.
+ */
+public interface IClusterMemberAccess {
+
+    /**
+     * Saves the given member. A stored member with the same node id is replaced.
+     * @param member the member which is saved.
+     */
+    void saveMember(ClusterMember member);
+
+    /**
+     * @param lastSeen the time.
+     * @return all members whose last heartbeat was before the given time.
+     */
+    List<ClusterMember> findMembersSeenBefore(LocalDateTime lastSeen);
+
+    /**
+     * Deletes a member if its last heartbeat was at the given time, so only one node removes a silent member.
+     * @param nodeId the id of the member.
+     * @param lastSeen the time of the last heartbeat of the member.
+     * @return whether the member was deleted.
+     */
+    boolean deleteMember(String nodeId, LocalDateTime lastSeen);
+
+    /**
+     * Deletes a member.
+     * @param nodeId the id of the member.
+     */
+    void deleteMember(String nodeId);
+
+}
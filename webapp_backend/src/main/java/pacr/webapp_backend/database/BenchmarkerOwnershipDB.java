@@ -0,0 +1,62 @@
+package pacr.webapp_backend.database;
+
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import pacr.webapp_backend.benchmarker_communication.services.BenchmarkerOwnership;
+import pacr.webapp_backend.benchmarker_communication.services.IBenchmarkerOwnershipAccess;
+
+/**
+ * Implements the database access for the IBenchmarkerOwnershipAccess.
+ */
+public interface BenchmarkerOwnershipDB extends JpaRepository<BenchmarkerOwnership, String>,
+        IBenchmarkerOwnershipAccess {
+
+    @Override
+    default List<BenchmarkerOwnership> findOwnerships() {
+        return this.findAllByOrderByAddressAsc();
+    }
+
+    @Override
+    default void saveOwnership(final BenchmarkerOwnership ownership) {
+        this.save(ownership);
+    }
+
+    @Override
+    default void deleteOwnership(final String address) {
+        deleteByAddress(address);
+    }
+
+    @Override
+    default int deleteOwnerships(final String nodeId) {
+        return deleteByNodeId(nodeId);
+    }
+
+    /**
+     * @return all ownerships ordered by the address of the benchmarker.
+     */
+    List<BenchmarkerOwnership> findAllByOrderByAddressAsc();
+
+    /**
+     * Deletes the ownership of a benchmarker in a single statement.
+     * @param address the address of the benchmarker.
+     * @return the amount of deleted ownerships.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM BenchmarkerOwnership o WHERE o.address = :address")
+    int deleteByAddress(@Param("address") String address);
+
+    /**
+     * Deletes the ownerships of the benchmarkers of a node in a single statement.
+     * @param nodeId the id of the node.
+     * @return the amount of deleted ownerships.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM BenchmarkerOwnership o WHERE o.nodeId = :nodeId")
+    int deleteByNodeId(@Param("nodeId") String nodeId);
+}
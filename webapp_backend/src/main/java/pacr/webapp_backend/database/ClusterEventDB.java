@@ -0,0 +1,48 @@
+package pacr.webapp_backend.database;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import pacr.webapp_backend.cluster.services.ClusterEvent;
+import pacr.webapp_backend.cluster.services.IClusterEventAccess;
+
+/**
+ * Implements the database access for the IClusterEventAccess.
+ */
+public interface ClusterEventDB extends JpaRepository<ClusterEvent, Long>, IClusterEventAccess {
+
+    @Override
+    default void saveEvent(final ClusterEvent event) {
+        this.save(event);
+    }
+
+    @Override
+    default List<ClusterEvent> findEventsPublishedAfter(final LocalDateTime published) {
+        return findAllByPublishedAfterOrderByIdAsc(published);
+    }
+
+    @Override
+    default int deleteEventsPublishedBefore(final LocalDateTime published) {
+        return deleteByPublishedBefore(published);
+    }
+
+    /**
+     * @param published the time.
+     * @return all events which were published after the given time, the oldest first.
+     */
+    List<ClusterEvent> findAllByPublishedAfterOrderByIdAsc(LocalDateTime published);
+
+    /**
+     * Deletes all events which were published before the given time in a single statement.
+     * @param published the time.
+     * @return the amount of deleted events.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ClusterEvent e WHERE e.published < :published")
+    int deleteByPublishedBefore(@Param("published") LocalDateTime published);
+}
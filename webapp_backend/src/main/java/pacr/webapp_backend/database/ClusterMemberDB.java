@@ -0,0 +1,64 @@
+package pacr.webapp_backend.database;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import pacr.webapp_backend.cluster.services.ClusterMember;
+import pacr.webapp_backend.cluster.services.IClusterMemberAccess;
+
+/**
+ * Implements the database access for the IClusterMemberAccess.
+ */
+public interface ClusterMemberDB extends JpaRepository<ClusterMember, String>, IClusterMemberAccess {
+
+    @Override
+    default void saveMember(final ClusterMember member) {
+        this.save(member);
+    }
+
+    @Override
+    default List<ClusterMember> findMembersSeenBefore(final LocalDateTime lastSeen) {
+        return findAllByLastSeenBefore(lastSeen);
+    }
+
+    @Override
+    default boolean deleteMember(final String nodeId, final LocalDateTime lastSeen) {
+        return deleteByNodeIdAndLastSeen(nodeId, lastSeen) > 0;
+    }
+
+    @Override
+    default void deleteMember(final String nodeId) {
+        deleteByNodeId(nodeId);
+    }
+
+    /**
+     * @param lastSeen the time.
+     * @return all members whose last heartbeat was before the given time.
+     */
+    List<ClusterMember> findAllByLastSeenBefore(LocalDateTime lastSeen);
+
+    /**
+     * Deletes a member in a single statement if its last heartbeat was at the given time.
+     * @param nodeId the id of the member.
+     * @param lastSeen the time of the last heartbeat.
+     * @return the amount of deleted members.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ClusterMember m WHERE m.nodeId = :nodeId AND m.lastSeen = :lastSeen")
+    int deleteByNodeIdAndLastSeen(@Param("nodeId") String nodeId, @Param("lastSeen") LocalDateTime lastSeen);
+
+    /**
+     * Deletes a member in a single statement.
+     * @param nodeId the id of the member.
+     * @return the amount of deleted members.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ClusterMember m WHERE m.nodeId = :nodeId")
+    int deleteByNodeId(@Param("nodeId") String nodeId);
+}
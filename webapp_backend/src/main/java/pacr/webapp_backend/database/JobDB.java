@@ -1,17 +1,42 @@
 package pacr.webapp_backend.database;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import pacr.webapp_backend.scheduler.services.IJobAccess;
+import pacr.webapp_backend.scheduler.services.IJobClaimAccess;
 import pacr.webapp_backend.scheduler.services.Job;
+import pacr.webapp_backend.scheduler.services.JobGroup;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
 
 /**
- * Implements the database access for the IJobAccess interface.
+ * Implements the database access for the IJobAccess and IJobClaimAccess interfaces.
+ *
+ * Jobs are claimed by locking their unclaimed rows with SELECT ... FOR UPDATE and claiming all locked rows with one
+ * UPDATE in the same transaction. Hibernate only adds SKIP LOCKED if the dialect supports it (e.g. MySQL8Dialect), then
+ * nodes which claim at the same time skip each others rows instead of waiting. With other dialects, e.g.
+ * MySQL5InnoDBDialect, the lock timeout hint is ignored and the nodes wait for the rows. A row is only claimed if it is
+ * still unclaimed, so a job is never claimed twice even if the database doesn't lock the rows.
  */
-public interface JobDB extends PagingAndSortingRepository<Job, Integer>, IJobAccess {
+public interface JobDB extends PagingAndSortingRepository<Job, Integer>, IJobAccess, IJobClaimAccess {
+
+    /**
+     * The lock timeout which makes Hibernate add SKIP LOCKED to SELECT ... FOR UPDATE. It is ignored by dialects
+     * which don't support SKIP LOCKED.
+     */
+    String SKIP_LOCKED = "-2";
 
 
     @Override
@@ -34,6 +59,30 @@ public interface JobDB extends PagingAndSortingRepository<Job, Integer>, IJobAcc
         this.deleteAll(jobs);
     }
 
+    @Override
+    default int deleteJobs(final JobGroup group, final Collection<String> jobIDs) {
+        if (jobIDs.isEmpty()) {
+            return 0;
+        }
+
+        return deleteJobsByGroupAndJobIDIn(group, jobIDs);
+    }
+
+    @Override
+    default int prioritizeJobs(final JobGroup group, final Collection<String> jobIDs,
+                               final LocalDateTime prioritizedAt) {
+        if (jobIDs.isEmpty()) {
+            return 0;
+        }
+
+        return updateJobsToPrioritizedByGroupAndJobIDIn(group, jobIDs, prioritizedAt);
+    }
+
+    @Override
+    default int deleteAllJobs(final JobGroup group) {
+        return deleteJobsByGroup(group);
+    }
+
     @Override
     default Page<Job> findJobs(final Pageable pageable) {
         return findAllByPrioritizedOrderByQueuedDesc(false, pageable);
@@ -59,12 +108,163 @@ public interface JobDB extends PagingAndSortingRepository<Job, Integer>, IJobAcc
         return findAllByGroup_Title(groupTitle);
     }
 
+    @Override
+    default Collection<Job> findJobs(final String groupTitle, final Collection<String> jobIDs) {
+        return findAllByGroup_TitleAndJobIDIn(groupTitle, jobIDs);
+    }
+
+    @Override
+    @Transactional
+    default Collection<String> claimJobs(final JobGroup group, final Collection<String> jobIDs,
+                                         final String nodeId) {
+        if (jobIDs.isEmpty()) {
+            return List.of();
+        }
+
+        // the rows stay locked until the transaction ends, so no other node claims them meanwhile
+        final List<String> lockedJobIDs = new ArrayList<>();
+        for (final Job job : findUnclaimedForUpdate(group, jobIDs)) {
+            lockedJobIDs.add(job.getJobID());
+        }
+
+        if (lockedJobIDs.isEmpty()) {
+            return List.of();
+        }
+
+        if (updateJobsToClaimedByGroupAndJobIDIn(group, lockedJobIDs, nodeId) == lockedJobIDs.size()) {
+            return lockedJobIDs;
+        }
+
+        // another node claimed some of the rows first because the database did not lock them
+        return findJobIDsByGroupAndJobIDInAndClaimedBy(group, lockedJobIDs, nodeId);
+    }
+
+    @Override
+    default int releaseJobs(final JobGroup group, final Collection<String> jobIDs, final String nodeId) {
+        if (jobIDs.isEmpty()) {
+            return 0;
+        }
+
+        return updateJobsToReleasedByGroupAndJobIDIn(group, jobIDs, nodeId);
+    }
+
+    @Override
+    default int releaseAllJobs(final String nodeId) {
+        return updateJobsToReleasedByClaimedBy(nodeId);
+    }
+
+    /**
+     * Deletes the jobs of a group with the given ids in a single statement.
+     * @param group the group of the jobs.
+     * @param jobIDs the ids of the jobs.
+     * @return the amount of deleted jobs.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Job j WHERE j.group = :group AND j.jobID IN :jobIDs")
+    int deleteJobsByGroupAndJobIDIn(@Param("group") JobGroup group, @Param("jobIDs") Collection<String> jobIDs);
+
+    /**
+     * Marks the jobs of a group with the given ids as prioritized in a single statement.
+     * @param group the group of the jobs.
+     * @param jobIDs the ids of the jobs.
+     * @param prioritizedAt the new queued date of the jobs.
+     * @return the amount of updated jobs.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Job j SET j.prioritized = true, j.queued = :prioritizedAt "
+            + "WHERE j.group = :group AND j.jobID IN :jobIDs")
+    int updateJobsToPrioritizedByGroupAndJobIDIn(@Param("group") JobGroup group,
+                                                 @Param("jobIDs") Collection<String> jobIDs,
+                                                 @Param("prioritizedAt") LocalDateTime prioritizedAt);
+
+    /**
+     * Locks the unclaimed jobs of a group with the given ids. Jobs which are locked by another transaction are
+     * skipped if the dialect supports SKIP LOCKED, otherwise the query waits for their locks.
+     * @param group the group of the jobs.
+     * @param jobIDs the ids of the jobs.
+     * @return the locked jobs.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = SKIP_LOCKED))
+    @Query("SELECT j FROM Job j WHERE j.group = :group AND j.jobID IN :jobIDs AND j.claimedBy IS NULL")
+    List<Job> findUnclaimedForUpdate(@Param("group") JobGroup group, @Param("jobIDs") Collection<String> jobIDs);
+
+    /**
+     * Claims the unclaimed jobs of a group with the given ids for a node in a single statement.
+     * @param group the group of the jobs.
+     * @param jobIDs the ids of the jobs.
+     * @param nodeId the id of the node.
+     * @return the amount of claimed jobs.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Job j SET j.claimedBy = :nodeId, j.dispatched = true "
+            + "WHERE j.group = :group AND j.jobID IN :jobIDs AND j.claimedBy IS NULL")
+    int updateJobsToClaimedByGroupAndJobIDIn(@Param("group") JobGroup group,
+                                             @Param("jobIDs") Collection<String> jobIDs,
+                                             @Param("nodeId") String nodeId);
+
+    /**
+     * @param group the group of the jobs.
+     * @param jobIDs the ids of the jobs.
+     * @param nodeId the id of a node.
+     * @return the ids of the given jobs of the group which are claimed by the node.
+     */
+    @Query("SELECT j.jobID FROM Job j WHERE j.group = :group AND j.jobID IN :jobIDs AND j.claimedBy = :nodeId")
+    List<String> findJobIDsByGroupAndJobIDInAndClaimedBy(@Param("group") JobGroup group,
+                                                         @Param("jobIDs") Collection<String> jobIDs,
+                                                         @Param("nodeId") String nodeId);
+
+    /**
+     * Releases the claims of a node on the jobs of a group with the given ids in a single statement.
+     * @param group the group of the jobs.
+     * @param jobIDs the ids of the jobs.
+     * @param nodeId the id of the node.
+     * @return the amount of released jobs.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Job j SET j.claimedBy = NULL, j.dispatched = false "
+            + "WHERE j.group = :group AND j.jobID IN :jobIDs AND j.claimedBy = :nodeId")
+    int updateJobsToReleasedByGroupAndJobIDIn(@Param("group") JobGroup group,
+                                              @Param("jobIDs") Collection<String> jobIDs,
+                                              @Param("nodeId") String nodeId);
+
+    /**
+     * Releases all claims of a node in a single statement.
+     * @param nodeId the id of the node.
+     * @return the amount of released jobs.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Job j SET j.claimedBy = NULL, j.dispatched = false WHERE j.claimedBy = :nodeId")
+    int updateJobsToReleasedByClaimedBy(@Param("nodeId") String nodeId);
+
+    /**
+     * Deletes all jobs of a group in a single statement.
+     * @param group the group of the jobs.
+     * @return the amount of deleted jobs.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Job j WHERE j.group = :group")
+    int deleteJobsByGroup(@Param("group") JobGroup group);
+
     /**
      * @param groupTitle the title of a group.
      * @return all jobs from the give group.
      */
     Collection<Job> findAllByGroup_Title(String groupTitle);
 
+    /**
+     * @param groupTitle the title of a group.
+     * @param jobIDs the ids of the jobs.
+     * @return the jobs of the group with the given ids.
+     */
+    Collection<Job> findAllByGroup_TitleAndJobIDIn(String groupTitle, Collection<String> jobIDs);
+
     /**
      * @param prioritized Whether the returned jobs should be prioritized.
      * @param pageable The requested page.
@@ -14,6 +14,11 @@ public interface JobGroupDB extends JpaRepository<JobGroup, Integer>, IJobGroupA
         return this.findAll();
     }
 
+    @Override
+    default JobGroup findJobGroup(final String title) {
+        return this.findFirstByTitle(title);
+    }
+
     @Override
     default void saveJobGroup(final JobGroup jobGroup) {
         this.save(jobGroup);
@@ -23,4 +28,10 @@ public interface JobGroupDB extends JpaRepository<JobGroup, Integer>, IJobGroupA
     default void deleteGroup(final JobGroup jobGroup) {
         this.delete(jobGroup);
     }
+
+    /**
+     * @param title the title of a group.
+     * @return the first group with the given title or null if there is none.
+     */
+    JobGroup findFirstByTitle(String title);
 }
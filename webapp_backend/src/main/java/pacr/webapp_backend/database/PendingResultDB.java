@@ -0,0 +1,84 @@
+package pacr.webapp_backend.database;
+
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import pacr.webapp_backend.benchmarker_communication.services.IPendingResultAccess;
+import pacr.webapp_backend.benchmarker_communication.services.PendingResult;
+
+/**
+ * Implements the database access for the IPendingResultAccess.
+ *
+ * A pending result is claimed by a single UPDATE which only matches while the result still has its previous owner,
+ * so only one node of the cluster takes over a result even if several nodes try at the same time.
+ */
+public interface PendingResultDB extends JpaRepository<PendingResult, Integer>, IPendingResultAccess {
+
+    @Override
+    default List<PendingResult> findPendingResults() {
+        return this.findAllByOrderByReceivedAsc();
+    }
+
+    @Override
+    default List<PendingResult> findPendingResults(final String ownedBy) {
+        return this.findAllByOwnedByOrderByReceivedAsc(ownedBy);
+    }
+
+    @Override
+    default boolean claimPendingResult(final PendingResult pendingResult, final String previousOwner,
+                                       final String nodeId) {
+        if (previousOwner == null) {
+            return updateUnownedToOwnedBy(pendingResult, nodeId) > 0;
+        }
+
+        return updateToOwnedBy(pendingResult, previousOwner, nodeId) > 0;
+    }
+
+    @Override
+    default void savePendingResult(final PendingResult pendingResult) {
+        this.save(pendingResult);
+    }
+
+    @Override
+    default void deletePendingResult(final PendingResult pendingResult) {
+        this.delete(pendingResult);
+    }
+
+    /**
+     * @return all pending results, the oldest first.
+     */
+    List<PendingResult> findAllByOrderByReceivedAsc();
+
+    /**
+     * @param ownedBy the id of a node or null.
+     * @return the pending results owned by the node or the ones without owner if the id is null, the oldest first.
+     */
+    List<PendingResult> findAllByOwnedByOrderByReceivedAsc(String ownedBy);
+
+    /**
+     * Makes a node the owner of a pending result if no node owns it.
+     * @param pendingResult the pending result.
+     * @param nodeId the id of the node.
+     * @return the amount of updated pending results.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE PendingResult p SET p.ownedBy = :nodeId WHERE p = :pendingResult AND p.ownedBy IS NULL")
+    int updateUnownedToOwnedBy(@Param("pendingResult") PendingResult pendingResult, @Param("nodeId") String nodeId);
+
+    /**
+     * Makes a node the owner of a pending result if it is still owned by the given node.
+     * @param pendingResult the pending result.
+     * @param previousOwner the id of the node which owns the result.
+     * @param nodeId the id of the new owner.
+     * @return the amount of updated pending results.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE PendingResult p SET p.ownedBy = :nodeId WHERE p = :pendingResult AND p.ownedBy = :previousOwner")
+    int updateToOwnedBy(@Param("pendingResult") PendingResult pendingResult,
+                        @Param("previousOwner") String previousOwner, @Param("nodeId") String nodeId);
+}
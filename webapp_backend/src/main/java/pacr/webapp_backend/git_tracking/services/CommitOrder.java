@@ -0,0 +1,174 @@
+package pacr.webapp_backend.git_tracking.services;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.function.Predicate;
+import pacr.webapp_backend.shared.ICommit;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * Decides in which order new commits are benchmarked.
+ *
+ * Bisecting order: the commits are split into linear ranges by walking from the newest commit to its parents.
+ * The newest commit of each range is benchmarked first. If a range doesn't end at a commit which is already known,
+ * its oldest commit is benchmarked next, so both ends of the range are measured. After that the midpoints of the
+ * ranges between measured commits are benchmarked level by level. A regression is therefore narrowed down to a
+ * small range after O(log n) jobs and the remaining commits are filled in afterwards.
+ */
+final class CommitOrder {
+
+    private static final Comparator<ICommit> NEWEST_FIRST = Comparator.comparing(ICommit::getCommitDate).reversed()
+            .thenComparing(ICommit::getCommitHash);
+
+    private CommitOrder() {
+    }
+
+    /**
+     * Sorts the commits by their commit date, newest first.
+     * @param commits the commits.
+     * @return the commit hashes in the order they are benchmarked.
+     */
+    static List<String> newestFirst(@NotNull final Collection<? extends ICommit> commits) {
+        Objects.requireNonNull(commits);
+
+        final List<ICommit> sorted = new ArrayList<>(commits);
+        sorted.sort(NEWEST_FIRST);
+
+        final List<String> order = new ArrayList<>();
+        for (final ICommit commit : sorted) {
+            order.add(commit.getCommitHash());
+        }
+
+        return order;
+    }
+
+    /**
+     * Sorts the commits in bisecting order.
+     * @param commits the commits which are benchmarked.
+     * @param isKnown checks whether a commit which is not one of the given commits is already benchmarked or
+     *                queued. Known commits are the boundaries of the ranges.
+     * @return the commit hashes in the order they are benchmarked.
+     */
+    static List<String> bisect(@NotNull final Collection<? extends ICommit> commits,
+                               @NotNull final Predicate<String> isKnown) {
+        Objects.requireNonNull(commits);
+        Objects.requireNonNull(isKnown);
+
+        final Map<String, ICommit> commitsByHash = new HashMap<>();
+        for (final ICommit commit : commits) {
+            commitsByHash.put(commit.getCommitHash(), commit);
+        }
+
+        final List<ICommit> sorted = new ArrayList<>(commitsByHash.values());
+        sorted.sort(NEWEST_FIRST);
+
+        final Set<String> visited = new HashSet<>();
+        final List<List<String>> levels = new ArrayList<>();
+
+        for (final ICommit head : sorted) {
+            if (!visited.contains(head.getCommitHash())) {
+                final List<String> range = new ArrayList<>();
+                final boolean hasBoundary = walkRange(head, commitsByHash, visited, isKnown, range);
+
+                addInBisectingOrder(range, hasBoundary, levels);
+            }
+        }
+
+        // the ranges are interleaved, so every range is narrowed down before any range is filled in
+        final List<String> order = new ArrayList<>();
+        for (final List<String> level : levels) {
+            order.addAll(level);
+        }
+
+        return order;
+    }
+
+    /**
+     * Walks from the given commit to its newest parent among the given commits until no such parent is left.
+     * @return whether the oldest commit of the range has a parent that is known or part of another range.
+     */
+    private static boolean walkRange(final ICommit head, final Map<String, ICommit> commitsByHash,
+                                     final Set<String> visited, final Predicate<String> isKnown,
+                                     final List<String> range) {
+        ICommit current = head;
+
+        while (true) {
+            visited.add(current.getCommitHash());
+            range.add(current.getCommitHash());
+
+            ICommit next = null;
+            boolean hasBoundary = false;
+
+            for (final String parentHash : current.getParentHashes()) {
+                final ICommit parent = commitsByHash.get(parentHash);
+
+                if (parent == null) {
+                    hasBoundary |= isKnown.test(parentHash);
+                } else if (visited.contains(parentHash)) {
+                    hasBoundary = true;
+                } else if (next == null || NEWEST_FIRST.compare(parent, next) < 0) {
+                    next = parent;
+                }
+            }
+
+            if (next == null) {
+                return hasBoundary;
+            }
+
+            current = next;
+        }
+    }
+
+    /**
+     * Adds the commits of a range, newest first, to the levels of the bisection.
+     */
+    private static void addInBisectingOrder(final List<String> range, final boolean hasBoundary,
+                                            final List<List<String>> levels) {
+        addToLevel(levels, 0, range.get(0));
+
+        // the range is bisected between the indices lower and upper which are both measured.
+        // The upper index is the known parent of the range if there is one
+        int upper = range.size();
+        if (!hasBoundary && range.size() > 1) {
+            upper = range.size() - 1;
+            addToLevel(levels, 0, range.get(upper));
+        }
+
+        final Queue<int[]> ranges = new ArrayDeque<>();
+        ranges.add(new int[] {0, upper, 1});
+
+        while (!ranges.isEmpty()) {
+            final int[] current = ranges.poll();
+            final int lower = current[0];
+            final int currentUpper = current[1];
+            final int level = current[2];
+
+            if (currentUpper - lower > 1) {
+                final int midpoint = (lower + currentUpper) / 2;
+                addToLevel(levels, level, range.get(midpoint));
+
+                ranges.add(new int[] {lower, midpoint, level + 1});
+                ranges.add(new int[] {midpoint, currentUpper, level + 1});
+            }
+        }
+    }
+
+    private static void addToLevel(final List<List<String>> levels, final int level, final String commitHash) {
+        while (levels.size() <= level) {
+            levels.add(new ArrayList<>());
+        }
+
+        levels.get(level).add(commitHash);
+    }
+
+}
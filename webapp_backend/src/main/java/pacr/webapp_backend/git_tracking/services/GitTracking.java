@@ -1,6 +1,7 @@
 package pacr.webapp_backend.git_tracking.services;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
@@ -43,6 +44,7 @@ public class GitTracking implements IRepositoryImporter {
     private final GitHandler gitHandler;
     private final ICommitBenchmarkedChecker commitBenchmarkedChecker;
     private final String ignoreTag;
+    private final boolean bisectCommits;
 
     private boolean pullingFromAllRepositories;
 
@@ -55,11 +57,14 @@ public class GitTracking implements IRepositoryImporter {
      * @param colorPicker is the algorithm that assigns new colors to repositories.
      * @param commitBenchmarkedChecker checks whether a commit is already benchmarked or not.
      * @param ignoreTag is the pacr ignore tag.
+     * @param bisectCommits whether new commits are benchmarked in bisecting order (see {@link CommitOrder}) or
+     *                      newest first.
      */
     public GitTracking(@NotNull final IGitTrackingAccess gitTrackingAccess, @NotNull final GitHandler gitHandler,
                        @NotNull final IResultDeleter resultDeleter, @NotNull final IJobScheduler jobScheduler,
                        @NotNull final IColorPicker colorPicker, @NotNull final ICommitBenchmarkedChecker commitBenchmarkedChecker,
-                       @NotNull @Value("${ignoreTag}") final String ignoreTag) {
+                       @NotNull @Value("${ignoreTag}") final String ignoreTag,
+                       @Value("${bisectCommits}") final boolean bisectCommits) {
         Objects.requireNonNull(gitTrackingAccess);
         Objects.requireNonNull(gitHandler);
         Objects.requireNonNull(resultDeleter);
@@ -75,6 +80,7 @@ public class GitTracking implements IRepositoryImporter {
         this.colorPicker = colorPicker;
         this.commitBenchmarkedChecker = commitBenchmarkedChecker;
         this.ignoreTag = ignoreTag;
+        this.bisectCommits = bisectCommits;
         this.pullingFromAllRepositories = false;
     }
 
@@ -211,7 +217,7 @@ public class GitTracking implements IRepositoryImporter {
         LOGGER.info("Adding jobs for {} untracked commits.", untrackedCommitHashes.size());
 
         // add jobs to scheduler
-        jobScheduler.addJobs(gitRepository.getPullURL(), untrackedCommitHashes);
+        jobScheduler.addJobs(gitRepository.getPullURL(), getBenchmarkingOrder(untrackedCommitHashes));
 
         LOGGER.info("Finished with pulling from repository {} ({}).", gitRepository.getName(), repositoryID);
     }
@@ -299,7 +305,7 @@ public class GitTracking implements IRepositoryImporter {
         }
 
         LOGGER.info("Adding {} new jobs.", commitsToBenchmark.size());
-        jobScheduler.addJobs(gitRepository.getPullURL(), commitsToBenchmark);
+        jobScheduler.addJobs(gitRepository.getPullURL(), getBenchmarkingOrder(commitsToBenchmark));
 
         LOGGER.info("Removing {} jobs that are out of scope.", jobsToRemove.size());
         jobScheduler.removeJobs(gitRepository.getPullURL(), jobsToRemove);
@@ -311,6 +317,34 @@ public class GitTracking implements IRepositoryImporter {
         gitTrackingAccess.updateRepository(gitRepository);
     }
 
+    /**
+     * Sorts the given commits in the order they should be benchmarked in.
+     * @param commitHashes the hashes of the commits.
+     * @return the sorted commit hashes.
+     */
+    private List<String> getBenchmarkingOrder(final Collection<String> commitHashes) {
+        if (commitHashes.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        final Set<String> hashes = new HashSet<>(commitHashes);
+        final Set<GitCommit> commits = gitTrackingAccess.getCommits(hashes);
+
+        final List<String> order;
+        if (bisectCommits) {
+            // commits outside of the given ones are the boundaries of the bisection if they are already tracked
+            order = CommitOrder.bisect(commits, gitTrackingAccess::containsCommit);
+        } else {
+            order = CommitOrder.newestFirst(commits);
+        }
+
+        // commits which couldn't be found are benchmarked last
+        hashes.removeAll(order);
+        order.addAll(hashes);
+
+        return order;
+    }
+
     private boolean isTracked(final LocalDate commitDate, final LocalDate observeFromDate) {
         return observeFromDate == null || observeFromDate.isBefore(commitDate) || observeFromDate.isEqual(commitDate);
     }
@@ -63,6 +63,10 @@ public class CommitResult implements IBenchmarkingResult {
     @Setter(AccessLevel.PACKAGE)
     private boolean significant;
 
+    // whether the benchmarker is still measuring the commit. Such a result only has the benchmarks measured so far
+    @Setter(AccessLevel.PACKAGE)
+    private boolean inProgress;
+
     /**
      * Creates a CommitResult from an IBenchmarkingResult and measurements for benchmarks. Copies error message,
      * commitHash, system environment and the repository from the IBenchmarkingResult.
@@ -135,6 +139,18 @@ public class CommitResult implements IBenchmarkingResult {
         benchmarkResults.add(benchmarkResult);
     }
 
+    /**
+     * Adds the result for a benchmark to the results of this commit result. A saved result for the same benchmark is
+     * replaced.
+     * @param benchmarkResult the result for a benchmark. Cannot be null.
+     */
+    void putBenchmarkResult(@NotNull final BenchmarkResult benchmarkResult) {
+        Objects.requireNonNull(benchmarkResult);
+
+        benchmarkResults.removeIf(savedResult -> savedResult.getName().equals(benchmarkResult.getName()));
+        benchmarkResults.add(benchmarkResult);
+    }
+
     /**
      * @return {@code true} if this commit result has no benchmark results, otherwise {@code false}
      */
@@ -18,6 +18,9 @@ public class OutputBenchmarkingResult {
     private final boolean globalError;
     private final String errorMessage;
 
+    // whether the commit is still being benchmarked, so only some of its benchmarks are present
+    private final boolean inProgress;
+
     private final String commitHash;
     private final String commitMessage;
     private final String commitURL;
@@ -58,6 +61,7 @@ public class OutputBenchmarkingResult {
         }
         this.globalError = result.hasGlobalError();
         this.errorMessage = result.getGlobalError();
+        this.inProgress = result.isInProgress();
         this.commitHash = commit.getCommitHash();
         this.commitURL = commit.getCommitURL();
         this.commitMessage = commit.getCommitMessage();
@@ -93,6 +97,7 @@ public class OutputBenchmarkingResult {
 
         this.globalError = false;
         this.errorMessage = null;
+        this.inProgress = false;
 
         this.commitHash = commit.getCommitHash();
         this.commitURL = commit.getCommitURL();
@@ -102,6 +102,20 @@ public class ResultManager implements IResultDeleter, IResultImporter, IResultSa
         updateComparisonsForChildren(benchmarkingResult.getCommitHash());
     }
 
+    @Override
+    public void savePartialBenchmarkingResults(@NotNull final IBenchmarkingResult benchmarkingResult) {
+        Objects.requireNonNull(benchmarkingResult);
+
+        final ICommit commit = commitAccess.getCommit(benchmarkingResult.getCommitHash());
+
+        if (commit == null) {
+            LOGGER.error("could not find commit with hash {}", benchmarkingResult.getCommitHash());
+            return;
+        }
+
+        resultBenchmarkSaver.savePartialResult(benchmarkingResult, commit);
+    }
+
     @Nullable
     private String getComparisonCommitHash(final ICommit commit) {
         if (commit == null) {
@@ -140,7 +154,7 @@ public class ResultManager implements IResultDeleter, IResultImporter, IResultSa
     private void updateComparisonsForChildren(final String commitHash) {
 
         final CommitResult comparisonResult = resultAccess.getResultFromCommit(commitHash);
-        if (comparisonResult == null) {
+        if (comparisonResult == null || comparisonResult.isInProgress()) {
             return;
         }
 
@@ -10,6 +10,7 @@ import pacr.webapp_backend.shared.IBenchmarkingResult;
 import pacr.webapp_backend.shared.ICommit;
 
 import javax.validation.constraints.NotNull;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -61,6 +62,11 @@ abstract class ResultSaver {
             comparisonResult = resultAccess.getResultFromCommit(comparisonCommitHash);
         }
 
+        // a result in progress is compared once the result of the comparison commit is complete
+        if (comparisonResult != null && comparisonResult.isInProgress()) {
+            comparisonResult = null;
+        }
+
         final CommitResult resultToSave = new CommitResult(inputResult, commit.getRepositoryID(),
                 commit.getCommitDate(), comparisonCommitHash);
 
@@ -70,39 +76,9 @@ abstract class ResultSaver {
         }
 
         synchronized (Benchmark.class) {
-            final Collection<Benchmark> savedBenchmarks = benchmarkManager.getAllBenchmarks();
-            final Collection<Benchmark> benchmarksFromResult = new HashSet<>();
-
-            final Map<String, ? extends IBenchmark> inputBenchmarkResultsMap = inputResult.getBenchmarks();
-
-            Map<String, BenchmarkResult> comparisonBenchmarkResultsMap = new HashMap<>();
-            if (comparisonResult != null) {
-                comparisonBenchmarkResultsMap = comparisonResult.getBenchmarks();
+            for (final BenchmarkResult benchmarkResult : createBenchmarkResults(inputResult, comparisonResult)) {
+                resultToSave.addBenchmarkResult(benchmarkResult);
             }
-
-            for (final Map.Entry<String, ? extends IBenchmark> entry : inputBenchmarkResultsMap.entrySet()) {
-                final String inputBenchmarkName = entry.getKey();
-                final IBenchmark inputBenchmarkResult = entry.getValue();
-
-                if (inputBenchmarkResult.getBenchmarkProperties().isEmpty()) {
-                    // skips this benchmark if it has no properties
-                    continue;
-                }
-
-                final Benchmark benchmark = getBenchmark(inputBenchmarkName, savedBenchmarks);
-                benchmarksFromResult.add(benchmark);
-
-                final BenchmarkResult benchmarkResultToSave = new BenchmarkResult(benchmark);
-                final BenchmarkResult comparisonBenchmarkResult
-                        = comparisonBenchmarkResultsMap.get(inputBenchmarkName);
-
-                addPropertyResults(inputBenchmarkResult, benchmarkResultToSave,
-                        comparisonBenchmarkResult);
-
-                resultToSave.addBenchmarkResult(benchmarkResultToSave);
-            }
-
-            updateSavedBenchmarks(benchmarksFromResult);
         }
 
         resultToSave.updateSignificance();
@@ -125,6 +101,47 @@ abstract class ResultSaver {
         updateOtherComponents(resultToSave, commit, comparisonCommitHash);
     }
 
+    /**
+     * Saves the benchmarks of a result which is still being measured. They are added to the result in progress of the
+     * commit, which is created if there is none yet. Benchmarks which were saved before are replaced.
+     * The result is neither compared nor are other components updated until the complete result is saved with
+     * {@link #saveResult(IBenchmarkingResult, ICommit, String)}. A complete result is not changed.
+     * Enters Benchmark.class monitor and exits it. Then enters CommitResult.class monitor.
+     * @param inputResult the benchmarks measured so far. Cannot be null.
+     * @param commit the commit of the benchmarking result. Cannot be null.
+     */
+    void savePartialResult(@NotNull final IBenchmarkingResult inputResult, @NotNull final ICommit commit) {
+        Objects.requireNonNull(inputResult);
+        Objects.requireNonNull(commit);
+
+        final Collection<BenchmarkResult> benchmarkResults;
+        synchronized (Benchmark.class) {
+            benchmarkResults = createBenchmarkResults(inputResult, null);
+        }
+
+        synchronized (CommitResult.class) {
+            CommitResult resultToSave = resultAccess.getResultFromCommit(inputResult.getCommitHash());
+
+            if (resultToSave == null) {
+                resultToSave = new CommitResult(inputResult, commit.getRepositoryID(), commit.getCommitDate(), null);
+                resultToSave.setInProgress(true);
+            } else if (!resultToSave.isInProgress()) {
+                LOGGER.info("discarded partial result for commit {} because its result is already complete",
+                        inputResult.getCommitHash());
+                return;
+            }
+
+            for (final BenchmarkResult benchmarkResult : benchmarkResults) {
+                resultToSave.putBenchmarkResult(benchmarkResult);
+            }
+
+            resultAccess.saveResult(resultToSave);
+        }
+
+        LOGGER.info("saved {} benchmarks of the result in progress for commit {}", benchmarkResults.size(),
+                inputResult.getCommitHash());
+    }
+
     /**
      * This is the primitive method that is implemented by the subclasses.
      * Updates other components based on the result and a commit to compare it to.
@@ -136,6 +153,46 @@ abstract class ResultSaver {
     abstract void updateOtherComponents(@NotNull CommitResult result, @NotNull ICommit commit,
                                         @Nullable String comparisonCommitHash);
 
+    private Collection<BenchmarkResult> createBenchmarkResults(final IBenchmarkingResult inputResult,
+                                                               final CommitResult comparisonResult) {
+        final Collection<Benchmark> savedBenchmarks = benchmarkManager.getAllBenchmarks();
+        final Collection<Benchmark> benchmarksFromResult = new HashSet<>();
+        final Collection<BenchmarkResult> benchmarkResults = new ArrayList<>();
+
+        final Map<String, ? extends IBenchmark> inputBenchmarkResultsMap = inputResult.getBenchmarks();
+
+        Map<String, BenchmarkResult> comparisonBenchmarkResultsMap = new HashMap<>();
+        if (comparisonResult != null) {
+            comparisonBenchmarkResultsMap = comparisonResult.getBenchmarks();
+        }
+
+        for (final Map.Entry<String, ? extends IBenchmark> entry : inputBenchmarkResultsMap.entrySet()) {
+            final String inputBenchmarkName = entry.getKey();
+            final IBenchmark inputBenchmarkResult = entry.getValue();
+
+            if (inputBenchmarkResult.getBenchmarkProperties().isEmpty()) {
+                // skips this benchmark if it has no properties
+                continue;
+            }
+
+            final Benchmark benchmark = getBenchmark(inputBenchmarkName, savedBenchmarks);
+            benchmarksFromResult.add(benchmark);
+
+            final BenchmarkResult benchmarkResultToSave = new BenchmarkResult(benchmark);
+            final BenchmarkResult comparisonBenchmarkResult
+                    = comparisonBenchmarkResultsMap.get(inputBenchmarkName);
+
+            addPropertyResults(inputBenchmarkResult, benchmarkResultToSave,
+                    comparisonBenchmarkResult);
+
+            benchmarkResults.add(benchmarkResultToSave);
+        }
+
+        updateSavedBenchmarks(benchmarksFromResult);
+
+        return benchmarkResults;
+    }
+
     private void addPropertyResults(final IBenchmark inputBenchmarkResult, final BenchmarkResult benchmarkResult,
                                     final BenchmarkResult comparisonBenchmarkResult) {
         final Map<String, ? extends IBenchmarkProperty> inputPropertyResultsMap =
@@ -0,0 +1,33 @@
+package pacr.webapp_backend.scheduler.endpoints;
+
+import java.util.List;
+import java.util.Objects;
+import lombok.Getter;
+import org.jetbrains.annotations.Nullable;
+import pacr.webapp_backend.scheduler.services.Job;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * A part of the job queue which is loaded with a cursor.
+ */
+@Getter
+public class JobQueueSlice {
+
+    private final List<Job> jobs;
+
+    private final String nextCursor;
+
+    /**
+     * Creates a new JobQueueSlice.
+     * @param jobs the jobs of this slice in scheduling order.
+     * @param nextCursor the cursor which is used to load the next slice or null if there are no more jobs.
+     */
+    JobQueueSlice(@NotNull final List<Job> jobs, @Nullable final String nextCursor) {
+        Objects.requireNonNull(jobs, "The jobs cannot be null.");
+
+        this.jobs = jobs;
+        this.nextCursor = nextCursor;
+    }
+
+}
@@ -0,0 +1,24 @@
+package pacr.webapp_backend.scheduler.endpoints;
+
+import java.util.List;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.util.StringUtils;
+
+/**
+ * Represents a message from the frontend to prioritize multiple jobs of one group.
+ */
+@Getter
+@NoArgsConstructor
+public class PrioritizeJobsMessage {
+
+    private List<String> jobIDs;
+    private String groupTitle;
+
+    /**
+     * @return whether all attributes are valid inputs.
+     */
+    public boolean validate() {
+        return StringUtils.hasText(groupTitle) && jobIDs != null && !jobIDs.isEmpty();
+    }
+}
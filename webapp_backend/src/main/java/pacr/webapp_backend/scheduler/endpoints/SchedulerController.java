@@ -1,16 +1,22 @@
 package pacr.webapp_backend.scheduler.endpoints;
 
+import java.util.List;
 import java.util.Objects;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import pacr.webapp_backend.scheduler.services.Job;
+import pacr.webapp_backend.scheduler.services.JobQueueCursor;
 import pacr.webapp_backend.scheduler.services.Scheduler;
+import pacr.webapp_backend.scheduler.services.SchedulerMetricsReport;
 import pacr.webapp_backend.shared.IAuthenticator;
 
 import javax.validation.constraints.NotNull;
@@ -22,6 +28,7 @@ import javax.validation.constraints.NotNull;
 public class SchedulerController {
     private static final int PRIORITIZED_PAGE_SIZE = 15;
     private static final int JOB_PAGE_SIZE = 5;
+    private static final int MAX_SLICE_SIZE = 1000;
 
     private final Scheduler scheduler;
     private final IAuthenticator authenticator;
@@ -50,6 +57,18 @@ public class SchedulerController {
         return scheduler.getPrioritizedQueue(pageable);
     }
 
+    /**
+     * Gets the metrics of the scheduler: the queue depth of each job group, the amount of prioritized and
+     * dispatched jobs, counters of the added, dispatched, returned and finished jobs and histograms of the wait time
+     * of the jobs, the latency of the scheduler operations and the hold time of the queue lock.
+     *
+     * @return the current metrics.
+     */
+    @RequestMapping("/metrics/scheduler")
+    public SchedulerMetricsReport getMetrics() {
+        return scheduler.getMetrics();
+    }
+
     /**
      * Gets a subset of prioritized and normal jobs from the queue.
      *
@@ -61,6 +80,42 @@ public class SchedulerController {
         return scheduler.getJobsQueue(pageable);
     }
 
+    /**
+     * Gets the jobs that are not prioritized and come after the given cursor in scheduling order.
+     * The cursor of the returned slice stays valid while jobs are dispatched, so the queue can be browsed
+     * without skipping or repeating jobs.
+     *
+     * @param cursor the cursor of the previous slice or null to start at the beginning of the queue.
+     * @param size the maximum amount of jobs in the slice (1 to 1000).
+     * @return HTTP code 200 (ok) with the slice. HTTP code 400 (bad request) if the cursor or size is invalid.
+     */
+    @RequestMapping("/queue/jobs/slice")
+    public ResponseEntity<JobQueueSlice> getJobsQueueSlice(@RequestParam(required = false) final String cursor,
+            @RequestParam(defaultValue = "" + JOB_PAGE_SIZE) final int size) {
+        if (size <= 0 || size > MAX_SLICE_SIZE) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        final JobQueueCursor after;
+        try {
+            after = cursor == null ? null : JobQueueCursor.fromToken(cursor);
+        } catch (final IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+
+        // one more job is loaded to find out whether there is a next slice
+        final List<Job> jobs = scheduler.getJobsQueueAfter(after, size + 1);
+
+        if (jobs.size() <= size) {
+            return ResponseEntity.ok(new JobQueueSlice(jobs, null));
+        }
+
+        final List<Job> sliceJobs = jobs.subList(0, size);
+        final String nextCursor = new JobQueueCursor(sliceJobs.get(size - 1)).toToken();
+
+        return ResponseEntity.ok(new JobQueueSlice(sliceJobs, nextCursor));
+    }
+
     /**
      * Prioritizes the given job. This method is a secure method.
      * @param prioritizeMessage the message containing the relevant data to prioritize a job.
@@ -86,4 +141,54 @@ public class SchedulerController {
         return false;
     }
 
+    /**
+     * Prioritizes the given jobs of a group, e.g. all commits of a release. This method is a secure method.
+     * @param prioritizeJobsMessage the message containing the group and the ids of the jobs.
+     * @param token a jwt token which is checked before executing the method.
+     * @return the amount of jobs which were prioritized.
+     */
+    @PostMapping("/prioritize/jobs")
+    public int givePriorityToAll(
+            @NotNull @RequestBody final PrioritizeJobsMessage prioritizeJobsMessage,
+            @NotNull @RequestHeader(name = "jwt") final String token) {
+
+        Objects.requireNonNull(token, "The token cannot be null.");
+        Objects.requireNonNull(prioritizeJobsMessage, "The prioritize message cannot be null.");
+
+        if (!prioritizeJobsMessage.validate()) {
+            return 0;
+        }
+
+        if (authenticator.authenticate(token)) {
+            return scheduler.givePriorityToAll(prioritizeJobsMessage.getGroupTitle(),
+                    prioritizeJobsMessage.getJobIDs());
+        }
+
+        return 0;
+    }
+
+    /**
+     * Unbinds a group from its hardware class, so its next job can run on any benchmarker and binds it again.
+     * This method is a secure method.
+     * @param groupTitle the title of the group.
+     * @param token a jwt token which is checked before executing the method.
+     * @return if the group was unbound.
+     */
+    @PostMapping("/hardwareClass/reset")
+    public boolean resetHardwareClass(@NotNull @RequestParam final String groupTitle,
+                                      @NotNull @RequestHeader(name = "jwt") final String token) {
+        Objects.requireNonNull(token, "The token cannot be null.");
+        Objects.requireNonNull(groupTitle, "The group title cannot be null.");
+
+        if (groupTitle.isBlank()) {
+            return false;
+        }
+
+        if (authenticator.authenticate(token)) {
+            return scheduler.resetHardwareClass(groupTitle);
+        }
+
+        return false;
+    }
+
 }
@@ -5,6 +5,8 @@ import java.util.Comparator;
 /**
  * Implements a scheduling policy which makes sure that no job group
  * gets more benchmarking time than another.
+ * Jobs of groups with the same benchmarking time are dispatched newest first. Jobs which were queued at the same
+ * time are dispatched in the order they were queued in.
  */
 class AdvancedSchedulingAlgorithm implements Comparator<Job> {
 
@@ -20,7 +22,13 @@ class AdvancedSchedulingAlgorithm implements Comparator<Job> {
         final int timeSheetCompare = Long.compare(job1.getGroupTimeSheet(), job2.getGroupTimeSheet());
 
         if (timeSheetCompare == 0) {
-            return job2.getQueued().compareTo(job1.getQueued());
+            final int queuedCompare = job2.getQueued().compareTo(job1.getQueued());
+
+            if (queuedCompare == 0) {
+                return Integer.compare(job1.getQueuedIndex(), job2.getQueuedIndex());
+            }
+
+            return queuedCompare;
         }
 
         return timeSheetCompare;
@@ -0,0 +1,139 @@
+package pacr.webapp_backend.scheduler.services;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.StringJoiner;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import javax.persistence.Transient;
+
+/**
+ * Remembers the execution times of the most recent jobs of a job group and estimates how long the next job of the
+ * group takes from their percentiles. The execution times are stored together with the job group.
+ */
+@Embeddable
+public class ExecutionTimes {
+
+    /**
+     * The maximum amount of execution times which are remembered. Older execution times are dropped.
+     */
+    static final int MAX_SAMPLES = 64;
+
+    private static final String SEPARATOR = ",";
+    private static final int MEDIAN = 50;
+    private static final int MAX_PERCENTILE = 100;
+
+    // the execution times in seconds separated by commas, oldest first
+    @Column(length = 1300)
+    private String samples;
+
+    @Transient
+    private Deque<Long> recentSamples;
+
+    @Transient
+    private long[] sortedSamples;
+
+    /**
+     * Creates a new model without any known execution times.
+     */
+    public ExecutionTimes() {
+        this.samples = "";
+    }
+
+    /**
+     * Adds the execution time of a job. If the maximum amount of execution times is reached the oldest one is
+     * dropped.
+     * @param time the execution time in seconds. (>= 0)
+     */
+    void add(final long time) {
+        if (time < 0) {
+            throw new IllegalArgumentException("Time cannot be less than zero.");
+        }
+
+        final Deque<Long> recent = getRecentSamples();
+
+        if (recent.size() >= MAX_SAMPLES) {
+            recent.pollFirst();
+        }
+        recent.addLast(time);
+
+        final StringJoiner joiner = new StringJoiner(SEPARATOR);
+        for (final long sample : recent) {
+            joiner.add(Long.toString(sample));
+        }
+
+        this.samples = joiner.toString();
+        this.sortedSamples = null;
+    }
+
+    /**
+     * @return the amount of known execution times.
+     */
+    int size() {
+        return getRecentSamples().size();
+    }
+
+    /**
+     * @return whether no execution time is known.
+     */
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Gets a percentile of the known execution times using the nearest rank.
+     * @param percentile the percentile (between 0 and 100).
+     * @return the percentile in seconds or 0 if no execution time is known.
+     */
+    long getPercentile(final int percentile) {
+        if (percentile < 0 || percentile > MAX_PERCENTILE) {
+            throw new IllegalArgumentException("The percentile must be between 0 and 100.");
+        }
+
+        final long[] sorted = getSortedSamples();
+
+        if (sorted.length == 0) {
+            return 0;
+        }
+
+        final int rank = (int) Math.ceil(percentile / (double) MAX_PERCENTILE * sorted.length);
+
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    /**
+     * @return the median of the known execution times in seconds which is the expected execution time of the next
+     *      job. 0 if no execution time is known.
+     */
+    long getMedian() {
+        return getPercentile(MEDIAN);
+    }
+
+    private Deque<Long> getRecentSamples() {
+        if (recentSamples == null) {
+            recentSamples = new ArrayDeque<>();
+
+            if (StringUtils.hasText(samples)) {
+                for (final String sample : samples.split(SEPARATOR)) {
+                    recentSamples.addLast(Long.parseLong(sample));
+                }
+            }
+        }
+
+        return recentSamples;
+    }
+
+    private long[] getSortedSamples() {
+        // the policies compare the estimates on every change of the queue, so the sorted samples are cached
+        if (sortedSamples == null) {
+            sortedSamples = getRecentSamples().stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(sortedSamples);
+        }
+
+        return sortedSamples;
+    }
+
+}
@@ -1,12 +1,12 @@
 package pacr.webapp_backend.scheduler.services;
 
-import java.util.Comparator;
-
 /**
  * Implements a scheduling policy which makes sure that no job group
- * gets more benchmarking time than another.
+ * gets more weighted benchmarking time than another. The benchmarking time decays, so a group which used a lot of
+ * benchmarking time recently comes after the other groups until they caught up.
+ * This is the default policy.
  */
-class GroupSchedulingAlgorithm implements Comparator<JobGroup> {
+class GroupSchedulingAlgorithm implements SchedulingPolicy {
 
     @Override
     public int compare(final JobGroup jobGroup1, final JobGroup jobGroup2) {
@@ -17,7 +17,7 @@ class GroupSchedulingAlgorithm implements Comparator<JobGroup> {
             return -1;
         }
 
-        return Long.compare(jobGroup1.getTimeSheet(), jobGroup2.getTimeSheet());
+        return Double.compare(jobGroup1.getVirtualTime(), jobGroup2.getVirtualTime());
     }
 
 }
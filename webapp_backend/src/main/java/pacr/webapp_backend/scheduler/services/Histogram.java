@@ -0,0 +1,128 @@
+package pacr.webapp_backend.scheduler.services;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of non-negative values with a bounded relative error like an HDR histogram. Every power of two is
+ * split into 16 buckets, so a percentile is at most 1/16 below the recorded value.
+ * Recording a value is lock-free and doesn't allocate, so it can be done on the dispatch path.
+ */
+public class Histogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int AMT_BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+    private static final double MAX_PERCENTILE = 100;
+
+    private final AtomicLongArray counts;
+    private final LongAdder count;
+    private final LongAdder sum;
+    private final AtomicLong max;
+
+    /**
+     * Creates a new empty histogram.
+     */
+    public Histogram() {
+        this.counts = new AtomicLongArray(AMT_BUCKETS);
+        this.count = new LongAdder();
+        this.sum = new LongAdder();
+        this.max = new AtomicLong();
+    }
+
+    /**
+     * Records a value. Negative values are recorded as 0.
+     * @param value the value.
+     */
+    public void record(final long value) {
+        final long recorded = Math.max(0, value);
+
+        counts.incrementAndGet(getBucket(recorded));
+        count.increment();
+        sum.add(recorded);
+        max.accumulateAndGet(recorded, Math::max);
+    }
+
+    /**
+     * @return the amount of recorded values.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Gets a percentile of the recorded values. Values which are recorded concurrently may be missing.
+     * @param percentile the percentile (between 0 and 100).
+     * @return the lowest value of the bucket which contains the percentile or 0 if no value was recorded.
+     */
+    public long getPercentile(final double percentile) {
+        if (!(percentile >= 0 && percentile <= MAX_PERCENTILE)) {
+            throw new IllegalArgumentException("The percentile must be between 0 and 100.");
+        }
+
+        final long[] bucketCounts = new long[AMT_BUCKETS];
+        long total = 0;
+        for (int i = 0; i < AMT_BUCKETS; i++) {
+            bucketCounts[i] = counts.get(i);
+            total += bucketCounts[i];
+        }
+
+        if (total == 0) {
+            return 0;
+        }
+
+        final long rank = Math.max(1, (long) Math.ceil(percentile / MAX_PERCENTILE * total));
+
+        long seen = 0;
+        for (int i = 0; i < AMT_BUCKETS; i++) {
+            seen += bucketCounts[i];
+
+            if (seen >= rank) {
+                return Math.min(getLowestValue(i), max.get());
+            }
+        }
+
+        return max.get();
+    }
+
+    /**
+     * @return a summary of the recorded values.
+     */
+    public HistogramSummary summarize() {
+        final long amount = getCount();
+        final double mean = amount == 0 ? 0 : sum.sum() / (double) amount;
+
+        return new HistogramSummary(amount, mean, max.get(), getPercentile(50), getPercentile(90),
+                getPercentile(99), getPercentile(99.9));
+    }
+
+    /**
+     * @return the index of the bucket which contains the value.
+     */
+    static int getBucket(final long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+
+        final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        final int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * @return the lowest value which is contained in the bucket.
+     */
+    static long getLowestValue(final int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+
+        final int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        final int subBucket = bucket % SUB_BUCKETS;
+
+        return (long) (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+    }
+
+}
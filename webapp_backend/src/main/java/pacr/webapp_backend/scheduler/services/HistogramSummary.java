@@ -0,0 +1,27 @@
+package pacr.webapp_backend.scheduler.services;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The amount, mean, maximum and percentiles of the values recorded by a histogram.
+ */
+@Getter
+@AllArgsConstructor
+public class HistogramSummary {
+
+    private final long count;
+
+    private final double mean;
+
+    private final long max;
+
+    private final long p50;
+
+    private final long p90;
+
+    private final long p99;
+
+    private final long p999;
+
+}
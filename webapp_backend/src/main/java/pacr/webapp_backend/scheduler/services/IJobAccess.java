@@ -1,7 +1,11 @@
 package pacr.webapp_backend.scheduler.services;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -41,6 +45,25 @@ public interface IJobAccess {
      */
     Collection<Job> findAllJobs(String groupTitle);
 
+    /**
+     * Gets the given jobs of a group. Jobs which are not stored are skipped.
+     * @param groupTitle the title of the group.
+     * @param jobIDs the ids of the jobs.
+     * @return the stored jobs.
+     */
+    default Collection<Job> findJobs(final String groupTitle, final Collection<String> jobIDs) {
+        final Set<String> wantedIDs = new HashSet<>(jobIDs);
+        final Collection<Job> jobs = new ArrayList<>();
+
+        for (final Job job : findAllJobs(groupTitle)) {
+            if (wantedIDs.contains(job.getJobID())) {
+                jobs.add(job);
+            }
+        }
+
+        return jobs;
+    }
+
     /**
      * Saves a job.
      *
@@ -69,4 +92,31 @@ public interface IJobAccess {
      */
     void deleteJobs(Collection<? extends Job> jobs);
 
+    /**
+     * Deletes the jobs of a group with the given job ids from the storage without loading them.
+     *
+     * @param group the group of the jobs.
+     * @param jobIDs the ids of the jobs which are deleted.
+     * @return the amount of deleted jobs.
+     */
+    int deleteJobs(JobGroup group, Collection<String> jobIDs);
+
+    /**
+     * Marks the jobs of a group with the given job ids as prioritized without loading them.
+     *
+     * @param group the group of the jobs.
+     * @param jobIDs the ids of the jobs which are prioritized.
+     * @param prioritizedAt the time the jobs were prioritized. It is stored as their queued date.
+     * @return the amount of updated jobs.
+     */
+    int prioritizeJobs(JobGroup group, Collection<String> jobIDs, LocalDateTime prioritizedAt);
+
+    /**
+     * Deletes all jobs of a group from the storage without loading them.
+     *
+     * @param group the group whose jobs are deleted.
+     * @return the amount of deleted jobs.
+     */
+    int deleteAllJobs(JobGroup group);
+
 }
@@ -0,0 +1,37 @@
+package pacr.webapp_backend.scheduler.services;
+
+import java.util.Collection;
+
+/**
+ * Provides access to the claims of stored jobs. The nodes of a cluster share one job storage and a node only hands
+ * out a job after it claimed it, so every job runs on one node only.
+ */
+public interface IJobClaimAccess {
+
+    /**
+     * Claims the given jobs of a group for a node. Jobs which are claimed already, are not stored or are being
+     * claimed by another node at the same time are skipped. Claimed jobs are marked as dispatched.
+     * @param group the group of the jobs.
+     * @param jobIDs the ids of the jobs.
+     * @param nodeId the id of the node.
+     * @return the ids of the jobs which were claimed.
+     */
+    Collection<String> claimJobs(JobGroup group, Collection<String> jobIDs, String nodeId);
+
+    /**
+     * Releases the claims of a node on the given jobs of a group. Released jobs are no longer dispatched.
+     * @param group the group of the jobs.
+     * @param jobIDs the ids of the jobs.
+     * @param nodeId the id of the node.
+     * @return the amount of released jobs.
+     */
+    int releaseJobs(JobGroup group, Collection<String> jobIDs, String nodeId);
+
+    /**
+     * Releases all claims of a node, e.g. because it left the cluster. Released jobs are no longer dispatched.
+     * @param nodeId the id of the node.
+     * @return the amount of released jobs.
+     */
+    int releaseAllJobs(String nodeId);
+
+}
@@ -10,6 +10,20 @@ public interface IJobGroupAccess {
      */
     Iterable<JobGroup> findAllJobGroups();
 
+    /**
+     * @param title the title of the group.
+     * @return the stored JobGroup with the given title or null if there is none.
+     */
+    default JobGroup findJobGroup(final String title) {
+        for (final JobGroup group : findAllJobGroups()) {
+            if (group.getTitle().equals(title)) {
+                return group;
+            }
+        }
+
+        return null;
+    }
+
     /**
      * Saves the given JobGroup.
      *
@@ -0,0 +1,333 @@
+package pacr.webapp_backend.scheduler.services;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A binary heap which knows the position of each of its elements. This allows the priority of an element already
+ * in the queue to change: after the priority changed {@link #updatePriority(Object)} restores the heap order in
+ * O(log n). Removing an arbitrary element is O(log n) as well.
+ * Each element can only be contained once.
+ *
+ * The iterator of this queue returns the elements in no particular order. Use {@link #ordered()} to iterate over
+ * the elements in priority order.
+ *
+ * @param <E> the type of elements stored.
+ */
+public class IndexedPriorityQueue<E> extends AbstractQueue<E> {
+
+    private final Comparator<? super E> comparator;
+
+    private final List<E> heap;
+
+    private final Map<E, Integer> positions;
+
+    /**
+     * Creates a new IndexedPriorityQueue with a comparator that is used to sort the elements.
+     *
+     * @param comparator comparator used to sort the elements.
+     */
+    public IndexedPriorityQueue(@NotNull final Comparator<? super E> comparator) {
+        Objects.requireNonNull(comparator, "The comparator cannot be null.");
+
+        this.comparator = comparator;
+        this.heap = new ArrayList<>();
+        this.positions = new HashMap<>();
+    }
+
+    /**
+     * @return the comparator used to sort the elements.
+     */
+    public Comparator<? super E> comparator() {
+        return comparator;
+    }
+
+    /**
+     * Adds an element to the queue.
+     * @param element the element which is added.
+     * @return false if the element is already in the queue.
+     */
+    @Override
+    public boolean add(@NotNull final E element) {
+        return offer(element);
+    }
+
+    @Override
+    public boolean offer(@NotNull final E element) {
+        Objects.requireNonNull(element, "The element cannot be null.");
+
+        if (positions.containsKey(element)) {
+            return false;
+        }
+
+        heap.add(element);
+        positions.put(element, heap.size() - 1);
+        siftUp(heap.size() - 1);
+
+        return true;
+    }
+
+    @Nullable
+    @Override
+    public E poll() {
+        if (heap.isEmpty()) {
+            return null;
+        }
+
+        final E first = heap.get(0);
+        removeAt(0);
+
+        return first;
+    }
+
+    @Nullable
+    @Override
+    public E peek() {
+        return heap.isEmpty() ? null : heap.get(0);
+    }
+
+    @Override
+    public boolean remove(final Object element) {
+        final Integer position = positions.get(element);
+
+        if (position == null) {
+            return false;
+        }
+
+        removeAt(position);
+
+        return true;
+    }
+
+    @Override
+    public boolean contains(final Object element) {
+        return positions.containsKey(element);
+    }
+
+    /**
+     * Restores the heap order after the priority of the given element changed.
+     * @param element the element whose priority changed.
+     * @return false if the element is not in the queue.
+     */
+    public boolean updatePriority(final E element) {
+        final Integer position = positions.get(element);
+
+        if (position == null) {
+            return false;
+        }
+
+        if (siftUp(position) == position) {
+            siftDown(position);
+        }
+
+        return true;
+    }
+
+    /**
+     * Gets the rank of an element which is the amount of elements that come strictly before it in priority order.
+     * Only the elements that come before the given element are visited, so the rank is computed in O(rank).
+     * @param element the element.
+     * @return the rank of the element or -1 if it is not in the queue.
+     */
+    public int rank(final E element) {
+        if (!positions.containsKey(element)) {
+            return -1;
+        }
+
+        return countBefore(0, element);
+    }
+
+    private int countBefore(final int position, final E element) {
+        if (position >= heap.size()) {
+            return 0;
+        }
+
+        final E current = heap.get(position);
+
+        // all children of an element come after it, so the subtree can be skipped.
+        if (current == element || comparator.compare(current, element) >= 0) {
+            return 0;
+        }
+
+        return 1 + countBefore(leftChild(position), element) + countBefore(leftChild(position) + 1, element);
+    }
+
+    /**
+     * Gets the element at the given rank. The first k elements are visited in O(k log k).
+     * @param index the rank of the returned element.
+     * @return the element at the given rank or null if the index is invalid.
+     */
+    @Nullable
+    public E get(final int index) {
+        if (index < 0 || index >= size()) {
+            return null;
+        }
+
+        final Iterator<E> iterator = ordered().iterator();
+
+        for (int i = 0; i < index; i++) {
+            iterator.next();
+        }
+
+        return iterator.next();
+    }
+
+    /**
+     * Iterates lazily over the elements in priority order. Getting the first k elements costs O(k log k).
+     * The queue must not be changed during the iteration.
+     * @return the elements in priority order.
+     */
+    public Iterable<E> ordered() {
+        return OrderedIterator::new;
+    }
+
+    @NotNull
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<>() {
+            private int position = 0;
+
+            @Override
+            public boolean hasNext() {
+                return position < heap.size();
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                return heap.get(position++);
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return heap.size();
+    }
+
+    @Override
+    public void clear() {
+        heap.clear();
+        positions.clear();
+    }
+
+    private void removeAt(final int position) {
+        final int last = heap.size() - 1;
+        final E removed = heap.get(position);
+
+        swap(position, last);
+        heap.remove(last);
+        positions.remove(removed);
+
+        if (position < last && siftUp(position) == position) {
+            siftDown(position);
+        }
+    }
+
+    private int siftUp(final int start) {
+        int position = start;
+
+        while (position > 0) {
+            final int parent = (position - 1) / 2;
+
+            if (comparator.compare(heap.get(position), heap.get(parent)) >= 0) {
+                break;
+            }
+
+            swap(position, parent);
+            position = parent;
+        }
+
+        return position;
+    }
+
+    private void siftDown(final int start) {
+        int position = start;
+
+        while (leftChild(position) < heap.size()) {
+            int child = leftChild(position);
+
+            if (child + 1 < heap.size() && comparator.compare(heap.get(child + 1), heap.get(child)) < 0) {
+                child++;
+            }
+
+            if (comparator.compare(heap.get(child), heap.get(position)) >= 0) {
+                break;
+            }
+
+            swap(position, child);
+            position = child;
+        }
+    }
+
+    private static int leftChild(final int position) {
+        return 2 * position + 1;
+    }
+
+    private void swap(final int position1, final int position2) {
+        final E element1 = heap.get(position1);
+        final E element2 = heap.get(position2);
+
+        heap.set(position1, element2);
+        heap.set(position2, element1);
+
+        positions.put(element2, position1);
+        positions.put(element1, position2);
+    }
+
+    /**
+     * Walks the heap in priority order by keeping the frontier of not yet returned heap positions in a
+     * small priority queue.
+     */
+    private class OrderedIterator implements Iterator<E> {
+
+        private final PriorityQueue<Integer> frontier;
+
+        OrderedIterator() {
+            this.frontier = new PriorityQueue<>((position1, position2) ->
+                    comparator.compare(heap.get(position1), heap.get(position2)));
+
+            if (!heap.isEmpty()) {
+                frontier.add(0);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !frontier.isEmpty();
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            final int position = frontier.poll();
+            final int child = leftChild(position);
+
+            if (child < heap.size()) {
+                frontier.add(child);
+            }
+            if (child + 1 < heap.size()) {
+                frontier.add(child + 1);
+            }
+
+            return heap.get(position);
+        }
+    }
+
+}
@@ -10,18 +10,23 @@ import lombok.Setter;
 import org.springframework.util.StringUtils;
 import pacr.webapp_backend.shared.IJob;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
 import javax.validation.constraints.NotNull;
 
 /**
  * A job that is identified by an id and belongs to a job group.
  * A job is queued when it is first created.
+ * Each job id can only be queued once per job group.
  */
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"group_id", "jobID"}))
 @Getter
 @NoArgsConstructor
 @EqualsAndHashCode
@@ -42,9 +47,31 @@ public class Job implements IJob {
     @EqualsAndHashCode.Exclude
     private LocalDateTime queued;
 
+    /**
+     * The position of the job among the jobs of its group which were queued at the same time.
+     */
+    @EqualsAndHashCode.Exclude
+    @Getter(AccessLevel.PACKAGE)
+    private int queuedIndex;
+
     @ManyToOne(fetch = FetchType.EAGER)
+    @Setter(AccessLevel.PACKAGE)
     private JobGroup group;
 
+    /**
+     * Whether the job was handed out to a benchmarker and no result was saved yet.
+     */
+    @EqualsAndHashCode.Exclude
+    private boolean dispatched;
+
+    /**
+     * The node of the cluster which took the job from the shared queue or null if no node took it. It is only changed
+     * by {@link IJobClaimAccess}, so saving the job keeps its claim.
+     */
+    @EqualsAndHashCode.Exclude
+    @Column(insertable = false, updatable = false)
+    private String claimedBy;
+
     /**
      * Creates a new job and sets its queued date.
      * @param jobID the id of the job.
@@ -62,6 +89,78 @@ public class Job implements IJob {
         this.prioritized = false;
     }
 
+    /**
+     * Creates a new job with the given queued date.
+     * @param jobID the id of the job.
+     * @param group the group of the job.
+     * @param queued the date the job was queued.
+     */
+    Job(@NotNull final String jobID, @NotNull final JobGroup group, @NotNull final LocalDateTime queued) {
+        this(jobID, group);
+
+        Objects.requireNonNull(queued);
+        this.queued = queued;
+    }
+
+    /**
+     * Creates a new job which was queued together with other jobs of its group.
+     * @param jobID the id of the job.
+     * @param group the group of the job.
+     * @param queued the date the job was queued.
+     * @param queuedIndex the position of the job among the jobs queued at the same time. Jobs with a lower index
+     *                    are dispatched first. (>= 0)
+     */
+    Job(@NotNull final String jobID, @NotNull final JobGroup group, @NotNull final LocalDateTime queued,
+        final int queuedIndex) {
+        this(jobID, group, queued);
+
+        if (queuedIndex < 0) {
+            throw new IllegalArgumentException("The queuedIndex cannot be negative.");
+        }
+        this.queuedIndex = queuedIndex;
+    }
+
+    /**
+     * Marks the job as prioritized. Prioritized jobs are dispatched in the order they were prioritized, so the
+     * queued date is set to the time of the prioritization.
+     * @param prioritizedAt the time the job was prioritized.
+     */
+    void prioritize(@NotNull final LocalDateTime prioritizedAt) {
+        Objects.requireNonNull(prioritizedAt);
+
+        this.prioritized = true;
+        this.queued = prioritizedAt;
+    }
+
+    /**
+     * Marks the job as handed out to a benchmarker. The job stays in the storage until its result is saved.
+     */
+    void dispatch() {
+        this.dispatched = true;
+    }
+
+    /**
+     * Puts a dispatched job which didn't start back into the queue. The job keeps its queued date, its position and
+     * its priority, as if it was never dispatched.
+     */
+    void undispatch() {
+        this.dispatched = false;
+    }
+
+    /**
+     * Puts a dispatched job back into the queue. The job is queued again at the given date and loses its priority
+     * like a newly added job.
+     * @param requeued the date the job is queued again.
+     */
+    void requeue(@NotNull final LocalDateTime requeued) {
+        Objects.requireNonNull(requeued);
+
+        this.dispatched = false;
+        this.prioritized = false;
+        this.queued = requeued;
+        this.queuedIndex = 0;
+    }
+
     /**
      * @return the current time sheet of the job's job group in seconds.
      */
@@ -69,6 +168,13 @@ public class Job implements IJob {
         return group.getTimeSheet();
     }
 
+    /**
+     * @return the current virtual time of the job's job group.
+     */
+    double getGroupVirtualTime() {
+        return group.getVirtualTime();
+    }
+
     @Override
     public String getJobGroupTitle() {
         return group.getTitle();
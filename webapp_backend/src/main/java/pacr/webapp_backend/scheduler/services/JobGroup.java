@@ -1,18 +1,33 @@
 package pacr.webapp_backend.scheduler.services;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Objects;
 import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 import org.springframework.util.StringUtils;
+import pacr.webapp_backend.shared.IObserver;
 
+import javax.persistence.Column;
+import javax.persistence.Embedded;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Transient;
 import javax.validation.constraints.NotNull;
 
 /**
- * A job group is used to track the benchmarking time of a repository.
+ * A job group is used to track the benchmarking time of a repository and the execution times of its jobs.
+ *
+ * The benchmarking time which decides the priority of the group decays continuously with a half-life, so past usage
+ * counts less the longer ago it was. Since the time sheets of all groups decay at the same rate, their order does not
+ * change over time. The order is given by the virtual time of the group, which is the binary logarithm of the
+ * weighted decayed time sheet shifted by the half-lives since the epoch. Comparing the virtual times of two groups
+ * is the same as comparing their weighted decayed time sheets at any common point in time.
  */
 @Entity
 @Getter
@@ -20,6 +35,15 @@ import javax.validation.constraints.NotNull;
 @NoArgsConstructor
 public class JobGroup {
 
+    /**
+     * The half-life of the benchmarking time used if no other half-life is set.
+     */
+    static final Duration DEFAULT_HALF_LIFE = Duration.ofDays(1);
+
+    private static final double DEFAULT_WEIGHT = 1;
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+    private static final int HARDWARE_CLASS_LENGTH = 1000;
+
     @Id
     @GeneratedValue
     @EqualsAndHashCode.Exclude
@@ -28,9 +52,60 @@ public class JobGroup {
 
     private String title;
 
+    /**
+     * The total benchmarking time in seconds.
+     */
     @EqualsAndHashCode.Exclude
     private long timeSheet;
 
+    /**
+     * The benchmarking time in seconds decayed to the time it was last updated.
+     */
+    @EqualsAndHashCode.Exclude
+    private double decayedTimeSheet;
+
+    @EqualsAndHashCode.Exclude
+    @Getter(AccessLevel.NONE)
+    private LocalDateTime timeSheetUpdated;
+
+    @EqualsAndHashCode.Exclude
+    @Getter(AccessLevel.NONE)
+    private Double weight;
+
+    @Embedded
+    @EqualsAndHashCode.Exclude
+    @Getter(AccessLevel.NONE)
+    private ExecutionTimes executionTimes;
+
+    /**
+     * The hardware class of the benchmarkers which run the jobs of the group, so the results of the group are
+     * comparable. Null if the jobs of the group may run on any benchmarker.
+     */
+    @EqualsAndHashCode.Exclude
+    @Setter(AccessLevel.PACKAGE)
+    @Column(length = HARDWARE_CLASS_LENGTH)
+    private String hardwareClass;
+
+    /**
+     * Is notified whenever the time sheet or the execution times change, so queues ordered by them can restore
+     * their order.
+     */
+    @Transient
+    @EqualsAndHashCode.Exclude
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.PACKAGE)
+    private IObserver timeSheetObserver;
+
+    @Transient
+    @EqualsAndHashCode.Exclude
+    @Getter(AccessLevel.NONE)
+    private Duration halfLife = DEFAULT_HALF_LIFE;
+
+    @Transient
+    @EqualsAndHashCode.Exclude
+    @Getter(AccessLevel.NONE)
+    private Double virtualTime;
+
     /**
      * Creates a new job group.
      * @param title the title of the job group (cannot be null or empty).
@@ -42,25 +117,164 @@ public class JobGroup {
 
         this.title = title;
         this.timeSheet = 0;
+        this.decayedTimeSheet = 0;
+        this.executionTimes = new ExecutionTimes();
+    }
+
+    /**
+     * Creates a group which is not stored and only takes the position of a group with the given virtual time.
+     * @param title the title of the job group (cannot be null or empty).
+     * @param virtualTime the virtual time of the group.
+     */
+    JobGroup(@NotNull final String title, final double virtualTime) {
+        this(title);
+
+        this.virtualTime = virtualTime;
     }
 
     /**
-     * Adds the given time to the group's time sheet.
+     * Adds the execution time of a job which finished now to the group's time sheets and to the known execution
+     * times of the group.
      * @param time the time in seconds. (>= 0)
      */
     void addToTimeSheet(final long time) {
+        addToTimeSheet(time, LocalDateTime.now());
+    }
+
+    /**
+     * Adds the execution time of a job to the group's time sheets and to the known execution times of the group.
+     * @param time the time in seconds. (>= 0)
+     * @param finished the time the job finished.
+     */
+    void addToTimeSheet(final long time, @NotNull final LocalDateTime finished) {
         if (time < 0) {
             throw new IllegalArgumentException("Time cannot be less than zero.");
         }
+        Objects.requireNonNull(finished);
 
+        this.decayedTimeSheet = getDecayedTimeSheet(finished) + time;
+        if (timeSheetUpdated == null || finished.isAfter(timeSheetUpdated)) {
+            this.timeSheetUpdated = finished;
+        }
         this.timeSheet += time;
+        this.virtualTime = null;
+
+        getExecutionTimes().add(time);
+        notifyTimeSheetObserver();
     }
 
     /**
-     * Sets the benchmarking time to 0.
+     * @param time the point in time.
+     * @return the benchmarking time in seconds decayed to the given point in time.
      */
-    void resetTimeSheet() {
-        this.timeSheet = 0;
+    double getDecayedTimeSheet(@NotNull final LocalDateTime time) {
+        Objects.requireNonNull(time);
+
+        if (timeSheetUpdated == null || !time.isAfter(timeSheetUpdated)) {
+            return decayedTimeSheet;
+        }
+
+        final double halfLives = toSeconds(Duration.between(timeSheetUpdated, time)) / toSeconds(halfLife);
+
+        return decayedTimeSheet * Math.pow(2, -halfLives);
+    }
+
+    /**
+     * @return the virtual time of the group. Groups with a lower virtual time used less weighted benchmarking time.
+     *      Negative infinity if the group never used any benchmarking time.
+     */
+    double getVirtualTime() {
+        if (virtualTime == null) {
+            virtualTime = getVirtualTime(0);
+        }
+
+        return virtualTime;
+    }
+
+    /**
+     * @param additionalTime benchmarking time in seconds which is added to the time sheet. (>= 0)
+     * @return the virtual time the group would have if the given time was added at the time of the last update.
+     */
+    double getVirtualTime(final long additionalTime) {
+        final double time = decayedTimeSheet + additionalTime;
+
+        if (time <= 0 || timeSheetUpdated == null) {
+            return Double.NEGATIVE_INFINITY;
+        }
+
+        final double secondsSinceEpoch = timeSheetUpdated.toEpochSecond(ZoneOffset.UTC)
+                + timeSheetUpdated.getNano() / NANOS_PER_SECOND;
+
+        return Math.log(time / getWeight()) / Math.log(2) + secondsSinceEpoch / toSeconds(halfLife);
+    }
+
+    /**
+     * @return the weight of the group. A group with twice the weight of another group gets twice the benchmarking
+     *      time.
+     */
+    double getWeight() {
+        // groups stored before weights were introduced don't have one
+        return weight == null ? DEFAULT_WEIGHT : weight;
+    }
+
+    /**
+     * Sets the weight of the group.
+     * @param weight the weight. (> 0)
+     */
+    void setWeight(final double weight) {
+        if (!(weight > 0) || Double.isInfinite(weight)) {
+            throw new IllegalArgumentException("The weight must be positive.");
+        }
+
+        this.weight = weight;
+        this.virtualTime = null;
+        notifyTimeSheetObserver();
+    }
+
+    /**
+     * Sets the half-life of the benchmarking time. All groups which are compared with each other must have the same
+     * half-life.
+     * @param halfLife the half-life. (> 0)
+     */
+    void setHalfLife(@NotNull final Duration halfLife) {
+        Objects.requireNonNull(halfLife);
+        if (halfLife.isNegative() || halfLife.isZero()) {
+            throw new IllegalArgumentException("The half-life must be positive.");
+        }
+
+        this.halfLife = halfLife;
+        this.virtualTime = null;
+        notifyTimeSheetObserver();
+    }
+
+    /**
+     * @param hardwareClass a hardware class of benchmarkers.
+     * @return whether the jobs of this group may run on benchmarkers of the hardware class.
+     */
+    boolean acceptsHardwareClass(@NotNull final String hardwareClass) {
+        return this.hardwareClass == null || this.hardwareClass.equals(hardwareClass);
+    }
+
+    /**
+     * @return the execution times of the most recent jobs of this group.
+     */
+    ExecutionTimes getExecutionTimes() {
+        // groups stored before the execution times were recorded don't have any
+        if (executionTimes == null) {
+            executionTimes = new ExecutionTimes();
+        }
+
+        return executionTimes;
+    }
+
+    private static double toSeconds(final Duration duration) {
+        return duration.getSeconds() + duration.getNano() / NANOS_PER_SECOND;
+    }
+
+    private void notifyTimeSheetObserver() {
+        if (timeSheetObserver != null) {
+            timeSheetObserver.update();
+        }
     }
 
 }
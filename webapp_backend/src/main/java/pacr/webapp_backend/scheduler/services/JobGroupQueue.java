@@ -0,0 +1,128 @@
+package pacr.webapp_backend.scheduler.services;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.TreeSet;
+import org.jetbrains.annotations.Nullable;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * Holds all queued jobs of one job group.
+ * The jobs which are not prioritized are kept in the order given by the {@link AdvancedSchedulingAlgorithm},
+ * so the next job of the group can be retrieved, added and removed in O(log n).
+ * All jobs of the group (including prioritized ones) are indexed by their job id.
+ */
+class JobGroupQueue {
+
+    private final JobGroup group;
+
+    private final NavigableSet<Job> jobs;
+
+    private final Map<String, Job> jobsByID;
+
+    /**
+     * Creates a new empty queue for the given group.
+     * @param group the job group of the queued jobs.
+     */
+    JobGroupQueue(@NotNull final JobGroup group) {
+        Objects.requireNonNull(group, "The group cannot be null.");
+
+        this.group = group;
+        // all jobs in this queue share the same group, so the comparison only depends on the queued time.
+        // The job id is used to make the order total.
+        this.jobs = new TreeSet<>(new AdvancedSchedulingAlgorithm().thenComparing(Job::getJobID));
+        this.jobsByID = new HashMap<>();
+    }
+
+    /**
+     * @return the job group of this queue.
+     */
+    JobGroup getGroup() {
+        return group;
+    }
+
+    /**
+     * Adds a job to the queue. Prioritized jobs are only indexed.
+     * @param job the job which is added.
+     * @return false if a job with the same id is already queued.
+     */
+    boolean add(@NotNull final Job job) {
+        if (jobsByID.containsKey(job.getJobID())) {
+            return false;
+        }
+
+        jobsByID.put(job.getJobID(), job);
+
+        if (!job.isPrioritized()) {
+            jobs.add(job);
+        }
+
+        return true;
+    }
+
+    /**
+     * Removes a job from the queue.
+     * @param job the job which is removed.
+     * @return whether the job was queued.
+     */
+    boolean remove(@NotNull final Job job) {
+        if (jobsByID.get(job.getJobID()) != job) {
+            return false;
+        }
+
+        jobsByID.remove(job.getJobID());
+        jobs.remove(job);
+
+        return true;
+    }
+
+    /**
+     * @param jobID the id of the job.
+     * @return the queued job with the given id or null if no such job is queued.
+     */
+    @Nullable
+    Job get(final String jobID) {
+        return jobsByID.get(jobID);
+    }
+
+    /**
+     * @return the next job of the group which is not prioritized or null if there is none.
+     */
+    @Nullable
+    Job peek() {
+        return jobs.isEmpty() ? null : jobs.first();
+    }
+
+    /**
+     * @return all jobs of the group which are not prioritized in scheduling order.
+     */
+    NavigableSet<Job> getJobs() {
+        return jobs;
+    }
+
+    /**
+     * @return all jobs of the group including the prioritized ones.
+     */
+    Collection<Job> getAllJobs() {
+        return jobsByID.values();
+    }
+
+    /**
+     * @return the amount of jobs of the group which are not prioritized.
+     */
+    int size() {
+        return jobs.size();
+    }
+
+    /**
+     * @return whether the group has no queued jobs (including prioritized ones).
+     */
+    boolean isEmpty() {
+        return jobsByID.isEmpty();
+    }
+
+}
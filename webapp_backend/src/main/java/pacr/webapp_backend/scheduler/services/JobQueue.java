@@ -0,0 +1,613 @@
+package pacr.webapp_backend.scheduler.services;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import org.jetbrains.annotations.Nullable;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * The in-memory job queue of the scheduler.
+ * Jobs are kept in one {@link JobGroupQueue} per job group. The groups which have jobs that are not prioritized
+ * are kept in an {@link IndexedPriorityQueue} ordered by a {@link SchedulingPolicy}. Whenever the time sheet, the
+ * execution times or the next job of a group changes only the position of that group is updated. Prioritized jobs are kept in
+ * a separate queue which is ordered by the time they were queued.
+ *
+ * This class is not thread safe.
+ */
+class JobQueue {
+
+    private final Map<String, JobGroupQueue> groupQueues;
+
+    private final GroupQueueComparator groupComparator;
+
+    private final IndexedPriorityQueue<JobGroupQueue> activeGroupQueues;
+
+    private final NavigableSet<Job> prioritized;
+
+    private int amtJobs;
+
+    /**
+     * Creates a new empty job queue which uses the default scheduling policy.
+     */
+    JobQueue() {
+        this(new GroupSchedulingAlgorithm());
+    }
+
+    /**
+     * Creates a new empty job queue.
+     * @param policy the policy which orders the job groups.
+     */
+    JobQueue(@NotNull final SchedulingPolicy policy) {
+        Objects.requireNonNull(policy, "The policy cannot be null.");
+
+        this.groupQueues = new HashMap<>();
+        this.groupComparator = new GroupQueueComparator(policy);
+        this.activeGroupQueues = new IndexedPriorityQueue<>(groupComparator);
+        this.prioritized = new TreeSet<>(Comparator.comparing(Job::getQueued)
+                .thenComparing(Job::getJobGroupTitle)
+                .thenComparing(Job::getJobID));
+        this.amtJobs = 0;
+    }
+
+    /**
+     * Adds a job to the queue.
+     * @param job the job which is added.
+     * @return false if the job is already queued.
+     */
+    boolean add(@NotNull final Job job) {
+        Objects.requireNonNull(job, "The job cannot be null.");
+
+        final JobGroupQueue groupQueue = groupQueues.computeIfAbsent(job.getJobGroupTitle(),
+                title -> createGroupQueue(job.getGroup()));
+
+        final boolean wasActive = groupQueue.size() > 0;
+
+        if (!groupQueue.add(job)) {
+            return false;
+        }
+
+        if (job.isPrioritized()) {
+            prioritized.add(job);
+        } else {
+            amtJobs++;
+
+            if (wasActive) {
+                activeGroupQueues.updatePriority(groupQueue);
+            } else {
+                activeGroupQueues.add(groupQueue);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Removes a job from the queue.
+     * @param job the job which is removed.
+     * @return whether the job was queued.
+     */
+    boolean remove(@NotNull final Job job) {
+        Objects.requireNonNull(job, "The job cannot be null.");
+
+        final JobGroupQueue groupQueue = groupQueues.get(job.getJobGroupTitle());
+
+        if (groupQueue == null || !groupQueue.remove(job)) {
+            return false;
+        }
+
+        if (job.isPrioritized()) {
+            prioritized.remove(job);
+        } else {
+            amtJobs--;
+
+            if (groupQueue.size() == 0) {
+                activeGroupQueues.remove(groupQueue);
+            } else {
+                activeGroupQueues.updatePriority(groupQueue);
+            }
+        }
+
+        if (groupQueue.isEmpty()) {
+            groupQueues.remove(job.getJobGroupTitle());
+            groupQueue.getGroup().setTimeSheetObserver(null);
+        }
+
+        return true;
+    }
+
+    private JobGroupQueue createGroupQueue(final JobGroup group) {
+        final JobGroupQueue groupQueue = new JobGroupQueue(group);
+
+        // the queue only contains the group while it has jobs which are not prioritized.
+        group.setTimeSheetObserver(() -> activeGroupQueues.updatePriority(groupQueue));
+
+        return groupQueue;
+    }
+
+    /**
+     * Moves a queued job to the prioritized jobs without replacing it.
+     * @param job the job which is prioritized.
+     * @param prioritizedAt the time the job was prioritized.
+     * @return false if the job is not queued or already prioritized.
+     */
+    boolean prioritize(@NotNull final Job job, @NotNull final LocalDateTime prioritizedAt) {
+        Objects.requireNonNull(job, "The job cannot be null.");
+
+        if (job.isPrioritized() || !remove(job)) {
+            return false;
+        }
+
+        // the job has to be removed before its queued date changes because the queues are ordered by it
+        job.prioritize(prioritizedAt);
+
+        return add(job);
+    }
+
+    /**
+     * Removes all jobs of the given group from the queue.
+     * @param groupTitle the title of the group.
+     * @return all removed jobs.
+     */
+    Collection<Job> removeGroup(final String groupTitle) {
+        final JobGroupQueue groupQueue = groupQueues.get(groupTitle);
+
+        if (groupQueue == null) {
+            return new ArrayList<>();
+        }
+
+        final Collection<Job> removed = new ArrayList<>(groupQueue.getAllJobs());
+
+        for (final Job job : removed) {
+            remove(job);
+        }
+
+        return removed;
+    }
+
+    /**
+     * @param groupTitle the title of the group.
+     * @return all queued jobs of the group including the prioritized ones.
+     */
+    List<Job> getGroupJobs(final String groupTitle) {
+        final JobGroupQueue groupQueue = groupQueues.get(groupTitle);
+
+        if (groupQueue == null) {
+            return new ArrayList<>();
+        }
+
+        return new ArrayList<>(groupQueue.getAllJobs());
+    }
+
+    /**
+     * @param groupTitle the title of the group.
+     * @param jobID the id of the job.
+     * @return the queued job or null if the job is not queued.
+     */
+    @Nullable
+    Job get(final String groupTitle, final String jobID) {
+        final JobGroupQueue groupQueue = groupQueues.get(groupTitle);
+
+        if (groupQueue == null) {
+            return null;
+        }
+
+        return groupQueue.get(jobID);
+    }
+
+    /**
+     * @param groupTitle the title of the group.
+     * @param jobID the id of the job.
+     * @return whether the job is queued.
+     */
+    boolean contains(final String groupTitle, final String jobID) {
+        return get(groupTitle, jobID) != null;
+    }
+
+    /**
+     * @param groupTitle the title of the group.
+     * @return whether any job (including prioritized ones) of the group is queued.
+     */
+    boolean hasJobs(final String groupTitle) {
+        return groupQueues.containsKey(groupTitle);
+    }
+
+    /**
+     * Returns the next job and removes it from the queue.
+     * Prioritized jobs are always returned before all other jobs.
+     * @return the next job or null if the queue is empty.
+     */
+    @Nullable
+    Job poll() {
+        final Job job = peek();
+
+        if (job != null) {
+            remove(job);
+        }
+
+        return job;
+    }
+
+    /**
+     * Removes up to the given amount of jobs which satisfy the constraints in scheduling order.
+     * Jobs which don't satisfy the constraints keep their position in the queue.
+     * @param amount the maximum amount of jobs removed.
+     * @param constraints the constraints the removed jobs have to satisfy.
+     * @return the removed jobs in scheduling order.
+     */
+    List<Job> poll(final int amount, @NotNull final Predicate<? super Job> constraints) {
+        return poll(amount, group -> true, constraints);
+    }
+
+    /**
+     * Removes up to the given amount of jobs whose group satisfies the group constraints and which satisfy the job
+     * constraints in scheduling order. The groups which don't satisfy the group constraints are skipped as a whole,
+     * so the job constraints are only tested for the jobs of the other groups. Jobs which are not removed keep their
+     * position in the queue.
+     * The groups are visited lazily in the order of the group heap. Groups which are visited are merged by the
+     * position they have after their jobs so far were removed, so the jobs are returned in the same order as if they
+     * were polled one after another. Only the removed jobs change the queue.
+     * @param amount the maximum amount of jobs removed.
+     * @param groupConstraints the constraints the groups of the removed jobs have to satisfy.
+     * @param constraints the constraints the removed jobs have to satisfy.
+     * @return the removed jobs in scheduling order.
+     */
+    List<Job> poll(final int amount, @NotNull final Predicate<? super JobGroup> groupConstraints,
+                   @NotNull final Predicate<? super Job> constraints) {
+        final List<Job> polled = new ArrayList<>();
+
+        for (final Job job : prioritized) {
+            if (polled.size() >= amount) {
+                break;
+            }
+
+            if (groupConstraints.test(job.getGroup()) && constraints.test(job)) {
+                polled.add(job);
+            }
+        }
+
+        // the groups which were visited by their next job which satisfies the constraints
+        final PriorityQueue<GroupCursor> visited = new PriorityQueue<>();
+        final Iterator<JobGroupQueue> groups = activeGroupQueues.ordered().iterator();
+        JobGroupQueue nextGroup = nextGroup(groups, groupConstraints);
+
+        while (polled.size() < amount) {
+            final GroupCursor first = visited.peek();
+
+            // a group which was not visited yet comes before the visited ones if its next job comes first
+            if (nextGroup != null && (first == null || groupComparator.compare(nextGroup.getGroup(),
+                    nextGroup.peek(), first.getGroup(), first.getNext()) < 0)) {
+                final GroupCursor cursor = new GroupCursor(nextGroup, constraints);
+                if (cursor.getNext() != null) {
+                    visited.add(cursor);
+                }
+
+                nextGroup = nextGroup(groups, groupConstraints);
+                continue;
+            }
+
+            if (first == null) {
+                break;
+            }
+
+            visited.poll();
+            polled.add(first.getNext());
+
+            if (first.advance()) {
+                visited.add(first);
+            }
+        }
+
+        // the queue must not change while the groups are visited
+        for (final Job job : polled) {
+            remove(job);
+        }
+
+        return polled;
+    }
+
+    @Nullable
+    private static JobGroupQueue nextGroup(final Iterator<JobGroupQueue> groups,
+                                           final Predicate<? super JobGroup> groupConstraints) {
+        while (groups.hasNext()) {
+            final JobGroupQueue groupQueue = groups.next();
+
+            if (groupConstraints.test(groupQueue.getGroup())) {
+                return groupQueue;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @return the next job without removing it or null if the queue is empty.
+     */
+    @Nullable
+    Job peek() {
+        if (!prioritized.isEmpty()) {
+            return prioritized.first();
+        }
+
+        final JobGroupQueue groupQueue = activeGroupQueues.peek();
+
+        if (groupQueue == null) {
+            return null;
+        }
+
+        return groupQueue.peek();
+    }
+
+    /**
+     * Gets a part of the jobs which are not prioritized in scheduling order.
+     * @param offset the amount of jobs which are skipped.
+     * @param amount the maximum amount of jobs returned.
+     * @return a list of jobs.
+     */
+    List<Job> getJobs(final long offset, final int amount) {
+        final List<Job> jobs = new ArrayList<>();
+        long toSkip = offset;
+
+        for (final JobGroupQueue groupQueue : activeGroupQueues.ordered()) {
+            if (jobs.size() >= amount) {
+                break;
+            }
+
+            // skip whole groups without iterating over their jobs
+            if (toSkip >= groupQueue.size()) {
+                toSkip -= groupQueue.size();
+                continue;
+            }
+
+            for (final Job job : groupQueue.getJobs()) {
+                if (toSkip > 0) {
+                    toSkip--;
+                } else if (jobs.size() < amount) {
+                    jobs.add(job);
+                } else {
+                    break;
+                }
+            }
+        }
+
+        return jobs;
+    }
+
+    /**
+     * Gets the jobs which are not prioritized and come after the given cursor in scheduling order.
+     * The groups are visited lazily in the order of the group heap and the sorted jobs of each group are streamed
+     * one after another. Only the returned jobs and the groups before the cursor are visited, so the cost does not
+     * depend on the amount of jobs before the cursor.
+     * @param cursor the position after which the jobs start or null to start at the beginning of the queue.
+     * @param amount the maximum amount of jobs returned.
+     * @return a list of jobs.
+     */
+    List<Job> getJobsAfter(@Nullable final JobQueueCursor cursor, final int amount) {
+        return getJobsAfter(cursor, null, amount);
+    }
+
+    /**
+     * Gets the jobs which are not prioritized and come after the given cursor in scheduling order.
+     * If the group of the cursor has no queued jobs left, its position is taken from the given group, so policies
+     * which depend on the weight or the execution times of the group place it correctly.
+     * @param cursor the position after which the jobs start or null to start at the beginning of the queue.
+     * @param cursorGroup the group of the cursor or null if the group is not known anymore. Then only the time sheet
+     *                    stored in the cursor is used.
+     * @param amount the maximum amount of jobs returned.
+     * @return a list of jobs.
+     */
+    List<Job> getJobsAfter(@Nullable final JobQueueCursor cursor, @Nullable final JobGroup cursorGroup,
+                           final int amount) {
+        final List<Job> jobs = new ArrayList<>();
+
+        if (amount <= 0) {
+            return jobs;
+        }
+
+        JobGroupQueue cursorQueue = null;
+
+        if (cursor != null) {
+            final JobGroupQueue groupQueue = groupQueues.get(cursor.getGroupTitle());
+
+            if (groupQueue != null && groupQueue.size() > 0) {
+                cursorQueue = groupQueue;
+                addJobs(jobs, groupQueue.getJobs().tailSet(cursor.toProbeJob(groupQueue.getGroup()), false), amount);
+            } else {
+                // the group has no jobs left in the group heap, so its position is taken from the group if it
+                // is still known or from the cursor.
+                final JobGroup probeGroup;
+                if (groupQueue != null) {
+                    probeGroup = groupQueue.getGroup();
+                } else if (cursorGroup != null && cursorGroup.getTitle().equals(cursor.getGroupTitle())) {
+                    probeGroup = cursorGroup;
+                } else {
+                    probeGroup = new JobGroup(cursor.getGroupTitle(), cursor.getGroupVirtualTime());
+                }
+
+                cursorQueue = new JobGroupQueue(probeGroup);
+                cursorQueue.add(cursor.toProbeJob(probeGroup));
+            }
+        }
+
+        for (final JobGroupQueue groupQueue : activeGroupQueues.ordered()) {
+            if (jobs.size() >= amount) {
+                break;
+            }
+
+            if (cursorQueue == null || activeGroupQueues.comparator().compare(groupQueue, cursorQueue) > 0) {
+                addJobs(jobs, groupQueue.getJobs(), amount);
+            }
+        }
+
+        return jobs;
+    }
+
+    private static void addJobs(final List<Job> jobs, final Iterable<Job> toAdd, final int amount) {
+        for (final Job job : toAdd) {
+            if (jobs.size() >= amount) {
+                return;
+            }
+
+            jobs.add(job);
+        }
+    }
+
+    /**
+     * Gets a part of the prioritized jobs in the order they are dispatched.
+     * @param offset the amount of jobs which are skipped.
+     * @param amount the maximum amount of jobs returned.
+     * @return a list of jobs.
+     */
+    List<Job> getPrioritized(final long offset, final int amount) {
+        final List<Job> jobs = new ArrayList<>();
+        long toSkip = offset;
+
+        for (final Job job : prioritized) {
+            if (toSkip > 0) {
+                toSkip--;
+            } else if (jobs.size() < amount) {
+                jobs.add(job);
+            } else {
+                break;
+            }
+        }
+
+        return jobs;
+    }
+
+    /**
+     * @return the amount of queued jobs which are not prioritized.
+     */
+    int size() {
+        return amtJobs;
+    }
+
+    /**
+     * @return the amount of prioritized jobs.
+     */
+    int prioritizedSize() {
+        return prioritized.size();
+    }
+
+    /**
+     * Orders group queues by the scheduling policy. If the policy doesn't prefer one of the groups the group with
+     * the lower virtual time comes first, so a group doesn't lose every tie because of benchmarking time which
+     * decayed long ago. Groups with the same virtual time are ordered by their next jobs, newest first. The group
+     * title is used to make the order total.
+     */
+    private static class GroupQueueComparator implements Comparator<JobGroupQueue> {
+
+        private final SchedulingPolicy policy;
+
+        GroupQueueComparator(final SchedulingPolicy policy) {
+            this.policy = policy;
+        }
+
+        @Override
+        public int compare(final JobGroupQueue groupQueue1, final JobGroupQueue groupQueue2) {
+            return compare(groupQueue1.getGroup(), groupQueue1.peek(), groupQueue2.getGroup(), groupQueue2.peek());
+        }
+
+        /**
+         * Compares two groups as if their next jobs were the given ones. Groups without a next job come last among
+         * the groups the policy doesn't order.
+         */
+        int compare(final JobGroup group1, final Job next1, final JobGroup group2, final Job next2) {
+            final int groupCompare = policy.compare(group1, group2);
+
+            if (groupCompare != 0) {
+                return groupCompare;
+            }
+
+            if (next1 == null || next2 == null) {
+                return Boolean.compare(next1 == null, next2 == null);
+            }
+
+            final int virtualTimeCompare = Double.compare(group1.getVirtualTime(), group2.getVirtualTime());
+
+            if (virtualTimeCompare != 0) {
+                return virtualTimeCompare;
+            }
+
+            final int queuedCompare = next2.getQueued().compareTo(next1.getQueued());
+
+            if (queuedCompare != 0) {
+                return queuedCompare;
+            }
+
+            final int indexCompare = Integer.compare(next1.getQueuedIndex(), next2.getQueuedIndex());
+
+            if (indexCompare != 0) {
+                return indexCompare;
+            }
+
+            return group1.getTitle().compareTo(group2.getTitle());
+        }
+    }
+
+    /**
+     * The jobs of a group which satisfy the constraints in scheduling order. Cursors are ordered like their groups
+     * would be if the cursor's next job was the next job of the group.
+     */
+    private final class GroupCursor implements Comparable<GroupCursor> {
+
+        private final JobGroup group;
+
+        private final Iterator<Job> jobs;
+
+        private final Predicate<? super Job> constraints;
+
+        private Job next;
+
+        private GroupCursor(final JobGroupQueue groupQueue, final Predicate<? super Job> constraints) {
+            this.group = groupQueue.getGroup();
+            this.jobs = groupQueue.getJobs().iterator();
+            this.constraints = constraints;
+            advance();
+        }
+
+        private JobGroup getGroup() {
+            return group;
+        }
+
+        @Nullable
+        private Job getNext() {
+            return next;
+        }
+
+        /**
+         * Moves to the next job which satisfies the constraints.
+         * @return false if the group has no such job left.
+         */
+        private boolean advance() {
+            while (jobs.hasNext()) {
+                final Job job = jobs.next();
+
+                if (constraints.test(job)) {
+                    next = job;
+                    return true;
+                }
+            }
+
+            next = null;
+            return false;
+        }
+
+        @Override
+        public int compareTo(@NotNull final GroupCursor other) {
+            return groupComparator.compare(group, next, other.group, other.next);
+        }
+    }
+
+}
@@ -0,0 +1,116 @@
+package pacr.webapp_backend.scheduler.services;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Objects;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.springframework.util.StringUtils;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * Marks a position in the job queue. The position is given by the key of the last job that was returned and does not
+ * depend on the amount of jobs before it, so the cursor stays valid while jobs are dispatched or added.
+ */
+@Getter
+@EqualsAndHashCode
+public class JobQueueCursor {
+
+    private static final String SEPARATOR = ".";
+    private static final int AMT_PARTS = 5;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final String groupTitle;
+    private final String jobID;
+    private final LocalDateTime queued;
+    private final int queuedIndex;
+    private final double groupVirtualTime;
+
+    /**
+     * Creates a cursor which points to the position of the given job.
+     * @param job the last job of a page.
+     */
+    public JobQueueCursor(@NotNull final Job job) {
+        Objects.requireNonNull(job, "The job cannot be null.");
+
+        this.groupTitle = job.getJobGroupTitle();
+        this.jobID = job.getJobID();
+        this.queued = job.getQueued();
+        this.queuedIndex = job.getQueuedIndex();
+        this.groupVirtualTime = job.getGroupVirtualTime();
+    }
+
+    private JobQueueCursor(final String groupTitle, final String jobID, final LocalDateTime queued,
+                           final int queuedIndex, final double groupVirtualTime) {
+        this.groupTitle = groupTitle;
+        this.jobID = jobID;
+        this.queued = queued;
+        this.queuedIndex = queuedIndex;
+        this.groupVirtualTime = groupVirtualTime;
+    }
+
+    /**
+     * @return an url-safe string representation of this cursor which can be parsed with {@link #fromToken(String)}.
+     */
+    public String toToken() {
+        return encode(groupTitle) + SEPARATOR + encode(jobID) + SEPARATOR + encode(queued.toString()) + SEPARATOR
+                + queuedIndex + SEPARATOR + encode(Double.toString(groupVirtualTime));
+    }
+
+    /**
+     * Parses a cursor created by {@link #toToken()}.
+     * @param token the string representation of the cursor.
+     * @return the cursor.
+     * @throws IllegalArgumentException if the token is not a valid cursor.
+     */
+    public static JobQueueCursor fromToken(final String token) {
+        if (!StringUtils.hasText(token)) {
+            throw new IllegalArgumentException("The token cannot be null or empty.");
+        }
+
+        final String[] parts = token.split("\\" + SEPARATOR);
+
+        if (parts.length != AMT_PARTS) {
+            throw new IllegalArgumentException("The token is not a valid cursor.");
+        }
+
+        try {
+            final String groupTitle = decode(parts[0]);
+            final String jobID = decode(parts[1]);
+            final LocalDateTime queued = LocalDateTime.parse(decode(parts[2]));
+            final int queuedIndex = Integer.parseInt(parts[3]);
+            final double groupVirtualTime = Double.parseDouble(decode(parts[4]));
+
+            if (!StringUtils.hasText(groupTitle) || !StringUtils.hasText(jobID) || queuedIndex < 0
+                    || Double.isNaN(groupVirtualTime) || groupVirtualTime == Double.POSITIVE_INFINITY) {
+                throw new IllegalArgumentException("The token is not a valid cursor.");
+            }
+
+            return new JobQueueCursor(groupTitle, jobID, queued, queuedIndex, groupVirtualTime);
+        } catch (final DateTimeParseException e) {
+            throw new IllegalArgumentException("The token is not a valid cursor.", e);
+        }
+    }
+
+    /**
+     * @param group the group of the job the cursor points to.
+     * @return a job which is not queued but takes the position the cursor points to.
+     */
+    Job toProbeJob(@NotNull final JobGroup group) {
+        return new Job(jobID, group, queued, queuedIndex);
+    }
+
+    private static String encode(final String value) {
+        return ENCODER.encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(final String value) {
+        return new String(DECODER.decode(value), StandardCharsets.UTF_8);
+    }
+
+}
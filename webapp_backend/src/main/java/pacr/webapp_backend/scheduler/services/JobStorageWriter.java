@@ -0,0 +1,335 @@
+package pacr.webapp_backend.scheduler.services;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * Writes the changes of the in-memory job queue back to the job storage.
+ * Changes are buffered and written asynchronously by a single background thread in the order they were made.
+ * Consecutive changes of the same kind are written together in batches. Jobs are deleted by their group and job id
+ * without loading them from the storage.
+ */
+class JobStorageWriter {
+
+    private static final Logger LOGGER = LogManager.getLogger(JobStorageWriter.class);
+
+    private static final int BATCH_SIZE = 500;
+    private static final long IDLE_THREAD_TIMEOUT_SECONDS = 60;
+
+    private final IJobAccess jobAccess;
+    private final IJobGroupAccess jobGroupAccess;
+
+    private final ThreadPoolExecutor executor;
+
+    // guarded by this
+    private final Queue<Change> pendingChanges;
+    private boolean writeScheduled;
+
+    /**
+     * Creates a new JobStorageWriter.
+     * @param jobAccess the job storage the changes are written to.
+     * @param jobGroupAccess the job group storage deleted groups are removed from.
+     */
+    JobStorageWriter(@NotNull final IJobAccess jobAccess, @NotNull final IJobGroupAccess jobGroupAccess) {
+        Objects.requireNonNull(jobAccess, "The jobAccess cannot be null.");
+        Objects.requireNonNull(jobGroupAccess, "The jobGroupAccess cannot be null.");
+
+        this.jobAccess = jobAccess;
+        this.jobGroupAccess = jobGroupAccess;
+        this.pendingChanges = new ArrayDeque<>();
+        this.writeScheduled = false;
+
+        this.executor = new ThreadPoolExecutor(1, 1, IDLE_THREAD_TIMEOUT_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    final Thread thread = new Thread(runnable, "JobStorageWriter");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Saves the given jobs asynchronously.
+     * @param jobs the jobs which are saved.
+     */
+    synchronized void save(@NotNull final Collection<Job> jobs) {
+        for (final Job job : jobs) {
+            pendingChanges.add(new Change(ChangeType.SAVE, job, job.getGroup()));
+        }
+
+        scheduleWrite();
+    }
+
+    /**
+     * Deletes the given jobs asynchronously.
+     * @param jobs the jobs which are deleted.
+     */
+    synchronized void delete(@NotNull final Collection<Job> jobs) {
+        for (final Job job : jobs) {
+            pendingChanges.add(new Change(ChangeType.DELETE, job, job.getGroup()));
+        }
+
+        scheduleWrite();
+    }
+
+    /**
+     * Stores asynchronously that the given jobs were prioritized.
+     * @param jobs the jobs which were prioritized.
+     */
+    synchronized void prioritize(@NotNull final Collection<Job> jobs) {
+        for (final Job job : jobs) {
+            pendingChanges.add(new Change(ChangeType.PRIORITIZE, job, job.getGroup()));
+        }
+
+        scheduleWrite();
+    }
+
+    /**
+     * Deletes the given group and all of its stored jobs asynchronously.
+     * @param group the group which is deleted.
+     */
+    synchronized void deleteGroup(@NotNull final JobGroup group) {
+        Objects.requireNonNull(group, "The group cannot be null.");
+
+        pendingChanges.add(new Change(ChangeType.DELETE_GROUP, null, group));
+
+        scheduleWrite();
+    }
+
+    private void scheduleWrite() {
+        if (!writeScheduled && !pendingChanges.isEmpty()) {
+            writeScheduled = true;
+            executor.execute(this::writePendingChanges);
+        }
+    }
+
+    /**
+     * Blocks until all changes that were made before this call are written to the job storage.
+     */
+    void flush() {
+        try {
+            executor.submit(this::writePendingChanges).get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (final ExecutionException e) {
+            LOGGER.error("Could not write the pending job changes to the storage.", e);
+        }
+    }
+
+    /**
+     * Writes all pending changes and stops the background thread.
+     */
+    void shutdown() {
+        flush();
+        executor.shutdown();
+    }
+
+    private void writePendingChanges() {
+        while (true) {
+            final List<Change> changes;
+
+            synchronized (this) {
+                if (pendingChanges.isEmpty()) {
+                    writeScheduled = false;
+                    return;
+                }
+
+                changes = new ArrayList<>(pendingChanges);
+                pendingChanges.clear();
+            }
+
+            write(changes);
+        }
+    }
+
+    private void write(final List<Change> changes) {
+        final List<Job> saves = new ArrayList<>();
+        // groups with the same title can exist at the same time if a group was deleted and added again
+        final Map<JobGroup, List<String>> deletes = new IdentityHashMap<>();
+        final List<Job> prioritizations = new ArrayList<>();
+
+        for (final Change change : changes) {
+            switch (change.type) {
+                case SAVE:
+                    writeDeletes(deletes);
+                    writePrioritizations(prioritizations);
+
+                    saves.add(change.job);
+                    if (saves.size() >= BATCH_SIZE) {
+                        writeSaves(saves);
+                    }
+                    break;
+                case DELETE:
+                    writeSaves(saves);
+                    writePrioritizations(prioritizations);
+
+                    deletes.computeIfAbsent(change.group, group -> new ArrayList<>()).add(change.job.getJobID());
+                    break;
+                case PRIORITIZE:
+                    writeSaves(saves);
+                    writeDeletes(deletes);
+
+                    // jobs are updated together if they belong to the same group and were prioritized together
+                    if (!prioritizations.isEmpty() && (prioritizations.get(0).getGroup() != change.group
+                            || !prioritizations.get(0).getQueued().equals(change.job.getQueued())
+                            || prioritizations.size() >= BATCH_SIZE)) {
+                        writePrioritizations(prioritizations);
+                    }
+                    prioritizations.add(change.job);
+                    break;
+                case DELETE_GROUP:
+                    writeSaves(saves);
+                    writeDeletes(deletes);
+                    writePrioritizations(prioritizations);
+
+                    writeGroupDeletion(change.group);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown change type " + change.type);
+            }
+        }
+
+        writeSaves(saves);
+        writeDeletes(deletes);
+        writePrioritizations(prioritizations);
+    }
+
+    private void writeSaves(final List<Job> saves) {
+        if (saves.isEmpty()) {
+            return;
+        }
+
+        try {
+            jobAccess.saveJobs(saves);
+        } catch (final RuntimeException e) {
+            // the in-memory queue stays authoritative. The storage is only needed to restore the queue on startup.
+            LOGGER.error("Could not save {} jobs in the storage.", saves.size(), e);
+
+            if (saves.size() > 1) {
+                saveIndividually(saves);
+            }
+        }
+
+        saves.clear();
+    }
+
+    /**
+     * Saves the jobs of a failed batch one by one, so a single job that violates a constraint (e.g. a job that is
+     * already stored) does not prevent the other jobs of the batch from being saved.
+     */
+    private void saveIndividually(final List<Job> batch) {
+        int amtFailed = 0;
+
+        for (final Job job : batch) {
+            try {
+                jobAccess.saveJob(job);
+            } catch (final RuntimeException e) {
+                amtFailed++;
+            }
+        }
+
+        LOGGER.warn("Saved the failed batch one by one. {} of {} jobs could not be saved.", amtFailed, batch.size());
+    }
+
+    private void writeDeletes(final Map<JobGroup, List<String>> deletes) {
+        for (final Map.Entry<JobGroup, List<String>> entry : deletes.entrySet()) {
+            final JobGroup group = entry.getKey();
+            final List<String> jobIDs = entry.getValue();
+
+            int amtDeleted = 0;
+
+            for (int from = 0; from < jobIDs.size(); from += BATCH_SIZE) {
+                final int to = Math.min(from + BATCH_SIZE, jobIDs.size());
+
+                try {
+                    amtDeleted += jobAccess.deleteJobs(group, jobIDs.subList(from, to));
+                } catch (final RuntimeException e) {
+                    LOGGER.error("Could not delete {} jobs of group '{}' in the storage.", to - from,
+                            group.getTitle(), e);
+                }
+
+                if (jobIDs.size() > BATCH_SIZE) {
+                    LOGGER.info("Deleting jobs of group '{}': {} of {} done.", group.getTitle(), to, jobIDs.size());
+                }
+            }
+
+            LOGGER.debug("Deleted {} stored jobs of group '{}'.", amtDeleted, group.getTitle());
+        }
+
+        deletes.clear();
+    }
+
+    private void writePrioritizations(final List<Job> prioritizations) {
+        if (prioritizations.isEmpty()) {
+            return;
+        }
+
+        final Job first = prioritizations.get(0);
+        final List<String> jobIDs = new ArrayList<>();
+        for (final Job job : prioritizations) {
+            jobIDs.add(job.getJobID());
+        }
+
+        try {
+            jobAccess.prioritizeJobs(first.getGroup(), jobIDs, first.getQueued());
+        } catch (final RuntimeException e) {
+            LOGGER.error("Could not prioritize {} jobs of group '{}' in the storage.", jobIDs.size(),
+                    first.getJobGroupTitle(), e);
+        }
+
+        prioritizations.clear();
+    }
+
+    private void writeGroupDeletion(final JobGroup group) {
+        try {
+            // the jobs reference the group so they have to be deleted before the group
+            final int amtDeleted = jobAccess.deleteAllJobs(group);
+            jobGroupAccess.deleteGroup(group);
+
+            LOGGER.info("Deleted job group '{}' and its {} stored jobs.", group.getTitle(), amtDeleted);
+        } catch (final RuntimeException e) {
+            LOGGER.error("Could not delete job group '{}' in the storage.", group.getTitle(), e);
+        }
+    }
+
+    /**
+     * The kind of a pending change.
+     */
+    private enum ChangeType {
+        SAVE,
+        DELETE,
+        PRIORITIZE,
+        DELETE_GROUP
+    }
+
+    /**
+     * A pending change of a single job or a whole job group.
+     */
+    private static class Change {
+
+        private final ChangeType type;
+        private final Job job;
+        private final JobGroup group;
+
+        Change(final ChangeType type, final Job job, final JobGroup group) {
+            this.type = type;
+            this.job = job;
+            this.group = group;
+        }
+    }
+
+}
@@ -0,0 +1,77 @@
+package pacr.webapp_backend.scheduler.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.util.StringUtils;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * The jobs of a group which a node of the cluster changed in the job storage. The other nodes only read these jobs
+ * from the storage to bring their queues in line with it.
+ */
+@Getter
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+class QueueChange {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private String groupTitle;
+
+    // null if the whole group changed, e.g. because it was removed
+    private List<String> jobIDs;
+
+    /**
+     * Creates a change of the given jobs of a group.
+     * @param groupTitle the title of the group.
+     * @param jobIDs the ids of the changed jobs or null if the whole group changed.
+     */
+    QueueChange(@NotNull final String groupTitle, final Collection<String> jobIDs) {
+        if (!StringUtils.hasText(groupTitle)) {
+            throw new IllegalArgumentException("The group title cannot be null or empty.");
+        }
+
+        this.groupTitle = groupTitle;
+        this.jobIDs = jobIDs == null ? null : new ArrayList<>(jobIDs);
+    }
+
+    /**
+     * @return the change as the payload of a cluster event.
+     */
+    String toPayload() {
+        try {
+            return MAPPER.writeValueAsString(this);
+        } catch (final JsonProcessingException e) {
+            throw new IllegalStateException("The queue change could not be written.", e);
+        }
+    }
+
+    /**
+     * Reads a change from the payload of a cluster event.
+     * @param payload the payload.
+     * @return the change.
+     * @throws IllegalArgumentException if the payload is no queue change.
+     */
+    static QueueChange fromPayload(@NotNull final String payload) {
+        final QueueChange change;
+
+        try {
+            change = MAPPER.readValue(payload, QueueChange.class);
+        } catch (final JsonProcessingException e) {
+            throw new IllegalArgumentException("The payload is no queue change.", e);
+        }
+
+        if (change == null || !StringUtils.hasText(change.groupTitle)) {
+            throw new IllegalArgumentException("The payload is no queue change.");
+        }
+
+        return change;
+    }
+
+}
@@ -0,0 +1,80 @@
+package pacr.webapp_backend.scheduler.services;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable copy of the order of the job queue at one point in time.
+ * Snapshots are published by the scheduler so the queue can be read without blocking the dispatch of jobs.
+ */
+class QueueSnapshot {
+
+    private final long version;
+
+    private final long takenAt;
+
+    private final List<Job> jobs;
+
+    private final List<Job> prioritized;
+
+    /**
+     * Creates a new snapshot.
+     * @param version the version of the queue the snapshot was taken of.
+     * @param takenAt when the snapshot was taken as returned by {@link System#nanoTime()}.
+     * @param jobs the jobs which are not prioritized in scheduling order.
+     * @param prioritized the prioritized jobs in the order they are dispatched.
+     */
+    QueueSnapshot(final long version, final long takenAt, final List<Job> jobs, final List<Job> prioritized) {
+        this.version = version;
+        this.takenAt = takenAt;
+        this.jobs = Collections.unmodifiableList(jobs);
+        this.prioritized = Collections.unmodifiableList(prioritized);
+    }
+
+    /**
+     * @return the version of the queue the snapshot was taken of.
+     */
+    long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return when the snapshot was taken as returned by {@link System#nanoTime()}.
+     */
+    long getTakenAt() {
+        return takenAt;
+    }
+
+    /**
+     * @return the jobs which are not prioritized in scheduling order.
+     */
+    List<Job> getJobs() {
+        return jobs;
+    }
+
+    /**
+     * @return the prioritized jobs in the order they are dispatched.
+     */
+    List<Job> getPrioritized() {
+        return prioritized;
+    }
+
+    /**
+     * Gets a part of the given jobs.
+     * @param jobs the jobs.
+     * @param offset the amount of jobs which are skipped.
+     * @param amount the maximum amount of jobs returned.
+     * @return a view of the jobs.
+     */
+    static List<Job> subList(final List<Job> jobs, final long offset, final int amount) {
+        if (offset >= jobs.size()) {
+            return Collections.emptyList();
+        }
+
+        final int from = (int) offset;
+        final int to = (int) Math.min(jobs.size(), offset + amount);
+
+        return jobs.subList(from, to);
+    }
+
+}
@@ -1,92 +1,680 @@
 package pacr.webapp_backend.scheduler.services;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
+import pacr.webapp_backend.shared.IClusterChannel;
 import pacr.webapp_backend.shared.IJob;
 import pacr.webapp_backend.shared.IJobProvider;
+import pacr.webapp_backend.shared.IJobRevocationListener;
 import pacr.webapp_backend.shared.IJobScheduler;
 import pacr.webapp_backend.shared.IObserver;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.validation.constraints.NotNull;
 
 /**
  * Holds a list of jobs and sorts them according to a scheduling policy.
+ * The queue is kept in memory and all changes are written back to the job storage asynchronously.
+ *
+ * Changes of the queue are only made while holding the queue lock, which is never held during database access.
+ * Changes of a job group (adding or removing jobs, changing its time sheet) are additionally serialized by one
+ * of several striped group locks, so operations on different groups don't wait for each others storage access.
+ * Locks are always acquired in the order group lock, queue lock.
+ * Reading the queue uses an immutable snapshot which is only rebuilt after the queue changed. A snapshot may be
+ * served for a short time after the queue changed, so frequent reads don't take the queue lock for every job which was
+ * dispatched meanwhile. Only one reader rebuilds the snapshot at a time, the others read the previous one. Observers and
+ * revocation listeners are notified without holding any lock.
+ *
+ * Jobs which were handed out stay in the job storage as dispatched until their result is saved, so they are queued
+ * again after a restart.
+ *
+ * In a cluster every node keeps a copy of the shared queue. A job is only handed out after the node claimed it in the
+ * job storage, so a job which several nodes took from their queues at the same time runs on one node only. The
+ * nodes tell each other which jobs they changed and only read these jobs from the job storage to synchronize their
+ * copies. The whole job storage is only read when a node left the cluster.
  */
 @Component
 public class Scheduler implements IJobProvider, IJobScheduler {
 
     private static final Logger LOGGER = LogManager.getLogger(Scheduler.class);
 
-    private static final String CRON_DAILY = "0 0 0 * * *";
+    private static final int AMT_GROUP_LOCKS = 32;
 
-    private static final Object groupLock = new Object();
+    // how often the jobs which other nodes claimed first are replaced before fewer jobs are returned
+    private static final int MAX_CLAIM_ATTEMPTS = 3;
 
-    private final DynamicPriorityQueue<JobGroup> groupQueue;
+    private final Object queueLock;
+
+    private final Object[] groupLocks;
+
+    // guarded by queueLock
+    private final JobQueue jobQueue;
+
+    // the dispatched jobs by their group title and job id. Guarded by queueLock
+    private final Map<String, Map<String, Job>> dispatchedJobs;
+
+    // only changed while holding queueLock
+    private volatile long queueVersion;
+
+    private volatile QueueSnapshot snapshot;
+
+    // only one reader rebuilds the snapshot at a time
+    private final Lock snapshotLock;
+
+    // how long a snapshot is read after the queue changed in nanoseconds
+    private final long snapshotMaxAge;
 
     private final Map<String, JobGroup> groups;
 
     private final Collection<IObserver> observers;
 
+    private final Collection<IJobRevocationListener> revocationListeners;
+
     private final IJobAccess jobAccess;
     private final IJobGroupAccess jobGroupAccess;
 
+    private final JobStorageWriter storageWriter;
+
+    private final Duration halfLife;
+    private final Map<String, Double> weights;
+
+    private final Clock clock;
+
+    private final SchedulerMetrics metrics;
+
+    // null if the queue is not shared with other nodes
+    private volatile IClusterChannel cluster;
+    private volatile IJobClaimAccess claimAccess;
+
     /**
-     * Creates a new scheduler and sets the used scheduling policy.
+     * Creates a new scheduler which uses the default scheduling policy.
      *
      * @param jobAccess the access interface to store and retrieve jobs.
      * @param jobGroupAccess the access interface to retrieve job groups.
      */
     public Scheduler(final IJobAccess jobAccess, final IJobGroupAccess jobGroupAccess) {
+        this(jobAccess, jobGroupAccess, new GroupSchedulingAlgorithm());
+    }
+
+    /**
+     * Creates a new scheduler and sets the used scheduling policy. The benchmarking time of the job groups decays
+     * with the default half-life and all groups have the same weight.
+     *
+     * @param jobAccess the access interface to store and retrieve jobs.
+     * @param jobGroupAccess the access interface to retrieve job groups.
+     * @param policy the policy which decides which job group runs its next job first.
+     */
+    public Scheduler(final IJobAccess jobAccess, final IJobGroupAccess jobGroupAccess,
+                     @NotNull final SchedulingPolicy policy) {
+        this(jobAccess, jobGroupAccess, policy, JobGroup.DEFAULT_HALF_LIFE.getSeconds(), Map.of());
+    }
+
+    /**
+     * Creates a new scheduler and sets the used scheduling policy, the half-life of the benchmarking time of the
+     * job groups and their weights.
+     *
+     * @param jobAccess the access interface to store and retrieve jobs.
+     * @param jobGroupAccess the access interface to retrieve job groups.
+     * @param policy the policy which decides which job group runs its next job first.
+     * @param halfLife the half-life of the benchmarking time in seconds. (> 0)
+     * @param weights the weights of the job groups by their title. Groups without a weight keep their stored
+     *                weight. The weights must be positive.
+     */
+    public Scheduler(final IJobAccess jobAccess, final IJobGroupAccess jobGroupAccess,
+                     @NotNull final SchedulingPolicy policy, final long halfLife,
+                     @NotNull final Map<String, Double> weights) {
+        this(jobAccess, jobGroupAccess, policy, halfLife, weights, Clock.systemDefaultZone());
+    }
+
+    /**
+     * Creates a new scheduler and sets the used scheduling policy, the half-life of the benchmarking time of the
+     * job groups, their weights and how long a snapshot of the queue is read after the queue changed.
+     *
+     * @param jobAccess the access interface to store and retrieve jobs.
+     * @param jobGroupAccess the access interface to retrieve job groups.
+     * @param policy the policy which decides which job group runs its next job first.
+     * @param halfLife the half-life of the benchmarking time in seconds. (> 0)
+     * @param weights the weights of the job groups by their title. Groups without a weight keep their stored
+     *                weight. The weights must be positive.
+     * @param snapshotMaxAge how long a snapshot of the queue is read after the queue changed in milliseconds. (>= 0)
+     */
+    @Autowired
+    public Scheduler(final IJobAccess jobAccess, final IJobGroupAccess jobGroupAccess,
+                     @NotNull final SchedulingPolicy policy, @Value("${schedulingHalfLife}") final long halfLife,
+                     @NotNull @Value("#{${schedulingWeights}}") final Map<String, Double> weights,
+                     @Value("${queueSnapshotMaxAge}") final long snapshotMaxAge) {
+        this(jobAccess, jobGroupAccess, policy, halfLife, weights, Clock.systemDefaultZone(), snapshotMaxAge);
+    }
+
+    /**
+     * Creates a new scheduler which takes the time from the given clock. The time is used as the queued date of new
+     * jobs and to decay the benchmarking time of the job groups.
+     *
+     * @param jobAccess the access interface to store and retrieve jobs.
+     * @param jobGroupAccess the access interface to retrieve job groups.
+     * @param policy the policy which decides which job group runs its next job first.
+     * @param halfLife the half-life of the benchmarking time in seconds. (> 0)
+     * @param weights the weights of the job groups by their title. Groups without a weight keep their stored
+     *                weight. The weights must be positive.
+     * @param clock the clock.
+     */
+    public Scheduler(final IJobAccess jobAccess, final IJobGroupAccess jobGroupAccess,
+                     @NotNull final SchedulingPolicy policy, final long halfLife,
+                     @NotNull final Map<String, Double> weights, @NotNull final Clock clock) {
+        this(jobAccess, jobGroupAccess, policy, halfLife, weights, clock, 0);
+    }
+
+    /**
+     * Creates a new scheduler which takes the time from the given clock and reads snapshots of the queue for the
+     * given time after the queue changed.
+     *
+     * @param jobAccess the access interface to store and retrieve jobs.
+     * @param jobGroupAccess the access interface to retrieve job groups.
+     * @param policy the policy which decides which job group runs its next job first.
+     * @param halfLife the half-life of the benchmarking time in seconds. (> 0)
+     * @param weights the weights of the job groups by their title. Groups without a weight keep their stored
+     *                weight. The weights must be positive.
+     * @param clock the clock.
+     * @param snapshotMaxAge how long a snapshot of the queue is read after the queue changed in milliseconds. (>= 0)
+     */
+    public Scheduler(final IJobAccess jobAccess, final IJobGroupAccess jobGroupAccess,
+                     @NotNull final SchedulingPolicy policy, final long halfLife,
+                     @NotNull final Map<String, Double> weights, @NotNull final Clock clock,
+                     final long snapshotMaxAge) {
+        Objects.requireNonNull(policy, "The policy cannot be null.");
+        Objects.requireNonNull(weights, "The weights cannot be null.");
+        Objects.requireNonNull(clock, "The clock cannot be null.");
+        if (halfLife <= 0) {
+            throw new IllegalArgumentException("The half-life must be positive.");
+        }
+        if (snapshotMaxAge < 0) {
+            throw new IllegalArgumentException("The maximum age of the snapshot cannot be negative.");
+        }
+        for (final Map.Entry<String, Double> weight : weights.entrySet()) {
+            if (weight.getValue() == null || !(weight.getValue() > 0)) {
+                throw new IllegalArgumentException("The weight of '" + weight.getKey() + "' must be positive.");
+            }
+        }
+
+        this.halfLife = Duration.ofSeconds(halfLife);
+        this.weights = new HashMap<>(weights);
+        this.clock = clock;
+        this.metrics = new SchedulerMetrics();
+
         this.jobAccess = jobAccess;
         this.jobGroupAccess = jobGroupAccess;
 
-        this.groupQueue = new DynamicPriorityQueue<>(new GroupSchedulingAlgorithm());
+        this.queueLock = new Object();
+        this.groupLocks = new Object[AMT_GROUP_LOCKS];
+        for (int i = 0; i < AMT_GROUP_LOCKS; i++) {
+            groupLocks[i] = new Object();
+        }
+
+        this.jobQueue = new JobQueue(policy);
+        this.dispatchedJobs = new HashMap<>();
+        this.queueVersion = 0;
+        this.snapshotLock = new ReentrantLock();
+        this.snapshotMaxAge = TimeUnit.MILLISECONDS.toNanos(snapshotMaxAge);
+        this.storageWriter = new JobStorageWriter(jobAccess, jobGroupAccess);
+
+        this.groups = new ConcurrentHashMap<>();
 
-        this.groups = new HashMap<>();
+        this.observers = new CopyOnWriteArrayList<>();
+        this.revocationListeners = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Shares the job queue with the other nodes of the cluster if the channel is clustered. Must be called before
+     * the jobs are loaded from the storage.
+     *
+     * @param cluster the channel to the other nodes.
+     * @param claimAccess the access interface to the claims of the stored jobs.
+     */
+    @Autowired(required = false)
+    public void setCluster(@NotNull final IClusterChannel cluster, @NotNull final IJobClaimAccess claimAccess) {
+        Objects.requireNonNull(cluster, "The cluster cannot be null.");
+        Objects.requireNonNull(claimAccess, "The claimAccess cannot be null.");
+
+        if (!cluster.isClustered()) {
+            return;
+        }
 
-        this.observers = new ArrayList<>();
+        this.claimAccess = claimAccess;
+        this.cluster = cluster;
     }
 
     @PostConstruct
     void loadJobsFromStorage() {
+        final IClusterChannel currentCluster = cluster;
+        if (currentCluster != null) {
+            // the jobs which this node claimed before it was restarted are interrupted like the dispatched jobs
+            claimAccess.releaseAllJobs(currentCluster.getNodeId());
+        }
+
         for (final JobGroup group : jobGroupAccess.findAllJobGroups()) {
-            groupQueue.add(group);
+            configureGroup(group);
             groups.put(group.getTitle(), group);
         }
+
+        final Collection<Job> storedJobs = new ArrayList<>(jobAccess.findJobs());
+        storedJobs.addAll(jobAccess.findPrioritized());
+
+        // the jobs which other nodes claimed run on their benchmarkers
+        storedJobs.removeIf(job -> job.getClaimedBy() != null);
+
+        final List<Job> interruptedJobs = new ArrayList<>();
+        final LocalDateTime now = LocalDateTime.now(clock);
+
+        for (final Job job : storedJobs) {
+            // all jobs of a group have to share the same group instance so time sheet changes apply to them
+            job.setGroup(addGroup(job.getJobGroupTitle()));
+
+            // the benchmarkers of dispatched jobs are unknown after a restart, so the jobs are queued again
+            if (job.isDispatched()) {
+                job.requeue(now);
+                interruptedJobs.add(job);
+            }
+        }
+
+        synchronized (queueLock) {
+            final long lockedAt = System.nanoTime();
+            try {
+                for (final Job job : storedJobs) {
+                    jobQueue.add(job);
+                }
+                queueChanged();
+
+                storageWriter.save(interruptedJobs);
+
+                LOGGER.info("Loaded {} jobs and {} prioritized jobs from the storage. {} of them were dispatched.",
+                        jobQueue.size(), jobQueue.prioritizedSize(), interruptedJobs.size());
+            } finally {
+                metrics.queueLockReleased(lockedAt);
+            }
+        }
+
+        if (currentCluster != null) {
+            subscribeToCluster(currentCluster);
+        }
     }
 
+    private void subscribeToCluster(final IClusterChannel currentCluster) {
+        currentCluster.subscribe(IClusterChannel.JOBS_TOPIC, payload -> {
+            final QueueChange change;
+            try {
+                change = QueueChange.fromPayload(payload);
+            } catch (final IllegalArgumentException e) {
+                // nodes of an older version don't tell which jobs changed
+                LOGGER.warn("Could not read a change of the queue. The whole queue is synchronized.", e);
+                synchronizeWithStorage();
+                return;
+            }
+
+            synchronizeWithStorage(change);
+        });
+        currentCluster.subscribe(IClusterChannel.NODE_LEFT_TOPIC, nodeId -> {
+            // the jobs of this node keep running even if the other nodes thought it left
+            if (!nodeId.equals(currentCluster.getNodeId())) {
+                final int amtReleased = claimAccess.releaseAllJobs(nodeId);
+                LOGGER.info("Released {} jobs of node '{}'.", amtReleased, nodeId);
+            }
+
+            synchronizeWithStorage();
+        });
+    }
+
+    /**
+     * Brings the queue in line with the job storage which is shared with the other nodes of the cluster. Stored jobs
+     * which no node claimed are queued, while queued jobs which other nodes claimed or removed are removed from the
+     * queue. Groups which other nodes removed are removed as well.
+     *
+     * The whole storage is read, so this is only done when a node left the cluster. Other changes are applied with
+     * {@link #synchronizeWithStorage(QueueChange)}.
+     */
+    void synchronizeWithStorage() {
+        final IClusterChannel currentCluster = cluster;
+
+        if (currentCluster == null) {
+            return;
+        }
+
+        final LocalDateTime started = LocalDateTime.now(clock);
+
+        // new groups are stored before they are known, so known groups which are not stored were removed
+        final Map<String, JobGroup> knownGroups = new HashMap<>(groups);
+
+        storageWriter.flush();
+
+        final Set<String> storedGroupTitles = new HashSet<>();
+        for (final JobGroup group : jobGroupAccess.findAllJobGroups()) {
+            storedGroupTitles.add(group.getTitle());
+        }
+
+        final List<Job> storedJobs = new ArrayList<>(jobAccess.findJobs());
+        storedJobs.addAll(jobAccess.findPrioritized());
+
+        for (final JobGroup group : knownGroups.values()) {
+            if (!storedGroupTitles.contains(group.getTitle())) {
+                removeRemovedGroup(group);
+            }
+        }
+
+        applyStoredJobs(storedJobs, () -> {
+            final List<Job> queuedJobs = jobQueue.getJobs(0, jobQueue.size());
+            queuedJobs.addAll(jobQueue.getPrioritized(0, jobQueue.prioritizedSize()));
+            return queuedJobs;
+        }, started, currentCluster);
+    }
+
+    /**
+     * Brings the jobs which another node of the cluster changed in line with the job storage. Only the changed jobs
+     * are read from the storage. If the whole group changed, the group is removed if it is no longer stored and all
+     * of its jobs are read otherwise.
+     * @param change the change of the other node.
+     */
+    void synchronizeWithStorage(@NotNull final QueueChange change) {
+        final IClusterChannel currentCluster = cluster;
+
+        if (currentCluster == null) {
+            return;
+        }
+
+        final LocalDateTime started = LocalDateTime.now(clock);
+        final String groupTitle = change.getGroupTitle();
+
+        // new groups are stored before they are known, so a known group which is not stored was removed
+        final JobGroup knownGroup = getGroup(groupTitle);
+
+        storageWriter.flush();
+
+        if (change.getJobIDs() == null) {
+            if (knownGroup != null && jobGroupAccess.findJobGroup(groupTitle) == null) {
+                removeRemovedGroup(knownGroup);
+                return;
+            }
+
+            applyStoredJobs(jobAccess.findAllJobs(groupTitle), () -> jobQueue.getGroupJobs(groupTitle), started,
+                    currentCluster);
+        } else if (!change.getJobIDs().isEmpty()) {
+            applyStoredJobs(jobAccess.findJobs(groupTitle, change.getJobIDs()), () -> {
+                final List<Job> queuedJobs = new ArrayList<>();
+                for (final String jobID : change.getJobIDs()) {
+                    final Job queuedJob = jobQueue.get(groupTitle, jobID);
+
+                    if (queuedJob != null) {
+                        queuedJobs.add(queuedJob);
+                    }
+                }
+                return queuedJobs;
+            }, started, currentCluster);
+        }
+    }
+
+    /**
+     * Brings the queue in line with the given stored jobs. Stored jobs which no node claimed are queued, while queued
+     * jobs which other nodes claimed or removed are removed from the queue.
+     * @param storedJobs the jobs which were read from the storage.
+     * @param queuedJobs gets the queued jobs which are removed if they are not among the stored jobs. It is called
+     *                   while holding the queue lock.
+     * @param started the time the storage was read. Jobs which were queued later may not be stored yet.
+     */
+    private void applyStoredJobs(final Collection<Job> storedJobs, final Supplier<List<Job>> queuedJobs,
+                                 final LocalDateTime started, final IClusterChannel currentCluster) {
+        final Map<String, Set<String>> storedJobIDs = new HashMap<>();
+        for (final Job job : storedJobs) {
+            storedJobIDs.computeIfAbsent(job.getJobGroupTitle(), title -> new HashSet<>()).add(job.getJobID());
+
+            // the jobs of groups which other nodes added use the stored group
+            if (job.getClaimedBy() == null && !groups.containsKey(job.getJobGroupTitle())) {
+                synchronized (getGroupLock(job.getJobGroupTitle())) {
+                    if (!groups.containsKey(job.getJobGroupTitle())) {
+                        configureGroup(job.getGroup());
+                        groups.put(job.getJobGroupTitle(), job.getGroup());
+                    }
+                }
+            }
+        }
+
+        int amtAdded = 0;
+        int amtRemoved = 0;
+        int amtPrioritized = 0;
+
+        synchronized (queueLock) {
+            final long lockedAt = System.nanoTime();
+            try {
+                for (final Job storedJob : storedJobs) {
+                    final String groupTitle = storedJob.getJobGroupTitle();
+                    final Job queuedJob = jobQueue.get(groupTitle, storedJob.getJobID());
+
+                    if (storedJob.getClaimedBy() != null) {
+                        if (queuedJob != null && !storedJob.getClaimedBy().equals(currentCluster.getNodeId())
+                                && jobQueue.remove(queuedJob)) {
+                            amtRemoved++;
+                        }
+                    } else if (queuedJob == null) {
+                        final JobGroup group = getGroup(groupTitle);
+
+                        if (group != null && !isDispatched(groupTitle, storedJob.getJobID())) {
+                            // all jobs of a group have to share the same group instance
+                            storedJob.setGroup(group);
+                            jobQueue.add(storedJob);
+                            amtAdded++;
+                        }
+                    } else if (storedJob.isPrioritized() && !queuedJob.isPrioritized()
+                            && jobQueue.prioritize(queuedJob, storedJob.getQueued())) {
+                        amtPrioritized++;
+                    }
+                }
+
+                // jobs which were queued after the storage was read may not be stored yet
+                for (final Job queuedJob : queuedJobs.get()) {
+                    final Set<String> jobIDsOfGroup = storedJobIDs.get(queuedJob.getJobGroupTitle());
+
+                    if ((jobIDsOfGroup == null || !jobIDsOfGroup.contains(queuedJob.getJobID()))
+                            && queuedJob.getQueued().isBefore(started) && jobQueue.remove(queuedJob)) {
+                        amtRemoved++;
+                    }
+                }
+
+                if (amtAdded + amtRemoved + amtPrioritized > 0) {
+                    queueChanged();
+                }
+            } finally {
+                metrics.queueLockReleased(lockedAt);
+            }
+        }
+
+        LOGGER.debug("Synchronized the queue with the storage. Added {} jobs and removed {} jobs.", amtAdded,
+                amtRemoved);
+
+        // the new jobs may be given to the free benchmarkers
+        if (amtAdded > 0) {
+            updateAll();
+        }
+    }
+
+    /**
+     * Removes a group which another node removed from the storage, unless the group was added again meanwhile.
+     */
+    private void removeRemovedGroup(final JobGroup group) {
+        final String groupTitle = group.getTitle();
+
+        synchronized (getGroupLock(groupTitle)) {
+            if (groups.get(groupTitle) != group) {
+                return;
+            }
+
+            groups.remove(groupTitle);
+
+            synchronized (queueLock) {
+                final long lockedAt = System.nanoTime();
+                try {
+                    jobQueue.removeGroup(groupTitle);
+                    dispatchedJobs.remove(groupTitle);
+                    queueChanged();
+                } finally {
+                    metrics.queueLockReleased(lockedAt);
+                }
+            }
+        }
+
+        LOGGER.info("Removed job group '{}' which was removed by another node.", groupTitle);
+
+        notifyJobsRemoved(groupTitle, null);
+    }
+
+    /**
+     * Must be called while holding the queue lock after the queue was changed.
+     */
+    private void queueChanged() {
+        queueVersion++;
+    }
+
+    private Object getGroupLock(@NotNull final String groupTitle) {
+        return groupLocks[Math.floorMod(groupTitle.hashCode(), AMT_GROUP_LOCKS)];
+    }
+
+    /**
+     * @return a snapshot of the queue. The snapshot is only rebuilt if the queue changed since the last one and the
+     *         last one is older than the maximum age. While another reader rebuilds the snapshot the last one is
+     *         returned.
+     */
+    private QueueSnapshot getSnapshot() {
+        final QueueSnapshot current = snapshot;
+
+        if (isUsable(current)) {
+            return current;
+        }
+
+        if (!snapshotLock.tryLock()) {
+            if (current != null) {
+                return current;
+            }
+            snapshotLock.lock();
+        }
+
+        try {
+            final QueueSnapshot rebuilt = snapshot;
+            if (rebuilt != current && isUsable(rebuilt)) {
+                // another reader rebuilt the snapshot while this one waited for the first snapshot
+                return rebuilt;
+            }
+
+            synchronized (queueLock) {
+                final long lockedAt = System.nanoTime();
+                try {
+                    final QueueSnapshot next = new QueueSnapshot(queueVersion, lockedAt,
+                            jobQueue.getJobs(0, jobQueue.size()),
+                            jobQueue.getPrioritized(0, jobQueue.prioritizedSize()));
+                    snapshot = next;
+                    return next;
+                } finally {
+                    metrics.queueLockReleased(lockedAt);
+                }
+            }
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    private boolean isUsable(final QueueSnapshot current) {
+        return current != null && (current.getVersion() == queueVersion
+                || System.nanoTime() - current.getTakenAt() < snapshotMaxAge);
+    }
+
+    /**
+     * Writes all pending changes of the job queue to the job storage and stops the background writer.
+     */
+    @PreDestroy
+    void shutdown() {
+        storageWriter.shutdown();
+
+        final IClusterChannel currentCluster = cluster;
+        if (currentCluster != null) {
+            try {
+                // the benchmarkers of this node lose their jobs, so the other nodes may hand them out
+                claimAccess.releaseAllJobs(currentCluster.getNodeId());
+            } catch (final RuntimeException e) {
+                LOGGER.error("Could not release the jobs of this node.", e);
+            }
+        }
+    }
+
+    /**
+     * Blocks until all changes of the job queue made before this call are written to the job storage.
+     */
+    public void flushJobStorage() {
+        storageWriter.flush();
+    }
+
+    /**
+     * Gets the group with the given title and creates it if it doesn't exist yet.
+     * Must be called while holding the group lock of the title (or during construction).
+     */
     private JobGroup addGroup(@NotNull final String groupTitle) {
-        final JobGroup group;
-        if (!containsGroup(groupTitle)) {
+        JobGroup group = groups.get(groupTitle);
+
+        // another node of the cluster may have stored the group already
+        if (group == null && cluster != null) {
+            group = jobGroupAccess.findJobGroup(groupTitle);
+
+            if (group != null) {
+                configureGroup(group);
+                groups.put(groupTitle, group);
+            }
+        }
+
+        if (group == null) {
             group = new JobGroup(groupTitle);
+            configureGroup(group);
+            // the group is saved before any of its jobs because the jobs reference it
             jobGroupAccess.saveJobGroup(group);
             groups.put(groupTitle, group);
-            groupQueue.add(group);
-        } else {
-            group = groups.get(groupTitle);
         }
 
         return group;
     }
 
+    /**
+     * Sets the half-life and the configured weight of a group before it is queued.
+     */
+    private void configureGroup(final JobGroup group) {
+        group.setHalfLife(halfLife);
+
+        final Double weight = weights.get(group.getTitle());
+        if (weight != null) {
+            group.setWeight(weight);
+        }
+    }
+
     private boolean containsGroup(@NotNull final String groupTitle) {
         return groups.containsKey(groupTitle);
     }
@@ -97,37 +685,483 @@ public class Scheduler implements IJobProvider, IJobScheduler {
 
     @Override
     public IJob popJob() {
-        synchronized (groupLock) {
-            Job job = null;
+        if (cluster != null) {
+            final List<IJob> jobs = takeJobs(1, group -> true, job -> true, null);
+
+            return jobs.isEmpty() ? null : jobs.get(0);
+        }
+
+        final long started = System.nanoTime();
+
+        synchronized (queueLock) {
+            final long lockedAt = System.nanoTime();
+            try {
+                final Job job = jobQueue.poll();
+
+                if (job != null) {
+                    queueChanged();
+                    markDispatched(List.of(job));
+                }
+
+                return job;
+            } finally {
+                metrics.queueLockReleased(lockedAt);
+                metrics.popFinished(started);
+            }
+        }
+    }
+
+    @Override
+    public List<IJob> popJobs(final int amount, @NotNull final Predicate<IJob> constraints) {
+        Objects.requireNonNull(constraints, "The constraints cannot be null.");
+
+        return takeJobs(amount, group -> true, constraints, null);
+    }
+
+    @Override
+    public List<IJob> popJobs(final int amount, @NotNull final String hardwareClass,
+                              @NotNull final Predicate<IJob> constraints) {
+        Objects.requireNonNull(hardwareClass, "The hardware class cannot be null.");
+        Objects.requireNonNull(constraints, "The constraints cannot be null.");
+
+        // the groups of other hardware classes are skipped without looking at their jobs
+        return takeJobs(amount, group -> group.acceptsHardwareClass(hardwareClass), constraints, hardwareClass);
+    }
+
+    /**
+     * Takes the jobs whose groups satisfy the group constraints and which satisfy the constraints from the queue.
+     * @param hardwareClass the hardware class the groups of the jobs are bound to. Null if the groups are not bound.
+     */
+    private List<IJob> takeJobs(final int amount, final Predicate<? super JobGroup> groupConstraints,
+                                final Predicate<? super Job> constraints, final String hardwareClass) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("The amount cannot be negative.");
+        }
+
+        if (amount == 0) {
+            return new ArrayList<>();
+        }
+
+        final long started = System.nanoTime();
+        final Set<JobGroup> boundGroups = new HashSet<>();
+        final List<IJob> poppedJobs = new ArrayList<>();
+        final IClusterChannel currentCluster = cluster;
+
+        if (currentCluster == null) {
+            poppedJobs.addAll(pollJobs(amount, groupConstraints, constraints, hardwareClass, boundGroups, started));
+        } else {
+            // jobs which another node claimed first are replaced by the next jobs of the queue
+            boolean claimsLost = true;
+
+            for (int attempt = 0; attempt < MAX_CLAIM_ATTEMPTS && claimsLost && poppedJobs.size() < amount;
+                 attempt++) {
+                final List<Job> jobs = pollJobs(amount - poppedJobs.size(), groupConstraints, constraints, null,
+                        boundGroups, started);
+                final List<Job> claimedJobs = claimJobs(jobs, currentCluster);
 
-            final Collection<Job> prioritized = jobAccess.findPrioritized();
-            final Page<Job> jobsPage = getJobsQueue(PageRequest.of(0, 1));
+                // only the groups of claimed jobs are bound, since the other jobs run on other benchmarkers
+                bindGroups(claimedJobs, hardwareClass, boundGroups);
+
+                claimsLost = claimedJobs.size() < jobs.size();
+                poppedJobs.addAll(claimedJobs);
+            }
+        }
 
-            if (prioritized.isEmpty()) {
-                List<Job> jobs = jobsPage.getContent();
+        for (final JobGroup group : boundGroups) {
+            LOGGER.info("The jobs of '{}' run on the hardware class '{}'.", group.getTitle(), hardwareClass);
+            jobGroupAccess.saveJobGroup(group);
+        }
+
+        return poppedJobs;
+    }
+
+    /**
+     * Takes the jobs whose groups satisfy the group constraints and which satisfy the constraints from the queue and
+     * marks them as dispatched.
+     * @param hardwareClass the hardware class the groups of the jobs are bound to. Null if the groups are not bound.
+     * @param boundGroups the groups which were bound to the hardware class are added to it.
+     */
+    private List<Job> pollJobs(final int amount, final Predicate<? super JobGroup> groupConstraints,
+                               final Predicate<? super Job> constraints, final String hardwareClass,
+                               final Set<JobGroup> boundGroups, final long started) {
+        synchronized (queueLock) {
+            final long lockedAt = System.nanoTime();
+            try {
+                final List<Job> jobs = jobQueue.poll(amount, groupConstraints, constraints);
 
                 if (!jobs.isEmpty()) {
-                    job = jobs.get(0);
+                    queueChanged();
+                    markDispatched(jobs);
                 }
+
+                if (hardwareClass != null) {
+                    bindGroups(jobs, hardwareClass, boundGroups);
+                }
+
+                return jobs;
+            } finally {
+                metrics.queueLockReleased(lockedAt);
+                metrics.popFinished(started);
+            }
+        }
+    }
+
+    /**
+     * Binds the groups of the jobs which are not bound yet to the hardware class.
+     * @param hardwareClass the hardware class or null if the groups are not bound.
+     * @param boundGroups the groups which were bound are added to it.
+     */
+    private void bindGroups(final List<Job> jobs, final String hardwareClass, final Set<JobGroup> boundGroups) {
+        if (hardwareClass == null || jobs.isEmpty()) {
+            return;
+        }
+
+        // the constraints of other threads read the hardware classes while holding the queue lock
+        synchronized (queueLock) {
+            for (final Job job : jobs) {
+                if (job.getGroup().getHardwareClass() == null) {
+                    job.getGroup().setHardwareClass(hardwareClass);
+                    boundGroups.add(job.getGroup());
+                }
+            }
+        }
+    }
+
+    /**
+     * Claims the jobs which were taken from the queue in the job storage. The jobs which another node claimed first
+     * or which are no longer stored are not dispatched by this node.
+     * @return the claimed jobs.
+     */
+    private List<Job> claimJobs(final List<Job> jobs, final IClusterChannel currentCluster) {
+        if (jobs.isEmpty()) {
+            return jobs;
+        }
+
+        // jobs which were added by this node can only be claimed after they were stored
+        storageWriter.flush();
+
+        // groups with the same title can exist at the same time if a group was deleted and added again
+        final Map<JobGroup, List<String>> jobIDsByGroup = new IdentityHashMap<>();
+        for (final Job job : jobs) {
+            jobIDsByGroup.computeIfAbsent(job.getGroup(), group -> new ArrayList<>()).add(job.getJobID());
+        }
+
+        final Map<JobGroup, Collection<String>> claimedIDsByGroup = new IdentityHashMap<>();
+        for (final Map.Entry<JobGroup, List<String>> entry : jobIDsByGroup.entrySet()) {
+            try {
+                claimedIDsByGroup.put(entry.getKey(), new HashSet<>(claimAccess.claimJobs(entry.getKey(),
+                        entry.getValue(), currentCluster.getNodeId())));
+            } catch (final RuntimeException e) {
+                // the jobs are queued again when the queue is synchronized with the storage
+                LOGGER.error("Could not claim {} jobs of group '{}'.", entry.getValue().size(),
+                        entry.getKey().getTitle(), e);
+            }
+        }
+
+        final List<Job> claimedJobs = new ArrayList<>();
+        final List<Job> lostJobs = new ArrayList<>();
+        for (final Job job : jobs) {
+            if (claimedIDsByGroup.getOrDefault(job.getGroup(), Set.of()).contains(job.getJobID())) {
+                claimedJobs.add(job);
             } else {
-                job = prioritized.stream().findFirst().orElse(null);
+                lostJobs.add(job);
+            }
+        }
+
+        if (!lostJobs.isEmpty()) {
+            synchronized (queueLock) {
+                final long lockedAt = System.nanoTime();
+                try {
+                    for (final Job job : lostJobs) {
+                        removeDispatched(job.getJobGroupTitle(), job.getJobID());
+                    }
+                } finally {
+                    metrics.queueLockReleased(lockedAt);
+                }
+            }
+
+            LOGGER.info("{} of {} jobs were claimed by other nodes.", lostJobs.size(), jobs.size());
+        }
+
+        // the other nodes remove the claimed jobs from their queues
+        publishJobsChanged(claimedJobs, currentCluster);
+
+        return claimedJobs;
+    }
+
+    /**
+     * Stores the changes of the queue and tells the other nodes of the cluster which jobs of the group changed.
+     * @param jobIDs the ids of the changed jobs or null if the whole group changed.
+     */
+    private void publishQueueChanged(final String groupTitle, final Collection<String> jobIDs) {
+        final IClusterChannel currentCluster = cluster;
+
+        if (currentCluster != null) {
+            storageWriter.flush();
+            currentCluster.publish(IClusterChannel.JOBS_TOPIC, new QueueChange(groupTitle, jobIDs).toPayload());
+        }
+    }
+
+    /**
+     * Tells the other nodes of the cluster which jobs changed. The changes must be stored already.
+     */
+    private void publishJobsChanged(final Collection<Job> jobs, final IClusterChannel currentCluster) {
+        final Map<String, List<String>> jobIDsByTitle = new HashMap<>();
+        for (final Job job : jobs) {
+            jobIDsByTitle.computeIfAbsent(job.getJobGroupTitle(), title -> new ArrayList<>()).add(job.getJobID());
+        }
+
+        for (final Map.Entry<String, List<String>> entry : jobIDsByTitle.entrySet()) {
+            currentCluster.publish(IClusterChannel.JOBS_TOPIC,
+                    new QueueChange(entry.getKey(), entry.getValue()).toPayload());
+        }
+    }
+
+    /**
+     * Lets the jobs of the group run on any hardware class again, e.g. if the benchmarkers of its hardware class were
+     * replaced. The group is bound to the hardware class of the next benchmarker which gets one of its jobs.
+     * @param groupTitle the title of the group.
+     * @return whether the group exists.
+     */
+    public boolean resetHardwareClass(@NotNull final String groupTitle) {
+        if (!StringUtils.hasText(groupTitle)) {
+            throw new IllegalArgumentException("The group title cannot be null or empty.");
+        }
+
+        synchronized (getGroupLock(groupTitle)) {
+            final JobGroup group = getGroup(groupTitle);
+
+            if (group == null) {
+                return false;
             }
 
-            if (job != null) {
-                jobAccess.deleteJob(job);
+            synchronized (queueLock) {
+                final long lockedAt = System.nanoTime();
+                try {
+                    group.setHardwareClass(null);
+                } finally {
+                    metrics.queueLockReleased(lockedAt);
+                }
             }
 
-            return job;
+            jobGroupAccess.saveJobGroup(group);
+        }
+
+        // the jobs of the group may be given to the free benchmarkers now
+        updateAll();
+        return true;
+    }
+
+    /**
+     * Must be called while holding the queue lock with jobs which were just taken from the queue.
+     */
+    private void markDispatched(final List<Job> jobs) {
+        metrics.jobsDispatched(jobs, LocalDateTime.now(clock));
+
+        for (final Job job : jobs) {
+            job.dispatch();
+            dispatchedJobs.computeIfAbsent(job.getJobGroupTitle(), title -> new HashMap<>()).put(job.getJobID(), job);
+        }
+
+        // the jobs are updated in the storage together. In a cluster the claim marks the stored jobs as dispatched,
+        // since saving a job which another node finished meanwhile would store it again
+        if (cluster == null) {
+            storageWriter.save(jobs);
         }
     }
 
+    /**
+     * Must be called while holding the queue lock.
+     * @return the dispatched job which was removed or null if the job is not dispatched.
+     */
+    private Job removeDispatched(final String groupTitle, final String jobID) {
+        final Map<String, Job> dispatchedOfGroup = dispatchedJobs.get(groupTitle);
+
+        if (dispatchedOfGroup == null) {
+            return null;
+        }
+
+        final Job job = dispatchedOfGroup.remove(jobID);
+
+        if (dispatchedOfGroup.isEmpty()) {
+            dispatchedJobs.remove(groupTitle);
+        }
+
+        return job;
+    }
+
+    private boolean isDispatched(final String groupTitle, final String jobID) {
+        final Map<String, Job> dispatchedOfGroup = dispatchedJobs.get(groupTitle);
+
+        return dispatchedOfGroup != null && dispatchedOfGroup.containsKey(jobID);
+    }
+
     @Override
     public void returnJob(@NotNull final IJob job) {
         Objects.requireNonNull(job, "The returned job cannot be null.");
 
         LOGGER.info("Job {} | {} was returned to the queue.", job.getJobGroupTitle(), job.getJobID());
+        metrics.jobReturned();
+
+        final String groupTitle = job.getJobGroupTitle();
+        Job requeuedJob = null;
+
+        synchronized (getGroupLock(groupTitle)) {
+            synchronized (queueLock) {
+                final long lockedAt = System.nanoTime();
+                try {
+                    final Job dispatchedJob = removeDispatched(groupTitle, job.getJobID());
+
+                    // the stored job is queued again, so it keeps its row in the storage
+                    if (dispatchedJob != null) {
+                        dispatchedJob.requeue(LocalDateTime.now(clock));
+                        jobQueue.add(dispatchedJob);
+                        queueChanged();
+
+                        storageWriter.save(List.of(dispatchedJob));
+                        requeuedJob = dispatchedJob;
+                    }
+                } finally {
+                    metrics.queueLockReleased(lockedAt);
+                }
+            }
+        }
 
-        addJob(job.getJobGroupTitle(), job.getJobID());
+        final IClusterChannel currentCluster = cluster;
+        if (requeuedJob != null && currentCluster != null) {
+            // the job is stored as queued before the other nodes may claim it
+            storageWriter.flush();
+            claimAccess.releaseJobs(requeuedJob.getGroup(), List.of(requeuedJob.getJobID()),
+                    currentCluster.getNodeId());
+            publishJobsChanged(List.of(requeuedJob), currentCluster);
+        }
+
+        if (requeuedJob != null) {
+            updateAll();
+        } else {
+            addJob(groupTitle, job.getJobID());
+        }
+    }
+
+    @Override
+    public void unreserveJobs(@NotNull final Collection<? extends IJob> jobs) {
+        Objects.requireNonNull(jobs, "The unreserved jobs cannot be null.");
+
+        final Map<String, List<String>> jobIDsByTitle = new HashMap<>();
+        for (final IJob job : jobs) {
+            jobIDsByTitle.computeIfAbsent(job.getJobGroupTitle(), title -> new ArrayList<>()).add(job.getJobID());
+        }
+
+        final List<Job> unreservedJobs = new ArrayList<>();
+
+        for (final Map.Entry<String, List<String>> entry : jobIDsByTitle.entrySet()) {
+            synchronized (getGroupLock(entry.getKey())) {
+                synchronized (queueLock) {
+                    final long lockedAt = System.nanoTime();
+                    try {
+                        final List<Job> unreservedOfGroup = new ArrayList<>();
+
+                        // jobs which are no longer dispatched were removed meanwhile
+                        for (final String jobID : entry.getValue()) {
+                            final Job dispatchedJob = removeDispatched(entry.getKey(), jobID);
+
+                            if (dispatchedJob != null) {
+                                dispatchedJob.undispatch();
+                                jobQueue.add(dispatchedJob);
+                                unreservedOfGroup.add(dispatchedJob);
+                                metrics.jobReturned();
+                            }
+                        }
+
+                        if (!unreservedOfGroup.isEmpty()) {
+                            queueChanged();
+                            storageWriter.save(unreservedOfGroup);
+                            unreservedJobs.addAll(unreservedOfGroup);
+                        }
+                    } finally {
+                        metrics.queueLockReleased(lockedAt);
+                    }
+                }
+            }
+        }
+
+        if (unreservedJobs.isEmpty()) {
+            return;
+        }
+
+        LOGGER.info("{} reserved jobs were put back into the queue.", unreservedJobs.size());
+
+        final IClusterChannel currentCluster = cluster;
+        if (currentCluster != null) {
+            // the jobs are stored as queued before the other nodes may claim them
+            storageWriter.flush();
+
+            final Map<JobGroup, List<String>> jobIDsByGroup = new IdentityHashMap<>();
+            for (final Job job : unreservedJobs) {
+                jobIDsByGroup.computeIfAbsent(job.getGroup(), group -> new ArrayList<>()).add(job.getJobID());
+            }
+
+            for (final Map.Entry<JobGroup, List<String>> entry : jobIDsByGroup.entrySet()) {
+                claimAccess.releaseJobs(entry.getKey(), entry.getValue(), currentCluster.getNodeId());
+            }
+
+            publishJobsChanged(unreservedJobs, currentCluster);
+        }
+
+        updateAll();
+    }
+
+    @Override
+    public void finishJob(@NotNull final IJob job) {
+        Objects.requireNonNull(job, "The finished job cannot be null.");
+
+        final String groupTitle = job.getJobGroupTitle();
+
+        synchronized (getGroupLock(groupTitle)) {
+            synchronized (queueLock) {
+                final long lockedAt = System.nanoTime();
+                try {
+                    Job finishedJob = removeDispatched(groupTitle, job.getJobID());
+
+                    // the job was returned after its lease expired, but another benchmarker finished it
+                    final Job queuedJob = jobQueue.get(groupTitle, job.getJobID());
+                    if (queuedJob != null && jobQueue.remove(queuedJob)) {
+                        queueChanged();
+                        finishedJob = queuedJob;
+                    }
+
+                    if (finishedJob != null) {
+                        storageWriter.delete(List.of(finishedJob));
+                        metrics.jobFinished();
+                    }
+                } finally {
+                    metrics.queueLockReleased(lockedAt);
+                }
+            }
+        }
+    }
+
+    @Override
+    public long getExecutionTimePercentile(@NotNull final String groupTitle, final int percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("The percentile must be between 0 and 100.");
+        }
+
+        final JobGroup group = groupTitle == null ? null : getGroup(groupTitle);
+
+        if (group == null) {
+            return 0;
+        }
+
+        // the execution times are changed while holding the queue lock
+        synchronized (queueLock) {
+            final long lockedAt = System.nanoTime();
+            try {
+                return group.getExecutionTimes().getPercentile(percentile);
+            } finally {
+                metrics.queueLockReleased(lockedAt);
+            }
+        }
     }
 
     /**
@@ -144,42 +1178,89 @@ public class Scheduler implements IJobProvider, IJobScheduler {
 
     @Override
     public void addToGroupTimeSheet(@NotNull final String groupTitle, final long time) {
-        if (containsGroup(groupTitle)) {
+        // results of unknown groups are ignored
+        if (groupTitle == null) {
+            return;
+        }
+
+        synchronized (getGroupLock(groupTitle)) {
             final JobGroup group = getGroup(groupTitle);
 
-            group.addToTimeSheet(time);
-            jobGroupAccess.saveJobGroup(group);
+            if (group != null) {
+                synchronized (queueLock) {
+                    final long lockedAt = System.nanoTime();
+                    try {
+                        // the queue is ordered by the time sheets
+                        group.addToTimeSheet(time, LocalDateTime.now(clock));
+                        queueChanged();
+                    } finally {
+                        metrics.queueLockReleased(lockedAt);
+                    }
+                }
+
+                jobGroupAccess.saveJobGroup(group);
+            }
         }
     }
 
     @Override
     public void addJobs(@NotNull String groupTitle, @NotNull Collection<String> jobIDs) {
-        synchronized (groupLock) {
-            if (!StringUtils.hasText(groupTitle)) {
-                throw new IllegalArgumentException("The groupTitle cannot be null or empty.");
+        if (!StringUtils.hasText(groupTitle)) {
+            throw new IllegalArgumentException("The groupTitle cannot be null or empty.");
+        }
+        Objects.requireNonNull(jobIDs, "The jobIds cannot be null.");
+
+        final long started = System.nanoTime();
+        final List<Job> jobsToAdd = new ArrayList<>();
+
+        synchronized (getGroupLock(groupTitle)) {
+            final JobGroup group = addGroup(groupTitle);
+
+            synchronized (queueLock) {
+                final long lockedAt = System.nanoTime();
+                try {
+                    // the jobs are queued at the same time and keep the order they were given in
+                    final LocalDateTime queued = LocalDateTime.now(clock);
+
+                    // the queue indexes the jobs of each group by their id, so every duplicate check is a single
+                    // lookup. Dispatched jobs are still stored, so they are duplicates as well
+                    for (final String jobID : jobIDs) {
+                        if (StringUtils.hasText(jobID) && !jobQueue.contains(groupTitle, jobID)
+                                && !isDispatched(groupTitle, jobID)) {
+                            final Job job = new Job(jobID, group, queued, jobsToAdd.size());
+                            jobQueue.add(job);
+                            jobsToAdd.add(job);
+                        }
+                    }
+
+                    if (!jobsToAdd.isEmpty()) {
+                        queueChanged();
+                    }
+
+                    // written in batches by the storage writer
+                    storageWriter.save(jobsToAdd);
+                    metrics.jobsAdded(jobsToAdd.size());
+                } finally {
+                    metrics.queueLockReleased(lockedAt);
+                }
             }
-            Objects.requireNonNull(jobIDs, "The jobIds cannot be null.");
+        }
 
-            Set<String> currentJobs = jobAccess.findAllJobs(groupTitle).stream()
-                    .map(Job::getJobID)
-                    .collect(Collectors.toSet());
+        final int amtDuplicates = jobIDs.size() - jobsToAdd.size();
+        LOGGER.info("Added {} {} to the queue. Skipping {} {}.",
+                jobsToAdd.size(), jobsToAdd.size() == 1 ? "job" : "jobs",
+                amtDuplicates, amtDuplicates == 1 ? "duplicate" : "duplicates");
 
-            Set<Job> jobsToAdd = new HashSet<>();
-            JobGroup group = addGroup(groupTitle);
+        metrics.addJobsFinished(started);
 
-            for (String jobID : jobIDs) {
-                if (StringUtils.hasText(jobID) && !currentJobs.contains(jobID)) {
-                    jobsToAdd.add(new Job(jobID, group));
-                }
+        // the observers are notified once for all added jobs
+        if (!jobsToAdd.isEmpty()) {
+            final List<String> addedJobIDs = new ArrayList<>();
+            for (final Job job : jobsToAdd) {
+                addedJobIDs.add(job.getJobID());
             }
 
-            jobAccess.saveJobs(jobsToAdd);
-
-            int amtDuplicates = jobIDs.size() - jobsToAdd.size();
-            LOGGER.info("Added {} {} to the queue. Skipping {} {}.",
-                    jobsToAdd.size(), jobsToAdd.size() == 1 ? "job" : "jobs",
-                    amtDuplicates, amtDuplicates == 1 ? "duplicate" : "duplicates");
-
+            publishQueueChanged(groupTitle, addedJobIDs);
             updateAll();
         }
     }
@@ -189,13 +1270,36 @@ public class Scheduler implements IJobProvider, IJobScheduler {
         if (!StringUtils.hasText(groupTitle)) {
             throw new IllegalArgumentException("The groupTitle cannot be null or empty.");
         }
-        if (containsGroup(groupTitle)) {
-            final Collection<Job> toRemove = new ArrayList<>(jobAccess.findAllJobs(groupTitle));
 
-            jobAccess.deleteJobs(toRemove);
-            final JobGroup group = groups.remove(groupTitle);
-            groupQueue.remove(group);
-            jobGroupAccess.deleteGroup(group);
+        final JobGroup group;
+
+        synchronized (getGroupLock(groupTitle)) {
+            group = groups.remove(groupTitle);
+
+            if (group != null) {
+                final Collection<Job> removed;
+
+                synchronized (queueLock) {
+                    final long lockedAt = System.nanoTime();
+                    try {
+                        removed = jobQueue.removeGroup(groupTitle);
+                        dispatchedJobs.remove(groupTitle);
+                        queueChanged();
+
+                        // the stored jobs are deleted with the group, so they don't have to be deleted one by one
+                        storageWriter.deleteGroup(group);
+                    } finally {
+                        metrics.queueLockReleased(lockedAt);
+                    }
+                }
+
+                LOGGER.info("Removed job group '{}' with {} queued jobs.", groupTitle, removed.size());
+            }
+        }
+
+        if (group != null) {
+            publishQueueChanged(groupTitle, null);
+            notifyJobsRemoved(groupTitle, null);
         }
     }
 
@@ -206,11 +1310,47 @@ public class Scheduler implements IJobProvider, IJobScheduler {
         }
         Objects.requireNonNull(jobIDs, "The jobIDs cannot be null.");
 
-        if (containsGroup(groupTitle)) {
-            final Collection<Job> toRemove = new ArrayList<>(jobAccess.findAllJobs(groupTitle));
-            toRemove.removeIf(job -> !jobIDs.contains(job.getJobID()));
+        final Collection<Job> toRemove = new ArrayList<>();
+
+        synchronized (getGroupLock(groupTitle)) {
+            if (containsGroup(groupTitle)) {
+
+                synchronized (queueLock) {
+                    final long lockedAt = System.nanoTime();
+                    try {
+                        for (final String jobID : jobIDs) {
+                            final Job job = jobQueue.get(groupTitle, jobID);
 
-            jobAccess.deleteJobs(toRemove);
+                            if (job != null && jobQueue.remove(job)) {
+                                toRemove.add(job);
+                            }
+
+                            final Job dispatchedJob = removeDispatched(groupTitle, jobID);
+                            if (dispatchedJob != null) {
+                                toRemove.add(dispatchedJob);
+                            }
+                        }
+
+                        if (!toRemove.isEmpty()) {
+                            queueChanged();
+                        }
+
+                        storageWriter.delete(toRemove);
+                    } finally {
+                        metrics.queueLockReleased(lockedAt);
+                    }
+                }
+            }
+        }
+
+        if (!toRemove.isEmpty()) {
+            final Set<String> removedJobIDs = new HashSet<>();
+            for (final Job job : toRemove) {
+                removedJobIDs.add(job.getJobID());
+            }
+
+            publishQueueChanged(groupTitle, removedJobIDs);
+            notifyJobsRemoved(groupTitle, removedJobIDs);
         }
     }
 
@@ -229,81 +1369,143 @@ public class Scheduler implements IJobProvider, IJobScheduler {
             throw new IllegalArgumentException("The jobID cannot be null.");
         }
 
-        if (containsGroup(groupTitle)) {
-            final Job toPrioritize = findJobToPrioritize(groupTitle, jobID);
+        return givePriorityToAll(groupTitle, List.of(jobID)) > 0;
+    }
 
-            if (toPrioritize == null) {
-                return false;
-            }
+    /**
+     * Moves the given jobs of a group to the manually prioritized jobs queue. The jobs are prioritized in place,
+     * so the cost only depends on the amount of given jobs.
+     * Jobs which are not queued or already prioritized are skipped.
+     * @param groupTitle the title of the jobs' group.
+     * @param jobIDs the ids of the jobs.
+     * @return the amount of jobs which were prioritized.
+     */
+    public int givePriorityToAll(@NotNull final String groupTitle, @NotNull final Collection<String> jobIDs) {
+        if (!StringUtils.hasText(groupTitle)) {
+            throw new IllegalArgumentException("The groupTitle cannot be null.");
+        }
+        Objects.requireNonNull(jobIDs, "The jobIDs cannot be null.");
+
+        final List<Job> prioritized = new ArrayList<>();
+
+        synchronized (getGroupLock(groupTitle)) {
+            synchronized (queueLock) {
+                final long lockedAt = System.nanoTime();
+                try {
+                    final LocalDateTime prioritizedAt = LocalDateTime.now(clock);
+
+                    for (final String jobID : jobIDs) {
+                        final Job job = jobQueue.get(groupTitle, jobID);
 
-            final JobGroup group = groups.get(toPrioritize.getJobGroupTitle());
+                        if (job != null && jobQueue.prioritize(job, prioritizedAt)) {
+                            prioritized.add(job);
+                        }
+                    }
 
-            final Job prioritizedJob = new Job(jobID, group);
-            prioritizedJob.setPrioritized(true);
+                    if (!prioritized.isEmpty()) {
+                        queueChanged();
+                    }
 
-            jobAccess.deleteJob(toPrioritize);
-            jobAccess.saveJob(prioritizedJob);
+                    storageWriter.prioritize(prioritized);
+                } finally {
+                    metrics.queueLockReleased(lockedAt);
+                }
+            }
+        }
 
-            LOGGER.info("'{}' | '{}' was prioritized.",
-                    prioritizedJob.getJobGroupTitle(), prioritizedJob.getJobID());
+        if (!prioritized.isEmpty()) {
+            final List<String> prioritizedIDs = new ArrayList<>();
+            for (final Job job : prioritized) {
+                prioritizedIDs.add(job.getJobID());
+            }
+
+            publishQueueChanged(groupTitle, prioritizedIDs);
+
+            for (final IJobRevocationListener listener : revocationListeners) {
+                listener.jobsPrioritized(groupTitle, prioritizedIDs);
+            }
+        }
 
-            return true;
+        if (prioritized.size() == 1) {
+            LOGGER.info("'{}' | '{}' was prioritized.", groupTitle, prioritized.get(0).getJobID());
+        } else if (!prioritized.isEmpty()) {
+            LOGGER.info("{} jobs of '{}' were prioritized.", prioritized.size(), groupTitle);
         }
 
-        return false;
+        return prioritized.size();
     }
 
-    @Nullable
-    private Job findJobToPrioritize(final String groupTitle, final String jobID) {
-        for (final Job job : jobAccess.findJobs()) {
-            if (job.getJobGroupTitle().equals(groupTitle) && job.getJobID().equals(jobID)) {
-                return job;
+    /**
+     * Gets the metrics of the scheduler. The queue depths are read from a snapshot of the queue.
+     * @return the current metrics.
+     */
+    public SchedulerMetricsReport getMetrics() {
+        final QueueSnapshot current = getSnapshot();
+
+        final Map<String, Integer> queueDepth = new HashMap<>();
+        for (final String groupTitle : groups.keySet()) {
+            queueDepth.put(groupTitle, 0);
+        }
+        for (final Job job : current.getJobs()) {
+            queueDepth.merge(job.getJobGroupTitle(), 1, Integer::sum);
+        }
+
+        int amtDispatched = 0;
+        synchronized (queueLock) {
+            for (final Map<String, Job> dispatchedOfGroup : dispatchedJobs.values()) {
+                amtDispatched += dispatchedOfGroup.size();
             }
         }
 
-        return null;
+        return metrics.report(queueDepth, current.getPrioritized().size(), amtDispatched);
     }
 
     /**
      * Gets a sorted list of all jobs that are not manually prioritized.
+     * The page is read from a snapshot of the queue, so it does not block the dispatch of jobs.
      * @param pageable contains paging information.
      * @return a page of jobs.
      */
     public Page<Job> getJobsQueue(final Pageable pageable) {
-        synchronized (groupLock) {
-            int groupIndex = 0;
-            List<Job> jobs = new ArrayList<>();
-
-            // cheap way to get the total amount of jobs
-            Page<Job> jobPage = jobAccess.findJobs(PageRequest.of(0, 1));
-
-            final int jobsToLoad = pageable.getPageSize() * (pageable.getPageNumber() + 1);
-            while (jobs.size() < jobsToLoad && groupIndex < groupQueue.size()) {
-                JobGroup group = groupQueue.get(groupIndex);
-
-                List<Job> jobsToAdd = new ArrayList<>(jobAccess.findAllJobs(group.getTitle()));
-                jobsToAdd.removeIf(Job::isPrioritized);
-                jobsToAdd.sort(new AdvancedSchedulingAlgorithm());
+        final List<Job> allJobs = getSnapshot().getJobs();
+        final List<Job> jobs = QueueSnapshot.subList(allJobs, pageable.getOffset(), pageable.getPageSize());
 
-                jobs.addAll(jobsToAdd);
+        return new PageImpl<>(jobs, pageable, allJobs.size());
+    }
 
-                groupIndex++;
+    /**
+     * Gets the jobs that are not manually prioritized and come after the given cursor in scheduling order.
+     * Unlike {@link #getJobsQueue(Pageable)} the cost only depends on the amount of returned jobs and the position
+     * of the cursor does not move when jobs before it are dispatched.
+     * @param cursor the position after which the jobs start or null to start at the beginning of the queue.
+     * @param amount the maximum amount of jobs returned.
+     * @return a sorted list of jobs.
+     */
+    public List<Job> getJobsQueueAfter(@Nullable final JobQueueCursor cursor, final int amount) {
+        // only the returned jobs are visited, so the queue lock is held briefly
+        synchronized (queueLock) {
+            final long lockedAt = System.nanoTime();
+            try {
+                final JobGroup cursorGroup = cursor == null ? null : groups.get(cursor.getGroupTitle());
+
+                return jobQueue.getJobsAfter(cursor, cursorGroup, amount);
+            } finally {
+                metrics.queueLockReleased(lockedAt);
             }
-
-            final int lowerBound = Math.min(pageable.getPageSize() * pageable.getPageNumber(), jobs.size());
-            final int upperBound = Math.min(jobsToLoad, jobs.size());
-
-            return new PageImpl<>(jobs.subList(lowerBound, upperBound), pageable, jobPage.getTotalElements());
         }
     }
 
     /**
      * Gets a sorted list of all jobs that are manually prioritized.
+     * The page is read from a snapshot of the queue, so it does not block the dispatch of jobs.
      * @param pageable contains paging information.
      * @return a page of jobs.
      */
     public Page<Job> getPrioritizedQueue(final Pageable pageable) {
-        return jobAccess.findPrioritized(pageable);
+        final List<Job> allJobs = getSnapshot().getPrioritized();
+        final List<Job> jobs = QueueSnapshot.subList(allJobs, pageable.getOffset(), pageable.getPageSize());
+
+        return new PageImpl<>(jobs, pageable, allJobs.size());
     }
 
     @Override
@@ -327,48 +1529,16 @@ public class Scheduler implements IJobProvider, IJobScheduler {
         }
     }
 
-    /**
-     * Resets the groups field daily.
-     */
-    @Scheduled(cron = CRON_DAILY)
-    void resetJobGroupTimeSheets() {
-        removeUnusedGroups();
-
-        for (final JobGroup group : groups.values()) {
-            group.resetTimeSheet();
-            jobGroupAccess.saveJobGroup(group);
-        }
+    @Override
+    public void addRevocationListener(@NotNull final IJobRevocationListener listener) {
+        Objects.requireNonNull(listener);
 
-        LOGGER.info("Daily job group reset finished.");
+        revocationListeners.add(listener);
     }
 
-    /**
-     * Removes all groups that come before the given jobGroupTitle in the groupQueue.
-     * If the jobGroupTitle is null all groups are removed from the groupQueue.
-     */
-    private void removeUnusedGroups() {
-        synchronized (groupLock) {
-            final Collection<Job> prioritized = jobAccess.findPrioritized();
-
-            Set<String> usedGroups = new HashSet<>();
-
-            for (Job job : prioritized) {
-                usedGroups.add(job.getJobGroupTitle());
-            }
-
-            for (JobGroup group : groupQueue) {
-                Collection<Job> groupJobs = jobAccess.findAllJobs(group.getTitle());
-
-                if (!groupJobs.isEmpty()) {
-                    usedGroups.add(group.getTitle());
-                }
-            }
-
-            for (JobGroup group : groupQueue) {
-                if (!usedGroups.contains(group.getTitle())) {
-                    removeJobGroup(group.getTitle());
-                }
-            }
+    private void notifyJobsRemoved(final String groupTitle, final Collection<String> jobIDs) {
+        for (final IJobRevocationListener listener : revocationListeners) {
+            listener.jobsRemoved(groupTitle, jobIDs);
         }
     }
 }
@@ -0,0 +1,112 @@
+package pacr.webapp_backend.scheduler.services;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the jobs which pass through the scheduler and records how long they wait and how long the scheduler
+ * operations take. All methods are lock-free, so they can be called while holding the queue lock.
+ */
+class SchedulerMetrics {
+
+    private final LongAdder jobsAdded;
+    private final LongAdder jobsDispatched;
+    private final LongAdder jobsReturned;
+    private final LongAdder jobsFinished;
+
+    // in milliseconds
+    private final Histogram waitTime;
+
+    // in nanoseconds
+    private final Histogram popLatency;
+    private final Histogram addJobsLatency;
+    private final Histogram queueLockHold;
+
+    /**
+     * Creates new metrics without any recorded values.
+     */
+    SchedulerMetrics() {
+        this.jobsAdded = new LongAdder();
+        this.jobsDispatched = new LongAdder();
+        this.jobsReturned = new LongAdder();
+        this.jobsFinished = new LongAdder();
+
+        this.waitTime = new Histogram();
+        this.popLatency = new Histogram();
+        this.addJobsLatency = new Histogram();
+        this.queueLockHold = new Histogram();
+    }
+
+    /**
+     * @param amount the amount of jobs which were added to the queue.
+     */
+    void jobsAdded(final int amount) {
+        jobsAdded.add(amount);
+    }
+
+    /**
+     * Records the time the given jobs waited in the queue since they were queued.
+     * @param jobs the jobs which were taken from the queue.
+     * @param dispatched the date the jobs were taken from the queue.
+     */
+    void jobsDispatched(final Collection<Job> jobs, final LocalDateTime dispatched) {
+        for (final Job job : jobs) {
+            waitTime.record(Duration.between(job.getQueued(), dispatched).toMillis());
+        }
+
+        jobsDispatched.add(jobs.size());
+    }
+
+    /**
+     * Counts a job which was returned to the queue.
+     */
+    void jobReturned() {
+        jobsReturned.increment();
+    }
+
+    /**
+     * Counts a job whose result was saved.
+     */
+    void jobFinished() {
+        jobsFinished.increment();
+    }
+
+    /**
+     * @param started the value of {@link System#nanoTime()} when taking jobs from the queue started.
+     */
+    void popFinished(final long started) {
+        popLatency.record(System.nanoTime() - started);
+    }
+
+    /**
+     * @param started the value of {@link System#nanoTime()} when adding jobs started.
+     */
+    void addJobsFinished(final long started) {
+        addJobsLatency.record(System.nanoTime() - started);
+    }
+
+    /**
+     * @param lockedAt the value of {@link System#nanoTime()} when the queue lock was acquired.
+     */
+    void queueLockReleased(final long lockedAt) {
+        queueLockHold.record(System.nanoTime() - lockedAt);
+    }
+
+    /**
+     * Creates a report of the metrics and the current state of the queue.
+     * @param queueDepth the amount of jobs which are not prioritized by the title of their group.
+     * @param prioritizedQueueDepth the amount of prioritized jobs.
+     * @param dispatchedJobs the amount of jobs which are dispatched and not finished yet.
+     * @return the report.
+     */
+    SchedulerMetricsReport report(final Map<String, Integer> queueDepth, final int prioritizedQueueDepth,
+                                  final int dispatchedJobs) {
+        return new SchedulerMetricsReport(queueDepth, prioritizedQueueDepth, dispatchedJobs, jobsAdded.sum(),
+                jobsDispatched.sum(), jobsReturned.sum(), jobsFinished.sum(), waitTime.summarize(),
+                popLatency.summarize(), addJobsLatency.summarize(), queueLockHold.summarize());
+    }
+
+}
@@ -0,0 +1,39 @@
+package pacr.webapp_backend.scheduler.services;
+
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The metrics of the scheduler at one point in time. The counters and histograms cover the time since the
+ * application started.
+ */
+@Getter
+@AllArgsConstructor
+public class SchedulerMetricsReport {
+
+    // the amount of jobs which are not prioritized by the title of their group
+    private final Map<String, Integer> queueDepth;
+
+    private final int prioritizedQueueDepth;
+
+    // the jobs which were handed out and whose result wasn't saved yet
+    private final int dispatchedJobs;
+
+    private final long jobsAdded;
+
+    private final long jobsDispatched;
+
+    private final long jobsReturned;
+
+    private final long jobsFinished;
+
+    private final HistogramSummary waitTimeMillis;
+
+    private final HistogramSummary popLatencyNanos;
+
+    private final HistogramSummary addJobsLatencyNanos;
+
+    private final HistogramSummary queueLockHoldNanos;
+
+}
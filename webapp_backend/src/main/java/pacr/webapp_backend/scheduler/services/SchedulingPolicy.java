@@ -0,0 +1,15 @@
+package pacr.webapp_backend.scheduler.services;
+
+import java.util.Comparator;
+
+/**
+ * Decides which job group runs its next job first. Groups which come first in the order of the policy are
+ * dispatched first.
+ *
+ * Prioritized jobs are always dispatched before all other jobs and the jobs of a group are always dispatched newest
+ * first, so a policy only orders the groups. The order may only depend on the title, the time sheet and the
+ * execution times of the groups, because the queue only restores its order when those change.
+ */
+public interface SchedulingPolicy extends Comparator<JobGroup> {
+
+}
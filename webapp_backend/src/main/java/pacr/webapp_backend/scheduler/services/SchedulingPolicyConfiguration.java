@@ -0,0 +1,40 @@
+package pacr.webapp_backend.scheduler.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * Provides the scheduling policy which is used by the scheduler.
+ */
+@Configuration
+public class SchedulingPolicyConfiguration {
+
+    private static final String FAIR_SHARE = "fair-share";
+    private static final String SHORTEST_EXPECTED_JOB_FIRST = "shortest-expected-job-first";
+    private static final String WEIGHTED_FAIR_SHARE = "weighted-fair-share";
+
+    /**
+     * Scheduling policy for the Scheduler.
+     * @param policy the name of the policy. One of fair-share, shortest-expected-job-first and weighted-fair-share.
+     * @param fairnessFactor the fairness factor used by shortest-expected-job-first.
+     * @return SchedulingPolicy.
+     */
+    @Bean
+    public SchedulingPolicy schedulingPolicy(@NotNull @Value("${schedulingPolicy}") final String policy,
+                                             @Value("${schedulingFairnessFactor}") final double fairnessFactor) {
+        switch (policy) {
+            case FAIR_SHARE:
+                return new GroupSchedulingAlgorithm();
+            case SHORTEST_EXPECTED_JOB_FIRST:
+                return new ShortestExpectedJobFirstPolicy(fairnessFactor);
+            case WEIGHTED_FAIR_SHARE:
+                return new WeightedFairSharePolicy();
+            default:
+                throw new IllegalArgumentException("Unknown scheduling policy '" + policy + "'.");
+        }
+    }
+
+}
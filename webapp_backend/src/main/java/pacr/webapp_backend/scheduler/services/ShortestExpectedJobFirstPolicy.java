@@ -0,0 +1,56 @@
+package pacr.webapp_backend.scheduler.services;
+
+/**
+ * Implements a scheduling policy which prefers the job groups whose jobs are expected to finish first, as long as
+ * this is fair.
+ * The expected execution time of a job is the median of the execution times of the recent jobs of its group.
+ * A group is only preferred over another group while their weighted decayed benchmarking times are within the
+ * fairness factor of each other, otherwise the group with less benchmarking time comes first.
+ */
+class ShortestExpectedJobFirstPolicy implements SchedulingPolicy {
+
+    private final double windowSize;
+
+    /**
+     * Creates a new policy.
+     * @param fairnessFactor the factor by which the benchmarking time of one group can exceed the benchmarking time
+     *                       of another group before the other group comes first regardless of its expected
+     *                       execution time. (> 1)
+     */
+    ShortestExpectedJobFirstPolicy(final double fairnessFactor) {
+        if (!(fairnessFactor > 1) || Double.isInfinite(fairnessFactor)) {
+            throw new IllegalArgumentException("The fairness factor must be greater than one.");
+        }
+
+        // the virtual time grows by one whenever the benchmarking time doubles
+        this.windowSize = Math.log(fairnessFactor) / Math.log(2);
+    }
+
+    @Override
+    public int compare(final JobGroup jobGroup1, final JobGroup jobGroup2) {
+        if (jobGroup1 == null) {
+            return 1;
+        }
+        if (jobGroup2 == null) {
+            return -1;
+        }
+
+        // groups in the same window of virtual time are within the fairness factor of each other
+        final int windowCompare = Double.compare(Math.floor(jobGroup1.getVirtualTime() / windowSize),
+                Math.floor(jobGroup2.getVirtualTime() / windowSize));
+
+        if (windowCompare != 0) {
+            return windowCompare;
+        }
+
+        final int expectedCompare = Long.compare(jobGroup1.getExecutionTimes().getMedian(),
+                jobGroup2.getExecutionTimes().getMedian());
+
+        if (expectedCompare != 0) {
+            return expectedCompare;
+        }
+
+        return Double.compare(jobGroup1.getVirtualTime(), jobGroup2.getVirtualTime());
+    }
+
+}
@@ -0,0 +1,34 @@
+package pacr.webapp_backend.scheduler.services;
+
+/**
+ * Implements a scheduling policy which shares the benchmarking time between the job groups according to their
+ * weights. A group with twice the weight of another group gets twice the benchmarking time.
+ * The group whose weighted benchmarking time is the lowest after its next job finished comes first. The execution
+ * time of the next job is estimated by the median of the recent jobs of the group, so groups with long jobs wait
+ * until the other groups caught up.
+ */
+class WeightedFairSharePolicy implements SchedulingPolicy {
+
+    @Override
+    public int compare(final JobGroup jobGroup1, final JobGroup jobGroup2) {
+        if (jobGroup1 == null) {
+            return 1;
+        }
+        if (jobGroup2 == null) {
+            return -1;
+        }
+
+        final int finishCompare = Double.compare(getFinishTime(jobGroup1), getFinishTime(jobGroup2));
+
+        if (finishCompare != 0) {
+            return finishCompare;
+        }
+
+        return Double.compare(jobGroup1.getVirtualTime(), jobGroup2.getVirtualTime());
+    }
+
+    private double getFinishTime(final JobGroup group) {
+        return group.getVirtualTime(group.getExecutionTimes().getMedian());
+    }
+
+}
@@ -0,0 +1,51 @@
+package pacr.webapp_backend.shared;
+
+import java.util.function.Consumer;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Connects the instances of the web app which share one database. Every instance is a node of the cluster with its
+ * own id. The nodes tell each other about changes by publishing a text payload to a topic, which is delivered to the
+ * listeners of the topic on all other nodes.
+ *
+ * If the web app runs as a single instance the channel is not clustered and nothing is delivered.
+ */
+public interface IClusterChannel {
+
+    /**
+     * Jobs were added to the shared queue, taken from it, returned to it or removed from it. The payload tells which
+     * jobs changed.
+     */
+    String JOBS_TOPIC = "jobs";
+
+    /**
+     * A node stopped or didn't send a heartbeat in time. The payload is the id of the node. Unlike other topics it is
+     * delivered to the listeners of the node which noticed it as well.
+     */
+    String NODE_LEFT_TOPIC = "nodeLeft";
+
+    /**
+     * @return whether other nodes can share the database with this node.
+     */
+    boolean isClustered();
+
+    /**
+     * @return the id of this node. It is unique in the cluster.
+     */
+    String getNodeId();
+
+    /**
+     * Sends a payload to the listeners of the topic on the other nodes. Does nothing if the channel is not clustered.
+     * @param topic the topic.
+     * @param payload the payload.
+     */
+    void publish(@NotNull String topic, @NotNull String payload);
+
+    /**
+     * Adds a listener which gets the payloads of a topic published by the other nodes.
+     * @param topic the topic.
+     * @param listener the listener.
+     */
+    void subscribe(@NotNull String topic, @NotNull Consumer<String> listener);
+
+}
@@ -1,11 +1,17 @@
 package pacr.webapp_backend.shared;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
 import javax.validation.constraints.NotNull;
 
 /**
  * Provides methods to get and return jobs. It also allows to update
  * the time sheet of a job group.
  *
+ * A job which was taken from the job list is dispatched until it is finished or returned. Dispatched jobs are kept
+ * in the job storage, so they are not lost if the application stops meanwhile.
+ *
  * This interface uses the Observer Pattern to notify observers about new jobs.
  */
 public interface IJobProvider extends ISubject {
@@ -16,6 +22,29 @@ public interface IJobProvider extends ISubject {
      */
     IJob popJob();
 
+    /**
+     * Removes up to the given amount of jobs from the job list at once. The jobs are returned in the order they
+     * would have been returned by {@link #popJob()}. Jobs which don't satisfy the constraints stay in the job list.
+     * @param amount the maximum amount of jobs returned.
+     * @param constraints the constraints the returned jobs have to satisfy.
+     * @return the jobs. The list is empty if no job is available.
+     * @throws IllegalArgumentException if the amount is negative.
+     */
+    List<IJob> popJobs(int amount, @NotNull Predicate<IJob> constraints);
+
+    /**
+     * Removes up to the given amount of jobs which may run on benchmarkers of the given hardware class from the job
+     * list at once. The jobs of a group run on one hardware class, so their results are comparable. A group which
+     * didn't run on any hardware class yet is bound to the given hardware class when one of its jobs is returned.
+     * @param amount the maximum amount of jobs returned.
+     * @param hardwareClass the hardware class of the benchmarkers which run the jobs.
+     * @param constraints the constraints the returned jobs have to satisfy.
+     * @return the jobs in the order they would have been returned by {@link #popJob()}. The list is empty if no job
+     *      is available.
+     * @throws IllegalArgumentException if the amount is negative.
+     */
+    List<IJob> popJobs(int amount, @NotNull String hardwareClass, @NotNull Predicate<IJob> constraints);
+
     /**
      * Returns the given job and adds it to the job list again.
      * @param job the job to be returned.
@@ -23,10 +52,41 @@ public interface IJobProvider extends ISubject {
     void returnJob(@NotNull IJob job);
 
     /**
-     * Adds the given time to the time sheet of the given group.
+     * Gives back jobs which were taken ahead of time and didn't start. Unlike returned jobs they keep their position
+     * in the job list and their priority, as if they were never taken. Jobs which were removed meanwhile are dropped.
+     * @param jobs the jobs to be given back.
+     */
+    void unreserveJobs(@NotNull Collection<? extends IJob> jobs);
+
+    /**
+     * Removes a dispatched job for good after its result was saved. If the job was returned meanwhile it is removed
+     * from the job list as well.
+     * @param job the finished job.
+     */
+    void finishJob(@NotNull IJob job);
+
+    /**
+     * Gets a percentile of the recent execution times of the jobs of a group.
+     * @param groupTitle the title of the group.
+     * @param percentile the percentile (between 0 and 100).
+     * @return the percentile in seconds or 0 if no execution time of the group is known.
+     * @throws IllegalArgumentException if the percentile is not between 0 and 100.
+     */
+    long getExecutionTimePercentile(@NotNull String groupTitle, int percentile);
+
+    /**
+     * Adds the given time to the time sheet of the given group. The time is the execution time of a job of the group
+     * and is remembered to estimate the execution time of the next jobs of the group.
      * @param groupTitle the groupTitle of the group.
      * @param time the time that is added in seconds.
      */
     void addToGroupTimeSheet(@NotNull String groupTitle, long time);
 
+    /**
+     * Adds a listener which is notified when jobs are prioritized or removed, so jobs which were taken ahead of time
+     * can be given back.
+     * @param listener the listener to be added.
+     */
+    void addRevocationListener(@NotNull IJobRevocationListener listener);
+
 }
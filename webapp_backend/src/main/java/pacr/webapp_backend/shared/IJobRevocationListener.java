@@ -0,0 +1,27 @@
+package pacr.webapp_backend.shared;
+
+import java.util.Collection;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Gets notified when jobs which were taken from the job list ahead of time may have to be given back. This is the
+ * case when other jobs were prioritized, so they should run first, or when taken jobs were removed for good.
+ */
+public interface IJobRevocationListener {
+
+    /**
+     * Jobs of the job list were prioritized. Jobs which were taken ahead of time and didn't start yet should be
+     * given back if the prioritized jobs take their place.
+     * @param groupTitle the title of the group of the prioritized jobs.
+     * @param jobIDs the ids of the prioritized jobs.
+     */
+    void jobsPrioritized(@NotNull String groupTitle, @NotNull Collection<String> jobIDs);
+
+    /**
+     * Jobs were removed for good. Jobs among them which were taken ahead of time must not be started or returned.
+     * @param groupTitle the title of the group of the removed jobs.
+     * @param jobIDs the ids of the removed jobs or null if the whole group was removed.
+     */
+    void jobsRemoved(@NotNull String groupTitle, Collection<String> jobIDs);
+
+}
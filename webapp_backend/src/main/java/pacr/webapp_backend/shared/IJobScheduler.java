@@ -12,6 +12,8 @@ public interface IJobScheduler {
 
     /**
      * Adds all given jobIDs as new jobs. The new jobs are associated with the given group.
+     * The new jobs are dispatched before the jobs of the group which were added earlier and among each other in the
+     * iteration order of the given job ids.
      *
      * @param groupTitle the title of the group.
      * @param jobIDs a list of job ids.
@@ -1,5 +1,7 @@
 package pacr.webapp_backend.shared;
 
+import java.util.concurrent.CompletableFuture;
+
 import javax.validation.constraints.NotNull;
 
 /**
@@ -14,4 +16,32 @@ public interface IResultSaver {
      */
     void saveBenchmarkingResults(@NotNull IBenchmarkingResult benchmarkingResult);
 
+    /**
+     * Saves the benchmarking result like {@link #saveBenchmarkingResults(IBenchmarkingResult)} and tells when the
+     * result cannot be lost anymore, which is when it is saved or stored to be saved later.
+     * By default the result is saved before this method returns.
+     * @param benchmarkingResult the results to be saved. Cannot be null.
+     * @return a future which is completed once the result is saved or stored durably, or completed exceptionally if
+     *      the result could neither be saved nor stored.
+     */
+    default CompletableFuture<Void> storeBenchmarkingResults(@NotNull IBenchmarkingResult benchmarkingResult) {
+        try {
+            saveBenchmarkingResults(benchmarkingResult);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Saves the benchmarks which were measured so far for a commit that is still being benchmarked. The result of the
+     * commit is marked as in progress until the complete result is saved with
+     * {@link #saveBenchmarkingResults(IBenchmarkingResult)}. A complete result of the commit is not changed.
+     * By default the benchmarks are discarded, they are saved with the complete result.
+     * @param benchmarkingResult the benchmarks measured so far. Cannot be null.
+     */
+    default void savePartialBenchmarkingResults(@NotNull IBenchmarkingResult benchmarkingResult) {
+    }
+
 }
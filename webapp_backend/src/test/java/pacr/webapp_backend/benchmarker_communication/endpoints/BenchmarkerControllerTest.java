@@ -71,6 +71,14 @@ public class BenchmarkerControllerTest {
         assertTrue(result);
     }
 
+    @Test
+    void registerBenchmarker_noError_shouldSendResultEncodings() {
+        benchmarkerController.registerBenchmarker(systemEnvironment, principal);
+
+        verify(template).convertAndSendToUser(ADDRESS, "/queue/resultEncodings",
+                List.of(JobResultMessageConverter.MIME_TYPE.toString(), "application/json"));
+    }
+
     @Test
     void registerBenchmarker_registrationFailed() {
         when(benchmarkerHandler.registerBenchmarker(any(), any())).thenReturn(false);
@@ -78,6 +86,7 @@ public class BenchmarkerControllerTest {
         final boolean result = benchmarkerController.registerBenchmarker(systemEnvironment, principal);
 
         verify(benchmarkerHandler).registerBenchmarker(ADDRESS, systemEnvironment);
+        verify(template, never()).convertAndSendToUser(any(), any(), any());
         assertFalse(result);
     }
 
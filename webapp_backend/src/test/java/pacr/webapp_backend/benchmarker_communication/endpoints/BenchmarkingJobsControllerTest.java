@@ -7,9 +7,15 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
 import pacr.webapp_backend.benchmarker_communication.services.BenchmarkerJob;
+import pacr.webapp_backend.benchmarker_communication.services.DispatchMetricsReport;
+import pacr.webapp_backend.benchmarker_communication.services.IngestionMetricsReport;
 import pacr.webapp_backend.benchmarker_communication.services.JobHandler;
 import pacr.webapp_backend.benchmarker_communication.services.JobResult;
+import pacr.webapp_backend.benchmarker_communication.services.ResultIngester;
+import pacr.webapp_backend.benchmarker_communication.services.SlotAddresses;
+import pacr.webapp_backend.benchmarker_communication.services.SystemEnvironment;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -36,6 +42,9 @@ public class BenchmarkingJobsControllerTest {
     @Mock
     private JobHandler jobHandler;
 
+    @Mock
+    private ResultIngester resultIngester;
+
     @Mock
     private JobResult jobResult;
 
@@ -55,7 +64,7 @@ public class BenchmarkingJobsControllerTest {
         when(benchmarkerJob.getCommitHash()).thenReturn(COMMIT_HASH);
         when(benchmarkerJob.getRepository()).thenReturn(REPOSITORY);
 
-        this.jobsController = new BenchmarkingJobsController(template);
+        this.jobsController = new BenchmarkingJobsController(template, resultIngester);
         this.jobsController.setJobHandler(jobHandler);
     }
 
@@ -113,6 +122,37 @@ public class BenchmarkingJobsControllerTest {
         assertFalse(result);
     }
 
+    @Test
+    void receivePartialBenchmarkingResults_noError() {
+        when(jobResult.getCommitHash()).thenReturn(COMMIT_HASH);
+
+        final boolean result = jobsController.receivePartialBenchmarkingResults(jobResult, principal);
+
+        verify(jobHandler).receivePartialBenchmarkingResults(ADDRESS, jobResult);
+        verify(jobHandler, never()).receiveBenchmarkingResults(any(), any());
+        assertTrue(result);
+    }
+
+    @Test
+    void receivePartialBenchmarkingResults_slot_resultOfSlot() {
+        final SystemEnvironment environment = new SystemEnvironment();
+        ReflectionTestUtils.setField(environment, "slot", 1);
+        when(jobResult.getSystemEnvironment()).thenReturn(environment);
+        when(jobResult.getCommitHash()).thenReturn(COMMIT_HASH);
+
+        assertTrue(jobsController.receivePartialBenchmarkingResults(jobResult, principal));
+
+        verify(jobHandler).receivePartialBenchmarkingResults(SlotAddresses.getSlotAddress(ADDRESS, 1), jobResult);
+    }
+
+    @Test
+    void receivePartialBenchmarkingResults_noCommitHash() {
+        final boolean result = jobsController.receivePartialBenchmarkingResults(jobResult, principal);
+
+        verify(jobHandler, never()).receivePartialBenchmarkingResults(any(), any());
+        assertFalse(result);
+    }
+
     @Test
     void JobMessage_noArgs() {
         assertDoesNotThrow(() -> {
@@ -136,6 +176,68 @@ public class BenchmarkingJobsControllerTest {
         assertTrue(result);
     }
 
+    @Test
+    void sendJob_slot_sentToBenchmarkerWithSlot() {
+        when(benchmarkerJob.getAddress()).thenReturn(SlotAddresses.getSlotAddress(ADDRESS, 2));
+
+        assertTrue(jobsController.sendJob(benchmarkerJob));
+
+        final ArgumentCaptor<JobMessage> jobMessageCaptor = ArgumentCaptor.forClass(JobMessage.class);
+        verify(template).convertAndSendToUser(eq(ADDRESS), eq("/queue/newJob"), jobMessageCaptor.capture());
+        assertEquals(2, jobMessageCaptor.getValue().getSlot());
+    }
+
+    @Test
+    void prefetchJob_slot_sentToBenchmarkerWithSlot() {
+        when(benchmarkerJob.getAddress()).thenReturn(SlotAddresses.getSlotAddress(ADDRESS, 1));
+
+        assertTrue(jobsController.prefetchJob(benchmarkerJob));
+
+        final ArgumentCaptor<JobMessage> jobMessageCaptor = ArgumentCaptor.forClass(JobMessage.class);
+        verify(template).convertAndSendToUser(eq(ADDRESS), eq("/queue/prefetchJob"), jobMessageCaptor.capture());
+        assertEquals(COMMIT_HASH, jobMessageCaptor.getValue().getCommitHash());
+        assertEquals(1, jobMessageCaptor.getValue().getSlot());
+    }
+
+    @Test
+    void revokeJob_sentToBenchmarker() {
+        jobsController.revokeJob(benchmarkerJob);
+
+        final ArgumentCaptor<JobMessage> jobMessageCaptor = ArgumentCaptor.forClass(JobMessage.class);
+        verify(template).convertAndSendToUser(eq(ADDRESS), eq("/queue/revokeJob"), jobMessageCaptor.capture());
+        assertEquals(REPOSITORY, jobMessageCaptor.getValue().getRepository());
+    }
+
+    @Test
+    void acknowledgeResult_slot_sentToBenchmarker() {
+        jobsController.acknowledgeResult(SlotAddresses.getSlotAddress(ADDRESS, 1), "attempt");
+
+        final ArgumentCaptor<ResultAckMessage> ackCaptor = ArgumentCaptor.forClass(ResultAckMessage.class);
+        verify(template).convertAndSendToUser(eq(ADDRESS), eq("/queue/resultAck"), ackCaptor.capture());
+        assertEquals("attempt", ackCaptor.getValue().getAttemptId());
+    }
+
+    @Test
+    void receiveBenchmarkingResults_slot_resultOfSlot() {
+        final SystemEnvironment environment = new SystemEnvironment();
+        ReflectionTestUtils.setField(environment, "slot", 2);
+        when(jobResult.getSystemEnvironment()).thenReturn(environment);
+
+        assertTrue(jobsController.receiveBenchmarkingResults(jobResult, principal));
+
+        verify(jobHandler).receiveBenchmarkingResults(SlotAddresses.getSlotAddress(ADDRESS, 2), jobResult);
+    }
+
+    @Test
+    void receiveHeartbeat_slot() {
+        assertTrue(jobsController.receiveHeartbeat(principal, 1));
+        assertTrue(jobsController.receiveHeartbeat(principal, null));
+
+        verify(jobHandler).receiveHeartbeat(SlotAddresses.getSlotAddress(ADDRESS, 1));
+        verify(jobHandler).receiveHeartbeat(ADDRESS);
+        assertFalse(jobsController.receiveHeartbeat(principal, -1));
+    }
+
     @Test
     void sendJob_nullBenchmarkerJob() {
         final boolean result = jobsController.sendJob(null);
@@ -225,4 +327,20 @@ public class BenchmarkingJobsControllerTest {
         verify(template, never()).convertAndSendToUser(any(), any(), any());
         assertFalse(result);
     }
+
+    @Test
+    void getDispatchMetrics_delegatedToJobHandler() {
+        final DispatchMetricsReport report = new DispatchMetricsReport(0, 1, 0, null, null);
+        when(jobHandler.getDispatchMetrics()).thenReturn(report);
+
+        assertEquals(report, jobsController.getDispatchMetrics());
+    }
+
+    @Test
+    void getIngestionMetrics_delegatedToResultIngester() {
+        final IngestionMetricsReport report = new IngestionMetricsReport(0, 0, 0, 0, 0, null);
+        when(resultIngester.getMetrics()).thenReturn(report);
+
+        assertEquals(report, jobsController.getIngestionMetrics());
+    }
 }
@@ -0,0 +1,114 @@
+package pacr.webapp_backend.benchmarker_communication.endpoints;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+import pacr.webapp_backend.benchmarker_communication.services.JobResult;
+import pacr.webapp_backend.shared.IBenchmarkProperty;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class JobResultMessageConverterTest {
+
+    private static final String COMMIT_HASH = "commitHash";
+    private static final String BENCHMARK = "benchmark";
+    private static final String PROPERTY = "property";
+    private static final String BROKEN_PROPERTY = "brokenProperty";
+    private static final List<Double> RESULTS = List.of(1.5, 1.5, 1.75, 2.0);
+
+    private JobResultMessageConverter converter;
+
+    private ObjectMapper mapper;
+
+    @BeforeEach
+    void setUp() {
+        converter = new JobResultMessageConverter();
+        mapper = new ObjectMapper();
+    }
+
+    @Test
+    void fromMessage_encodedResult_shouldReturnResult() throws IOException {
+        final JobResult result = (JobResult) converter.fromMessage(createMessage(converter.encode(createResult()),
+                JobResultMessageConverter.MIME_TYPE.toString()), JobResult.class);
+
+        assertNotNull(result);
+        assertEquals(COMMIT_HASH, result.getCommitHash());
+
+        final IBenchmarkProperty property = result.getBenchmarks().get(BENCHMARK).getBenchmarkProperties()
+                .get(PROPERTY);
+        assertEquals(RESULTS, new ArrayList<>(property.getResults()));
+        assertEquals("ms", property.getUnit());
+
+        final IBenchmarkProperty brokenProperty = result.getBenchmarks().get(BENCHMARK).getBenchmarkProperties()
+                .get(BROKEN_PROPERTY);
+        assertEquals("timeout", brokenProperty.getError());
+    }
+
+    @Test
+    void fromMessage_jsonContentType_shouldNotConvert() throws IOException {
+        final Message<byte[]> message = createMessage(converter.encode(createResult()),
+                MimeTypeUtils.APPLICATION_JSON_VALUE);
+
+        assertNull(converter.fromMessage(message, JobResult.class));
+    }
+
+    @Test
+    void fromMessage_invalidFrame_shouldReturnNull() {
+        final Message<byte[]> message = createMessage(new byte[] {1, 2, 3, 4, 5, 6, 7, 8},
+                JobResultMessageConverter.MIME_TYPE.toString());
+
+        assertNull(converter.fromMessage(message, JobResult.class));
+    }
+
+    @Test
+    void fromMessage_truncatedFrame_shouldReturnNull() throws IOException {
+        final byte[] frame = converter.encode(createResult());
+        final byte[] truncated = new byte[frame.length - 3];
+        System.arraycopy(frame, 0, truncated, 0, truncated.length);
+
+        assertNull(converter.fromMessage(createMessage(truncated, JobResultMessageConverter.MIME_TYPE.toString()),
+                JobResult.class));
+    }
+
+    private ObjectNode createResult() {
+        final ObjectNode result = mapper.createObjectNode();
+        result.put("executionTime", 10);
+        result.put("repository", "repository");
+        result.put("commitHash", COMMIT_HASH);
+
+        final ObjectNode benchmarks = result.putObject("benchmarkingResult").putObject("benchmarks");
+        final ObjectNode properties = benchmarks.putObject(BENCHMARK).putObject("properties");
+
+        final ObjectNode property = properties.putObject(PROPERTY);
+        RESULTS.forEach(property.putArray("results")::add);
+        property.put("resultInterpretation", "LESS_IS_BETTER");
+        property.put("unit", "ms");
+        property.put("error", "");
+
+        final ObjectNode brokenProperty = properties.putObject(BROKEN_PROPERTY);
+        brokenProperty.putArray("results");
+        brokenProperty.put("resultInterpretation", "NEUTRAL");
+        brokenProperty.put("unit", "");
+        brokenProperty.put("error", "timeout");
+
+        return result;
+    }
+
+    private Message<byte[]> createMessage(final byte[] frame, final String contentType) {
+        return MessageBuilder.withPayload(Base64.getEncoder().encodeToString(frame).getBytes(StandardCharsets.US_ASCII))
+                .setHeader(MessageHeaders.CONTENT_TYPE, contentType).build();
+    }
+
+}
@@ -0,0 +1,60 @@
+package pacr.webapp_backend.benchmarker_communication.endpoints;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ResultColumnCodecTest {
+
+    @Test
+    void decode_encodedValues_shouldReturnValues() {
+        final double[] values = {12.5, 12.5, 12.75, 13.0, 0.0, -0.0, Double.NaN, Double.MAX_VALUE, Double.MIN_VALUE,
+                Double.NEGATIVE_INFINITY, 1e-300, 1e300};
+
+        assertArrayEquals(values, ResultColumnCodec.decode(ResultColumnCodec.encode(values)));
+    }
+
+    @Test
+    void decode_randomValues_shouldReturnValues() {
+        final Random random = new Random(42);
+        final double[] values = new double[1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextBoolean() ? random.nextDouble() : Double.longBitsToDouble(random.nextLong());
+        }
+
+        assertArrayEquals(values, ResultColumnCodec.decode(ResultColumnCodec.encode(values)));
+    }
+
+    @Test
+    void decode_noValues_shouldReturnNoValues() {
+        assertArrayEquals(new double[0], ResultColumnCodec.decode(ResultColumnCodec.encode(new double[0])));
+    }
+
+    @Test
+    void encode_similarValues_shouldBeSmallerThanRawValues() {
+        final double[] values = new double[100];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 100 + (i % 4) * 0.5;
+        }
+
+        assertTrue(ResultColumnCodec.encode(values).length < values.length * Double.BYTES / 2);
+    }
+
+    @Test
+    void decode_truncatedColumn_shouldThrowException() {
+        final byte[] column = ResultColumnCodec.encode(new double[] {1.0, 2.0, 3.0});
+        final byte[] truncated = new byte[column.length - 2];
+        System.arraycopy(column, 0, truncated, 0, truncated.length);
+
+        assertThrows(IllegalArgumentException.class, () -> ResultColumnCodec.decode(truncated));
+    }
+
+    @Test
+    void decode_invalidAmount_shouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> ResultColumnCodec.decode(new byte[] {0x7f, 0, 0, 0}));
+    }
+
+}
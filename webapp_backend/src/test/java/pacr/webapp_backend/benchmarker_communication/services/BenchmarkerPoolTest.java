@@ -1,10 +1,17 @@
 package pacr.webapp_backend.benchmarker_communication.services;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -222,6 +229,23 @@ public class BenchmarkerPoolTest {
         assertTrue(benchmarkerPool.hasFreeBenchmarkers());
     }
 
+    @Test
+    void getFreeBenchmarkers_onlyFree() {
+        final String ADDRESS_2 = ADDRESS + "Second";
+        final String ADDRESS_3 = ADDRESS + "Third";
+
+        benchmarkerPool.registerBenchmarker(ADDRESS, new SystemEnvironment());
+        benchmarkerPool.registerBenchmarker(ADDRESS_2, new SystemEnvironment());
+        benchmarkerPool.registerBenchmarker(ADDRESS_3, new SystemEnvironment());
+        benchmarkerPool.occupyBenchmarker(ADDRESS_2);
+
+        final Collection<String> freeBenchmarkers = benchmarkerPool.getFreeBenchmarkers();
+
+        assertEquals(2, freeBenchmarkers.size());
+        assertTrue(freeBenchmarkers.contains(ADDRESS));
+        assertTrue(freeBenchmarkers.contains(ADDRESS_3));
+    }
+
     @Test
     void freeBenchmarker_hasOccupied() {
         benchmarkerPool.registerBenchmarker(ADDRESS, new SystemEnvironment());
@@ -333,6 +357,190 @@ public class BenchmarkerPoolTest {
         });
     }
 
+    @Test
+    void tryAcquire_noError() {
+        benchmarkerPool.registerBenchmarker(ADDRESS, new SystemEnvironment());
+
+        assertEquals(ADDRESS, benchmarkerPool.tryAcquire());
+
+        assertNull(benchmarkerPool.tryAcquire());
+        assertFalse(benchmarkerPool.hasFreeBenchmarkers());
+        assertEquals(BenchmarkerState.OCCUPIED, benchmarkerPool.getBenchmarkerState(ADDRESS));
+
+        benchmarkerPool.freeBenchmarker(ADDRESS);
+
+        assertEquals(ADDRESS, benchmarkerPool.tryAcquire());
+    }
+
+    @Test
+    void tryAcquire_occupiedBenchmarkerSkipped() {
+        benchmarkerPool.registerBenchmarker(ADDRESS, new SystemEnvironment());
+        benchmarkerPool.registerBenchmarker(ADDRESS + "2", new SystemEnvironment());
+
+        benchmarkerPool.occupyBenchmarker(ADDRESS);
+
+        assertEquals(ADDRESS + "2", benchmarkerPool.tryAcquire());
+        assertNull(benchmarkerPool.tryAcquire());
+    }
+
+    @Test
+    void tryAcquire_concurrent_noBenchmarkerAssignedTwice() throws InterruptedException {
+        final int amtBenchmarkers = 50;
+        final int amtThreads = 8;
+
+        for (int i = 0; i < amtBenchmarkers; i++) {
+            benchmarkerPool.registerBenchmarker(ADDRESS + i, new SystemEnvironment());
+        }
+
+        final Collection<String> acquired = new ConcurrentLinkedQueue<>();
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Thread> threads = new ArrayList<>();
+
+        for (int i = 0; i < amtThreads; i++) {
+            final Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+
+                String address;
+                while ((address = benchmarkerPool.tryAcquire()) != null) {
+                    acquired.add(address);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        start.countDown();
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        final Set<String> distinct = new HashSet<>(acquired);
+
+        assertEquals(amtBenchmarkers, acquired.size());
+        assertEquals(amtBenchmarkers, distinct.size());
+        assertFalse(benchmarkerPool.hasFreeBenchmarkers());
+    }
+
+    @Test
+    void drainBenchmarker_occupied_removedWhenFreed() {
+        benchmarkerPool.registerBenchmarker(ADDRESS, new SystemEnvironment());
+        benchmarkerPool.occupyBenchmarker(ADDRESS);
+
+        assertTrue(benchmarkerPool.drainBenchmarker(ADDRESS));
+        assertEquals(BenchmarkerState.DRAINING, benchmarkerPool.getBenchmarkerState(ADDRESS));
+        assertEquals(1, benchmarkerPool.getAllBenchmarkerAddresses().size());
+
+        benchmarkerPool.freeBenchmarker(ADDRESS);
+
+        assertEquals(BenchmarkerState.GONE, benchmarkerPool.getBenchmarkerState(ADDRESS));
+        assertTrue(benchmarkerPool.getAllBenchmarkerAddresses().isEmpty());
+        assertNull(benchmarkerPool.tryAcquire());
+    }
+
+    @Test
+    void getPrefetchWindow_drainedOrUnknown_zero() {
+        final SystemEnvironment systemEnvironment = new SystemEnvironment();
+        ReflectionTestUtils.setField(systemEnvironment, "prefetchWindow", 2);
+
+        benchmarkerPool.registerBenchmarker(ADDRESS, systemEnvironment);
+        benchmarkerPool.occupyBenchmarker(ADDRESS);
+
+        assertEquals(2, benchmarkerPool.getPrefetchWindow(ADDRESS));
+
+        benchmarkerPool.drainBenchmarker(ADDRESS);
+
+        assertEquals(0, benchmarkerPool.getPrefetchWindow(ADDRESS));
+        assertEquals(0, benchmarkerPool.getPrefetchWindow(ADDRESS + "Unknown"));
+    }
+
+    @Test
+    void drainBenchmarker_free_removedImmediately() {
+        benchmarkerPool.registerBenchmarker(ADDRESS, new SystemEnvironment());
+
+        assertTrue(benchmarkerPool.drainBenchmarker(ADDRESS));
+
+        assertFalse(benchmarkerPool.hasFreeBenchmarkers());
+        assertTrue(benchmarkerPool.getAllBenchmarkerAddresses().isEmpty());
+        assertFalse(benchmarkerPool.drainBenchmarker(ADDRESS));
+    }
+
+    @Test
+    void registerBenchmarker_slots_eachSlotAcquired() {
+        final SystemEnvironment environment = new SystemEnvironment();
+        ReflectionTestUtils.setField(environment, "slots", 3);
+
+        assertTrue(benchmarkerPool.registerBenchmarker(ADDRESS, environment));
+        assertEquals(3, benchmarkerPool.getCapacity(ADDRESS));
+
+        final Set<String> acquired = new HashSet<>();
+        String address;
+        while ((address = benchmarkerPool.tryAcquire()) != null) {
+            acquired.add(address);
+        }
+
+        assertEquals(Set.of(ADDRESS, ADDRESS + "#1", ADDRESS + "#2"), acquired);
+        assertEquals(environment, benchmarkerPool.getBenchmarkerSystemEnvironment(ADDRESS + "#2"));
+    }
+
+    @Test
+    void unregisterBenchmarker_slots_allSlotsRemoved() {
+        final SystemEnvironment environment = new SystemEnvironment();
+        ReflectionTestUtils.setField(environment, "slots", 2);
+        benchmarkerPool.registerBenchmarker(ADDRESS, environment);
+        benchmarkerPool.occupyBenchmarker(ADDRESS + "#1");
+
+        assertTrue(benchmarkerPool.unregisterBenchmarker(ADDRESS));
+
+        assertEquals(0, benchmarkerPool.getCapacity(ADDRESS));
+        assertFalse(benchmarkerPool.hasFreeBenchmarkers());
+        assertTrue(benchmarkerPool.getAllBenchmarkerAddresses().isEmpty());
+    }
+
+    @Test
+    void drainBenchmarker_slots_occupiedSlotRemovedWhenFreed() {
+        final SystemEnvironment environment = new SystemEnvironment();
+        ReflectionTestUtils.setField(environment, "slots", 2);
+        benchmarkerPool.registerBenchmarker(ADDRESS, environment);
+        benchmarkerPool.occupyBenchmarker(ADDRESS);
+
+        assertTrue(benchmarkerPool.drainBenchmarker(ADDRESS));
+        assertEquals(1, benchmarkerPool.getCapacity(ADDRESS));
+        assertEquals(BenchmarkerState.DRAINING, benchmarkerPool.getBenchmarkerState(ADDRESS));
+
+        benchmarkerPool.freeBenchmarker(ADDRESS);
+        assertEquals(0, benchmarkerPool.getCapacity(ADDRESS));
+    }
+
+    @Test
+    void unregisterBenchmarker_slots_otherBenchmarkerKept() {
+        final SystemEnvironment environment = new SystemEnvironment();
+        ReflectionTestUtils.setField(environment, "slots", 2);
+        benchmarkerPool.registerBenchmarker(ADDRESS, environment);
+        benchmarkerPool.registerBenchmarker(ADDRESS + "Other", environment);
+
+        assertTrue(benchmarkerPool.unregisterBenchmarker(ADDRESS));
+
+        assertEquals(0, benchmarkerPool.getCapacity(ADDRESS));
+        assertEquals(2, benchmarkerPool.getCapacity(ADDRESS + "Other"));
+        assertTrue(benchmarkerPool.registerBenchmarker(ADDRESS, environment));
+        assertEquals(2, benchmarkerPool.getCapacity(ADDRESS));
+    }
+
+    @Test
+    void slotAddresses_roundTrip() {
+        final String slotAddress = SlotAddresses.getSlotAddress(ADDRESS, 2);
+
+        assertEquals(ADDRESS, SlotAddresses.getSlotAddress(ADDRESS, 0));
+        assertEquals(ADDRESS, SlotAddresses.getBenchmarkerAddress(slotAddress));
+        assertEquals(2, SlotAddresses.getSlot(slotAddress));
+        assertEquals(0, SlotAddresses.getSlot(ADDRESS));
+        assertThrows(IllegalArgumentException.class, () -> SlotAddresses.getSlotAddress(ADDRESS, -1));
+    }
+
     @Test
     void getBenchmarkerSystemEnvironment_noError() {
         final SystemEnvironment expectedSystemEnvironment = new SystemEnvironment();
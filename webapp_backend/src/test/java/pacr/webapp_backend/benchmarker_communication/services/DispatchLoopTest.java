@@ -0,0 +1,110 @@
+package pacr.webapp_backend.benchmarker_communication.services;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class DispatchLoopTest {
+
+    private static final int CAPACITY = 16;
+
+    private DispatchLoop dispatchLoop;
+
+    @BeforeEach
+    void setUp() {
+        dispatchLoop = new DispatchLoop("test-dispatch", CAPACITY);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        dispatchLoop.stop();
+    }
+
+    @Test
+    void submit_eventsHandledInOrderOnOneThread() {
+        final List<Integer> handled = Collections.synchronizedList(new ArrayList<>());
+        final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        final int amtEvents = 1000;
+
+        for (int i = 0; i < amtEvents; i++) {
+            final int event = i;
+            dispatchLoop.submit(() -> {
+                handled.add(event);
+                threads.add(Thread.currentThread());
+            });
+        }
+
+        dispatchLoop.flush();
+
+        assertEquals(amtEvents, handled.size());
+        for (int i = 0; i < amtEvents; i++) {
+            assertEquals(i, handled.get(i));
+        }
+        assertEquals(1, threads.size());
+    }
+
+    @Test
+    void submit_concurrentProducers_noEventLost() throws InterruptedException {
+        final int amtThreads = 4;
+        final int amtEvents = 1000;
+        final int[] counter = new int[1];
+
+        final List<Thread> producers = new ArrayList<>();
+        for (int i = 0; i < amtThreads; i++) {
+            final Thread producer = new Thread(() -> {
+                for (int j = 0; j < amtEvents; j++) {
+                    // the counter is only changed by the loop, so it needs no synchronization
+                    dispatchLoop.submit(() -> counter[0]++);
+                }
+            });
+            producer.start();
+            producers.add(producer);
+        }
+
+        for (final Thread producer : producers) {
+            producer.join();
+        }
+
+        assertEquals(amtThreads * amtEvents, (int) dispatchLoop.call(() -> counter[0]));
+    }
+
+    @Test
+    void call_exceptionThrownToCaller_loopKeepsRunning() {
+        assertThrows(IllegalArgumentException.class, () -> dispatchLoop.call(() -> {
+            throw new IllegalArgumentException();
+        }));
+
+        dispatchLoop.submit(() -> {
+            throw new IllegalStateException();
+        });
+
+        assertEquals(1, (int) dispatchLoop.call(() -> 1));
+    }
+
+    @Test
+    void report_eventsCounted() {
+        dispatchLoop.submit(() -> { });
+        dispatchLoop.flush();
+
+        final DispatchMetricsReport report = dispatchLoop.report();
+
+        assertEquals(0, report.getQueueDepth());
+        assertEquals(CAPACITY, report.getQueueCapacity());
+        assertEquals(2, report.getEventsHandled());
+        assertEquals(2, report.getLoopLagNanos().getCount());
+    }
+
+    @Test
+    void constructor_invalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new DispatchLoop("test-dispatch", 0));
+    }
+
+}
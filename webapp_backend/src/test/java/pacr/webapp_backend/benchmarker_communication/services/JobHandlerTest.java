@@ -1,6 +1,9 @@
 package pacr.webapp_backend.benchmarker_communication.services;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,6 +14,8 @@ import org.mockito.MockitoAnnotations;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
 import pacr.webapp_backend.SpringBootTestWithoutShell;
 import pacr.webapp_backend.database.JobDB;
 import pacr.webapp_backend.database.JobGroupDB;
@@ -21,11 +26,15 @@ import pacr.webapp_backend.shared.IResultSaver;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
@@ -66,6 +75,8 @@ public class JobHandlerTest extends SpringBootTestWithoutShell {
 
     @AfterEach
     public void cleanUp() {
+        jobProvider.flushJobStorage();
+
         jobAccess.deleteAll();
         jobGroupAccess.deleteAll();
     }
@@ -76,6 +87,7 @@ public class JobHandlerTest extends SpringBootTestWithoutShell {
 
         when(job.getJobGroupTitle()).thenReturn(JOB_GROUP);
         when(job.getJobID()).thenReturn(JOB_ID);
+        when(resultSaver.storeBenchmarkingResults(any())).thenCallRealMethod();
 
         jobProvider = spy(new Scheduler(jobAccess, jobGroupAccess));
 
@@ -87,6 +99,7 @@ public class JobHandlerTest extends SpringBootTestWithoutShell {
         when(benchmarkerPool.hasFreeBenchmarkers()).thenReturn(true);
 
         jobHandler.update();
+        jobHandler.flushEvents();
 
         verify(jobHandler).executeJob();
     }
@@ -96,6 +109,7 @@ public class JobHandlerTest extends SpringBootTestWithoutShell {
         when(benchmarkerPool.hasFreeBenchmarkers()).thenReturn(false);
 
         jobHandler.update();
+        jobHandler.flushEvents();
 
         verify(jobProvider, never()).popJob();
     }
@@ -112,9 +126,11 @@ public class JobHandlerTest extends SpringBootTestWithoutShell {
         addJob(JOB_GROUP, JOB_ID);
         when(benchmarkerPool.hasFreeBenchmarkers()).thenReturn(true);
         when(benchmarkerPool.getFreeBenchmarker()).thenReturn(ADDRESS);
+        when(benchmarkerPool.getFreeBenchmarkers()).thenReturn(List.of(ADDRESS));
         when(jobSender.sendJob(any(BenchmarkerJob.class))).thenReturn(true);
 
         jobHandler.executeJob();
+        jobHandler.flushEvents();
 
         verify(jobSender).sendJob(argThat(new BenchmarkerJobMatcher(job, ADDRESS)));
         verify(benchmarkerPool).occupyBenchmarker(ADDRESS);
@@ -125,15 +141,18 @@ public class JobHandlerTest extends SpringBootTestWithoutShell {
         addJob(JOB_GROUP, JOB_ID);
         when(benchmarkerPool.hasFreeBenchmarkers()).thenReturn(true);
         when(benchmarkerPool.getFreeBenchmarker()).thenReturn(ADDRESS);
+        when(benchmarkerPool.getFreeBenchmarkers()).thenReturn(List.of(ADDRESS));
         when(jobSender.sendJob(any(BenchmarkerJob.class))).thenReturn(false);
 
         jobHandler.executeJob();
+        jobHandler.flushEvents();
 
-        verify(jobSender).sendJob(argThat(new BenchmarkerJobMatcher(job, ADDRESS)));
+        // sending is retried until the maximum amount of attempts is reached
+        verify(jobSender, times(100)).sendJob(argThat(new BenchmarkerJobMatcher(job, ADDRESS)));
         verify(benchmarkerPool, never()).occupyBenchmarker(ADDRESS);
 
         final ArgumentCaptor<Job> jobCaptor = ArgumentCaptor.forClass(Job.class);
-        verify(jobProvider).returnJob(jobCaptor.capture());
+        verify(jobProvider, times(100)).returnJob(jobCaptor.capture());
 
         final Job returnedJob = jobCaptor.getValue();
         assertEquals(JOB_GROUP, returnedJob.getJobGroupTitle());
@@ -146,30 +165,81 @@ public class JobHandlerTest extends SpringBootTestWithoutShell {
         when(benchmarkerPool.hasFreeBenchmarkers()).thenReturn(false);
 
         jobHandler.executeJob();
+        jobHandler.flushEvents();
 
-        verify(benchmarkerPool, never()).getFreeBenchmarker();
+        verify(jobProvider, never()).popJobs(anyInt(), any());
         verify(jobSender, never()).sendJob(any(BenchmarkerJob.class));
         verify(benchmarkerPool, never()).occupyBenchmarker(ADDRESS);
-
-        final ArgumentCaptor<Job> jobCaptor = ArgumentCaptor.forClass(Job.class);
-        verify(jobProvider).returnJob(jobCaptor.capture());
-
-        final Job returnedJob = jobCaptor.getValue();
-        assertEquals(JOB_GROUP, returnedJob.getJobGroupTitle());
-        assertEquals(JOB_ID, returnedJob.getJobID());
+        verify(jobProvider, never()).returnJob(any());
     }
 
     @Test
     void executeJob_noJob() {
+        when(benchmarkerPool.hasFreeBenchmarkers()).thenReturn(true);
+        when(benchmarkerPool.getFreeBenchmarkers()).thenReturn(List.of(ADDRESS));
+
         jobHandler.executeJob();
+        jobHandler.flushEvents();
 
-        verify(benchmarkerPool, never()).hasFreeBenchmarkers();
-        verify(benchmarkerPool, never()).getFreeBenchmarker();
         verify(jobSender, never()).sendJob(any(BenchmarkerJob.class));
         verify(benchmarkerPool, never()).occupyBenchmarker(ADDRESS);
         verify(jobProvider, never()).returnJob(any());
     }
 
+    @Test
+    void executeJob_multipleBenchmarkers_filledInOnePass() {
+        final int amtBenchmarkers = 3;
+
+        final BenchmarkerPool benchmarkerPool = new BenchmarkerPool();
+        for (int i = 0; i < amtBenchmarkers; i++) {
+            benchmarkerPool.registerBenchmarker(ADDRESS + i, new SystemEnvironment());
+        }
+
+        jobProvider.addJobs(JOB_GROUP, List.of(JOB_ID + 0, JOB_ID + 1, JOB_ID + 2, JOB_ID + 3));
+
+        this.jobHandler = new JobHandler(jobSender, benchmarkerPool, jobProvider, resultSaver);
+        when(jobSender.sendJob(any(BenchmarkerJob.class))).thenReturn(true);
+
+        jobHandler.executeJob();
+        jobHandler.flushEvents();
+
+        verify(jobProvider).popJobs(eq(amtBenchmarkers), any());
+        verify(jobProvider, never()).popJob();
+        verify(jobSender, times(amtBenchmarkers)).sendJob(any(BenchmarkerJob.class));
+        assertFalse(benchmarkerPool.hasFreeBenchmarkers());
+
+        for (int i = 0; i < amtBenchmarkers; i++) {
+            assertNotNull(jobHandler.getCurrentBenchmarkerJob(ADDRESS + i));
+        }
+        assertEquals(1, jobProvider.getJobsQueue(PageRequest.of(0, 10)).getTotalElements());
+    }
+
+    @Test
+    void executeJob_jobAlreadyRunning_notSentTwice() {
+        final String ADDRESS_2 = ADDRESS + "Second";
+
+        final BenchmarkerPool benchmarkerPool = new BenchmarkerPool();
+        benchmarkerPool.registerBenchmarker(ADDRESS, new SystemEnvironment());
+
+        this.jobHandler = new JobHandler(jobSender, benchmarkerPool, jobProvider, resultSaver);
+        when(jobSender.sendJob(any(BenchmarkerJob.class))).thenReturn(true);
+
+        addJob(JOB_GROUP, JOB_ID);
+        jobHandler.executeJob();
+        jobHandler.flushEvents();
+
+        // the same job is added again while it is benchmarked
+        addJob(JOB_GROUP, JOB_ID);
+        benchmarkerPool.registerBenchmarker(ADDRESS_2, new SystemEnvironment());
+        jobHandler.executeJob();
+        jobHandler.flushEvents();
+
+        verify(jobSender, times(1)).sendJob(any(BenchmarkerJob.class));
+        assertNull(jobHandler.getCurrentBenchmarkerJob(ADDRESS_2));
+        // the dispatched job is still stored, so adding it again is skipped
+        assertEquals(0, jobProvider.getJobsQueue(PageRequest.of(0, 10)).getTotalElements());
+    }
+
     @Test
     void executeJob_sendingDifficulties_resolved() {
         addJob(JOB_GROUP, JOB_ID);
@@ -191,6 +261,7 @@ public class JobHandlerTest extends SpringBootTestWithoutShell {
         });
 
         jobHandler.executeJob();
+        jobHandler.flushEvents();
 
         verify(jobSender, times(100)).sendJob(any(BenchmarkerJob.class));
         assertFalse(benchmarkerPool.hasFreeBenchmarkers());
@@ -210,9 +281,12 @@ public class JobHandlerTest extends SpringBootTestWithoutShell {
         when(jobSender.sendJob(any(BenchmarkerJob.class))).thenReturn(false);
 
         jobHandler.executeJob();
+        jobHandler.flushEvents();
 
         verify(jobSender, times(100)).sendJob(any(BenchmarkerJob.class));
         assertTrue(benchmarkerPool.hasFreeBenchmarkers());
+
+        scheduler.flushJobStorage();
     }
 
     @Test
@@ -232,6 +306,7 @@ public class JobHandlerTest extends SpringBootTestWithoutShell {
         when(jobSender.sendJob(argThat(new BenchmarkerJobMatcher(ADDRESS_2)))).thenReturn(true);
 
         jobHandler.executeJob();
+        jobHandler.flushEvents();
 
         final String remainingBenchmarker = benchmarkerPool.getFreeBenchmarker();
 
@@ -246,21 +321,72 @@ public class JobHandlerTest extends SpringBootTestWithoutShell {
         addJob(JOB_GROUP, JOB_ID);
         when(benchmarkerPool.hasFreeBenchmarkers()).thenReturn(true);
         when(benchmarkerPool.getFreeBenchmarker()).thenReturn(ADDRESS);
+        when(benchmarkerPool.getFreeBenchmarkers()).thenReturn(List.of(ADDRESS));
         when(jobSender.sendJob(any(BenchmarkerJob.class))).thenReturn(true);
         jobHandler.executeJob();
+        jobHandler.flushEvents();
 
         jobHandler.receiveBenchmarkingResults(ADDRESS, result);
+        jobHandler.flushEvents();
 
         verify(benchmarkerPool).freeBenchmarker(ADDRESS);
         verify(resultSaver).saveBenchmarkingResults(result);
-        verify(jobProvider, times(2)).popJob();
+        verify(jobProvider, times(2)).popJobs(anyInt(), any());
     }
 
     @Test
-    void receiveBenchmarkingResults_unknownBenchmarker() {
-        assertThrows(IllegalArgumentException.class, () -> {
-            jobHandler.receiveBenchmarkingResults(ADDRESS, new JobResult());
-        });
+    void receiveBenchmarkingResults_storedLater_finishedOnceStored() {
+        final JobResult result = new JobResult();
+        final CompletableFuture<Void> stored = new CompletableFuture<>();
+        doReturn(stored).when(resultSaver).storeBenchmarkingResults(result);
+
+        addJob(JOB_GROUP, JOB_ID);
+        when(benchmarkerPool.hasFreeBenchmarkers()).thenReturn(true);
+        when(benchmarkerPool.getFreeBenchmarkers()).thenReturn(List.of(ADDRESS)).thenReturn(List.of());
+        when(jobSender.sendJob(any(BenchmarkerJob.class))).thenReturn(true);
+        jobHandler.executeJob();
+        jobHandler.flushEvents();
+
+        jobHandler.receiveBenchmarkingResults(ADDRESS, result);
+        jobHandler.flushEvents();
+
+        verify(benchmarkerPool).freeBenchmarker(ADDRESS);
+        verify(jobProvider, never()).finishJob(any(IJob.class));
+
+        stored.complete(null);
+        jobHandler.flushEvents();
+
+        verify(jobProvider).finishJob(any(IJob.class));
+    }
+
+    @Test
+    void receiveBenchmarkingResults_notStored_jobReturned() {
+        final JobResult result = new JobResult();
+        doReturn(CompletableFuture.failedFuture(new IllegalStateException())).when(resultSaver)
+                .storeBenchmarkingResults(result);
+
+        addJob(JOB_GROUP, JOB_ID);
+        when(benchmarkerPool.hasFreeBenchmarkers()).thenReturn(true);
+        when(benchmarkerPool.getFreeBenchmarkers()).thenReturn(List.of(ADDRESS)).thenReturn(List.of());
+        when(jobSender.sendJob(any(BenchmarkerJob.class))).thenReturn(true);
+        jobHandler.executeJob();
+        jobHandler.flushEvents();
+
+        jobHandler.receiveBenchmarkingResults(ADDRESS, result);
+        jobHandler.flushEvents();
+
+        verify(jobProvider, never()).finishJob(any(IJob.class));
+        verify(jobProvider).returnJob(any(IJob.class));
+        assertEquals(1, jobProvider.getJobsQueue(PageRequest.of(0, 10)).getTotalElements());
+    }
+
+    @Test
+    void receiveBenchmarkingResults_unknownBenchmarker_discarded() {
+        jobHandler.receiveBenchmarkingResults(ADDRESS, new JobResult());
+        jobHandler.flushEvents();
+
+        verify(resultSaver, never()).saveBenchmarkingResults(any(JobResult.class));
+        verify(benchmarkerPool, never()).freeBenchmarker(ADDRESS);
     }
 
     @Test
@@ -268,10 +394,13 @@ public class JobHandlerTest extends SpringBootTestWithoutShell {
         addJob(JOB_GROUP, JOB_ID);
         when(benchmarkerPool.hasFreeBenchmarkers()).thenReturn(true);
         when(benchmarkerPool.getFreeBenchmarker()).thenReturn(ADDRESS);
+        when(benchmarkerPool.getFreeBenchmarkers()).thenReturn(List.of(ADDRESS));
         when(jobSender.sendJob(any(BenchmarkerJob.class))).thenReturn(true);
         jobHandler.executeJob();
+        jobHandler.flushEvents();
 
         jobHandler.receiveBenchmarkingResults(ADDRESS, null);
+        jobHandler.flushEvents();
 
         verify(benchmarkerPool).freeBenchmarker(ADDRESS);
         verify(resultSaver, never()).saveBenchmarkingResults(any(JobResult.class));
@@ -284,16 +413,204 @@ public class JobHandlerTest extends SpringBootTestWithoutShell {
         assertEquals(JOB_ID, returnedJob.getJobID());
     }
 
+    @Test
+    void receiveBenchmarkingResults_sentAgain_savedOnceAndAcknowledged() {
+        final JobResult result = createResumableResult(JOB_GROUP, JOB_ID);
+
+        addJob(JOB_GROUP, JOB_ID);
+        when(benchmarkerPool.hasFreeBenchmarkers()).thenReturn(true);
+        when(benchmarkerPool.getFreeBenchmarkers()).thenReturn(List.of(ADDRESS));
+        when(jobSender.sendJob(any(BenchmarkerJob.class))).thenReturn(true);
+        jobHandler.executeJob();
+        jobHandler.flushEvents();
+
+        jobHandler.receiveBenchmarkingResults(ADDRESS, result);
+        jobHandler.receiveBenchmarkingResults(ADDRESS, result);
+        jobHandler.flushEvents();
+
+        verify(resultSaver).saveBenchmarkingResults(result);
+        verify(jobProvider).finishJob(any(IJob.class));
+        verify(jobSender, times(2)).acknowledgeResult(ADDRESS, result.getAttemptId());
+    }
+
+    @Test
+    void receiveBenchmarkingResults_storedLater_acknowledgedOnceStored() {
+        final JobResult result = createResumableResult(JOB_GROUP, JOB_ID);
+        final CompletableFuture<Void> stored = new CompletableFuture<>();
+        doReturn(stored).when(resultSaver).storeBenchmarkingResults(result);
+
+        addJob(JOB_GROUP, JOB_ID);
+        when(benchmarkerPool.hasFreeBenchmarkers()).thenReturn(true);
+        when(benchmarkerPool.getFreeBenchmarkers()).thenReturn(List.of(ADDRESS)).thenReturn(List.of());
+        when(jobSender.sendJob(any(BenchmarkerJob.class))).thenReturn(true);
+        jobHandler.executeJob();
+        jobHandler.flushEvents();
+
+        jobHandler.receiveBenchmarkingResults(ADDRESS, result);
+        jobHandler.receiveBenchmarkingResults(ADDRESS, result);
+        jobHandler.flushEvents();
+
+        verify(resultSaver).storeBenchmarkingResults(result);
+        verify(jobSender, never()).acknowledgeResult(any(), any());
+
+        stored.complete(null);
+        jobHandler.flushEvents();
+
+        verify(jobSender).acknowledgeResult(ADDRESS, result.getAttemptId());
+    }
+
+    @Test
+    void receiveBenchmarkingResults_notStored_notAcknowledged() {
+        final JobResult result = createResumableResult(JOB_GROUP, JOB_ID);
+        doReturn(CompletableFuture.failedFuture(new IllegalStateException())).when(resultSaver)
+                .storeBenchmarkingResults(result);
+
+        addJob(JOB_GROUP, JOB_ID);
+        when(benchmarkerPool.hasFreeBenchmarkers()).thenReturn(true);
+        when(benchmarkerPool.getFreeBenchmarkers()).thenReturn(List.of(ADDRESS)).thenReturn(List.of());
+        when(jobSender.sendJob(any(BenchmarkerJob.class))).thenReturn(true);
+        jobHandler.executeJob();
+        jobHandler.flushEvents();
+
+        jobHandler.receiveBenchmarkingResults(ADDRESS, result);
+        jobHandler.flushEvents();
+
+        verify(jobSender, never()).acknowledgeResult(any(), any());
+        verify(jobProvider, never()).finishJob(any(IJob.class));
+    }
+
+    @Test
+    void receiveBenchmarkingResults_afterConnectionLost_saved() {
+        final String NEW_ADDRESS = ADDRESS + "New";
+        final JobResult result = createResumableResult(JOB_GROUP, JOB_ID);
+
+        addJob(JOB_GROUP, JOB_ID);
+        when(benchmarkerPool.hasFreeBenchmarkers()).thenReturn(true);
+        when(benchmarkerPool.getFreeBenchmarkers()).thenReturn(List.of(ADDRESS)).thenReturn(List.of());
+        when(jobSender.sendJob(any(BenchmarkerJob.class))).thenReturn(true);
+        jobHandler.executeJob();
+        jobHandler.flushEvents();
+
+        jobHandler.connectionLostFor(ADDRESS);
+        jobHandler.flushEvents();
+        verify(jobProvider).returnJob(any(IJob.class));
+
+        jobHandler.receiveBenchmarkingResults(NEW_ADDRESS, result);
+        jobHandler.flushEvents();
+
+        verify(resultSaver).saveBenchmarkingResults(result);
+        verify(jobSender).acknowledgeResult(NEW_ADDRESS, result.getAttemptId());
+        assertEquals(0, jobProvider.getJobsQueue(PageRequest.of(0, 10)).getTotalElements());
+    }
+
+    @Test
+    void receiveBenchmarkingResults_beforeConnectionLost_saved() {
+        final String NEW_ADDRESS = ADDRESS + "New";
+        final JobResult result = createResumableResult(JOB_GROUP, JOB_ID);
+
+        addJob(JOB_GROUP, JOB_ID);
+        when(benchmarkerPool.hasFreeBenchmarkers()).thenReturn(true);
+        when(benchmarkerPool.getFreeBenchmarkers()).thenReturn(List.of(ADDRESS));
+        when(jobSender.sendJob(any(BenchmarkerJob.class))).thenReturn(true);
+        jobHandler.executeJob();
+        jobHandler.flushEvents();
+
+        // the old connection is not known to be lost yet
+        jobHandler.receiveBenchmarkingResults(NEW_ADDRESS, result);
+        jobHandler.connectionLostFor(ADDRESS);
+        jobHandler.flushEvents();
+
+        verify(resultSaver).saveBenchmarkingResults(result);
+        verify(jobProvider).finishJob(any(IJob.class));
+        verify(jobProvider, never()).returnJob(any(IJob.class));
+        verify(jobSender).acknowledgeResult(NEW_ADDRESS, result.getAttemptId());
+    }
+
+    @Test
+    void receiveBenchmarkingResults_otherJobOfBenchmarker_leaseKept() {
+        final JobResult result = createResumableResult(JOB_GROUP, JOB_ID + "Other");
+
+        addJob(JOB_GROUP, JOB_ID);
+        when(benchmarkerPool.hasFreeBenchmarkers()).thenReturn(true);
+        when(benchmarkerPool.getFreeBenchmarkers()).thenReturn(List.of(ADDRESS));
+        when(jobSender.sendJob(any(BenchmarkerJob.class))).thenReturn(true);
+        jobHandler.executeJob();
+        jobHandler.flushEvents();
+
+        jobHandler.receiveBenchmarkingResults(ADDRESS, result);
+        jobHandler.flushEvents();
+
+        verify(resultSaver, never()).saveBenchmarkingResults(any(JobResult.class));
+        verify(benchmarkerPool, never()).freeBenchmarker(ADDRESS);
+        verify(jobSender).acknowledgeResult(ADDRESS, result.getAttemptId());
+        assertNotNull(jobHandler.getCurrentBenchmarkerJob(ADDRESS));
+    }
+
+    @Test
+    void receivePartialBenchmarkingResults_jobOfBenchmarker_saved() {
+        final JobResult result = new JobResult();
+        ReflectionTestUtils.setField(result, "commitHash", JOB_ID);
+
+        addJob(JOB_GROUP, JOB_ID);
+        when(benchmarkerPool.hasFreeBenchmarkers()).thenReturn(true);
+        when(benchmarkerPool.getFreeBenchmarker()).thenReturn(ADDRESS);
+        when(benchmarkerPool.getFreeBenchmarkers()).thenReturn(List.of(ADDRESS));
+        when(jobSender.sendJob(any(BenchmarkerJob.class))).thenReturn(true);
+        jobHandler.executeJob();
+        jobHandler.flushEvents();
+
+        jobHandler.receivePartialBenchmarkingResults(ADDRESS, result);
+        jobHandler.flushEvents();
+
+        verify(resultSaver).savePartialBenchmarkingResults(result);
+        verify(resultSaver, never()).saveBenchmarkingResults(any(JobResult.class));
+        verify(benchmarkerPool, never()).freeBenchmarker(ADDRESS);
+        verify(jobProvider, never()).finishJob(any());
+    }
+
+    @Test
+    void receivePartialBenchmarkingResults_otherJob_discarded() {
+        final JobResult result = new JobResult();
+        ReflectionTestUtils.setField(result, "commitHash", JOB_ID + "Other");
+
+        addJob(JOB_GROUP, JOB_ID);
+        when(benchmarkerPool.hasFreeBenchmarkers()).thenReturn(true);
+        when(benchmarkerPool.getFreeBenchmarker()).thenReturn(ADDRESS);
+        when(benchmarkerPool.getFreeBenchmarkers()).thenReturn(List.of(ADDRESS));
+        when(jobSender.sendJob(any(BenchmarkerJob.class))).thenReturn(true);
+        jobHandler.executeJob();
+        jobHandler.flushEvents();
+
+        jobHandler.receivePartialBenchmarkingResults(ADDRESS, result);
+        jobHandler.flushEvents();
+
+        verify(resultSaver, never()).savePartialBenchmarkingResults(any());
+    }
+
+    @Test
+    void receivePartialBenchmarkingResults_unknownBenchmarker_discarded() {
+        final JobResult result = new JobResult();
+        ReflectionTestUtils.setField(result, "commitHash", JOB_ID);
+
+        jobHandler.receivePartialBenchmarkingResults(ADDRESS, result);
+        jobHandler.flushEvents();
+
+        verify(resultSaver, never()).savePartialBenchmarkingResults(any());
+    }
+
     @Test
     void connectionLostFor_noError() {
         addJob(JOB_GROUP, JOB_ID);
 
         when(benchmarkerPool.hasFreeBenchmarkers()).thenReturn(true);
         when(benchmarkerPool.getFreeBenchmarker()).thenReturn(ADDRESS);
+        when(benchmarkerPool.getFreeBenchmarkers()).thenReturn(List.of(ADDRESS));
         when(jobSender.sendJob(any(BenchmarkerJob.class))).thenReturn(true);
         jobHandler.executeJob();
+        jobHandler.flushEvents();
 
         jobHandler.connectionLostFor(ADDRESS);
+        jobHandler.flushEvents();
 
         final ArgumentCaptor<Job> jobCaptor = ArgumentCaptor.forClass(Job.class);
         verify(jobProvider).returnJob(jobCaptor.capture());
@@ -303,9 +620,34 @@ public class JobHandlerTest extends SpringBootTestWithoutShell {
         assertEquals(JOB_ID, returnedJob.getJobID());
     }
 
+    @Test
+    void connectionLostFor_slots_jobsOfAllSlotsReturned() {
+        final SystemEnvironment environment = new SystemEnvironment();
+        ReflectionTestUtils.setField(environment, "slots", 2);
+
+        final BenchmarkerPool benchmarkerPool = new BenchmarkerPool();
+        benchmarkerPool.registerBenchmarker(ADDRESS, environment);
+
+        this.jobHandler = new JobHandler(jobSender, benchmarkerPool, jobProvider, resultSaver);
+        when(jobSender.sendJob(any(BenchmarkerJob.class))).thenReturn(true);
+
+        addJob(JOB_GROUP, JOB_ID);
+        addJob(JOB_GROUP, JOB_ID + 1);
+        jobHandler.executeJob();
+        jobHandler.flushEvents();
+
+        verify(jobSender, times(2)).sendJob(any(BenchmarkerJob.class));
+
+        jobHandler.connectionLostFor(ADDRESS);
+        jobHandler.flushEvents();
+
+        verify(jobProvider, times(2)).returnJob(any(IJob.class));
+    }
+
     @Test
     void connectionLostFor_unknownBenchmarker() {
         jobHandler.connectionLostFor(ADDRESS);
+        jobHandler.flushEvents();
 
         verify(jobProvider, never()).returnJob(any(IJob.class));
     }
@@ -313,6 +655,7 @@ public class JobHandlerTest extends SpringBootTestWithoutShell {
     @Test
     void connectionLostFor_null() {
         jobHandler.connectionLostFor(null);
+        jobHandler.flushEvents();
 
         verify(jobProvider, never()).returnJob(any(IJob.class));
     }
@@ -320,8 +663,10 @@ public class JobHandlerTest extends SpringBootTestWithoutShell {
     @Test
     void connectionLostFor_empty() {
         jobHandler.connectionLostFor("");
+        jobHandler.flushEvents();
 
         jobHandler.connectionLostFor(" ");
+        jobHandler.flushEvents();
 
         verify(jobProvider, never()).returnJob(any(IJob.class));
     }
@@ -331,9 +676,11 @@ public class JobHandlerTest extends SpringBootTestWithoutShell {
         addJob(JOB_GROUP, JOB_ID);
         when(benchmarkerPool.hasFreeBenchmarkers()).thenReturn(true);
         when(benchmarkerPool.getFreeBenchmarker()).thenReturn(ADDRESS);
+        when(benchmarkerPool.getFreeBenchmarkers()).thenReturn(List.of(ADDRESS));
         when(jobSender.sendJob(any(BenchmarkerJob.class))).thenReturn(true);
 
         jobHandler.executeJob();
+        jobHandler.flushEvents();
 
         final IJob currentJob = jobHandler.getCurrentBenchmarkerJob(ADDRESS);
         assertEquals(JOB_GROUP, currentJob.getJobGroupTitle());
@@ -362,10 +709,343 @@ public class JobHandlerTest extends SpringBootTestWithoutShell {
         });
     }
 
+    @Test
+    void checkLeases_leaseExpired_jobReturned() {
+        addJob(JOB_GROUP, JOB_ID);
+        when(benchmarkerPool.getFreeBenchmarkers()).thenReturn(List.of(ADDRESS));
+        when(jobSender.sendJob(any(BenchmarkerJob.class))).thenReturn(true);
+        jobHandler.executeJob();
+        jobHandler.flushEvents();
+
+        jobHandler.checkLeases(LocalDateTime.now().plusMinutes(30));
+        jobHandler.flushEvents();
+        verify(jobProvider, never()).returnJob(any(IJob.class));
+
+        jobHandler.checkLeases(LocalDateTime.now().plusHours(2));
+        jobHandler.flushEvents();
+        verify(jobProvider).returnJob(argThat(returned -> returned.getJobID().equals(JOB_ID)));
+
+        // the benchmarker may still send its result
+        assertNotNull(jobHandler.getCurrentBenchmarkerJob(ADDRESS));
+    }
+
+    @Test
+    void receiveHeartbeat_leaseRenewed() {
+        this.jobHandler = new JobHandler(jobSender, benchmarkerPool, jobProvider, resultSaver, 60, 3600, false, false);
+
+        addJob(JOB_GROUP, JOB_ID);
+        when(benchmarkerPool.getFreeBenchmarkers()).thenReturn(List.of(ADDRESS));
+        when(jobSender.sendJob(any(BenchmarkerJob.class))).thenReturn(true);
+        jobHandler.executeJob();
+        jobHandler.flushEvents();
+
+        jobHandler.receiveHeartbeat(ADDRESS);
+        jobHandler.checkLeases(LocalDateTime.now().plusMinutes(30));
+        jobHandler.flushEvents();
+
+        verify(jobProvider, never()).returnJob(any(IJob.class));
+    }
+
+    @Test
+    void receiveBenchmarkingResults_leaseExpired_firstResultWins() {
+        final String ADDRESS_2 = ADDRESS + "Second";
+
+        final BenchmarkerPool benchmarkerPool = new BenchmarkerPool();
+        benchmarkerPool.registerBenchmarker(ADDRESS, new SystemEnvironment());
+
+        this.jobHandler = new JobHandler(jobSender, benchmarkerPool, jobProvider, resultSaver);
+        when(jobSender.sendJob(any(BenchmarkerJob.class))).thenReturn(true);
+
+        addJob(JOB_GROUP, JOB_ID);
+        jobHandler.executeJob();
+        jobHandler.flushEvents();
+
+        jobHandler.checkLeases(LocalDateTime.now().plusHours(2));
+        jobHandler.flushEvents();
+        benchmarkerPool.registerBenchmarker(ADDRESS_2, new SystemEnvironment());
+        jobHandler.executeJob();
+        jobHandler.flushEvents();
+
+        verify(jobSender).sendJob(argThat(new BenchmarkerJobMatcher(job, ADDRESS_2)));
+
+        final JobResult lateResult = new JobResult();
+        final JobResult duplicateResult = new JobResult();
+        jobHandler.receiveBenchmarkingResults(ADDRESS, lateResult);
+        jobHandler.receiveBenchmarkingResults(ADDRESS_2, duplicateResult);
+        jobHandler.flushEvents();
+
+        verify(resultSaver).saveBenchmarkingResults(lateResult);
+        verify(resultSaver, never()).saveBenchmarkingResults(duplicateResult);
+        verify(jobProvider).finishJob(any(IJob.class));
+        assertEquals(0, jobProvider.getJobsQueue(PageRequest.of(0, 10)).getTotalElements());
+    }
+
+    @Test
+    void checkLeases_speculativeDispatch_duplicateOfStraggler() {
+        final String ADDRESS_2 = ADDRESS + "Second";
+
+        final BenchmarkerPool benchmarkerPool = new BenchmarkerPool();
+        benchmarkerPool.registerBenchmarker(ADDRESS, new SystemEnvironment());
+
+        this.jobHandler = new JobHandler(jobSender, benchmarkerPool, jobProvider, resultSaver, 3600, 300, true, false);
+        when(jobSender.sendJob(any(BenchmarkerJob.class))).thenReturn(true);
+
+        addJob(JOB_GROUP, JOB_ID);
+        // the jobs of the group usually take a minute
+        jobProvider.addToGroupTimeSheet(JOB_GROUP, 60);
+        jobHandler.executeJob();
+        jobHandler.flushEvents();
+
+        benchmarkerPool.registerBenchmarker(ADDRESS_2, new SystemEnvironment());
+        jobHandler.checkLeases(LocalDateTime.now().plusMinutes(1));
+        jobHandler.flushEvents();
+        verify(jobSender, times(1)).sendJob(any(BenchmarkerJob.class));
+
+        jobHandler.checkLeases(LocalDateTime.now().plusMinutes(10));
+        jobHandler.flushEvents();
+        verify(jobSender).sendJob(argThat(new BenchmarkerJobMatcher(job, ADDRESS_2)));
+        verify(jobProvider, never()).returnJob(any(IJob.class));
+
+        final JobResult firstResult = new JobResult();
+        final JobResult secondResult = new JobResult();
+        jobHandler.receiveBenchmarkingResults(ADDRESS_2, firstResult);
+        jobHandler.receiveBenchmarkingResults(ADDRESS, secondResult);
+        jobHandler.flushEvents();
+
+        verify(resultSaver).saveBenchmarkingResults(firstResult);
+        verify(resultSaver, never()).saveBenchmarkingResults(secondResult);
+        assertTrue(benchmarkerPool.hasFreeBenchmarkers());
+    }
+
+    @Test
+    void executeJob_hardwareAffinity_groupStaysOnHardwareClass() {
+        final String ADDRESS_2 = ADDRESS + "Second";
+
+        final SystemEnvironment otherHardware = new SystemEnvironment();
+        ReflectionTestUtils.setField(otherHardware, "cores", 4);
+
+        final BenchmarkerPool benchmarkerPool = new BenchmarkerPool();
+        benchmarkerPool.registerBenchmarker(ADDRESS, new SystemEnvironment());
+        benchmarkerPool.registerBenchmarker(ADDRESS_2, otherHardware);
+
+        this.jobHandler = new JobHandler(jobSender, benchmarkerPool, jobProvider, resultSaver, 3600, 300, false, true);
+        when(jobSender.sendJob(any(BenchmarkerJob.class))).thenReturn(true);
+
+        addJob(JOB_GROUP, JOB_ID);
+        addJob(JOB_GROUP, JOB_ID + 1);
+        jobHandler.executeJob();
+        jobHandler.flushEvents();
+
+        // both jobs belong to the same group, so only benchmarkers of one hardware class get them
+        verify(jobSender, times(1)).sendJob(any(BenchmarkerJob.class));
+        assertEquals(1, jobProvider.getJobsQueue(PageRequest.of(0, 10)).getTotalElements());
+    }
+
+    @Test
+    void executeJob_prefetchWindow_nextJobReserved() {
+        final BenchmarkerPool benchmarkerPool = createPoolWithPrefetchWindow(1);
+        this.jobHandler = new JobHandler(jobSender, benchmarkerPool, jobProvider, resultSaver, 3600, 300, false,
+                false, 1);
+        when(jobSender.sendJob(any(BenchmarkerJob.class))).thenReturn(true);
+        when(jobSender.prefetchJob(any(BenchmarkerJob.class))).thenReturn(true);
+
+        jobProvider.addJobs(JOB_GROUP, List.of(JOB_ID + 0, JOB_ID + 1, JOB_ID + 2));
+        jobHandler.executeJob();
+        jobHandler.flushEvents();
+
+        verify(jobSender).sendJob(argThat(job -> job.getCommitHash().equals(JOB_ID + 0)));
+        verify(jobSender).prefetchJob(argThat(job -> job.getCommitHash().equals(JOB_ID + 1)
+                && job.getAddress().equals(ADDRESS)));
+        assertEquals(1, jobProvider.getJobsQueue(PageRequest.of(0, 10)).getTotalElements());
+    }
+
+    @Test
+    void executeJob_benchmarkerWithoutPrefetchWindow_nothingReserved() {
+        final BenchmarkerPool benchmarkerPool = createPoolWithPrefetchWindow(0);
+        this.jobHandler = new JobHandler(jobSender, benchmarkerPool, jobProvider, resultSaver, 3600, 300, false,
+                false, 1);
+        when(jobSender.sendJob(any(BenchmarkerJob.class))).thenReturn(true);
+
+        jobProvider.addJobs(JOB_GROUP, List.of(JOB_ID + 0, JOB_ID + 1));
+        jobHandler.executeJob();
+        jobHandler.flushEvents();
+
+        verify(jobSender, never()).prefetchJob(any(BenchmarkerJob.class));
+        assertEquals(1, jobProvider.getJobsQueue(PageRequest.of(0, 10)).getTotalElements());
+    }
+
+    @Test
+    void receiveBenchmarkingResults_prefetchWindow_reservedJobStarted() {
+        final BenchmarkerPool benchmarkerPool = createPoolWithPrefetchWindow(1);
+        this.jobHandler = new JobHandler(jobSender, benchmarkerPool, jobProvider, resultSaver, 3600, 300, false,
+                false, 1);
+        when(jobSender.sendJob(any(BenchmarkerJob.class))).thenReturn(true);
+        when(jobSender.prefetchJob(any(BenchmarkerJob.class))).thenReturn(true);
+
+        jobProvider.addJobs(JOB_GROUP, List.of(JOB_ID + 0, JOB_ID + 1, JOB_ID + 2));
+        jobHandler.executeJob();
+        jobHandler.flushEvents();
+
+        jobHandler.receiveBenchmarkingResults(ADDRESS, new JobResult());
+        jobHandler.flushEvents();
+
+        assertEquals(JOB_ID + 1, jobHandler.getCurrentBenchmarkerJob(ADDRESS).getJobID());
+        verify(jobSender).prefetchJob(argThat(job -> job.getCommitHash().equals(JOB_ID + 2)));
+        assertEquals(0, jobProvider.getJobsQueue(PageRequest.of(0, 10)).getTotalElements());
+    }
+
+    @Test
+    void executeJob_queueEmpty_reservedJobOfBusyBenchmarkerTaken() {
+        final String ADDRESS_2 = ADDRESS + "Second";
+
+        final BenchmarkerPool benchmarkerPool = createPoolWithPrefetchWindow(1);
+        this.jobHandler = new JobHandler(jobSender, benchmarkerPool, jobProvider, resultSaver, 3600, 300, false,
+                false, 1);
+        when(jobSender.sendJob(any(BenchmarkerJob.class))).thenReturn(true);
+        when(jobSender.prefetchJob(any(BenchmarkerJob.class))).thenReturn(true);
+
+        jobProvider.addJobs(JOB_GROUP, List.of(JOB_ID + 0, JOB_ID + 1));
+        jobHandler.executeJob();
+        jobHandler.flushEvents();
+
+        benchmarkerPool.registerBenchmarker(ADDRESS_2, new SystemEnvironment());
+        jobHandler.executeJob();
+        jobHandler.flushEvents();
+
+        verify(jobSender).revokeJob(argThat(job -> job.getCommitHash().equals(JOB_ID + 1)
+                && job.getAddress().equals(ADDRESS)));
+        assertEquals(JOB_ID + 1, jobHandler.getCurrentBenchmarkerJob(ADDRESS_2).getJobID());
+    }
+
+    @Test
+    void jobsPrioritized_reservedJobRevokedAndReservedAgain() {
+        final BenchmarkerPool benchmarkerPool = createPoolWithPrefetchWindow(1);
+        this.jobHandler = new JobHandler(jobSender, benchmarkerPool, jobProvider, resultSaver, 3600, 300, false,
+                false, 1);
+        jobProvider.addRevocationListener(jobHandler);
+        when(jobSender.sendJob(any(BenchmarkerJob.class))).thenReturn(true);
+        when(jobSender.prefetchJob(any(BenchmarkerJob.class))).thenReturn(true);
+
+        jobProvider.addJobs(JOB_GROUP, List.of(JOB_ID + 0, JOB_ID + 1, JOB_ID + 2));
+        jobHandler.executeJob();
+        jobHandler.flushEvents();
+
+        jobProvider.givePriorityTo(JOB_GROUP, JOB_ID + 2);
+        jobHandler.flushEvents();
+
+        verify(jobSender).revokeJob(argThat(job -> job.getCommitHash().equals(JOB_ID + 1)));
+        verify(jobSender).prefetchJob(argThat(job -> job.getCommitHash().equals(JOB_ID + 2)));
+        assertEquals(1, jobProvider.getJobsQueue(PageRequest.of(0, 10)).getTotalElements());
+    }
+
+    @Test
+    void jobsPrioritized_onlyDisplacedReservationRevoked() {
+        final String ADDRESS_2 = ADDRESS + "Second";
+
+        final BenchmarkerPool benchmarkerPool = createPoolWithPrefetchWindow(1);
+        final SystemEnvironment systemEnvironment = new SystemEnvironment();
+        ReflectionTestUtils.setField(systemEnvironment, "prefetchWindow", 1);
+        benchmarkerPool.registerBenchmarker(ADDRESS_2, systemEnvironment);
+
+        this.jobHandler = new JobHandler(jobSender, benchmarkerPool, jobProvider, resultSaver, 3600, 300, false,
+                false, 1);
+        jobProvider.addRevocationListener(jobHandler);
+        when(jobSender.sendJob(any(BenchmarkerJob.class))).thenReturn(true);
+        when(jobSender.prefetchJob(any(BenchmarkerJob.class))).thenReturn(true);
+
+        jobProvider.addJobs(JOB_GROUP, List.of(JOB_ID + 0, JOB_ID + 1, JOB_ID + 2, JOB_ID + 3, JOB_ID + 4,
+                JOB_ID + 5));
+        jobHandler.executeJob();
+        jobHandler.flushEvents();
+
+        jobProvider.givePriorityTo(JOB_GROUP, JOB_ID + 5);
+        jobHandler.flushEvents();
+
+        // only one of the two reserved jobs makes room for the prioritized job
+        final ArgumentCaptor<BenchmarkerJob> revokedCaptor = ArgumentCaptor.forClass(BenchmarkerJob.class);
+        verify(jobSender, times(1)).revokeJob(revokedCaptor.capture());
+        verify(jobSender).prefetchJob(argThat(job -> job.getCommitHash().equals(JOB_ID + 5)));
+
+        // the revoked job is queued at its old position, before the job which was queued after it
+        assertEquals(2, jobProvider.getJobsQueue(PageRequest.of(0, 10)).getTotalElements());
+        assertEquals(revokedCaptor.getValue().getCommitHash(), jobProvider.popJob().getJobID());
+        assertEquals(JOB_ID + 4, jobProvider.popJob().getJobID());
+    }
+
+    @Test
+    void jobsPrioritized_noReservations_nothingRevoked() {
+        final BenchmarkerPool benchmarkerPool = createPoolWithPrefetchWindow(0);
+        this.jobHandler = new JobHandler(jobSender, benchmarkerPool, jobProvider, resultSaver, 3600, 300, false,
+                false, 1);
+        jobProvider.addRevocationListener(jobHandler);
+        when(jobSender.sendJob(any(BenchmarkerJob.class))).thenReturn(true);
+
+        jobProvider.addJobs(JOB_GROUP, List.of(JOB_ID + 0, JOB_ID + 1, JOB_ID + 2));
+        jobHandler.executeJob();
+        jobHandler.flushEvents();
+
+        jobProvider.givePriorityTo(JOB_GROUP, JOB_ID + 2);
+        jobHandler.flushEvents();
+
+        verify(jobSender, never()).revokeJob(any(BenchmarkerJob.class));
+        assertEquals(1, jobProvider.getPrioritizedQueue(PageRequest.of(0, 10)).getTotalElements());
+    }
+
+    @Test
+    void jobsRemoved_reservedJobRevokedAndDropped() {
+        final BenchmarkerPool benchmarkerPool = createPoolWithPrefetchWindow(1);
+        this.jobHandler = new JobHandler(jobSender, benchmarkerPool, jobProvider, resultSaver, 3600, 300, false,
+                false, 1);
+        jobProvider.addRevocationListener(jobHandler);
+        when(jobSender.sendJob(any(BenchmarkerJob.class))).thenReturn(true);
+        when(jobSender.prefetchJob(any(BenchmarkerJob.class))).thenReturn(true);
+
+        jobProvider.addJobs(JOB_GROUP, List.of(JOB_ID + 0, JOB_ID + 1));
+        jobHandler.executeJob();
+        jobHandler.flushEvents();
+
+        jobProvider.removeJobs(JOB_GROUP, Set.of(JOB_ID + 1));
+        jobHandler.flushEvents();
+
+        verify(jobSender).revokeJob(argThat(job -> job.getCommitHash().equals(JOB_ID + 1)));
+
+        // the benchmarker doesn't get the removed job after its current one
+        jobHandler.receiveBenchmarkingResults(ADDRESS, new JobResult());
+        jobHandler.flushEvents();
+
+        verify(jobSender, times(1)).sendJob(any(BenchmarkerJob.class));
+        assertNull(jobHandler.getCurrentBenchmarkerJob(ADDRESS));
+        assertEquals(0, jobProvider.getJobsQueue(PageRequest.of(0, 10)).getTotalElements());
+    }
+
+    @Test
+    void JobHandler_negativePrefetchWindow_exception() {
+        assertThrows(IllegalArgumentException.class, () -> new JobHandler(jobSender, benchmarkerPool, jobProvider,
+                resultSaver, 3600, 300, false, false, -1));
+    }
+
+    private BenchmarkerPool createPoolWithPrefetchWindow(final int prefetchWindow) {
+        final SystemEnvironment systemEnvironment = new SystemEnvironment();
+        ReflectionTestUtils.setField(systemEnvironment, "prefetchWindow", prefetchWindow);
+
+        final BenchmarkerPool benchmarkerPool = new BenchmarkerPool();
+        benchmarkerPool.registerBenchmarker(ADDRESS, systemEnvironment);
+
+        return benchmarkerPool;
+    }
+
     private void addJob(String groupTitle, String jobID) {
         jobProvider.addJobs(groupTitle, List.of(jobID));
     }
 
+    private JobResult createResumableResult(final String repository, final String commitHash) {
+        final JobResult result = new JobResult();
+        ReflectionTestUtils.setField(result, "repository", repository);
+        ReflectionTestUtils.setField(result, "commitHash", commitHash);
+        ReflectionTestUtils.setField(result, "attemptId", "attempt");
+        return result;
+    }
+
     private static class BenchmarkerJobMatcher implements ArgumentMatcher<BenchmarkerJob> {
 
         private final IJob job;
@@ -0,0 +1,335 @@
+package pacr.webapp_backend.benchmarker_communication.services;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import pacr.webapp_backend.shared.IBenchmarkingResult;
+import pacr.webapp_backend.shared.IClusterChannel;
+import pacr.webapp_backend.shared.IResultSaver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ResultIngesterTest {
+
+    private static final String GLOBAL_ERROR = "globalError";
+    private static final String REPOSITORY = "repository";
+    private static final String COMMIT_HASH = "commitHash";
+    private static final String NODE_ID = "nodeA";
+    private static final String OTHER_NODE_ID = "nodeB";
+
+    private static final int AMT_WORKERS = 2;
+    private static final int CAPACITY = 10;
+    private static final long RETRY_DELAY = 1;
+
+    @Mock
+    private IResultSaver resultSaver;
+
+    @Mock
+    private IPendingResultAccess pendingResultAccess;
+
+    private ResultIngester resultIngester;
+
+    private JobResult result;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+
+        resultIngester = new ResultIngester(resultSaver, pendingResultAccess, AMT_WORKERS, CAPACITY, RETRY_DELAY);
+
+        final BenchmarkingResult benchmarkingResult = new BenchmarkingResult();
+        benchmarkingResult.setGlobalError(GLOBAL_ERROR);
+
+        result = new JobResult();
+        result.setBenchmarkingResult(benchmarkingResult);
+    }
+
+    @Test
+    void saveBenchmarkingResults_storedSavedAndDeleted() {
+        resultIngester.saveBenchmarkingResults(result);
+        resultIngester.flush();
+
+        final ArgumentCaptor<PendingResult> pendingCaptor = ArgumentCaptor.forClass(PendingResult.class);
+        verify(pendingResultAccess).savePendingResult(pendingCaptor.capture());
+        verify(resultSaver).saveBenchmarkingResults(result);
+        verify(pendingResultAccess).deletePendingResult(pendingCaptor.getValue());
+
+        final IngestionMetricsReport metrics = resultIngester.getMetrics();
+        assertEquals(1, metrics.getResultsSaved());
+        assertEquals(0, metrics.getPendingResults());
+        assertEquals(1, metrics.getIngestionLagMillis().getCount());
+    }
+
+    @Test
+    void storeBenchmarkingResults_stored_completedBeforeSaved() throws Exception {
+        final CountDownLatch saving = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            saving.await();
+            return null;
+        }).when(resultSaver).saveBenchmarkingResults(result);
+
+        resultIngester.storeBenchmarkingResults(result).get(1, TimeUnit.SECONDS);
+
+        verify(pendingResultAccess).savePendingResult(any());
+        verify(resultSaver, never()).saveBenchmarkingResults(result);
+
+        saving.countDown();
+        resultIngester.flush();
+    }
+
+    @Test
+    void storeBenchmarkingResults_neitherStoredNorSaved_completedExceptionally() {
+        doThrow(new IllegalStateException()).when(pendingResultAccess).savePendingResult(any());
+        doThrow(new IllegalStateException()).when(resultSaver).saveBenchmarkingResults(result);
+
+        final CompletableFuture<Void> stored = resultIngester.storeBenchmarkingResults(result);
+        resultIngester.flush();
+
+        assertThrows(ExecutionException.class, () -> stored.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void storeBenchmarkingResults_workersBusy_notSavedByCaller() throws Exception {
+        final ResultIngester busyIngester = new ResultIngester(resultSaver, pendingResultAccess, 1, 2, RETRY_DELAY);
+
+        final CountDownLatch saving = new CountDownLatch(1);
+        final Set<Thread> savingThreads = ConcurrentHashMap.newKeySet();
+        doAnswer(invocation -> {
+            savingThreads.add(Thread.currentThread());
+            saving.await();
+            return null;
+        }).when(resultSaver).saveBenchmarkingResults(result);
+
+        // one result is saved, two wait for the worker and the others wait in the backlog
+        final int amtResults = 5;
+        for (int i = 0; i < amtResults; i++) {
+            busyIngester.storeBenchmarkingResults(result).get(1, TimeUnit.SECONDS);
+        }
+
+        saving.countDown();
+        busyIngester.flush();
+
+        verify(resultSaver, times(amtResults)).saveBenchmarkingResults(result);
+        assertFalse(savingThreads.contains(Thread.currentThread()));
+        assertEquals(amtResults, busyIngester.getMetrics().getResultsSaved());
+    }
+
+    @Test
+    void savePartialBenchmarkingResults_savedButNotStored() {
+        resultIngester.savePartialBenchmarkingResults(result);
+
+        verify(resultSaver, timeout(1000)).savePartialBenchmarkingResults(result);
+        verify(pendingResultAccess, never()).savePendingResult(any());
+    }
+
+    @Test
+    void saveBenchmarkingResults_otherResult_notStored() {
+        final IBenchmarkingResult otherResult = mock(IBenchmarkingResult.class);
+
+        resultIngester.saveBenchmarkingResults(otherResult);
+        resultIngester.flush();
+
+        verify(resultSaver).saveBenchmarkingResults(otherResult);
+        verify(pendingResultAccess, never()).savePendingResult(any());
+    }
+
+    @Test
+    void saveBenchmarkingResults_saveFailed_retried() {
+        doThrow(new IllegalStateException()).doNothing().when(resultSaver).saveBenchmarkingResults(result);
+
+        resultIngester.saveBenchmarkingResults(result);
+        resultIngester.flush();
+
+        verify(resultSaver, times(2)).saveBenchmarkingResults(result);
+        verify(pendingResultAccess).deletePendingResult(any());
+
+        final IngestionMetricsReport metrics = resultIngester.getMetrics();
+        assertEquals(1, metrics.getRetries());
+        assertEquals(1, metrics.getResultsSaved());
+    }
+
+    @Test
+    void saveBenchmarkingResults_saveAlwaysFails_retriedAndKeptStored() {
+        doThrow(new IllegalStateException()).when(resultSaver).saveBenchmarkingResults(result);
+
+        resultIngester.saveBenchmarkingResults(result);
+
+        verify(resultSaver, timeout(5000).atLeast(7)).saveBenchmarkingResults(result);
+        verify(pendingResultAccess, never()).deletePendingResult(any());
+        assertEquals(0, resultIngester.getMetrics().getResultsFailed());
+        assertEquals(1, resultIngester.getMetrics().getPendingResults());
+    }
+
+    @Test
+    void saveBenchmarkingResults_saveFailsMoreThanMaxAttempts_storedResultSavedLater() {
+        doThrow(new IllegalStateException()).doThrow(new IllegalStateException())
+                .doThrow(new IllegalStateException()).doThrow(new IllegalStateException())
+                .doThrow(new IllegalStateException()).doThrow(new IllegalStateException())
+                .doNothing().when(resultSaver).saveBenchmarkingResults(result);
+
+        resultIngester.saveBenchmarkingResults(result);
+        resultIngester.flush();
+
+        verify(resultSaver, times(7)).saveBenchmarkingResults(result);
+        verify(pendingResultAccess).deletePendingResult(any());
+
+        final IngestionMetricsReport metrics = resultIngester.getMetrics();
+        assertEquals(1, metrics.getResultsSaved());
+        assertEquals(0, metrics.getResultsFailed());
+    }
+
+    @Test
+    void saveBenchmarkingResults_notStoredAndSaveAlwaysFails_givenUp() {
+        doThrow(new IllegalStateException()).when(pendingResultAccess).savePendingResult(any());
+        doThrow(new IllegalStateException()).when(resultSaver).saveBenchmarkingResults(result);
+
+        resultIngester.saveBenchmarkingResults(result);
+        resultIngester.flush();
+
+        verify(resultSaver, times(5)).saveBenchmarkingResults(result);
+        assertEquals(1, resultIngester.getMetrics().getResultsFailed());
+    }
+
+    @Test
+    void saveStoredResults_restoredAndSaved() {
+        resultIngester.saveBenchmarkingResults(result);
+        resultIngester.flush();
+
+        final ArgumentCaptor<PendingResult> pendingCaptor = ArgumentCaptor.forClass(PendingResult.class);
+        verify(pendingResultAccess).savePendingResult(pendingCaptor.capture());
+
+        // the application is restarted before the result was deleted
+        final IResultSaver restartedSaver = mock(IResultSaver.class);
+        doNothing().when(restartedSaver).saveBenchmarkingResults(any());
+        when(pendingResultAccess.findPendingResults()).thenReturn(List.of(pendingCaptor.getValue()));
+
+        final ResultIngester restarted = new ResultIngester(restartedSaver, pendingResultAccess, AMT_WORKERS,
+                CAPACITY, RETRY_DELAY);
+        restarted.saveStoredResults();
+        restarted.flush();
+
+        final ArgumentCaptor<IBenchmarkingResult> resultCaptor = ArgumentCaptor.forClass(IBenchmarkingResult.class);
+        verify(restartedSaver).saveBenchmarkingResults(resultCaptor.capture());
+        assertEquals(GLOBAL_ERROR, resultCaptor.getValue().getGlobalError());
+        verify(pendingResultAccess, times(2)).deletePendingResult(pendingCaptor.getValue());
+    }
+
+    @Test
+    void saveStoredResults_cluster_ownAndUnownedResultsSaved() {
+        final PendingResult stored = storeResult();
+        final PendingResult own = new PendingResult(REPOSITORY, COMMIT_HASH, stored.getResult(),
+                stored.getReceived(), NODE_ID);
+        final PendingResult unowned = new PendingResult(REPOSITORY, COMMIT_HASH, stored.getResult(),
+                stored.getReceived(), null);
+        when(pendingResultAccess.findPendingResults(NODE_ID)).thenReturn(List.of(own));
+        when(pendingResultAccess.findPendingResults(null)).thenReturn(List.of(unowned));
+        when(pendingResultAccess.claimPendingResult(unowned, null, NODE_ID)).thenReturn(true);
+
+        final IResultSaver restartedSaver = mock(IResultSaver.class);
+        final ResultIngester restarted = new ResultIngester(restartedSaver, pendingResultAccess, AMT_WORKERS,
+                CAPACITY, RETRY_DELAY);
+        restarted.setCluster(createChannel());
+        restarted.saveStoredResults();
+        restarted.flush();
+
+        verify(restartedSaver, times(2)).saveBenchmarkingResults(any());
+        verify(pendingResultAccess, never()).findPendingResults();
+        verify(pendingResultAccess).deletePendingResult(own);
+        verify(pendingResultAccess).deletePendingResult(unowned);
+    }
+
+    @Test
+    void nodeLeft_claimedResultsOfNodeSaved() {
+        final PendingResult stored = storeResult();
+        final PendingResult claimed = new PendingResult(REPOSITORY, COMMIT_HASH, stored.getResult(),
+                stored.getReceived(), OTHER_NODE_ID);
+        final PendingResult claimedByOtherNode = new PendingResult(REPOSITORY, COMMIT_HASH + 1, stored.getResult(),
+                stored.getReceived(), OTHER_NODE_ID);
+        when(pendingResultAccess.findPendingResults(OTHER_NODE_ID))
+                .thenReturn(List.of(claimed, claimedByOtherNode));
+        when(pendingResultAccess.claimPendingResult(claimed, OTHER_NODE_ID, NODE_ID)).thenReturn(true);
+
+        final IClusterChannel channel = createChannel();
+        final IResultSaver clusterSaver = mock(IResultSaver.class);
+        final ResultIngester clustered = new ResultIngester(clusterSaver, pendingResultAccess, AMT_WORKERS,
+                CAPACITY, RETRY_DELAY);
+        clustered.setCluster(channel);
+
+        final ArgumentCaptor<Consumer<String>> listenerCaptor = ArgumentCaptor.forClass(Consumer.class);
+        verify(channel).subscribe(eq(IClusterChannel.NODE_LEFT_TOPIC), listenerCaptor.capture());
+
+        // the results of this node are not taken over when the other nodes think it left
+        listenerCaptor.getValue().accept(NODE_ID);
+        listenerCaptor.getValue().accept(OTHER_NODE_ID);
+        clustered.flush();
+
+        verify(pendingResultAccess, never()).findPendingResults(NODE_ID);
+        verify(clusterSaver, times(1)).saveBenchmarkingResults(any());
+        verify(pendingResultAccess).deletePendingResult(claimed);
+        verify(pendingResultAccess, never()).deletePendingResult(claimedByOtherNode);
+    }
+
+    @Test
+    void saveBenchmarkingResults_cluster_storedAsOwnedByNode() {
+        resultIngester.setCluster(createChannel());
+
+        assertEquals(NODE_ID, storeResult().getOwnedBy());
+    }
+
+    @Test
+    void saveBenchmarkingResults_null() {
+        assertThrows(NullPointerException.class, () -> resultIngester.saveBenchmarkingResults(null));
+    }
+
+    private PendingResult storeResult() {
+        resultIngester.saveBenchmarkingResults(result);
+        resultIngester.flush();
+
+        final ArgumentCaptor<PendingResult> pendingCaptor = ArgumentCaptor.forClass(PendingResult.class);
+        verify(pendingResultAccess).savePendingResult(pendingCaptor.capture());
+
+        return pendingCaptor.getValue();
+    }
+
+    private IClusterChannel createChannel() {
+        final IClusterChannel channel = mock(IClusterChannel.class);
+        when(channel.isClustered()).thenReturn(true);
+        when(channel.getNodeId()).thenReturn(NODE_ID);
+
+        return channel;
+    }
+
+    @Test
+    void constructor_invalidArguments() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ResultIngester(resultSaver, pendingResultAccess, 0, CAPACITY, RETRY_DELAY));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ResultIngester(resultSaver, pendingResultAccess, AMT_WORKERS, 0, RETRY_DELAY));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ResultIngester(resultSaver, pendingResultAccess, AMT_WORKERS, CAPACITY, 0));
+    }
+
+}
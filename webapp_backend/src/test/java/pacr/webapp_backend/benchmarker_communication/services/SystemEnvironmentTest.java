@@ -2,8 +2,10 @@ package pacr.webapp_backend.benchmarker_communication.services;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 
 public class SystemEnvironmentTest {
@@ -24,4 +26,16 @@ public class SystemEnvironmentTest {
         assertEquals(0, systemEnvironment.getCores());
         assertEquals(0, systemEnvironment.getRam());
     }
+
+    @Test
+    void getHardwareClass_sameHardware_equal() {
+        final SystemEnvironment other = new SystemEnvironment();
+        ReflectionTestUtils.setField(systemEnvironment, "computerName", "first");
+        ReflectionTestUtils.setField(other, "computerName", "second");
+
+        assertEquals(systemEnvironment.getHardwareClass(), other.getHardwareClass());
+
+        ReflectionTestUtils.setField(other, "cores", 4);
+        assertNotEquals(systemEnvironment.getHardwareClass(), other.getHardwareClass());
+    }
 }
@@ -0,0 +1,188 @@
+package pacr.webapp_backend.cluster.services;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import pacr.webapp_backend.SpringBootTestWithoutShell;
+import pacr.webapp_backend.database.ClusterEventDB;
+import pacr.webapp_backend.database.ClusterMemberDB;
+import pacr.webapp_backend.shared.IClusterChannel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs two channels as nodes of a cluster which share the database.
+ */
+public class DatabaseClusterChannelTest extends SpringBootTestWithoutShell {
+
+    private static final String NODE_A = "nodeA";
+    private static final String NODE_B = "nodeB";
+    private static final String PAYLOAD = "payload";
+    private static final long NODE_TIMEOUT = 60;
+
+    private final ClusterMemberDB memberAccess;
+    private final ClusterEventDB eventAccess;
+
+    private TestClock clock;
+
+    private DatabaseClusterChannel nodeA;
+    private DatabaseClusterChannel nodeB;
+
+    private List<String> receivedByA;
+    private List<String> receivedByB;
+
+    @Autowired
+    public DatabaseClusterChannelTest(final ClusterMemberDB memberAccess, final ClusterEventDB eventAccess) {
+        this.memberAccess = memberAccess;
+        this.eventAccess = eventAccess;
+    }
+
+    @BeforeEach
+    void setUp() {
+        clock = new TestClock();
+
+        nodeA = new DatabaseClusterChannel(memberAccess, eventAccess, true, NODE_A, NODE_TIMEOUT, clock);
+        nodeB = new DatabaseClusterChannel(memberAccess, eventAccess, true, NODE_B, NODE_TIMEOUT, clock);
+        nodeA.join();
+        nodeB.join();
+
+        receivedByA = new ArrayList<>();
+        receivedByB = new ArrayList<>();
+        nodeA.subscribe(IClusterChannel.JOBS_TOPIC, receivedByA::add);
+        nodeA.subscribe(IClusterChannel.NODE_LEFT_TOPIC, receivedByA::add);
+        nodeB.subscribe(IClusterChannel.JOBS_TOPIC, receivedByB::add);
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        memberAccess.deleteAll();
+        eventAccess.deleteAll();
+    }
+
+    @Test
+    void publish_deliveredToOtherNodeOnly() {
+        nodeA.publish(IClusterChannel.JOBS_TOPIC, PAYLOAD);
+
+        nodeA.poll();
+        nodeB.poll();
+
+        assertTrue(receivedByA.isEmpty());
+        assertEquals(List.of(PAYLOAD), receivedByB);
+    }
+
+    @Test
+    void poll_twice_deliveredOnce() {
+        nodeA.publish(IClusterChannel.JOBS_TOPIC, PAYLOAD);
+
+        nodeB.poll();
+        clock.advance(Duration.ofSeconds(1));
+        nodeB.poll();
+
+        assertEquals(List.of(PAYLOAD), receivedByB);
+    }
+
+    @Test
+    void publish_samePayloadTwice_deliveredOncePerPoll() {
+        nodeA.publish(IClusterChannel.JOBS_TOPIC, PAYLOAD);
+        nodeA.publish(IClusterChannel.JOBS_TOPIC, PAYLOAD);
+
+        nodeB.poll();
+
+        assertEquals(List.of(PAYLOAD), receivedByB);
+    }
+
+    @Test
+    void poll_silentNode_nodeLeftDelivered() {
+        clock.advance(Duration.ofSeconds(NODE_TIMEOUT + 1));
+
+        nodeA.poll();
+
+        assertEquals(List.of(NODE_B), receivedByA);
+        assertEquals(1, memberAccess.count());
+
+        // the node is only removed once
+        clock.advance(Duration.ofSeconds(1));
+        nodeA.poll();
+        assertEquals(List.of(NODE_B), receivedByA);
+    }
+
+    @Test
+    void leave_nodeLeftDelivered() {
+        nodeB.leave();
+
+        nodeA.poll();
+
+        assertEquals(List.of(NODE_B), receivedByA);
+        assertEquals(1, memberAccess.count());
+    }
+
+    @Test
+    void poll_oldEvents_deleted() {
+        nodeA.publish(IClusterChannel.JOBS_TOPIC, PAYLOAD);
+
+        clock.advance(Duration.ofSeconds(NODE_TIMEOUT * 11));
+        nodeB.poll();
+
+        // only the event that node A left is stored
+        for (final ClusterEvent event : eventAccess.findAll()) {
+            assertEquals(IClusterChannel.NODE_LEFT_TOPIC, event.getTopic());
+        }
+    }
+
+    @Test
+    void publish_notClustered_notStored() {
+        final DatabaseClusterChannel single = new DatabaseClusterChannel(memberAccess, eventAccess, false, "",
+                NODE_TIMEOUT, clock);
+        single.join();
+
+        single.publish(IClusterChannel.JOBS_TOPIC, PAYLOAD);
+
+        assertFalse(single.isClustered());
+        assertFalse(single.getNodeId().isEmpty());
+        assertEquals(0, eventAccess.count());
+    }
+
+    @Test
+    void DatabaseClusterChannel_invalidNodeId_exception() {
+        assertThrows(IllegalArgumentException.class, () -> new DatabaseClusterChannel(memberAccess, eventAccess,
+                true, "node#1", NODE_TIMEOUT, clock));
+    }
+
+    /**
+     * A clock which only moves when it is advanced.
+     */
+    private static class TestClock extends Clock {
+
+        private Instant now = Instant.parse("2020-01-01T00:00:00Z");
+
+        void advance(final Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(final ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
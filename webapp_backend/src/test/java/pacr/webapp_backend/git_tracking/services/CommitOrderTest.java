@@ -0,0 +1,97 @@
+package pacr.webapp_backend.git_tracking.services;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import pacr.webapp_backend.shared.ICommit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CommitOrderTest {
+
+    private static final LocalDateTime DATE = LocalDateTime.of(2020, 1, 1, 0, 0, 0);
+    private static final String KNOWN = "known";
+
+    @Test
+    public void bisect_withKnownParent() {
+        // commit0 is the newest commit, commit7 the oldest. The parent of commit7 is already benchmarked.
+        final List<ICommit> commits = createChain("commit", 8, KNOWN);
+
+        final List<String> order = CommitOrder.bisect(commits, KNOWN::equals);
+
+        assertEquals(List.of("commit0", "commit4", "commit2", "commit6", "commit1", "commit3", "commit5",
+                "commit7"), order);
+    }
+
+    @Test
+    public void bisect_withoutKnownParent() {
+        final List<ICommit> commits = createChain("commit", 8, null);
+
+        final List<String> order = CommitOrder.bisect(commits, hash -> false);
+
+        // both ends of the range are benchmarked first
+        assertEquals(List.of("commit0", "commit7", "commit3", "commit1", "commit5", "commit2", "commit4",
+                "commit6"), order);
+    }
+
+    @Test
+    public void bisect_multipleBranches_interleaved() {
+        final List<ICommit> commits = new ArrayList<>(createChain("main", 4, KNOWN));
+        commits.addAll(createChain("feature", 4, KNOWN, DATE.minusDays(10)));
+
+        final List<String> order = CommitOrder.bisect(commits, KNOWN::equals);
+
+        assertEquals(List.of("main0", "feature0", "main2", "feature2", "main1", "main3", "feature1", "feature3"),
+                order);
+    }
+
+    @Test
+    public void bisect_singleCommit() {
+        final List<String> order = CommitOrder.bisect(createChain("commit", 1, null), hash -> false);
+
+        assertEquals(List.of("commit0"), order);
+    }
+
+    @Test
+    public void newestFirst() {
+        final List<ICommit> commits = createChain("commit", 3, null);
+
+        assertEquals(List.of("commit0", "commit1", "commit2"), CommitOrder.newestFirst(List.of(commits.get(2),
+                commits.get(0), commits.get(1))));
+    }
+
+    private List<ICommit> createChain(final String prefix, final int length, final String parentOfOldest) {
+        return createChain(prefix, length, parentOfOldest, DATE);
+    }
+
+    /**
+     * Creates a linear history. The commit with index 0 is the newest one and each commit is the parent of the
+     * commit before it.
+     */
+    private List<ICommit> createChain(final String prefix, final int length, final String parentOfOldest,
+                                      final LocalDateTime newestDate) {
+        final List<ICommit> commits = new ArrayList<>();
+
+        for (int i = 0; i < length; i++) {
+            final ICommit commit = mock(ICommit.class);
+            when(commit.getCommitHash()).thenReturn(prefix + i);
+            when(commit.getCommitDate()).thenReturn(newestDate.minusHours(i));
+
+            if (i < length - 1) {
+                when(commit.getParentHashes()).thenReturn(Set.of(prefix + (i + 1)));
+            } else if (parentOfOldest != null) {
+                when(commit.getParentHashes()).thenReturn(Set.of(parentOfOldest));
+            } else {
+                when(commit.getParentHashes()).thenReturn(Set.of());
+            }
+
+            commits.add(commit);
+        }
+
+        return commits;
+    }
+}
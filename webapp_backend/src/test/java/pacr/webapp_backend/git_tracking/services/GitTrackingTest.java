@@ -45,7 +45,7 @@ public class GitTrackingTest {
     public void setUp() {
         MockitoAnnotations.initMocks(this);
         gitTracking = new GitTracking(gitTrackingAccess, gitHandler, resultDeleter,
-                jobScheduler, colorPicker, commitBenchmarkedChecker, "#pacr-ignore");
+                jobScheduler, colorPicker, commitBenchmarkedChecker, "#pacr-ignore", true);
     }
 
     @Test
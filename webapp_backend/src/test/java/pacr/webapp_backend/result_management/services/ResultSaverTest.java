@@ -230,4 +230,91 @@ public class ResultSaverTest extends SpringBootTestWithoutShell {
         final CommitResult latestSavedResult = resultDB.getNewestResult(SimpleCommit.REPO_ID);
         assertFalse(latestSavedResult.hasGlobalError());
     }
+
+    @Test
+    void savePartialResult_noSavedResult_shouldSaveResultInProgress() {
+        resultSaver.savePartialResult(new SimpleBenchmarkingResult(), new SimpleCommit());
+
+        final CommitResult savedResult = resultDB.getResultFromCommit(COMMIT_HASH);
+
+        assertNotNull(savedResult);
+        assertTrue(savedResult.isInProgress());
+        assertFalse(savedResult.isCompared());
+        assertNotNull(savedResult.getBenchmarks().get(BENCHMARK_NAME));
+    }
+
+    @Test
+    void savePartialResult_twoPartialResults_shouldSaveBenchmarksOfBoth() {
+        resultSaver.savePartialResult(new SimpleBenchmarkingResult(), new SimpleCommit());
+        resultSaver.savePartialResult(createPartialResult(BENCHMARK_NAME_TWO), new SimpleCommit());
+
+        final CommitResult savedResult = resultDB.getResultFromCommit(COMMIT_HASH);
+
+        assertTrue(savedResult.isInProgress());
+        assertEquals(EXPECTED_NUM_OF_BENCHMARKS, savedResult.getBenchmarks().size());
+        assertNotNull(savedResult.getBenchmarks().get(BENCHMARK_NAME));
+        assertNotNull(savedResult.getBenchmarks().get(BENCHMARK_NAME_TWO));
+    }
+
+    @Test
+    void savePartialResult_benchmarkSavedBefore_shouldReplaceBenchmark() {
+        resultSaver.savePartialResult(new SimpleBenchmarkingResult(), new SimpleCommit());
+
+        final SimpleBenchmarkingResult remeasuredResult = new SimpleBenchmarkingResult();
+        remeasuredResult.getBenchmark(BENCHMARK_NAME).addProperty(PROPERTY_NAME_TWO, new SimpleBenchmarkProperty());
+
+        resultSaver.savePartialResult(remeasuredResult, new SimpleCommit());
+
+        final CommitResult savedResult = resultDB.getResultFromCommit(COMMIT_HASH);
+
+        assertEquals(EXPECTED_SINGLE_BENCHMARK, savedResult.getBenchmarks().size());
+        assertEquals(EXPECTED_NUM_OF_PROPERTIES_AFTER_ADDING,
+                savedResult.getBenchmarks().get(BENCHMARK_NAME).getBenchmarkProperties().size());
+    }
+
+    @Test
+    void saveResult_resultInProgress_shouldCompleteResult() {
+        resultSaver.savePartialResult(createPartialResult(BENCHMARK_NAME_TWO), new SimpleCommit());
+
+        resultSaver.saveResult(new SimpleBenchmarkingResult(), new SimpleCommit(), NO_COMPARISON_RESULT);
+
+        final CommitResult savedResult = resultDB.getResultFromCommit(COMMIT_HASH);
+
+        assertFalse(savedResult.isInProgress());
+        assertEquals(EXPECTED_SINGLE_BENCHMARK, savedResult.getBenchmarks().size());
+        assertNotNull(savedResult.getBenchmarks().get(BENCHMARK_NAME));
+    }
+
+    @Test
+    void savePartialResult_completeResult_shouldNotChangeResult() {
+        resultSaver.saveResult(new SimpleBenchmarkingResult(), new SimpleCommit(), NO_COMPARISON_RESULT);
+
+        resultSaver.savePartialResult(createPartialResult(BENCHMARK_NAME_TWO), new SimpleCommit());
+
+        final CommitResult savedResult = resultDB.getResultFromCommit(COMMIT_HASH);
+
+        assertFalse(savedResult.isInProgress());
+        assertEquals(EXPECTED_SINGLE_BENCHMARK, savedResult.getBenchmarks().size());
+        assertNotNull(savedResult.getBenchmarks().get(BENCHMARK_NAME));
+    }
+
+    @Test
+    void saveResult_comparisonResultInProgress_shouldNotCompare() {
+        final SimpleBenchmarkingResult comparisonResult = new SimpleBenchmarkingResult();
+        comparisonResult.setCommitHash(COMMIT_HASH_TWO);
+        resultSaver.savePartialResult(comparisonResult, new SimpleCommit());
+
+        resultSaver.saveResult(new SimpleBenchmarkingResult(), new SimpleCommit(), COMMIT_HASH_TWO);
+
+        final CommitResult savedResult = resultDB.getResultFromCommit(COMMIT_HASH);
+
+        assertFalse(savedResult.isCompared());
+    }
+
+    private SimpleBenchmarkingResult createPartialResult(final String benchmarkName) {
+        final HashMap<String, SimpleBenchmark> benchmarks = new HashMap<>();
+        benchmarks.put(benchmarkName, new SimpleBenchmark());
+
+        return new SimpleBenchmarkingResult(COMMIT_HASH, new SystemEnvironment(), benchmarks, null);
+    }
 }
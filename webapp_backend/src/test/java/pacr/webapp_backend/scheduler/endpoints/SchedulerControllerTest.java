@@ -1,19 +1,27 @@
 package pacr.webapp_backend.scheduler.endpoints;
 
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.Spy;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import pacr.webapp_backend.scheduler.services.Scheduler;
 import pacr.webapp_backend.shared.IAuthenticator;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -76,6 +84,35 @@ public class SchedulerControllerTest {
         verify(scheduler).getPrioritizedQueue(pageable);
     }
 
+    @Test
+    void getJobsQueueSlice_noCursor() {
+        final int size = 5;
+        when(scheduler.getJobsQueueAfter(null, size + 1)).thenReturn(new ArrayList<>());
+
+        final ResponseEntity<JobQueueSlice> response = schedulerController.getJobsQueueSlice(null, size);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.getBody().getJobs().isEmpty());
+        assertNull(response.getBody().getNextCursor());
+        verify(scheduler).getJobsQueueAfter(null, size + 1);
+    }
+
+    @Test
+    void getJobsQueueSlice_invalidCursor() {
+        final ResponseEntity<JobQueueSlice> response = schedulerController.getJobsQueueSlice("invalid", 5);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(scheduler, never()).getJobsQueueAfter(any(), anyInt());
+    }
+
+    @Test
+    void getJobsQueueSlice_invalidSize() {
+        final ResponseEntity<JobQueueSlice> response = schedulerController.getJobsQueueSlice(null, 0);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(scheduler, never()).getJobsQueueAfter(any(), anyInt());
+    }
+
     @Test
     void getJobsQueue_noError() {
         schedulerController.getJobsQueue(pageable);
@@ -83,6 +120,13 @@ public class SchedulerControllerTest {
         verify(scheduler).getJobsQueue(pageable);
     }
 
+    @Test
+    void getMetrics_noError() {
+        schedulerController.getMetrics();
+
+        verify(scheduler).getMetrics();
+    }
+
     @Test
     void givePriorityTo_successfulAuthentication() {
         final String jwtToken = "jwt";
@@ -111,6 +155,55 @@ public class SchedulerControllerTest {
         assertFalse(result);
     }
 
+    @Test
+    void givePriorityToAll_successfulAuthentication() {
+        final String jwtToken = "jwt";
+        final List<String> jobIDs = List.of(JOB_ID + 1, JOB_ID + 2);
+        final PrioritizeJobsMessage message = mock(PrioritizeJobsMessage.class);
+        when(message.validate()).thenReturn(true);
+        when(message.getGroupTitle()).thenReturn(JOB_GROUP);
+        when(message.getJobIDs()).thenReturn(jobIDs);
+
+        when(authenticator.authenticate(jwtToken)).thenReturn(true);
+        when(scheduler.givePriorityToAll(JOB_GROUP, jobIDs)).thenReturn(jobIDs.size());
+
+        assertEquals(jobIDs.size(), schedulerController.givePriorityToAll(message, jwtToken));
+        verify(scheduler).givePriorityToAll(JOB_GROUP, jobIDs);
+    }
+
+    @Test
+    void givePriorityToAll_unsuccessfulAuthentication() {
+        final String jwtToken = "jwt";
+        final PrioritizeJobsMessage message = mock(PrioritizeJobsMessage.class);
+        when(message.validate()).thenReturn(true);
+
+        when(authenticator.authenticate(jwtToken)).thenReturn(false);
+
+        assertEquals(0, schedulerController.givePriorityToAll(message, jwtToken));
+        verify(scheduler, never()).givePriorityToAll(any(), any());
+    }
+
+    @Test
+    void resetHardwareClass_successfulAuthentication() {
+        final String jwtToken = "jwt";
+
+        when(authenticator.authenticate(jwtToken)).thenReturn(true);
+        when(scheduler.resetHardwareClass(JOB_GROUP)).thenReturn(true);
+
+        assertTrue(schedulerController.resetHardwareClass(JOB_GROUP, jwtToken));
+        verify(scheduler).resetHardwareClass(JOB_GROUP);
+    }
+
+    @Test
+    void resetHardwareClass_unsuccessfulAuthentication() {
+        final String jwtToken = "jwt";
+
+        when(authenticator.authenticate(jwtToken)).thenReturn(false);
+
+        assertFalse(schedulerController.resetHardwareClass(JOB_GROUP, jwtToken));
+        verify(scheduler, never()).resetHardwareClass(any());
+    }
+
     @Test
     void givePriorityTo_givePriorityFailed() {
         final String jwtToken = "jwt";
@@ -48,6 +48,17 @@ public class AdvancedSchedulingAlgorithmTest {
         assertEquals(1, result);
     }
 
+    @Test
+    void compare_sameQueued_orderedByIndex() {
+        when(job2.getGroupTimeSheet()).thenReturn(jobGroup1TimeSheet);
+        when(job2.getQueued()).thenReturn(job1Queued);
+        when(job1.getQueuedIndex()).thenReturn(1);
+        when(job2.getQueuedIndex()).thenReturn(0);
+
+        assertEquals(1, schedulingAlgorithm.compare(job1, job2));
+        assertEquals(-1, schedulingAlgorithm.compare(job2, job1));
+    }
+
     @Test
     void compare_sameTimeSheet() {
         when(job2.getGroupTimeSheet()).thenReturn(jobGroup1TimeSheet);
@@ -0,0 +1,374 @@
+package pacr.webapp_backend.scheduler.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalAnswers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.TestPropertySource;
+import pacr.webapp_backend.SpringBootTestWithoutShell;
+import pacr.webapp_backend.database.JobDB;
+import pacr.webapp_backend.database.JobGroupDB;
+import pacr.webapp_backend.shared.IClusterChannel;
+import pacr.webapp_backend.shared.IJob;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Runs two schedulers as nodes of a cluster which share the job storage.
+ * The nodes use an in-memory database of their own, so deleting all jobs after each test doesn't touch the test schema
+ * of the other tests.
+ */
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:clusterschedulertest;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+public class ClusterSchedulerTest extends SpringBootTestWithoutShell {
+
+    private static final String JOB_GROUP = "jobGroup";
+    private static final String JOB_ID = "jobID";
+    private static final String NODE_A = "nodeA";
+    private static final String NODE_B = "nodeB";
+    private static final String NODE_C = "nodeC";
+
+    private static final int MAX_ROUNDS = 1000;
+
+    private final JobDB jobAccess;
+    private final JobGroupDB jobGroupAccess;
+
+    private final Pageable pageable;
+
+    private List<TestChannel> channels;
+
+    private Scheduler nodeA;
+    private Scheduler nodeB;
+
+    @Autowired
+    public ClusterSchedulerTest(final JobDB jobAccess, final JobGroupDB jobGroupAccess) {
+        this.jobAccess = jobAccess;
+        this.jobGroupAccess = jobGroupAccess;
+
+        this.pageable = PageRequest.of(0, 999);
+    }
+
+    @BeforeEach
+    void setUp() {
+        channels = new CopyOnWriteArrayList<>();
+
+        nodeA = createNode(NODE_A);
+        nodeB = createNode(NODE_B);
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        nodeA.flushJobStorage();
+        nodeB.flushJobStorage();
+
+        jobAccess.deleteAll();
+        jobGroupAccess.deleteAll();
+    }
+
+    @Test
+    void addJobs_queuedOnOtherNode() {
+        nodeA.addJobs(JOB_GROUP, createJobIDs(5));
+
+        assertEquals(5, nodeB.getJobsQueue(pageable).getTotalElements());
+    }
+
+    @Test
+    void addJobs_otherNodeReadsOnlyAddedJobs() {
+        final IJobAccess observedAccess = mock(IJobAccess.class, AdditionalAnswers.delegatesTo(jobAccess));
+        final Scheduler nodeC = createNode(NODE_C, observedAccess);
+        clearInvocations(observedAccess);
+
+        nodeA.addJobs(JOB_GROUP, createJobIDs(5));
+
+        assertEquals(5, nodeC.getJobsQueue(pageable).getTotalElements());
+        verify(observedAccess).findJobs(eq(JOB_GROUP), any());
+        verify(observedAccess, never()).findJobs();
+        verify(observedAccess, never()).findPrioritized();
+    }
+
+    @Test
+    void popJob_otherNodeReadsOnlyClaimedJob() {
+        nodeA.addJobs(JOB_GROUP, createJobIDs(5));
+        final IJobAccess observedAccess = mock(IJobAccess.class, AdditionalAnswers.delegatesTo(jobAccess));
+        final Scheduler nodeC = createNode(NODE_C, observedAccess);
+        clearInvocations(observedAccess);
+
+        final IJob job = nodeA.popJob();
+
+        assertEquals(4, nodeC.getJobsQueue(pageable).getTotalElements());
+        verify(observedAccess).findJobs(JOB_GROUP, List.of(job.getJobID()));
+        verify(observedAccess, never()).findJobs();
+    }
+
+    @Test
+    void jobsChanged_unreadablePayload_wholeQueueSynchronized() {
+        nodeA.addJobs(JOB_GROUP, createJobIDs(2));
+        final IJobAccess observedAccess = mock(IJobAccess.class, AdditionalAnswers.delegatesTo(jobAccess));
+        final Scheduler nodeC = createNode(NODE_C, observedAccess);
+        clearInvocations(observedAccess);
+
+        channels.get(2).deliver(IClusterChannel.JOBS_TOPIC, "");
+
+        assertEquals(2, nodeC.getJobsQueue(pageable).getTotalElements());
+        verify(observedAccess).findJobs();
+        verify(observedAccess).findPrioritized();
+    }
+
+    @Test
+    void popJobs_bothNodesAtOnce_everyJobHandedOutOnce() throws Exception {
+        final int amtJobs = 100;
+        nodeA.addJobs(JOB_GROUP, createJobIDs(amtJobs));
+
+        final Collection<String> takenJobIDs = new CopyOnWriteArrayList<>();
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        final List<Future<?>> futures = new ArrayList<>();
+        for (final Scheduler node : List.of(nodeA, nodeB)) {
+            futures.add(executor.submit(() -> {
+                for (int round = 0; round < MAX_ROUNDS && takenJobIDs.size() < amtJobs; round++) {
+                    final List<IJob> jobs = node.popJobs(3, job -> true);
+
+                    // jobs which could not be claimed are queued again from the storage
+                    if (jobs.isEmpty()) {
+                        node.synchronizeWithStorage();
+                    }
+
+                    for (final IJob job : jobs) {
+                        takenJobIDs.add(job.getJobID());
+                    }
+                }
+            }));
+        }
+
+        for (final Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(amtJobs, takenJobIDs.size());
+        assertEquals(amtJobs, new HashSet<>(takenJobIDs).size());
+
+        int amtClaimed = 0;
+        for (final Job job : jobAccess.findAllJobs(JOB_GROUP)) {
+            if (job.getClaimedBy() != null) {
+                amtClaimed++;
+            }
+        }
+        assertEquals(amtJobs, amtClaimed);
+    }
+
+    @Test
+    void popJob_claimedByOtherNode_removedFromQueue() {
+        nodeA.addJobs(JOB_GROUP, createJobIDs(2));
+
+        final IJob job = nodeA.popJob();
+        assertNotNull(job);
+
+        assertEquals(1, nodeB.getJobsQueue(pageable).getTotalElements());
+        final IJob otherJob = nodeB.popJob();
+        assertNotNull(otherJob);
+        assertNotEquals(job.getJobID(), otherJob.getJobID());
+        assertNull(nodeB.popJob());
+        assertNull(nodeA.popJob());
+    }
+
+    @Test
+    void returnJob_otherNodeTakesJob() {
+        nodeA.addJobs(JOB_GROUP, createJobIDs(1));
+        final IJob job = nodeA.popJob();
+        assertNull(nodeB.popJob());
+
+        nodeA.returnJob(job);
+
+        final IJob returnedJob = nodeB.popJob();
+        assertNotNull(returnedJob);
+        assertEquals(job.getJobID(), returnedJob.getJobID());
+        assertNull(nodeA.popJob());
+    }
+
+    @Test
+    void unreserveJobs_otherNodeTakesJobs() {
+        nodeA.addJobs(JOB_GROUP, createJobIDs(2));
+        final List<IJob> jobs = nodeA.popJobs(2, job -> true);
+        assertNull(nodeB.popJob());
+
+        nodeA.unreserveJobs(jobs);
+
+        assertEquals(2, nodeB.popJobs(2, job -> true).size());
+        assertNull(nodeA.popJob());
+    }
+
+    @Test
+    void finishJob_removedOnOtherNode() {
+        nodeA.addJobs(JOB_GROUP, createJobIDs(1));
+        final IJob job = nodeA.popJob();
+
+        nodeA.finishJob(job);
+        nodeA.flushJobStorage();
+
+        // the job is neither claimed nor stored anymore
+        nodeB.synchronizeWithStorage();
+        assertEquals(0, nodeB.getJobsQueue(pageable).getTotalElements());
+        assertNull(nodeB.popJob());
+    }
+
+    @Test
+    void nodeLeft_jobsOfNodeQueuedAgain() {
+        nodeA.addJobs(JOB_GROUP, createJobIDs(1));
+        final IJob job = nodeA.popJob();
+        assertNull(nodeB.popJob());
+
+        channels.get(1).deliver(IClusterChannel.NODE_LEFT_TOPIC, NODE_A);
+
+        final IJob releasedJob = nodeB.popJob();
+        assertNotNull(releasedJob);
+        assertEquals(job.getJobID(), releasedJob.getJobID());
+    }
+
+    @Test
+    void removeJobGroup_removedOnOtherNode() {
+        nodeA.addJobs(JOB_GROUP, createJobIDs(3));
+        assertEquals(3, nodeB.getJobsQueue(pageable).getTotalElements());
+
+        nodeA.removeJobGroup(JOB_GROUP);
+
+        assertEquals(0, nodeB.getJobsQueue(pageable).getTotalElements());
+        assertEquals(0, nodeB.getMetrics().getQueueDepth().size());
+    }
+
+    @Test
+    void removeJobGroup_groupAddedAgain_oldJobsRemovedOnOtherNode() {
+        nodeA.addJobs(JOB_GROUP, createJobIDs(3));
+
+        // the other node misses the removal and only learns about the group of the same title
+        channels.get(0).setPublishing(false);
+        nodeA.removeJobGroup(JOB_GROUP);
+        nodeA.addJobs(JOB_GROUP, List.of(JOB_ID + "A"));
+        channels.get(0).setPublishing(true);
+        nodeA.flushJobStorage();
+
+        channels.get(1).deliver(IClusterChannel.JOBS_TOPIC, new QueueChange(JOB_GROUP, null).toPayload());
+
+        final List<Job> queuedJobs = nodeB.getJobsQueue(pageable).getContent();
+        assertEquals(1, queuedJobs.size());
+        assertEquals(JOB_ID + "A", queuedJobs.get(0).getJobID());
+    }
+
+    @Test
+    void addJobs_groupOfOtherNode_groupShared() {
+        nodeA.addJobs(JOB_GROUP, createJobIDs(1));
+        nodeB.addJobs(JOB_GROUP, List.of(JOB_ID + "B"));
+
+        nodeA.flushJobStorage();
+        nodeB.flushJobStorage();
+
+        assertEquals(1, jobGroupAccess.count());
+        assertEquals(2, nodeA.getJobsQueue(pageable).getTotalElements());
+    }
+
+    private Scheduler createNode(final String nodeId) {
+        return createNode(nodeId, jobAccess);
+    }
+
+    private Scheduler createNode(final String nodeId, final IJobAccess nodeJobAccess) {
+        final TestChannel channel = new TestChannel(nodeId);
+        channels.add(channel);
+
+        final Scheduler scheduler = new Scheduler(nodeJobAccess, jobGroupAccess);
+        scheduler.setCluster(channel, jobAccess);
+        scheduler.loadJobsFromStorage();
+
+        return scheduler;
+    }
+
+    private List<String> createJobIDs(final int amount) {
+        final List<String> jobIDs = new ArrayList<>();
+        for (int i = 0; i < amount; i++) {
+            jobIDs.add(JOB_ID + i);
+        }
+
+        return jobIDs;
+    }
+
+    /**
+     * Delivers the published payloads to the other nodes right away.
+     */
+    private class TestChannel implements IClusterChannel {
+
+        private final String nodeId;
+        private final Map<String, List<Consumer<String>>> listeners;
+
+        private volatile boolean publishing = true;
+
+        private TestChannel(final String nodeId) {
+            this.nodeId = nodeId;
+            this.listeners = new ConcurrentHashMap<>();
+        }
+
+        @Override
+        public boolean isClustered() {
+            return true;
+        }
+
+        @Override
+        public String getNodeId() {
+            return nodeId;
+        }
+
+        @Override
+        public void publish(final String topic, final String payload) {
+            if (!publishing) {
+                return;
+            }
+
+            for (final TestChannel channel : channels) {
+                if (channel != this) {
+                    channel.deliver(topic, payload);
+                }
+            }
+        }
+
+        @Override
+        public void subscribe(final String topic, final Consumer<String> listener) {
+            listeners.computeIfAbsent(topic, key -> new CopyOnWriteArrayList<>()).add(listener);
+        }
+
+        private void setPublishing(final boolean publishing) {
+            this.publishing = publishing;
+        }
+
+        private void deliver(final String topic, final String payload) {
+            for (final Consumer<String> listener : listeners.getOrDefault(topic, List.of())) {
+                listener.accept(payload);
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package pacr.webapp_backend.scheduler.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ExecutionTimesTest {
+
+    private ExecutionTimes executionTimes;
+
+    @BeforeEach
+    void setUp() {
+        this.executionTimes = new ExecutionTimes();
+    }
+
+    @Test
+    void getPercentile_noSamples() {
+        assertTrue(executionTimes.isEmpty());
+        assertEquals(0, executionTimes.getMedian());
+        assertEquals(0, executionTimes.getPercentile(90));
+    }
+
+    @Test
+    void getPercentile_noError() {
+        for (long time = 10; time >= 1; time--) {
+            executionTimes.add(time * 10);
+        }
+
+        assertEquals(10, executionTimes.size());
+        assertEquals(10, executionTimes.getPercentile(0));
+        assertEquals(50, executionTimes.getMedian());
+        assertEquals(90, executionTimes.getPercentile(90));
+        assertEquals(100, executionTimes.getPercentile(100));
+    }
+
+    @Test
+    void add_oldestSampleDropped() {
+        executionTimes.add(1000);
+
+        for (int i = 0; i < ExecutionTimes.MAX_SAMPLES; i++) {
+            executionTimes.add(1);
+        }
+
+        assertEquals(ExecutionTimes.MAX_SAMPLES, executionTimes.size());
+        assertEquals(1, executionTimes.getPercentile(100));
+    }
+
+    @Test
+    void add_negativeTime() {
+        assertThrows(IllegalArgumentException.class, () -> executionTimes.add(-1));
+    }
+
+    @Test
+    void getPercentile_invalidPercentile() {
+        assertThrows(IllegalArgumentException.class, () -> executionTimes.getPercentile(-1));
+        assertThrows(IllegalArgumentException.class, () -> executionTimes.getPercentile(101));
+    }
+}
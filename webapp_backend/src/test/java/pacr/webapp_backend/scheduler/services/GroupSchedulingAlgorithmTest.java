@@ -10,8 +10,8 @@ import static org.mockito.Mockito.when;
 
 public class GroupSchedulingAlgorithmTest {
 
-    private static final long JOB_GROUP1_TIME = 5;
-    private static final long JOB_GROUP2_TIME = 15;
+    private static final double JOB_GROUP1_TIME = 5;
+    private static final double JOB_GROUP2_TIME = 15;
 
     private GroupSchedulingAlgorithm schedulingAlgorithm;
 
@@ -25,8 +25,8 @@ public class GroupSchedulingAlgorithmTest {
     void setUp() {
         MockitoAnnotations.initMocks(this);
 
-        when(jobGroup1.getTimeSheet()).thenReturn(JOB_GROUP1_TIME);
-        when(jobGroup2.getTimeSheet()).thenReturn(JOB_GROUP2_TIME);
+        when(jobGroup1.getVirtualTime()).thenReturn(JOB_GROUP1_TIME);
+        when(jobGroup2.getVirtualTime()).thenReturn(JOB_GROUP2_TIME);
 
         this.schedulingAlgorithm = new GroupSchedulingAlgorithm();
     }
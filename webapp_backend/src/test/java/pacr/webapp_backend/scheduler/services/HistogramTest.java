@@ -0,0 +1,85 @@
+package pacr.webapp_backend.scheduler.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HistogramTest {
+
+    private Histogram histogram;
+
+    @BeforeEach
+    void setUp() {
+        histogram = new Histogram();
+    }
+
+    @Test
+    void getBucket_lowestValueInBucket() {
+        final long[] values = {0, 1, 15, 16, 17, 31, 32, 33, 1000, 123456789, Long.MAX_VALUE};
+
+        for (final long value : values) {
+            final int bucket = Histogram.getBucket(value);
+            final long lowest = Histogram.getLowestValue(bucket);
+
+            assertTrue(lowest <= value);
+            assertTrue(value - lowest <= lowest / 16);
+            assertEquals(bucket, Histogram.getBucket(lowest));
+        }
+    }
+
+    @Test
+    void getPercentile_noValues() {
+        assertEquals(0, histogram.getPercentile(50));
+        assertEquals(0, histogram.getCount());
+    }
+
+    @Test
+    void getPercentile_boundedRelativeError() {
+        for (int value = 1; value <= 1000; value++) {
+            histogram.record(value);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertWithinError(500, histogram.getPercentile(50));
+        assertWithinError(990, histogram.getPercentile(99));
+        assertEquals(1, histogram.getPercentile(0));
+        assertWithinError(1000, histogram.getPercentile(100));
+    }
+
+    @Test
+    void record_negativeValue_recordedAsZero() {
+        histogram.record(-5);
+
+        assertEquals(0, histogram.getPercentile(100));
+        assertEquals(0, histogram.summarize().getMax());
+    }
+
+    @Test
+    void summarize_noError() {
+        histogram.record(10);
+        histogram.record(20);
+
+        final HistogramSummary summary = histogram.summarize();
+
+        assertEquals(2, summary.getCount());
+        assertEquals(15, summary.getMean());
+        assertEquals(20, summary.getMax());
+        assertEquals(10, summary.getP50());
+    }
+
+    @Test
+    void getPercentile_invalidPercentile() {
+        assertThrows(IllegalArgumentException.class, () -> histogram.getPercentile(-1));
+        assertThrows(IllegalArgumentException.class, () -> histogram.getPercentile(101));
+        assertThrows(IllegalArgumentException.class, () -> histogram.getPercentile(Double.NaN));
+    }
+
+    private void assertWithinError(final long expected, final long actual) {
+        assertTrue(actual <= expected && expected - actual <= expected / 16,
+                "expected about " + expected + " but was " + actual);
+    }
+
+}
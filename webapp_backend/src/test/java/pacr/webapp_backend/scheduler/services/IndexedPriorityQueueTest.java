@@ -0,0 +1,178 @@
+package pacr.webapp_backend.scheduler.services;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class IndexedPriorityQueueTest {
+
+    private static final int AMT_ELEMENTS = 100;
+    private static final long SEED = 42;
+
+    private IndexedPriorityQueue<Element> priorityQueue;
+
+    @BeforeEach
+    void setUp() {
+        this.priorityQueue = new IndexedPriorityQueue<>(Comparator.comparingInt(element -> element.priority));
+    }
+
+    @Test
+    void peek_isEmpty() {
+        assertNull(priorityQueue.peek());
+        assertNull(priorityQueue.poll());
+    }
+
+    @Test
+    void add_duplicate() {
+        final Element element = new Element(1);
+
+        assertTrue(priorityQueue.add(element));
+        assertFalse(priorityQueue.add(element));
+
+        assertEquals(1, priorityQueue.size());
+    }
+
+    @Test
+    void poll_inPriorityOrder() {
+        final List<Element> elements = addRandomElements();
+        elements.sort(priorityQueue.comparator());
+
+        for (final Element element : elements) {
+            assertEquals(element.priority, priorityQueue.poll().priority);
+        }
+
+        assertTrue(priorityQueue.isEmpty());
+    }
+
+    @Test
+    void updatePriority_increased() {
+        final Element element1 = new Element(1);
+        final Element element2 = new Element(2);
+        priorityQueue.add(element1);
+        priorityQueue.add(element2);
+
+        element2.priority = 0;
+
+        assertTrue(priorityQueue.updatePriority(element2));
+        assertSame(element2, priorityQueue.peek());
+    }
+
+    @Test
+    void updatePriority_decreased() {
+        final Element element1 = new Element(1);
+        final Element element2 = new Element(2);
+        final Element element3 = new Element(3);
+        priorityQueue.add(element1);
+        priorityQueue.add(element2);
+        priorityQueue.add(element3);
+
+        element1.priority = 4;
+        priorityQueue.updatePriority(element1);
+
+        assertSame(element2, priorityQueue.poll());
+        assertSame(element3, priorityQueue.poll());
+        assertSame(element1, priorityQueue.poll());
+    }
+
+    @Test
+    void updatePriority_notContained() {
+        assertFalse(priorityQueue.updatePriority(new Element(1)));
+    }
+
+    @Test
+    void remove_keepsOrder() {
+        final List<Element> elements = addRandomElements();
+
+        for (int i = 0; i < elements.size(); i += 2) {
+            assertTrue(priorityQueue.remove(elements.get(i)));
+            assertFalse(priorityQueue.contains(elements.get(i)));
+        }
+
+        final List<Element> remaining = new ArrayList<>();
+        for (int i = 1; i < elements.size(); i += 2) {
+            remaining.add(elements.get(i));
+        }
+        remaining.sort(priorityQueue.comparator());
+
+        assertEquals(remaining.size(), priorityQueue.size());
+        for (final Element element : remaining) {
+            assertEquals(element.priority, priorityQueue.poll().priority);
+        }
+    }
+
+    @Test
+    void ordered_inPriorityOrder() {
+        final List<Element> elements = addRandomElements();
+        elements.sort(priorityQueue.comparator());
+
+        final List<Element> ordered = new ArrayList<>();
+        priorityQueue.ordered().forEach(ordered::add);
+
+        assertEquals(elements.size(), ordered.size());
+        for (int i = 0; i < elements.size(); i++) {
+            assertEquals(elements.get(i).priority, ordered.get(i).priority);
+        }
+    }
+
+    @Test
+    void rank_matchesOrder() {
+        final Element element1 = new Element(5);
+        final Element element2 = new Element(1);
+        final Element element3 = new Element(3);
+        priorityQueue.add(element1);
+        priorityQueue.add(element2);
+        priorityQueue.add(element3);
+
+        assertEquals(0, priorityQueue.rank(element2));
+        assertEquals(1, priorityQueue.rank(element3));
+        assertEquals(2, priorityQueue.rank(element1));
+        assertEquals(-1, priorityQueue.rank(new Element(0)));
+    }
+
+    @Test
+    void get_atIndex() {
+        final Element element1 = new Element(2);
+        final Element element2 = new Element(1);
+        priorityQueue.add(element1);
+        priorityQueue.add(element2);
+
+        assertSame(element2, priorityQueue.get(0));
+        assertSame(element1, priorityQueue.get(1));
+        assertNull(priorityQueue.get(2));
+        assertNull(priorityQueue.get(-1));
+    }
+
+    private List<Element> addRandomElements() {
+        final Random random = new Random(SEED);
+        final List<Element> elements = new ArrayList<>();
+
+        for (int i = 0; i < AMT_ELEMENTS; i++) {
+            final Element element = new Element(random.nextInt(AMT_ELEMENTS));
+            elements.add(element);
+            priorityQueue.add(element);
+        }
+
+        return elements;
+    }
+
+    /**
+     * An element with a mutable priority. Equality is based on identity.
+     */
+    private static class Element {
+
+        private int priority;
+
+        Element(final int priority) {
+            this.priority = priority;
+        }
+    }
+}
@@ -1,16 +1,24 @@
 package pacr.webapp_backend.scheduler.services;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import nl.jqno.equalsverifier.EqualsVerifier;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import pacr.webapp_backend.shared.IObserver;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 
 public class JobGroupTest {
 
     private final String GROUP_TITLE = "groupTitle";
+    private static final LocalDateTime FINISHED = LocalDateTime.of(2020, 1, 1, 0, 0);
+    private static final double DELTA = 1e-9;
     private JobGroup jobGroup;
 
     @BeforeEach
@@ -109,13 +117,78 @@ public class JobGroupTest {
     }
 
     @Test
-    void resetBenchmarkingTime_noError() {
-        final long TIME = 20;
+    void getDecayedTimeSheet_halvedAfterHalfLife() {
+        jobGroup.addToTimeSheet(20, FINISHED);
 
-        jobGroup.addToTimeSheet(TIME);
+        assertEquals(20, jobGroup.getDecayedTimeSheet(FINISHED), DELTA);
+        assertEquals(10, jobGroup.getDecayedTimeSheet(FINISHED.plus(JobGroup.DEFAULT_HALF_LIFE)), DELTA);
 
-        jobGroup.resetTimeSheet();
+        // the total time sheet doesn't decay
+        assertEquals(20, jobGroup.getTimeSheet());
+    }
 
-        assertEquals(0, jobGroup.getTimeSheet());
+    @Test
+    void addToTimeSheet_previousTimeDecayed() {
+        jobGroup.setHalfLife(Duration.ofHours(1));
+
+        jobGroup.addToTimeSheet(40, FINISHED);
+        jobGroup.addToTimeSheet(10, FINISHED.plusHours(2));
+
+        assertEquals(20, jobGroup.getDecayedTimeSheet(FINISHED.plusHours(2)), DELTA);
+        assertEquals(50, jobGroup.getTimeSheet());
+    }
+
+    @Test
+    void getVirtualTime_noTimeSheet_negativeInfinity() {
+        assertEquals(Double.NEGATIVE_INFINITY, jobGroup.getVirtualTime());
+    }
+
+    @Test
+    void getVirtualTime_orderedByDecayedTimeSheet() {
+        final JobGroup otherGroup = new JobGroup(GROUP_TITLE + 1);
+
+        // 100 seconds one half-life ago count less than 60 seconds now
+        jobGroup.addToTimeSheet(100, FINISHED);
+        otherGroup.addToTimeSheet(60, FINISHED.plus(JobGroup.DEFAULT_HALF_LIFE));
+
+        assertTrue(jobGroup.getVirtualTime() < otherGroup.getVirtualTime());
+        assertEquals(Math.log(60 / 50.0) / Math.log(2), otherGroup.getVirtualTime() - jobGroup.getVirtualTime(),
+                DELTA);
+    }
+
+    @Test
+    void getVirtualTime_weighted() {
+        final JobGroup otherGroup = new JobGroup(GROUP_TITLE + 1);
+
+        jobGroup.setWeight(2);
+        jobGroup.addToTimeSheet(100, FINISHED);
+        otherGroup.addToTimeSheet(60, FINISHED);
+
+        // 100 / 2 < 60 / 1
+        assertTrue(jobGroup.getVirtualTime() < otherGroup.getVirtualTime());
+        assertEquals(2, jobGroup.getWeight());
+        assertEquals(1, otherGroup.getWeight());
+    }
+
+    @Test
+    void setWeight_observerNotified() {
+        final IObserver observer = mock(IObserver.class);
+        jobGroup.setTimeSheetObserver(observer);
+
+        jobGroup.setWeight(2);
+
+        verify(observer).update();
+    }
+
+    @Test
+    void setWeight_invalidWeight() {
+        assertThrows(IllegalArgumentException.class, () -> jobGroup.setWeight(0));
+        assertThrows(IllegalArgumentException.class, () -> jobGroup.setWeight(Double.NaN));
+    }
+
+    @Test
+    void setHalfLife_invalidHalfLife() {
+        assertThrows(IllegalArgumentException.class, () -> jobGroup.setHalfLife(Duration.ZERO));
+        assertThrows(NullPointerException.class, () -> jobGroup.setHalfLife(null));
     }
 }
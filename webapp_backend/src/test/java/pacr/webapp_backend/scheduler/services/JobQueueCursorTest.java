@@ -0,0 +1,39 @@
+package pacr.webapp_backend.scheduler.services;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JobQueueCursorTest {
+
+    private static final String JOB_GROUP = "jobGroup/with.special:characters";
+    private static final String JOB_ID = "jobID";
+
+    @Test
+    void fromToken_sameCursor() {
+        final JobGroup group = new JobGroup(JOB_GROUP);
+        group.addToTimeSheet(10);
+
+        final JobQueueCursor cursor = new JobQueueCursor(new Job(JOB_ID, group));
+
+        assertEquals(cursor, JobQueueCursor.fromToken(cursor.toToken()));
+    }
+
+    @Test
+    void fromToken_noTimeSheet_sameCursor() {
+        final JobQueueCursor cursor = new JobQueueCursor(new Job(JOB_ID, new JobGroup(JOB_GROUP)));
+
+        assertEquals(cursor, JobQueueCursor.fromToken(cursor.toToken()));
+    }
+
+    @Test
+    void fromToken_invalidToken() {
+        assertThrows(IllegalArgumentException.class, () -> JobQueueCursor.fromToken(null));
+        assertThrows(IllegalArgumentException.class, () -> JobQueueCursor.fromToken(""));
+        assertThrows(IllegalArgumentException.class, () -> JobQueueCursor.fromToken("invalid"));
+        assertThrows(IllegalArgumentException.class, () -> JobQueueCursor.fromToken("a.b.c.d.e"));
+        assertThrows(IllegalArgumentException.class, () -> JobQueueCursor.fromToken("!.b.c.0.1"));
+    }
+
+}
@@ -0,0 +1,386 @@
+package pacr.webapp_backend.scheduler.services;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JobQueueTest {
+
+    private static final String JOB_GROUP = "jobGroup";
+    private static final String JOB_ID = "jobID";
+
+    // a multiple of the default half-life since the epoch
+    private static final LocalDateTime FINISHED = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+    private JobQueue jobQueue;
+
+    private JobGroup group1;
+    private JobGroup group2;
+
+    @BeforeEach
+    void setUp() {
+        jobQueue = new JobQueue();
+
+        group1 = new JobGroup(JOB_GROUP + 1);
+        group2 = new JobGroup(JOB_GROUP + 2);
+    }
+
+    @Test
+    void add_duplicate() {
+        assertTrue(jobQueue.add(new Job(JOB_ID, group1)));
+        assertFalse(jobQueue.add(new Job(JOB_ID, group1)));
+
+        assertTrue(jobQueue.add(new Job(JOB_ID, group2)));
+
+        assertEquals(2, jobQueue.size());
+    }
+
+    @Test
+    void poll_isEmpty() {
+        assertNull(jobQueue.poll());
+    }
+
+    @Test
+    void poll_prioritizedFirst() {
+        final Job job = new Job(JOB_ID, group1);
+        final Job prioritized = new Job(JOB_ID + 1, group2);
+        prioritized.setPrioritized(true);
+
+        jobQueue.add(job);
+        jobQueue.add(prioritized);
+
+        assertSame(prioritized, jobQueue.poll());
+        assertSame(job, jobQueue.poll());
+        assertNull(jobQueue.poll());
+    }
+
+    @Test
+    void poll_amountWithConstraints() {
+        final Job job1 = new Job(JOB_ID + 1, group1);
+        final Job job2 = new Job(JOB_ID + 2, group2);
+        final Job prioritized = new Job(JOB_ID + 3, group2);
+        prioritized.setPrioritized(true);
+
+        jobQueue.add(job1);
+        jobQueue.add(job2);
+        jobQueue.add(prioritized);
+
+        final List<Job> polled = jobQueue.poll(2, job -> job != prioritized);
+
+        assertEquals(2, polled.size());
+        assertTrue(polled.containsAll(List.of(job1, job2)));
+        assertEquals(0, jobQueue.size());
+        assertEquals(1, jobQueue.prioritizedSize());
+        assertSame(prioritized, jobQueue.peek());
+    }
+
+    @Test
+    void poll_groupConstraints_otherGroupsSkippedWithoutTestingTheirJobs() {
+        final Job job1 = new Job(JOB_ID + 1, group1);
+        final Job job2 = new Job(JOB_ID + 2, group2);
+        final Job prioritized = new Job(JOB_ID + 3, group1);
+        prioritized.setPrioritized(true);
+
+        jobQueue.add(job1);
+        jobQueue.add(job2);
+        jobQueue.add(prioritized);
+
+        final Set<Job> testedJobs = new HashSet<>();
+        final List<Job> polled = jobQueue.poll(3, group -> group == group2, testedJobs::add);
+
+        assertEquals(List.of(job2), polled);
+        assertEquals(Set.of(job2), testedJobs);
+        assertSame(prioritized, jobQueue.poll());
+        assertSame(job1, jobQueue.poll());
+    }
+
+    @Test
+    void poll_amount_sameOrderAsSinglePolls() throws InterruptedException {
+        final Job olderJob = new Job(JOB_ID + 1, group1);
+        Thread.sleep(10);
+        final Job otherGroupJob = new Job(JOB_ID + 2, group2);
+        Thread.sleep(10);
+        final Job newerJob = new Job(JOB_ID + 3, group1);
+        Thread.sleep(10);
+        final Job skippedJob = new Job(JOB_ID + 4, group2);
+
+        jobQueue.add(olderJob);
+        jobQueue.add(otherGroupJob);
+        jobQueue.add(newerJob);
+        jobQueue.add(skippedJob);
+
+        // the groups are tied, so the group with the newer next job comes first after every polled job
+        final List<Job> polled = jobQueue.poll(3, job -> job != skippedJob);
+
+        assertEquals(List.of(newerJob, otherGroupJob, olderJob), polled);
+        assertSame(skippedJob, jobQueue.poll());
+    }
+
+    @Test
+    void poll_lowestTimeSheetFirst() {
+        final Job job1 = new Job(JOB_ID + 1, group1);
+        final Job job2 = new Job(JOB_ID + 2, group2);
+
+        jobQueue.add(job1);
+        jobQueue.add(job2);
+
+        group1.addToTimeSheet(10);
+
+        assertSame(job2, jobQueue.poll());
+        assertSame(job1, jobQueue.poll());
+    }
+
+    @Test
+    void poll_orderedByPolicy() {
+        jobQueue = new JobQueue(new ShortestExpectedJobFirstPolicy(2));
+
+        // a multiple of the default half-life since the epoch, so the windows of the policy start at powers of two
+        final LocalDateTime finished = LocalDateTime.of(2020, 1, 1, 0, 0);
+        group1.addToTimeSheet(400, finished);
+        group2.addToTimeSheet(150, finished);
+        group2.addToTimeSheet(150, finished);
+
+        final Job job1 = new Job(JOB_ID + 1, group1);
+        final Job job2 = new Job(JOB_ID + 2, group2);
+        jobQueue.add(job1);
+        jobQueue.add(job2);
+
+        // the jobs of the second group are shorter and the groups are within the fairness factor
+        assertSame(job2, jobQueue.peek());
+
+        group2.addToTimeSheet(900, finished);
+
+        assertSame(job1, jobQueue.poll());
+        assertSame(job2, jobQueue.poll());
+    }
+
+    @Test
+    void poll_newestJobOfGroupFirst() throws InterruptedException {
+        final Job olderJob = new Job(JOB_ID + 1, group1);
+        Thread.sleep(10);
+        final Job newerJob = new Job(JOB_ID + 2, group1);
+
+        jobQueue.add(olderJob);
+        jobQueue.add(newerJob);
+
+        assertSame(newerJob, jobQueue.poll());
+        assertSame(olderJob, jobQueue.poll());
+    }
+
+    @Test
+    void poll_timeSheetDecayed() {
+        final Job job1 = new Job(JOB_ID + 1, group1);
+        final Job job2 = new Job(JOB_ID + 2, group2);
+
+        // after two half-lives only a quarter of the benchmarking time of the second group counts
+        final LocalDateTime now = LocalDateTime.now();
+        group1.addToTimeSheet(10, now);
+        group2.addToTimeSheet(20, now.minus(JobGroup.DEFAULT_HALF_LIFE.multipliedBy(2)));
+
+        jobQueue.add(job1);
+        jobQueue.add(job2);
+
+        assertSame(job2, jobQueue.poll());
+        assertSame(job1, jobQueue.poll());
+    }
+
+    @Test
+    void poll_newerJobInOtherGroup() throws InterruptedException {
+        final Job job1 = new Job(JOB_ID + 1, group1);
+        final Job job2 = new Job(JOB_ID + 2, group2);
+        Thread.sleep(10);
+        final Job newestJob = new Job(JOB_ID + 3, group1);
+
+        jobQueue.add(job1);
+        jobQueue.add(job2);
+        // the next job of group1 changes, so group1 now comes before group2
+        jobQueue.add(newestJob);
+
+        assertSame(newestJob, jobQueue.poll());
+    }
+
+    @Test
+    void prioritize_movedToPrioritized() {
+        final Job job1 = new Job(JOB_ID + 1, group1);
+        final Job job2 = new Job(JOB_ID + 2, group1);
+        jobQueue.add(job1);
+        jobQueue.add(job2);
+
+        final LocalDateTime prioritizedAt = LocalDateTime.now().plusSeconds(1);
+
+        assertTrue(jobQueue.prioritize(job1, prioritizedAt));
+        assertFalse(jobQueue.prioritize(job1, prioritizedAt));
+
+        assertEquals(prioritizedAt, job1.getQueued());
+        assertEquals(1, jobQueue.size());
+        assertEquals(1, jobQueue.prioritizedSize());
+        assertSame(job1, jobQueue.get(JOB_GROUP + 1, JOB_ID + 1));
+        assertSame(job1, jobQueue.poll());
+        assertSame(job2, jobQueue.poll());
+    }
+
+    @Test
+    void remove_noError() {
+        final Job job = new Job(JOB_ID, group1);
+        jobQueue.add(job);
+
+        assertTrue(jobQueue.remove(job));
+        assertFalse(jobQueue.remove(job));
+
+        assertFalse(jobQueue.contains(JOB_GROUP + 1, JOB_ID));
+        assertFalse(jobQueue.hasJobs(JOB_GROUP + 1));
+        assertEquals(0, jobQueue.size());
+        assertNull(jobQueue.poll());
+    }
+
+    @Test
+    void removeGroup_noError() {
+        final Job prioritized = new Job(JOB_ID, group1);
+        prioritized.setPrioritized(true);
+
+        jobQueue.add(prioritized);
+        jobQueue.add(new Job(JOB_ID + 1, group1));
+        jobQueue.add(new Job(JOB_ID, group2));
+
+        final Collection<Job> removed = jobQueue.removeGroup(JOB_GROUP + 1);
+
+        assertEquals(2, removed.size());
+        assertEquals(1, jobQueue.size());
+        assertEquals(0, jobQueue.prioritizedSize());
+        assertFalse(jobQueue.hasJobs(JOB_GROUP + 1));
+    }
+
+    @Test
+    void getJobs_paged() {
+        final int amtJobs = 10;
+        for (int i = 0; i < amtJobs; i++) {
+            jobQueue.add(new Job(JOB_ID + i, i % 2 == 0 ? group1 : group2));
+        }
+        group2.addToTimeSheet(10);
+
+        final List<Job> allJobs = jobQueue.getJobs(0, amtJobs);
+        assertEquals(amtJobs, allJobs.size());
+
+        final List<Job> page = jobQueue.getJobs(3, 4);
+        assertEquals(allJobs.subList(3, 7), page);
+
+        // jobs of the group with the lower time sheet come first
+        for (int i = 0; i < amtJobs / 2; i++) {
+            assertEquals(group1.getTitle(), allJobs.get(i).getJobGroupTitle());
+        }
+
+        assertTrue(jobQueue.getJobs(amtJobs, 5).isEmpty());
+    }
+
+    @Test
+    void getJobsAfter_sameOrderAsPages() {
+        final int amtJobs = 10;
+        final int sliceSize = 3;
+        for (int i = 0; i < amtJobs; i++) {
+            jobQueue.add(new Job(JOB_ID + i, i % 2 == 0 ? group1 : group2));
+        }
+        group1.addToTimeSheet(10);
+
+        final List<Job> allJobs = jobQueue.getJobs(0, amtJobs);
+        final List<Job> slicedJobs = new ArrayList<>();
+
+        List<Job> slice = jobQueue.getJobsAfter(null, sliceSize);
+        while (!slice.isEmpty()) {
+            slicedJobs.addAll(slice);
+            slice = jobQueue.getJobsAfter(new JobQueueCursor(slice.get(slice.size() - 1)), sliceSize);
+        }
+
+        assertEquals(allJobs, slicedJobs);
+    }
+
+    @Test
+    void getJobsAfter_stableWhileJobsArePolled() {
+        final int amtJobs = 10;
+        for (int i = 0; i < amtJobs; i++) {
+            jobQueue.add(new Job(JOB_ID + i, i % 2 == 0 ? group1 : group2));
+        }
+        group1.addToTimeSheet(10);
+
+        final List<Job> allJobs = jobQueue.getJobs(0, amtJobs);
+        final JobQueueCursor cursor = new JobQueueCursor(allJobs.get(3));
+
+        // all jobs up to and including the cursor job are dispatched
+        for (int i = 0; i <= 3; i++) {
+            jobQueue.poll();
+        }
+
+        assertEquals(allJobs.subList(4, 8), jobQueue.getJobsAfter(cursor, 4));
+    }
+
+    @Test
+    void getJobsAfter_cursorGroupEmpty() {
+        final Job job1 = new Job(JOB_ID + 1, group1);
+        final Job job2 = new Job(JOB_ID + 2, group2);
+        group2.addToTimeSheet(10);
+
+        jobQueue.add(job1);
+        jobQueue.add(job2);
+
+        final JobQueueCursor cursor = new JobQueueCursor(job1);
+        jobQueue.poll();
+
+        assertEquals(List.of(job2), jobQueue.getJobsAfter(cursor, 5));
+    }
+
+    @Test
+    void poll_policyTie_lowerDecayedTimeFirst() {
+        // the groups are within the fairness factor of each other and have the same execution times
+        jobQueue = new JobQueue(new ShortestExpectedJobFirstPolicy(Math.pow(2, 100)));
+
+        // group1 used more benchmarking time in total, but most of it decayed
+        final LocalDateTime longAgo = FINISHED.minus(JobGroup.DEFAULT_HALF_LIFE.multipliedBy(20));
+        group1.addToTimeSheet(1000, longAgo);
+        group1.addToTimeSheet(1000, longAgo);
+        group2.addToTimeSheet(1000, FINISHED);
+
+        final Job job1 = new Job(JOB_ID + 1, group1);
+        final Job job2 = new Job(JOB_ID + 2, group2);
+        jobQueue.add(job2);
+        jobQueue.add(job1);
+
+        assertSame(job1, jobQueue.poll());
+        assertSame(job2, jobQueue.poll());
+    }
+
+    @Test
+    void getJobsAfter_cursorGroupEmpty_positionOfGroupKept() {
+        // the groups are within the fairness factor of each other, so they are ordered by their execution times
+        jobQueue = new JobQueue(new ShortestExpectedJobFirstPolicy(Math.pow(2, 100)));
+
+        final JobGroup shortJobs = new JobGroup(JOB_GROUP + "Short");
+        final JobGroup longJobs = new JobGroup(JOB_GROUP + "Long");
+        shortJobs.addToTimeSheet(300, FINISHED);
+        group1.addToTimeSheet(700, FINISHED);
+        longJobs.addToTimeSheet(1000, FINISHED);
+
+        final Job shortJob = new Job(JOB_ID + 1, shortJobs);
+        final Job job = new Job(JOB_ID + 2, group1);
+        final Job longJob = new Job(JOB_ID + 3, longJobs);
+        jobQueue.add(shortJob);
+        jobQueue.add(job);
+        jobQueue.add(longJob);
+        assertEquals(List.of(shortJob, job, longJob), jobQueue.getJobsAfter(null, 5));
+
+        final JobQueueCursor cursor = new JobQueueCursor(job);
+        jobQueue.remove(job);
+
+        assertEquals(List.of(longJob), jobQueue.getJobsAfter(cursor, group1, 5));
+    }
+
+}
@@ -1,9 +1,13 @@
 package pacr.webapp_backend.scheduler.services;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,6 +15,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -18,6 +23,7 @@ import pacr.webapp_backend.SpringBootTestWithoutShell;
 import pacr.webapp_backend.database.JobDB;
 import pacr.webapp_backend.database.JobGroupDB;
 import pacr.webapp_backend.shared.IJob;
+import pacr.webapp_backend.shared.IJobRevocationListener;
 import pacr.webapp_backend.shared.IObserver;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
@@ -25,10 +31,13 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
@@ -63,6 +72,8 @@ public class SchedulerTest extends SpringBootTestWithoutShell {
 
     @AfterEach
     public void cleanUp() {
+        scheduler.flushJobStorage();
+
         jobAccess.deleteAll();
         jobGroupAccess.deleteAll();
     }
@@ -116,6 +127,92 @@ public class SchedulerTest extends SpringBootTestWithoutShell {
         assertEquals(amtPrioritizedGroup1, actualAmtPrioritizedGroup1);
     }
 
+    @Test
+    void addJobs_writtenToStorage() {
+        final int amtJobs = 5;
+        final Collection<String> jobIds = new ArrayList<>();
+        for (int i = 0; i < amtJobs; i++) {
+            jobIds.add(JOB_ID + i);
+        }
+
+        scheduler.addJobs(JOB_GROUP, jobIds);
+        scheduler.popJob();
+
+        scheduler.flushJobStorage();
+
+        // the dispatched job stays stored until it is finished
+        final Collection<Job> storedJobs = jobAccess.findAllJobs(JOB_GROUP);
+        assertEquals(amtJobs, storedJobs.size());
+
+        final Scheduler restoredScheduler = new Scheduler(jobAccess, jobGroupAccess);
+        restoredScheduler.loadJobsFromStorage();
+
+        final Set<Job> restoredJobs = new HashSet<>(restoredScheduler.getJobsQueue(pageable).getContent());
+        assertEquals(amtJobs, restoredJobs.size());
+        assertTrue(restoredJobs.containsAll(scheduler.getJobsQueue(pageable).getContent()));
+    }
+
+    @Test
+    void popJob_dispatchedJobQueuedAfterRestart() {
+        addJob(JOB_GROUP, JOB_ID);
+        final IJob job = scheduler.popJob();
+
+        scheduler.flushJobStorage();
+        assertTrue(jobAccess.findAllJobs(JOB_GROUP).iterator().next().isDispatched());
+
+        final Scheduler restoredScheduler = new Scheduler(jobAccess, jobGroupAccess);
+        restoredScheduler.loadJobsFromStorage();
+        restoredScheduler.flushJobStorage();
+
+        final IJob restoredJob = restoredScheduler.popJob();
+        assertEquals(job.getJobGroupTitle(), restoredJob.getJobGroupTitle());
+        assertEquals(job.getJobID(), restoredJob.getJobID());
+        restoredScheduler.flushJobStorage();
+    }
+
+    @Test
+    void finishJob_deletedFromStorage() {
+        addJob(JOB_GROUP, JOB_ID);
+        final IJob job = scheduler.popJob();
+
+        // the job is added again while it is dispatched, which is skipped
+        addJob(JOB_GROUP, JOB_ID);
+        checkSchedulerQueue(0, 0);
+
+        scheduler.finishJob(job);
+
+        scheduler.flushJobStorage();
+        assertEquals(0, jobAccess.count());
+    }
+
+    @Test
+    void finishJob_returnedMeanwhile_removedFromQueue() {
+        addJob(JOB_GROUP, JOB_ID);
+        final IJob job = scheduler.popJob();
+        scheduler.returnJob(job);
+
+        checkSchedulerQueue(1, 0);
+
+        scheduler.finishJob(job);
+
+        checkSchedulerQueue(0, 0);
+        scheduler.flushJobStorage();
+        assertEquals(0, jobAccess.count());
+    }
+
+    @Test
+    void returnJob_storedJobReused() {
+        addJob(JOB_GROUP, JOB_ID);
+        final IJob job = scheduler.popJob();
+
+        scheduler.returnJob(job);
+
+        scheduler.flushJobStorage();
+        final Collection<Job> storedJobs = jobAccess.findAllJobs(JOB_GROUP);
+        assertEquals(1, storedJobs.size());
+        assertFalse(storedJobs.iterator().next().isDispatched());
+    }
+
     @Test
     void addJob_observersNotified() {
         final IObserver observer = mock(IObserver.class);
@@ -127,6 +224,37 @@ public class SchedulerTest extends SpringBootTestWithoutShell {
         verify(observer).update();
     }
 
+    @Test
+    void addJobs_manyJobs_observersNotifiedOnce() {
+        final IObserver observer = mock(IObserver.class);
+        scheduler.subscribe(observer);
+
+        final int amtJobs = 500;
+        final List<String> jobIDs = new ArrayList<>();
+        for (int i = 0; i < amtJobs; i++) {
+            jobIDs.add(JOB_ID + i);
+        }
+
+        scheduler.addJobs(JOB_GROUP, jobIDs);
+        scheduler.addJobs(JOB_GROUP, jobIDs);
+
+        verify(observer).update();
+        checkSchedulerQueue(amtJobs, 0);
+
+        scheduler.flushJobStorage();
+        assertEquals(amtJobs, jobAccess.count());
+    }
+
+    @Test
+    void addJobs_duplicateRejectedByStorage() {
+        addJob(JOB_GROUP, JOB_ID);
+        scheduler.flushJobStorage();
+
+        final JobGroup group = jobGroupAccess.findAllJobGroups().iterator().next();
+
+        assertThrows(DataIntegrityViolationException.class, () -> jobAccess.saveJob(new Job(JOB_ID, group)));
+    }
+
     @Test
     void addJob_noError() {
         addJob(JOB_GROUP, JOB_ID);
@@ -290,6 +418,24 @@ public class SchedulerTest extends SpringBootTestWithoutShell {
         }
     }
 
+    @Test
+    void removeJobs_manyJobs_deletedFromStorage() {
+        final int amtJobs = 1200;
+        final int amtRemaining = 10;
+        final List<String> jobIDs = new ArrayList<>();
+        for (int i = 0; i < amtJobs; i++) {
+            jobIDs.add(JOB_ID + i);
+        }
+        scheduler.addJobs(JOB_GROUP, jobIDs);
+
+        scheduler.removeJobs(JOB_GROUP, new HashSet<>(jobIDs.subList(amtRemaining, amtJobs)));
+        scheduler.flushJobStorage();
+
+        assertEquals(amtRemaining, jobAccess.count());
+        verify(jobAccess, never()).deleteJobs(any());
+        checkSchedulerQueue(amtRemaining, 0);
+    }
+
     @Test
     void removeJobs_invalidGroup() {
         Set<String> jobIDs = new HashSet<>();
@@ -325,6 +471,32 @@ public class SchedulerTest extends SpringBootTestWithoutShell {
         });
     }
 
+    @Test
+    void removeJobGroup_deletedFromStorage() {
+        addJob(JOB_GROUP, JOB_ID);
+        addJob(JOB_GROUP + 1, JOB_ID);
+
+        scheduler.removeJobGroup(JOB_GROUP);
+        scheduler.flushJobStorage();
+
+        assertEquals(1, jobAccess.count());
+        assertEquals(1, jobGroupAccess.count());
+        assertEquals(JOB_GROUP + 1, jobGroupAccess.findAllJobGroups().iterator().next().getTitle());
+    }
+
+    @Test
+    void removeJobGroup_addedAgain() {
+        addJob(JOB_GROUP, JOB_ID);
+
+        scheduler.removeJobGroup(JOB_GROUP);
+        addJob(JOB_GROUP, JOB_ID);
+        scheduler.flushJobStorage();
+
+        assertEquals(1, jobAccess.count());
+        assertEquals(1, jobGroupAccess.count());
+        checkSchedulerQueue(1, 0);
+    }
+
     @Test
     void removeJobGroup_noError() throws InterruptedException {
         final int amtJobs = 3;
@@ -335,6 +507,8 @@ public class SchedulerTest extends SpringBootTestWithoutShell {
         final String groupToRemove = JOB_GROUP + 0;
 
         scheduler.removeJobGroup(groupToRemove);
+        // the group is deleted from the storage asynchronously
+        scheduler.flushJobStorage();
 
         final Collection<Job> jobs = scheduler.getJobsQueue(pageable).getContent();
         final Collection<Job> prioritized = scheduler.getPrioritizedQueue(pageable).getContent();
@@ -386,6 +560,45 @@ public class SchedulerTest extends SpringBootTestWithoutShell {
         assertTrue(result);
     }
 
+    @Test
+    void givePriorityTo_storedInPlace() {
+        addJob(JOB_GROUP, JOB_ID);
+
+        final Job job = scheduler.getJobsQueue(pageable).getContent().get(0);
+
+        scheduler.givePriorityTo(JOB_GROUP, JOB_ID);
+        scheduler.flushJobStorage();
+
+        assertSame(job, scheduler.getPrioritizedQueue(pageable).getContent().get(0));
+        assertTrue(job.isPrioritized());
+        assertEquals(1, jobAccess.count());
+        assertEquals(1, jobAccess.findPrioritized().size());
+        verify(jobAccess, never()).deleteJobs(any(), any());
+    }
+
+    @Test
+    void givePriorityToAll_noError() {
+        final int amtJobs = 20;
+        final List<String> jobIDs = new ArrayList<>();
+        for (int i = 0; i < amtJobs; i++) {
+            jobIDs.add(JOB_ID + i);
+        }
+        scheduler.addJobs(JOB_GROUP, jobIDs);
+
+        final List<String> toPrioritize = new ArrayList<>(jobIDs.subList(0, amtJobs / 2));
+        toPrioritize.add(JOB_ID + "notQueued");
+
+        assertEquals(amtJobs / 2, scheduler.givePriorityToAll(JOB_GROUP, toPrioritize));
+        // already prioritized jobs are skipped
+        assertEquals(0, scheduler.givePriorityToAll(JOB_GROUP, toPrioritize));
+
+        checkSchedulerQueue(amtJobs / 2, amtJobs / 2);
+
+        scheduler.flushJobStorage();
+        assertEquals(amtJobs / 2, jobAccess.findPrioritized().size());
+        assertEquals(amtJobs / 2, jobAccess.findJobs().size());
+    }
+
     @Test
     void givePriorityTo_jobNotFound() {
         addJob(JOB_GROUP, JOB_ID);
@@ -518,6 +731,102 @@ public class SchedulerTest extends SpringBootTestWithoutShell {
         assertNull(job);
     }
 
+    @Test
+    void addJobs_givenOrderKept() {
+        final List<String> jobIDs = List.of(JOB_ID + 3, JOB_ID + 1, JOB_ID + 2);
+        scheduler.addJobs(JOB_GROUP, jobIDs);
+
+        for (final String jobID : jobIDs) {
+            assertEquals(jobID, scheduler.popJob().getJobID());
+        }
+    }
+
+    @Test
+    void popJobs_noError() {
+        addJob(JOB_GROUP, JOB_ID);
+        addJob(JOB_GROUP + 1, JOB_ID);
+        addJob(JOB_GROUP + 2, JOB_ID);
+        scheduler.givePriorityTo(JOB_GROUP + 2, JOB_ID);
+
+        final List<IJob> jobs = scheduler.popJobs(2, job -> true);
+
+        assertEquals(2, jobs.size());
+        assertEquals(JOB_GROUP + 2, jobs.get(0).getJobGroupTitle());
+        checkSchedulerQueue(1, 0);
+
+        // the popped jobs stay stored as dispatched
+        scheduler.flushJobStorage();
+        assertEquals(3, jobAccess.count());
+    }
+
+    @Test
+    void popJobs_constraintsNotSatisfied_jobsStayQueued() {
+        addJob(JOB_GROUP, JOB_ID);
+        addJob(JOB_GROUP + 1, JOB_ID);
+
+        final List<IJob> jobs = scheduler.popJobs(2, job -> job.getJobGroupTitle().equals(JOB_GROUP + 1));
+
+        assertEquals(1, jobs.size());
+        assertEquals(JOB_GROUP + 1, jobs.get(0).getJobGroupTitle());
+
+        final List<Job> queued = scheduler.getJobsQueue(pageable).getContent();
+        assertEquals(1, queued.size());
+        assertEquals(JOB_GROUP, queued.get(0).getJobGroupTitle());
+    }
+
+    @Test
+    void popJobs_hardwareClass_groupBound() {
+        final String HARDWARE_CLASS = "hardwareClass";
+        addJob(JOB_GROUP, JOB_ID);
+        addJob(JOB_GROUP, JOB_ID + 1);
+
+        final List<IJob> jobs = scheduler.popJobs(1, HARDWARE_CLASS, job -> true);
+        assertEquals(1, jobs.size());
+
+        // the group is bound to the hardware class of the first benchmarker
+        assertTrue(scheduler.popJobs(1, HARDWARE_CLASS + 1, job -> true).isEmpty());
+        assertEquals(1, scheduler.popJobs(1, HARDWARE_CLASS, job -> true).size());
+
+        // the binding is stored with the group
+        scheduler.flushJobStorage();
+        final Scheduler restoredScheduler = new Scheduler(jobAccess, jobGroupAccess);
+        restoredScheduler.loadJobsFromStorage();
+
+        assertTrue(restoredScheduler.popJobs(1, HARDWARE_CLASS + 1, job -> true).isEmpty());
+        assertEquals(1, restoredScheduler.popJobs(1, HARDWARE_CLASS, job -> true).size());
+        restoredScheduler.flushJobStorage();
+    }
+
+    @Test
+    void resetHardwareClass_otherHardwareClassAccepted() {
+        final String HARDWARE_CLASS = "hardwareClass";
+        addJob(JOB_GROUP, JOB_ID);
+        addJob(JOB_GROUP, JOB_ID + 1);
+        scheduler.popJobs(1, HARDWARE_CLASS, job -> true);
+
+        assertTrue(scheduler.resetHardwareClass(JOB_GROUP));
+
+        assertEquals(1, scheduler.popJobs(1, HARDWARE_CLASS + 1, job -> true).size());
+    }
+
+    @Test
+    void resetHardwareClass_unknownGroup() {
+        assertFalse(scheduler.resetHardwareClass(JOB_GROUP));
+        assertThrows(IllegalArgumentException.class, () -> scheduler.resetHardwareClass(" "));
+    }
+
+    @Test
+    void popJobs_emptyQueue() {
+        assertTrue(scheduler.popJobs(3, job -> true).isEmpty());
+        assertTrue(scheduler.popJobs(0, job -> true).isEmpty());
+    }
+
+    @Test
+    void popJobs_invalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> scheduler.popJobs(-1, job -> true));
+        assertThrows(NullPointerException.class, () -> scheduler.popJobs(1, null));
+    }
+
     @Test
     void returnJob_noError() {
         addJob(JOB_GROUP, JOB_ID);
@@ -561,6 +870,42 @@ public class SchedulerTest extends SpringBootTestWithoutShell {
         assertEquals(JOB_ID, job.getJobID());
     }
 
+    @Test
+    void unreserveJobs_prioritizedJob_keepsPriority() {
+        addJob(JOB_GROUP, JOB_ID);
+        scheduler.givePriorityTo(JOB_GROUP, JOB_ID);
+
+        final IJob job = scheduler.popJob();
+        scheduler.unreserveJobs(List.of(job));
+
+        checkSchedulerQueue(0, 1);
+        assertEquals(JOB_ID, scheduler.popJob().getJobID());
+    }
+
+    @Test
+    void unreserveJobs_keepsPosition() {
+        scheduler.addJobs(JOB_GROUP, List.of(JOB_ID + 0, JOB_ID + 1, JOB_ID + 2));
+
+        final List<IJob> jobs = scheduler.popJobs(2, job -> true);
+        scheduler.unreserveJobs(jobs);
+
+        checkSchedulerQueue(3, 0);
+        assertEquals(JOB_ID + 0, scheduler.popJob().getJobID());
+        assertEquals(JOB_ID + 1, scheduler.popJob().getJobID());
+        assertEquals(JOB_ID + 2, scheduler.popJob().getJobID());
+    }
+
+    @Test
+    void unreserveJobs_removedJob_notQueuedAgain() {
+        addJob(JOB_GROUP, JOB_ID);
+
+        final IJob job = scheduler.popJob();
+        scheduler.removeJobs(JOB_GROUP, Set.of(JOB_ID));
+        scheduler.unreserveJobs(List.of(job));
+
+        checkSchedulerQueue(0, 0);
+    }
+
     @Test
     void updateTimeSheet_noError() {
         final long TIME = 13;
@@ -593,6 +938,21 @@ public class SchedulerTest extends SpringBootTestWithoutShell {
         assertEquals(0, job.getGroupTimeSheet());
     }
 
+    @Test
+    void addToGroupTimeSheet_executionTimesStored() {
+        addJob(JOB_GROUP, JOB_ID);
+
+        scheduler.addToGroupTimeSheet(JOB_GROUP, 30);
+        scheduler.addToGroupTimeSheet(JOB_GROUP, 10);
+        scheduler.addToGroupTimeSheet(JOB_GROUP, 20);
+
+        final JobGroup storedGroup = jobGroupAccess.findAllJobGroups().iterator().next();
+
+        assertEquals(3, storedGroup.getExecutionTimes().size());
+        assertEquals(20, storedGroup.getExecutionTimes().getMedian());
+        assertEquals(30, storedGroup.getExecutionTimes().getPercentile(90));
+    }
+
     @Test
     void getJobsQueue_noError() throws InterruptedException {
         final int amtJobs = 3;
@@ -663,6 +1023,117 @@ public class SchedulerTest extends SpringBootTestWithoutShell {
         }
     }
 
+    @Test
+    void getJobsQueue_returnedPageNotChangedByPop() {
+        final int amtJobs = 5;
+        final List<String> jobIDs = new ArrayList<>();
+        for (int i = 0; i < amtJobs; i++) {
+            jobIDs.add(JOB_ID + i);
+        }
+        scheduler.addJobs(JOB_GROUP, jobIDs);
+
+        final List<Job> before = scheduler.getJobsQueue(pageable).getContent();
+
+        assertNotNull(scheduler.popJob());
+
+        assertEquals(amtJobs, before.size());
+        assertEquals(amtJobs - 1, scheduler.getJobsQueue(pageable).getContent().size());
+        assertEquals(amtJobs - 1, scheduler.getJobsQueue(pageable).getTotalElements());
+    }
+
+    @Test
+    void popJob_concurrentlyWithReads_everyJobPoppedOnce() throws InterruptedException {
+        final int amtGroups = 4;
+        final int amtJobsPerGroup = 50;
+        for (int i = 0; i < amtGroups; i++) {
+            final List<String> jobIDs = new ArrayList<>();
+            for (int j = 0; j < amtJobsPerGroup; j++) {
+                jobIDs.add(JOB_ID + j);
+            }
+            scheduler.addJobs(JOB_GROUP + i, jobIDs);
+        }
+
+        final Set<String> popped = Collections.synchronizedSet(new HashSet<>());
+        final List<Thread> threads = new ArrayList<>();
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+
+        for (int i = 0; i < amtGroups; i++) {
+            threads.add(new Thread(() -> {
+                IJob job;
+                while ((job = scheduler.popJob()) != null) {
+                    assertTrue(popped.add(job.getJobGroupTitle() + job.getJobID()));
+                    scheduler.getJobsQueue(PageRequest.of(0, 10));
+                }
+            }));
+        }
+
+        for (final Thread thread : threads) {
+            thread.setUncaughtExceptionHandler((t, e) -> errors.add(e));
+            thread.start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue(errors.isEmpty());
+        assertEquals(amtGroups * amtJobsPerGroup, popped.size());
+        assertEquals(0, scheduler.getJobsQueue(pageable).getTotalElements());
+    }
+
+    @Test
+    void addJobs_observerNotifiedWithoutHoldingLocks() {
+        final List<IJob> poppedByObserver = new ArrayList<>();
+
+        // the observer pops the job on another thread which blocks forever if the scheduler is still locked
+        scheduler.subscribe(() -> {
+            final Thread thread = new Thread(() -> poppedByObserver.add(scheduler.popJob()));
+            thread.start();
+            assertDoesNotThrow(() -> thread.join(5000));
+            assertFalse(thread.isAlive());
+        });
+
+        addJob(JOB_GROUP, JOB_ID);
+
+        assertEquals(1, poppedByObserver.size());
+        assertEquals(JOB_ID, poppedByObserver.get(0).getJobID());
+    }
+
+    @Test
+    void givePriorityTo_revocationListenersNotified() {
+        final IJobRevocationListener listener = mock(IJobRevocationListener.class);
+        scheduler.addRevocationListener(listener);
+
+        addJob(JOB_GROUP, JOB_ID);
+        scheduler.givePriorityTo(JOB_GROUP, JOB_ID);
+
+        verify(listener).jobsPrioritized(JOB_GROUP, List.of(JOB_ID));
+    }
+
+    @Test
+    void removeJobs_revocationListenersNotified() {
+        final IJobRevocationListener listener = mock(IJobRevocationListener.class);
+        scheduler.addRevocationListener(listener);
+
+        scheduler.addJobs(JOB_GROUP, List.of(JOB_ID, JOB_ID + 1));
+        scheduler.removeJobs(JOB_GROUP, Set.of(JOB_ID, JOB_ID + 2));
+
+        verify(listener).jobsRemoved(JOB_GROUP, Set.of(JOB_ID));
+    }
+
+    @Test
+    void removeJobGroup_revocationListenersNotified() {
+        final IJobRevocationListener listener = mock(IJobRevocationListener.class);
+        scheduler.addRevocationListener(listener);
+
+        scheduler.removeJobGroup(JOB_GROUP);
+        verify(listener, never()).jobsRemoved(any(), any());
+
+        addJob(JOB_GROUP, JOB_ID);
+        scheduler.removeJobGroup(JOB_GROUP);
+
+        verify(listener).jobsRemoved(eq(JOB_GROUP), isNull());
+    }
+
     @Test
     void subscribe_noError() {
         final IObserver observer = mock(IObserver.class);
@@ -705,32 +1176,83 @@ public class SchedulerTest extends SpringBootTestWithoutShell {
     }
 
     @Test
-    void resetJobGroupTimeSheets_noError() {
-        final String secondGroupTitle = JOB_GROUP + 1;
-        final String secondJobID = JOB_ID + 1;
+    void addToGroupTimeSheet_weightedGroupFirst() {
+        final String weightedGroupTitle = JOB_GROUP + 1;
+        final Scheduler scheduler = new Scheduler(jobAccess, jobGroupAccess, new GroupSchedulingAlgorithm(),
+                JobGroup.DEFAULT_HALF_LIFE.getSeconds(), Map.of(weightedGroupTitle, 4.0));
+
+        scheduler.addJobs(JOB_GROUP, List.of(JOB_ID + 1, JOB_ID + 2));
+        scheduler.addJobs(weightedGroupTitle, List.of(JOB_ID + 1, JOB_ID + 2));
 
+        final long time = 100;
+        scheduler.addToGroupTimeSheet(JOB_GROUP, time);
+        scheduler.addToGroupTimeSheet(weightedGroupTitle, time * 2);
+
+        // 200 / 4 < 100 / 1
+        assertEquals(weightedGroupTitle, scheduler.popJob().getJobGroupTitle());
+
+        scheduler.flushJobStorage();
+    }
+
+    @Test
+    void getMetrics_jobsCounted() {
         addJob(JOB_GROUP, JOB_ID);
-        addJob(secondGroupTitle, secondJobID);
+        addJob(JOB_GROUP, JOB_ID + 1);
+        addJob(JOB_GROUP + 1, JOB_ID);
+        scheduler.givePriorityTo(JOB_GROUP + 1, JOB_ID);
+
+        final IJob job = scheduler.popJob();
+        scheduler.returnJob(job);
+        scheduler.finishJob(scheduler.popJob());
 
-        scheduler.givePriorityTo(secondGroupTitle, secondJobID);
+        final SchedulerMetricsReport metrics = scheduler.getMetrics();
 
-        final long time = 20;
-        scheduler.addToGroupTimeSheet(JOB_GROUP, time);
-        scheduler.addToGroupTimeSheet(secondGroupTitle, time);
+        assertEquals(2, metrics.getQueueDepth().get(JOB_GROUP));
+        assertEquals(0, metrics.getQueueDepth().get(JOB_GROUP + 1));
+        assertEquals(0, metrics.getPrioritizedQueueDepth());
+        assertEquals(0, metrics.getDispatchedJobs());
 
-        scheduler.resetJobGroupTimeSheets();
+        assertEquals(3, metrics.getJobsAdded());
+        assertEquals(2, metrics.getJobsDispatched());
+        assertEquals(1, metrics.getJobsReturned());
+        assertEquals(1, metrics.getJobsFinished());
 
-        final List<Job> jobs = scheduler.getJobsQueue(pageable).getContent();
-        assertEquals(1, jobs.size());
-        for (final Job job : jobs) {
-            assertEquals(0, job.getGroupTimeSheet());
-        }
+        assertEquals(2, metrics.getWaitTimeMillis().getCount());
+        assertEquals(2, metrics.getPopLatencyNanos().getCount());
+        assertEquals(3, metrics.getAddJobsLatencyNanos().getCount());
+        assertTrue(metrics.getQueueLockHoldNanos().getCount() > 0);
+    }
 
-        final List<Job> prioritized = scheduler.getPrioritizedQueue(pageable).getContent();
-        assertEquals(1, prioritized.size());
-        for (final Job job : prioritized) {
-            assertEquals(0, job.getGroupTimeSheet());
-        }
+    @Test
+    void getJobsQueue_snapshotMaxAge_snapshotReadUntilOld() {
+        final Scheduler scheduler = new Scheduler(jobAccess, jobGroupAccess, new GroupSchedulingAlgorithm(),
+                JobGroup.DEFAULT_HALF_LIFE.getSeconds(), Map.of(), Clock.systemDefaultZone(),
+                Duration.ofHours(1).toMillis());
+
+        scheduler.addJobs(JOB_GROUP, List.of(JOB_ID + 1));
+        assertEquals(1, scheduler.getJobsQueue(pageable).getTotalElements());
+
+        scheduler.addJobs(JOB_GROUP, List.of(JOB_ID + 2));
+
+        // the queue changed, but the snapshot is not old enough to be rebuilt
+        assertEquals(1, scheduler.getJobsQueue(pageable).getTotalElements());
+        assertEquals(1, scheduler.getMetrics().getQueueDepth().get(JOB_GROUP));
+
+        scheduler.flushJobStorage();
+    }
+
+    @Test
+    void Scheduler_invalidSchedulingSettings() {
+        final GroupSchedulingAlgorithm policy = new GroupSchedulingAlgorithm();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new Scheduler(jobAccess, jobGroupAccess, policy, 0, Map.of()));
+        assertThrows(IllegalArgumentException.class,
+                () -> new Scheduler(jobAccess, jobGroupAccess, policy, 1, Map.of(JOB_GROUP, 0.0)));
+        assertThrows(NullPointerException.class,
+                () -> new Scheduler(jobAccess, jobGroupAccess, policy, 1, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> new Scheduler(jobAccess, jobGroupAccess, policy, 1, Map.of(), Clock.systemDefaultZone(), -1));
     }
 
     private void checkSchedulerQueue(final int amtJobs, final int amtPrioritizedJobs) {
@@ -0,0 +1,62 @@
+package pacr.webapp_backend.scheduler.services;
+
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ShortestExpectedJobFirstPolicyTest {
+
+    private static final double FAIRNESS_FACTOR = 2;
+
+    // a multiple of the default half-life since the epoch, so the windows of the virtual time start at powers of two
+    private static final LocalDateTime FINISHED = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+    private ShortestExpectedJobFirstPolicy policy;
+
+    private JobGroup shortJobs;
+    private JobGroup longJobs;
+
+    @BeforeEach
+    void setUp() {
+        this.policy = new ShortestExpectedJobFirstPolicy(FAIRNESS_FACTOR);
+
+        this.shortJobs = new JobGroup("shortJobs");
+        this.longJobs = new JobGroup("longJobs");
+    }
+
+    @Test
+    void compare_withinFairnessFactor_shortestFirst() {
+        shortJobs.addToTimeSheet(300, FINISHED);
+        shortJobs.addToTimeSheet(300, FINISHED);
+        longJobs.addToTimeSheet(700, FINISHED);
+
+        assertTrue(policy.compare(shortJobs, longJobs) < 0);
+        assertTrue(policy.compare(longJobs, shortJobs) > 0);
+    }
+
+    @Test
+    void compare_outsideFairnessFactor_lessTimeFirst() {
+        for (int i = 0; i < 20; i++) {
+            shortJobs.addToTimeSheet(100, FINISHED);
+        }
+        longJobs.addToTimeSheet(500, FINISHED);
+
+        assertTrue(policy.compare(longJobs, shortJobs) < 0);
+    }
+
+    @Test
+    void compare_null() {
+        assertEquals(1, policy.compare(null, shortJobs));
+        assertEquals(-1, policy.compare(shortJobs, null));
+    }
+
+    @Test
+    void new_invalidFairnessFactor() {
+        assertThrows(IllegalArgumentException.class, () -> new ShortestExpectedJobFirstPolicy(1));
+        assertThrows(IllegalArgumentException.class, () -> new ShortestExpectedJobFirstPolicy(Double.NaN));
+    }
+}
@@ -0,0 +1,55 @@
+package pacr.webapp_backend.scheduler.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WeightedFairSharePolicyTest {
+
+    private static final String JOB_GROUP1 = "jobGroup1";
+    private static final String JOB_GROUP2 = "jobGroup2";
+
+    private WeightedFairSharePolicy policy;
+
+    private JobGroup jobGroup1;
+    private JobGroup jobGroup2;
+
+    @BeforeEach
+    void setUp() {
+        this.policy = new WeightedFairSharePolicy();
+
+        this.jobGroup1 = new JobGroup(JOB_GROUP1);
+        this.jobGroup2 = new JobGroup(JOB_GROUP2);
+    }
+
+    @Test
+    void compare_expectedTimeCounts() {
+        // both groups used 1000 seconds, but the next job of the first group is expected to take longer
+        jobGroup1.addToTimeSheet(1000);
+        jobGroup2.addToTimeSheet(100);
+        for (int i = 0; i < 9; i++) {
+            jobGroup2.addToTimeSheet(100);
+        }
+
+        assertTrue(policy.compare(jobGroup2, jobGroup1) < 0);
+    }
+
+    @Test
+    void compare_weighted() {
+        jobGroup1.setWeight(3.0);
+
+        jobGroup1.addToTimeSheet(200);
+        jobGroup2.addToTimeSheet(100);
+
+        // (200 + 200) / 3 < (100 + 100) / 1
+        assertTrue(policy.compare(jobGroup1, jobGroup2) < 0);
+    }
+
+    @Test
+    void compare_null() {
+        assertEquals(1, policy.compare(null, jobGroup1));
+        assertEquals(-1, policy.compare(jobGroup1, null));
+    }
+}
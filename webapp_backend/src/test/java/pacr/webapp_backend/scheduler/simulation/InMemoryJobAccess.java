@@ -0,0 +1,145 @@
+package pacr.webapp_backend.scheduler.simulation;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import pacr.webapp_backend.scheduler.services.IJobAccess;
+import pacr.webapp_backend.scheduler.services.Job;
+import pacr.webapp_backend.scheduler.services.JobGroup;
+
+/**
+ * Keeps the stored jobs in memory. The scheduler writes to the storage from its storage writer thread, so all
+ * methods are synchronized.
+ */
+class InMemoryJobAccess implements IJobAccess {
+
+    private final Map<String, Job> jobs = new LinkedHashMap<>();
+
+    @Override
+    public synchronized Page<Job> findJobs(final Pageable pageable) {
+        return toPage(findJobs(), pageable);
+    }
+
+    @Override
+    public synchronized List<Job> findJobs() {
+        final List<Job> found = new ArrayList<>();
+
+        for (final Job job : jobs.values()) {
+            if (!job.isPrioritized()) {
+                found.add(job);
+            }
+        }
+
+        return found;
+    }
+
+    @Override
+    public synchronized Page<Job> findPrioritized(final Pageable pageable) {
+        return toPage(findPrioritized(), pageable);
+    }
+
+    @Override
+    public synchronized List<Job> findPrioritized() {
+        final List<Job> found = new ArrayList<>();
+
+        for (final Job job : jobs.values()) {
+            if (job.isPrioritized()) {
+                found.add(job);
+            }
+        }
+
+        return found;
+    }
+
+    @Override
+    public synchronized Collection<Job> findAllJobs(final String groupTitle) {
+        final List<Job> found = new ArrayList<>();
+
+        for (final Job job : jobs.values()) {
+            if (job.getJobGroupTitle().equals(groupTitle)) {
+                found.add(job);
+            }
+        }
+
+        return found;
+    }
+
+    @Override
+    public synchronized void saveJob(final Job job) {
+        jobs.put(getKey(job.getJobGroupTitle(), job.getJobID()), job);
+    }
+
+    @Override
+    public synchronized void saveJobs(final Collection<Job> jobs) {
+        for (final Job job : jobs) {
+            saveJob(job);
+        }
+    }
+
+    @Override
+    public synchronized void deleteJob(final Job job) {
+        jobs.remove(getKey(job.getJobGroupTitle(), job.getJobID()));
+    }
+
+    @Override
+    public synchronized void deleteJobs(final Collection<? extends Job> jobs) {
+        for (final Job job : jobs) {
+            deleteJob(job);
+        }
+    }
+
+    @Override
+    public synchronized int deleteJobs(final JobGroup group, final Collection<String> jobIDs) {
+        int deleted = 0;
+
+        for (final String jobID : jobIDs) {
+            if (jobs.remove(getKey(group.getTitle(), jobID)) != null) {
+                deleted++;
+            }
+        }
+
+        return deleted;
+    }
+
+    @Override
+    public synchronized int prioritizeJobs(final JobGroup group, final Collection<String> jobIDs,
+                                           final LocalDateTime prioritizedAt) {
+        // the stored jobs are the instances of the queue which were already prioritized by the scheduler
+        int updated = 0;
+
+        for (final String jobID : jobIDs) {
+            if (jobs.containsKey(getKey(group.getTitle(), jobID))) {
+                updated++;
+            }
+        }
+
+        return updated;
+    }
+
+    @Override
+    public synchronized int deleteAllJobs(final JobGroup group) {
+        final int amtJobs = jobs.size();
+
+        jobs.values().removeIf(job -> job.getJobGroupTitle().equals(group.getTitle()));
+
+        return amtJobs - jobs.size();
+    }
+
+    private static String getKey(final String groupTitle, final String jobID) {
+        return groupTitle + '\0' + jobID;
+    }
+
+    private static Page<Job> toPage(final List<Job> jobs, final Pageable pageable) {
+        final int from = (int) Math.min(pageable.getOffset(), jobs.size());
+        final int to = Math.min(from + pageable.getPageSize(), jobs.size());
+
+        return new PageImpl<>(jobs.subList(from, to), pageable, jobs.size());
+    }
+
+}
@@ -0,0 +1,31 @@
+package pacr.webapp_backend.scheduler.simulation;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import pacr.webapp_backend.scheduler.services.IJobGroupAccess;
+import pacr.webapp_backend.scheduler.services.JobGroup;
+
+/**
+ * Keeps the stored job groups in memory.
+ */
+class InMemoryJobGroupAccess implements IJobGroupAccess {
+
+    private final Map<String, JobGroup> groups = new LinkedHashMap<>();
+
+    @Override
+    public synchronized Iterable<JobGroup> findAllJobGroups() {
+        return new ArrayList<>(groups.values());
+    }
+
+    @Override
+    public synchronized void saveJobGroup(final JobGroup jobGroup) {
+        groups.put(jobGroup.getTitle(), jobGroup);
+    }
+
+    @Override
+    public synchronized void deleteGroup(final JobGroup jobGroup) {
+        groups.remove(jobGroup.getTitle());
+    }
+
+}
@@ -0,0 +1,322 @@
+package pacr.webapp_backend.scheduler.simulation;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.function.Predicate;
+import pacr.webapp_backend.benchmarker_communication.services.BenchmarkerJob;
+import pacr.webapp_backend.benchmarker_communication.services.JobHandler;
+import pacr.webapp_backend.benchmarker_communication.services.JobResult;
+import pacr.webapp_backend.scheduler.services.Scheduler;
+import pacr.webapp_backend.scheduler.services.SchedulingPolicy;
+import pacr.webapp_backend.scheduler.services.SchedulingPolicyConfiguration;
+import pacr.webapp_backend.shared.IJob;
+import pacr.webapp_backend.shared.IJobProvider;
+import pacr.webapp_backend.shared.IJobRevocationListener;
+import pacr.webapp_backend.shared.IObserver;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * Replays a trace against the real {@link Scheduler} and {@link JobHandler} in virtual time.
+ * The jobs and groups are stored in memory and the benchmarkers are virtual, so a day of benchmarking is simulated
+ * in a moment. The simulation is a discrete event simulation: the clock of the scheduler jumps from one arrival or
+ * completion of a job to the next.
+ */
+class SchedulerSimulation {
+
+    private static final Instant START = Instant.parse("2020-01-01T00:00:00Z");
+
+    private static final double DEFAULT_FAIRNESS_FACTOR = 2;
+
+    private final String policy;
+    private final long halfLife;
+    private final Map<String, Double> weights;
+    private final int amtBenchmarkers;
+
+    /**
+     * Creates a new simulation.
+     * @param policy the name of the scheduling policy as in the application properties.
+     * @param halfLife the half-life of the benchmarking time of the groups in seconds. (> 0)
+     * @param weights the weights of the groups.
+     * @param amtBenchmarkers the amount of benchmarkers. (> 0)
+     */
+    SchedulerSimulation(@NotNull final String policy, final long halfLife, @NotNull final Map<String, Double> weights,
+                        final int amtBenchmarkers) {
+        Objects.requireNonNull(policy);
+        Objects.requireNonNull(weights);
+        if (amtBenchmarkers <= 0) {
+            throw new IllegalArgumentException("There must be at least one benchmarker.");
+        }
+
+        this.policy = policy;
+        this.halfLife = halfLife;
+        this.weights = new HashMap<>(weights);
+        this.amtBenchmarkers = amtBenchmarkers;
+    }
+
+    /**
+     * Replays the whole trace until all jobs are finished.
+     * @param trace the trace.
+     * @return the report of the simulation.
+     */
+    SimulationReport run(@NotNull final Trace trace) {
+        return run(trace, Long.MAX_VALUE);
+    }
+
+    /**
+     * Replays the trace until the given time. Jobs which didn't finish until then are not part of the report.
+     * @param trace the trace.
+     * @param horizon the time in seconds since the start of the trace at which the simulation stops.
+     * @return the report of the simulation.
+     */
+    SimulationReport run(@NotNull final Trace trace, final long horizon) {
+        Objects.requireNonNull(trace);
+
+        return new Run(trace, horizon).simulate();
+    }
+
+    /**
+     * The state of a single run of the simulation.
+     */
+    private class Run {
+
+        private final Trace trace;
+        private final long horizon;
+
+        private final Queue<Event> events;
+        private long sequence;
+        private long now;
+
+        private final SimulationClock clock;
+        private final Scheduler scheduler;
+        private final JobHandler jobHandler;
+
+        private final Map<String, Trace.TraceJob> traceJobs;
+        private final SimulationReport report;
+
+        private Run(final Trace trace, final long horizon) {
+            this.trace = trace;
+            this.horizon = horizon;
+
+            this.events = new PriorityQueue<>(Comparator.comparingLong((Event event) -> event.time)
+                    .thenComparingLong(event -> event.sequence));
+
+            this.clock = new SimulationClock(START);
+
+            final SchedulingPolicy schedulingPolicy = new SchedulingPolicyConfiguration()
+                    .schedulingPolicy(policy, DEFAULT_FAIRNESS_FACTOR);
+            this.scheduler = new Scheduler(new InMemoryJobAccess(), new InMemoryJobGroupAccess(),
+                    schedulingPolicy, halfLife, weights, clock);
+
+            final VirtualBenchmarkers benchmarkers = new VirtualBenchmarkers(amtBenchmarkers, this::started);
+            this.report = new SimulationReport(trace.size(), amtBenchmarkers);
+
+            this.jobHandler = new JobHandler(benchmarkers, benchmarkers, new TimedJobProvider(scheduler, report),
+                    result -> { });
+            scheduler.subscribe(jobHandler);
+            benchmarkers.addListener(jobHandler);
+
+            this.traceJobs = new HashMap<>();
+            for (final Trace.TraceJob job : trace.getJobs()) {
+                traceJobs.put(getKey(job.getGroupTitle(), job.getJobID()), job);
+            }
+        }
+
+        private SimulationReport simulate() {
+            scheduleArrivals();
+
+            while (!events.isEmpty() && events.peek().time <= horizon) {
+                final Event event = events.poll();
+
+                now = event.time;
+                clock.advanceTo(START.plusSeconds(now));
+
+                event.action.run();
+
+                // the job handler reacts to the event on its dispatch thread before virtual time advances
+                jobHandler.flushEvents();
+            }
+
+            report.setMakespan(Math.min(now, horizon));
+
+            return report;
+        }
+
+        private void scheduleArrivals() {
+            // the commits of one push arrive together and are added to the scheduler at once
+            final List<Trace.TraceJob> jobs = trace.getJobs();
+            int first = 0;
+
+            while (first < jobs.size()) {
+                final Trace.TraceJob firstJob = jobs.get(first);
+                final List<String> jobIDs = new ArrayList<>();
+
+                int next = first;
+                while (next < jobs.size() && jobs.get(next).getArrival() == firstJob.getArrival()
+                        && jobs.get(next).getGroupTitle().equals(firstJob.getGroupTitle())) {
+                    jobIDs.add(jobs.get(next).getJobID());
+                    next++;
+                }
+
+                schedule(firstJob.getArrival(), () -> scheduler.addJobs(firstJob.getGroupTitle(), jobIDs));
+
+                first = next;
+            }
+        }
+
+        private void started(final String address, final BenchmarkerJob benchmarkerJob) {
+            final Trace.TraceJob job = traceJobs.get(getKey(benchmarkerJob.getRepository(),
+                    benchmarkerJob.getCommitHash()));
+
+            report.addStart(job.getGroupTitle(), now - job.getArrival());
+
+            schedule(now + job.getDuration(), () -> {
+                jobHandler.receiveBenchmarkingResults(address, new SimulatedJobResult(job));
+                report.addCompletion(job.getGroupTitle(), job.getDuration());
+            });
+        }
+
+        private void schedule(final long time, final Runnable action) {
+            events.add(new Event(time, sequence++, action));
+        }
+    }
+
+    private static String getKey(final String groupTitle, final String jobID) {
+        return groupTitle + '\0' + jobID;
+    }
+
+    private static class Event {
+
+        private final long time;
+        private final long sequence;
+        private final Runnable action;
+
+        private Event(final long time, final long sequence, final Runnable action) {
+            this.time = time;
+            this.sequence = sequence;
+            this.action = action;
+        }
+    }
+
+    /**
+     * The result a virtual benchmarker sends when it finished a job.
+     */
+    private static class SimulatedJobResult extends JobResult {
+
+        private final Trace.TraceJob job;
+
+        private SimulatedJobResult(final Trace.TraceJob job) {
+            this.job = job;
+        }
+
+        @Override
+        public String getRepository() {
+            return job.getGroupTitle();
+        }
+
+        @Override
+        public String getCommitHash() {
+            return job.getJobID();
+        }
+
+        @Override
+        public long getExecutionTime() {
+            return job.getDuration();
+        }
+    }
+
+    /**
+     * Measures how long it takes to take jobs from the scheduler.
+     */
+    private static class TimedJobProvider implements IJobProvider {
+
+        private final IJobProvider jobProvider;
+        private final SimulationReport report;
+
+        private TimedJobProvider(final IJobProvider jobProvider, final SimulationReport report) {
+            this.jobProvider = jobProvider;
+            this.report = report;
+        }
+
+        @Override
+        public IJob popJob() {
+            final long start = System.nanoTime();
+            final IJob job = jobProvider.popJob();
+            report.addPopLatency(System.nanoTime() - start);
+
+            return job;
+        }
+
+        @Override
+        public List<IJob> popJobs(final int amount, final Predicate<IJob> constraints) {
+            final long start = System.nanoTime();
+            final List<IJob> jobs = jobProvider.popJobs(amount, constraints);
+            report.addPopLatency(System.nanoTime() - start);
+
+            return jobs;
+        }
+
+        @Override
+        public List<IJob> popJobs(final int amount, final String hardwareClass, final Predicate<IJob> constraints) {
+            final long start = System.nanoTime();
+            final List<IJob> jobs = jobProvider.popJobs(amount, hardwareClass, constraints);
+            report.addPopLatency(System.nanoTime() - start);
+
+            return jobs;
+        }
+
+        @Override
+        public void returnJob(final IJob job) {
+            jobProvider.returnJob(job);
+        }
+
+        @Override
+        public void unreserveJobs(final Collection<? extends IJob> jobs) {
+            jobProvider.unreserveJobs(jobs);
+        }
+
+        @Override
+        public void finishJob(final IJob job) {
+            jobProvider.finishJob(job);
+        }
+
+        @Override
+        public long getExecutionTimePercentile(final String groupTitle, final int percentile) {
+            return jobProvider.getExecutionTimePercentile(groupTitle, percentile);
+        }
+
+        @Override
+        public void addToGroupTimeSheet(final String groupTitle, final long time) {
+            jobProvider.addToGroupTimeSheet(groupTitle, time);
+        }
+
+        @Override
+        public void subscribe(final IObserver observer) {
+            jobProvider.subscribe(observer);
+        }
+
+        @Override
+        public void unsubscribe(final IObserver observer) {
+            jobProvider.unsubscribe(observer);
+        }
+
+        @Override
+        public void updateAll() {
+            jobProvider.updateAll();
+        }
+
+        @Override
+        public void addRevocationListener(final IJobRevocationListener listener) {
+            jobProvider.addRevocationListener(listener);
+        }
+    }
+
+}
@@ -0,0 +1,117 @@
+package pacr.webapp_backend.scheduler.simulation;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SchedulerSimulationTest {
+
+    private static final Logger LOGGER = LogManager.getLogger(SchedulerSimulationTest.class);
+
+    private static final String FAIR_SHARE = "fair-share";
+    private static final String[] POLICIES = {FAIR_SHARE, "shortest-expected-job-first", "weighted-fair-share"};
+
+    private static final long HALF_LIFE = 86400;
+    private static final long DAY = 86400;
+    private static final long SEED = 42;
+
+    // generous, so only a regression by orders of magnitude fails the build
+    private static final long MAX_POP_LATENCY_P99 = 50_000_000;
+
+    private static final String GROUP1 = "group1";
+    private static final String GROUP2 = "group2";
+    private static final String GROUP3 = "group3";
+
+    @Test
+    void run_syntheticTrace_allPolicies() {
+        final Trace trace = Trace.synthetic(SEED, DAY,
+                new Trace.GroupLoad(GROUP1, 3600, 10, 300),
+                new Trace.GroupLoad(GROUP2, 1800, 3, 600),
+                new Trace.GroupLoad(GROUP3, 7200, 30, 120));
+
+        for (final String policy : POLICIES) {
+            final SimulationReport report = new SchedulerSimulation(policy, HALF_LIFE, Map.of(), 2).run(trace);
+
+            LOGGER.info("Simulated {}:\n{}", policy, report);
+
+            assertEquals(trace.size(), report.getAmtCompleted());
+            assertTrue(report.getUtilization() > 0 && report.getUtilization() <= 1);
+            assertTrue(report.getPopLatencyPercentile(99) < MAX_POP_LATENCY_P99);
+        }
+    }
+
+    @Test
+    void run_newGroup_notStarvedByBacklog() {
+        final long duration = 600;
+        final List<Trace.TraceJob> jobs = new ArrayList<>();
+
+        // a large backlog of the first group arrives before the second group pushes a few commits
+        for (int i = 0; i < 100; i++) {
+            jobs.add(new Trace.TraceJob(0, GROUP1, "commit" + i, duration));
+        }
+        for (int i = 0; i < 10; i++) {
+            jobs.add(new Trace.TraceJob(3600, GROUP2, "commit" + i, duration));
+        }
+
+        final SimulationReport report = new SchedulerSimulation(FAIR_SHARE, HALF_LIFE, Map.of(), 2)
+                .run(new Trace(jobs));
+
+        LOGGER.info("Simulated backlog:\n{}", report);
+
+        // the second group only waits for the running jobs of the first group to finish
+        assertTrue(report.getWaitPercentile(GROUP2, 100) <= 10 * duration / 2);
+        assertTrue(report.getWaitPercentile(GROUP1, 100) > report.getWaitPercentile(GROUP2, 100));
+    }
+
+    @Test
+    void run_weighted_shareFollowsWeights() {
+        final List<Trace.TraceJob> jobs = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            jobs.add(new Trace.TraceJob(0, GROUP1, "commit" + i, 100));
+            jobs.add(new Trace.TraceJob(0, GROUP2, "commit" + i, 100));
+        }
+
+        // both groups have jobs queued during the whole simulation
+        final SimulationReport report = new SchedulerSimulation(FAIR_SHARE, HALF_LIFE, Map.of(GROUP1, 3.0), 1)
+                .run(new Trace(jobs), 40_000);
+
+        LOGGER.info("Simulated weights:\n{}", report);
+
+        assertEquals(0.75, report.getShare(GROUP1), 0.02);
+        assertEquals(1, report.getUtilization(), 0.01);
+    }
+
+    @Test
+    void fromCsv_recordedTrace() throws IOException {
+        final String csv = "# arrival,group,job,duration\n"
+                + "10,group2,b,30\n"
+                + "\n"
+                + "0,group1,a,20\n";
+
+        final Trace trace = Trace.fromCsv(new StringReader(csv));
+
+        assertEquals(2, trace.size());
+        assertEquals("a", trace.getJobs().get(0).getJobID());
+
+        final SimulationReport report = new SchedulerSimulation(FAIR_SHARE, HALF_LIFE, Map.of(), 1).run(trace);
+
+        assertEquals(2, report.getAmtCompleted());
+        assertEquals(50, report.getMakespan());
+        assertEquals(10, report.getWaitPercentile(GROUP2, 100));
+    }
+
+    @Test
+    void fromCsv_invalidLine() {
+        assertThrows(IllegalArgumentException.class, () -> Trace.fromCsv(new StringReader("0,group1,a")));
+        assertThrows(IllegalArgumentException.class, () -> Trace.fromCsv(new StringReader("x,group1,a,1")));
+    }
+}
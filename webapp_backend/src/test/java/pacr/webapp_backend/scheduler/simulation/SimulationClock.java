@@ -0,0 +1,50 @@
+package pacr.webapp_backend.scheduler.simulation;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * A clock which only moves when the simulation advances it.
+ */
+class SimulationClock extends Clock {
+
+    private volatile Instant now;
+
+    /**
+     * Creates a new clock.
+     * @param start the time the clock starts at.
+     */
+    SimulationClock(final Instant start) {
+        this.now = start;
+    }
+
+    /**
+     * Moves the clock to the given time.
+     * @param time the time. Cannot be before the current time of the clock.
+     */
+    void advanceTo(final Instant time) {
+        if (time.isBefore(now)) {
+            throw new IllegalArgumentException("The clock cannot go backwards.");
+        }
+
+        this.now = time;
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(final ZoneId zone) {
+        throw new UnsupportedOperationException("The simulation clock only uses UTC.");
+    }
+
+    @Override
+    public Instant instant() {
+        return now;
+    }
+
+}
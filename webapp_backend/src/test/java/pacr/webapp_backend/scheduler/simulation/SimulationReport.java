@@ -0,0 +1,166 @@
+package pacr.webapp_backend.scheduler.simulation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import lombok.Getter;
+
+/**
+ * The measurements of a simulation: how long jobs waited in the queue, which share of the benchmarking time each
+ * group got, how busy the benchmarkers were and how long taking jobs from the scheduler took.
+ */
+class SimulationReport {
+
+    private static final int MAX_PERCENTILE = 100;
+    private static final double NANOS_PER_MICRO = 1000;
+
+    @Getter
+    private final int amtJobs;
+    private final int amtBenchmarkers;
+
+    @Getter
+    private int amtStarted;
+    @Getter
+    private int amtCompleted;
+
+    @Getter
+    private long makespan;
+
+    private final List<Long> waits;
+    private final Map<String, List<Long>> waitsByGroup;
+    private final Map<String, Long> busyByGroup;
+    private final List<Long> popLatencies;
+
+    /**
+     * Creates an empty report.
+     * @param amtJobs the amount of jobs in the trace.
+     * @param amtBenchmarkers the amount of benchmarkers.
+     */
+    SimulationReport(final int amtJobs, final int amtBenchmarkers) {
+        this.amtJobs = amtJobs;
+        this.amtBenchmarkers = amtBenchmarkers;
+
+        this.waits = new ArrayList<>();
+        this.waitsByGroup = new TreeMap<>();
+        this.busyByGroup = new TreeMap<>();
+        this.popLatencies = new ArrayList<>();
+    }
+
+    void addStart(final String groupTitle, final long wait) {
+        amtStarted++;
+        waits.add(wait);
+        waitsByGroup.computeIfAbsent(groupTitle, title -> new ArrayList<>()).add(wait);
+    }
+
+    void addCompletion(final String groupTitle, final long duration) {
+        amtCompleted++;
+        busyByGroup.merge(groupTitle, duration, Long::sum);
+    }
+
+    void addPopLatency(final long nanos) {
+        popLatencies.add(nanos);
+    }
+
+    void setMakespan(final long makespan) {
+        this.makespan = makespan;
+    }
+
+    /**
+     * @param percentile the percentile (between 0 and 100).
+     * @return the time in seconds the given percentile of the jobs waited in the queue before they started.
+     */
+    long getWaitPercentile(final int percentile) {
+        return getPercentile(waits, percentile);
+    }
+
+    /**
+     * @param groupTitle the title of the group.
+     * @param percentile the percentile (between 0 and 100).
+     * @return the time in seconds the given percentile of the jobs of the group waited in the queue.
+     */
+    long getWaitPercentile(final String groupTitle, final int percentile) {
+        return getPercentile(waitsByGroup.getOrDefault(groupTitle, List.of()), percentile);
+    }
+
+    /**
+     * @param groupTitle the title of the group.
+     * @return the share of the benchmarking time of all finished jobs which the group used (between 0 and 1).
+     */
+    double getShare(final String groupTitle) {
+        final long busy = getBusyTime();
+
+        if (busy == 0) {
+            return 0;
+        }
+
+        return busyByGroup.getOrDefault(groupTitle, 0L) / (double) busy;
+    }
+
+    /**
+     * @return the share of the time the benchmarkers ran jobs until the end of the simulation (between 0 and 1).
+     */
+    double getUtilization() {
+        if (makespan == 0) {
+            return 0;
+        }
+
+        return getBusyTime() / ((double) makespan * amtBenchmarkers);
+    }
+
+    /**
+     * @param percentile the percentile (between 0 and 100).
+     * @return the time in nanoseconds the given percentile of the calls took to take jobs from the scheduler.
+     */
+    long getPopLatencyPercentile(final int percentile) {
+        return getPercentile(popLatencies, percentile);
+    }
+
+    private long getBusyTime() {
+        long busy = 0;
+        for (final long time : busyByGroup.values()) {
+            busy += time;
+        }
+
+        return busy;
+    }
+
+    private static long getPercentile(final List<Long> values, final int percentile) {
+        if (percentile < 0 || percentile > MAX_PERCENTILE) {
+            throw new IllegalArgumentException("The percentile must be between 0 and 100.");
+        }
+
+        if (values.isEmpty()) {
+            return 0;
+        }
+
+        final List<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+
+        final int rank = (int) Math.ceil(percentile / (double) MAX_PERCENTILE * sorted.size());
+
+        return sorted.get(Math.max(0, rank - 1));
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder report = new StringBuilder();
+
+        report.append(String.format("jobs: %d, started: %d, completed: %d, makespan: %ds, utilization: %.2f%n",
+                amtJobs, amtStarted, amtCompleted, makespan, getUtilization()));
+        report.append(String.format("queue wait: p50 %ds, p90 %ds, p99 %ds, max %ds%n", getWaitPercentile(50),
+                getWaitPercentile(90), getWaitPercentile(99), getWaitPercentile(MAX_PERCENTILE)));
+        report.append(String.format("pop latency: p50 %.1fus, p99 %.1fus, max %.1fus%n",
+                getPopLatencyPercentile(50) / NANOS_PER_MICRO, getPopLatencyPercentile(99) / NANOS_PER_MICRO,
+                getPopLatencyPercentile(MAX_PERCENTILE) / NANOS_PER_MICRO));
+
+        for (final String groupTitle : waitsByGroup.keySet()) {
+            report.append(String.format("%s: share %.2f, queue wait p50 %ds, p99 %ds%n", groupTitle,
+                    getShare(groupTitle), getWaitPercentile(groupTitle, 50), getWaitPercentile(groupTitle, 99)));
+        }
+
+        return report.toString();
+    }
+
+}
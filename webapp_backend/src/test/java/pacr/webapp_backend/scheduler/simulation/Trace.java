@@ -0,0 +1,194 @@
+package pacr.webapp_backend.scheduler.simulation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import lombok.Getter;
+import org.springframework.util.StringUtils;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * The jobs which arrive during a simulation, ordered by their arrival time.
+ * A trace is either recorded and read from a csv file or generated from the load of each job group.
+ */
+@Getter
+class Trace {
+
+    private static final String SEPARATOR = ",";
+    private static final String COMMENT = "#";
+    private static final int AMT_COLUMNS = 4;
+
+    private final List<TraceJob> jobs;
+
+    /**
+     * Creates a new trace.
+     * @param jobs the jobs of the trace. The job ids must be unique within each group.
+     */
+    Trace(@NotNull final List<TraceJob> jobs) {
+        Objects.requireNonNull(jobs);
+
+        final List<TraceJob> sorted = new ArrayList<>(jobs);
+        sorted.sort(Comparator.comparingLong(TraceJob::getArrival));
+
+        this.jobs = Collections.unmodifiableList(sorted);
+    }
+
+    /**
+     * Reads a recorded trace. Each line contains the arrival time in seconds since the start of the trace, the group
+     * title, the job id and the execution time of the job in seconds, separated by commas. Empty lines and lines
+     * starting with # are ignored.
+     * @param reader the reader of the csv file.
+     * @return the trace.
+     * @throws IOException if the csv file could not be read.
+     * @throws IllegalArgumentException if a line is not valid.
+     */
+    static Trace fromCsv(@NotNull final Reader reader) throws IOException {
+        Objects.requireNonNull(reader);
+
+        final List<TraceJob> jobs = new ArrayList<>();
+        final BufferedReader lines = new BufferedReader(reader);
+
+        String line;
+        while ((line = lines.readLine()) != null) {
+            line = line.trim();
+
+            if (line.isEmpty() || line.startsWith(COMMENT)) {
+                continue;
+            }
+
+            final String[] columns = line.split(SEPARATOR);
+
+            if (columns.length != AMT_COLUMNS) {
+                throw new IllegalArgumentException("'" + line + "' is not a valid trace line.");
+            }
+
+            jobs.add(new TraceJob(Long.parseLong(columns[0].trim()), columns[1].trim(), columns[2].trim(),
+                    Long.parseLong(columns[3].trim())));
+        }
+
+        return new Trace(jobs);
+    }
+
+    /**
+     * Generates a trace. The pushes of each group arrive with exponentially distributed intervals and contain a
+     * uniformly distributed amount of commits. The execution time of a job varies by up to a quarter around the mean
+     * execution time of its group.
+     * @param seed the seed of the random generator, so the same trace is generated again.
+     * @param length the time in seconds during which pushes arrive.
+     * @param loads the load of each group.
+     * @return the trace.
+     */
+    static Trace synthetic(final long seed, final long length, @NotNull final GroupLoad... loads) {
+        Objects.requireNonNull(loads);
+
+        final Random random = new Random(seed);
+        final List<TraceJob> jobs = new ArrayList<>();
+
+        for (final GroupLoad load : loads) {
+            long arrival = 0;
+            int commit = 0;
+
+            while (true) {
+                arrival += Math.round(-Math.log(1 - random.nextDouble()) * load.getMeanPushInterval());
+
+                if (arrival >= length) {
+                    break;
+                }
+
+                final int amtCommits = 1 + random.nextInt(load.getMaxCommitsPerPush());
+                for (int i = 0; i < amtCommits; i++) {
+                    final double variation = 0.75 + random.nextDouble() / 2;
+                    final long duration = Math.max(1, Math.round(load.getMeanDuration() * variation));
+
+                    jobs.add(new TraceJob(arrival, load.getGroupTitle(), "commit" + commit, duration));
+                    commit++;
+                }
+            }
+        }
+
+        return new Trace(jobs);
+    }
+
+    /**
+     * @return the amount of jobs in the trace.
+     */
+    int size() {
+        return jobs.size();
+    }
+
+    /**
+     * A job of a trace.
+     */
+    @Getter
+    static class TraceJob {
+
+        private final long arrival;
+        private final String groupTitle;
+        private final String jobID;
+        private final long duration;
+
+        /**
+         * Creates a new job.
+         * @param arrival the time the job is queued in seconds since the start of the trace. (>= 0)
+         * @param groupTitle the title of the job's group. Cannot be null or empty.
+         * @param jobID the id of the job. Cannot be null or empty.
+         * @param duration the execution time of the job in seconds. (>= 0)
+         */
+        TraceJob(final long arrival, @NotNull final String groupTitle, @NotNull final String jobID,
+                 final long duration) {
+            if (arrival < 0 || duration < 0) {
+                throw new IllegalArgumentException("The arrival and the duration cannot be less than zero.");
+            }
+            if (!StringUtils.hasText(groupTitle) || !StringUtils.hasText(jobID)) {
+                throw new IllegalArgumentException("The group title and the job id cannot be null or empty.");
+            }
+
+            this.arrival = arrival;
+            this.groupTitle = groupTitle;
+            this.jobID = jobID;
+            this.duration = duration;
+        }
+    }
+
+    /**
+     * The load a group puts on the benchmarkers in a synthetic trace.
+     */
+    @Getter
+    static class GroupLoad {
+
+        private final String groupTitle;
+        private final long meanPushInterval;
+        private final int maxCommitsPerPush;
+        private final long meanDuration;
+
+        /**
+         * Creates a new load.
+         * @param groupTitle the title of the group. Cannot be null or empty.
+         * @param meanPushInterval the mean time between two pushes in seconds. (> 0)
+         * @param maxCommitsPerPush the maximum amount of commits in a push. (> 0)
+         * @param meanDuration the mean execution time of a job in seconds. (> 0)
+         */
+        GroupLoad(@NotNull final String groupTitle, final long meanPushInterval, final int maxCommitsPerPush,
+                  final long meanDuration) {
+            if (!StringUtils.hasText(groupTitle)) {
+                throw new IllegalArgumentException("The group title cannot be null or empty.");
+            }
+            if (meanPushInterval <= 0 || maxCommitsPerPush <= 0 || meanDuration <= 0) {
+                throw new IllegalArgumentException("The load must be positive.");
+            }
+
+            this.groupTitle = groupTitle;
+            this.meanPushInterval = meanPushInterval;
+            this.maxCommitsPerPush = maxCommitsPerPush;
+            this.meanDuration = meanDuration;
+        }
+    }
+
+}
@@ -0,0 +1,122 @@
+package pacr.webapp_backend.scheduler.simulation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import pacr.webapp_backend.benchmarker_communication.services.BenchmarkerJob;
+import pacr.webapp_backend.benchmarker_communication.services.IBenchmarkerPool;
+import pacr.webapp_backend.benchmarker_communication.services.IJobSender;
+import pacr.webapp_backend.benchmarker_communication.services.INewRegistrationListener;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * Benchmarkers which don't run the jobs they are sent but tell the simulation when a job started.
+ */
+class VirtualBenchmarkers implements IBenchmarkerPool, IJobSender {
+
+    private static final String ADDRESS_PREFIX = "benchmarker";
+
+    private final Set<String> freeBenchmarkers;
+    private final List<INewRegistrationListener> listeners;
+
+    private final BiConsumer<String, BenchmarkerJob> startListener;
+
+    /**
+     * Creates the given amount of free benchmarkers.
+     * @param amtBenchmarkers the amount of benchmarkers. (> 0)
+     * @param startListener is called with the address of the benchmarker and the job whenever a job is sent.
+     */
+    VirtualBenchmarkers(final int amtBenchmarkers, @NotNull final BiConsumer<String, BenchmarkerJob> startListener) {
+        if (amtBenchmarkers <= 0) {
+            throw new IllegalArgumentException("There must be at least one benchmarker.");
+        }
+
+        this.freeBenchmarkers = new LinkedHashSet<>();
+        for (int i = 0; i < amtBenchmarkers; i++) {
+            freeBenchmarkers.add(ADDRESS_PREFIX + i);
+        }
+
+        this.listeners = new ArrayList<>();
+        this.startListener = startListener;
+    }
+
+    @Override
+    public boolean sendJob(final BenchmarkerJob benchmarkerJob) {
+        startListener.accept(benchmarkerJob.getAddress(), benchmarkerJob);
+
+        return true;
+    }
+
+    @Override
+    public void acknowledgeResult(final String address, final String attemptId) {
+        // the virtual benchmarkers don't send results again
+    }
+
+    @Override
+    public boolean prefetchJob(final BenchmarkerJob benchmarkerJob) {
+        // the virtual benchmarkers don't prepare jobs
+        return false;
+    }
+
+    @Override
+    public void revokeJob(final BenchmarkerJob benchmarkerJob) {
+        // the virtual benchmarkers don't prepare jobs
+    }
+
+    @Override
+    public boolean hasFreeBenchmarkers() {
+        return !freeBenchmarkers.isEmpty();
+    }
+
+    @Override
+    public String getFreeBenchmarker() {
+        return freeBenchmarkers.isEmpty() ? null : freeBenchmarkers.iterator().next();
+    }
+
+    @Override
+    public Collection<String> getFreeBenchmarkers() {
+        return new ArrayList<>(freeBenchmarkers);
+    }
+
+    @Override
+    public String getHardwareClass(final String address) {
+        // all virtual benchmarkers are alike
+        return null;
+    }
+
+    @Override
+    public int getPrefetchWindow(final String address) {
+        return 0;
+    }
+
+    @Override
+    public String tryAcquire() {
+        final String address = getFreeBenchmarker();
+
+        if (address != null) {
+            occupyBenchmarker(address);
+        }
+
+        return address;
+    }
+
+    @Override
+    public void freeBenchmarker(final String address) {
+        freeBenchmarkers.add(address);
+    }
+
+    @Override
+    public void occupyBenchmarker(final String address) {
+        freeBenchmarkers.remove(address);
+    }
+
+    @Override
+    public void addListener(final INewRegistrationListener registrationListener) {
+        listeners.add(registrationListener);
+    }
+
+}